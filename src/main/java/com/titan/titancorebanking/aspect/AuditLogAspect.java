@@ -3,7 +3,7 @@ package com.titan.titancorebanking.aspect;
 import com.titan.titancorebanking.annotation.AuditLog;
 import com.titan.titancorebanking.enums.AuditAction;
 import com.titan.titancorebanking.enums.EmployeeRole;
-import com.titan.titancorebanking.repository.AuditLogRepository;
+import com.titan.titancorebanking.service.AuditLogWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class AuditLogAspect {
 
-    private final AuditLogRepository auditLogRepository;
+    // Buffered: the insert happens on the writer thread, not in the caller's latency
+    private final AuditLogWriter auditLogWriter;
 
     @Around("@annotation(auditLog)")
     public Object logAudit(ProceedingJoinPoint joinPoint, AuditLog auditLog) throws Throwable {
@@ -63,7 +64,7 @@ public class AuditLogAspect {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        auditLogRepository.save(logEntry);
+        auditLogWriter.submit(logEntry);
         log.info("📼 AUDIT: User [{}] performed [{}] -> Status: [{}]", username, action, status);
     }
 }
\ No newline at end of file
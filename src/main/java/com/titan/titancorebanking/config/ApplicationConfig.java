@@ -1,6 +1,9 @@
 package com.titan.titancorebanking.config;
 
+import com.titan.titancorebanking.enums.HashingLane;
 import com.titan.titancorebanking.repository.UserRepository;
+import com.titan.titancorebanking.service.CacheService;
+import com.titan.titancorebanking.service.HashingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,25 +16,32 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;import org.springframework.web.client.RestTemplate;
 
+import java.util.Optional;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UserRepository repository;
+    private final CacheService cacheService;
+    private final UserRepository userRepository;
 
     // 1. ប្រាប់ Spring ថាត្រូវរក User តាម Username ដោយរបៀបណា
+    //    Through the user-profiles cache: lock changes evict it on every node
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> repository.findByUsername(username)
+        return username -> Optional.ofNullable(cacheService.getUserProfile(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
     // 2. ភ្ជាប់ UserDetailsService ជាមួយ PasswordEncoder ដើម្បីបង្កើតជាអ្នកត្រួតពិនិត្យ
+    //    BCrypt runs on the hashing pool (LOGIN lane), not on the request thread.
+    //    Cached profiles carry no password hash, so login reads the user from the database
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(HashingService hashingService) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsService(username -> userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
+        authProvider.setPasswordEncoder(hashingService.encoderFor(HashingLane.LOGIN));
         return authProvider;
     }
 
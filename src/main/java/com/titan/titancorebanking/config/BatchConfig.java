@@ -1,6 +1,7 @@
 package com.titan.titancorebanking.config;
 
 import com.titan.titancorebanking.batch.InterestProcessor;
+import com.titan.titancorebanking.event.AccountBalanceChangedEvent;
 import com.titan.titancorebanking.model.Account;
 import com.titan.titancorebanking.repository.AccountRepository;
 import lombok.RequiredArgsConstructor;
@@ -9,10 +10,12 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.data.RepositoryItemReader;
 import org.springframework.batch.item.data.RepositoryItemWriter;
 import org.springframework.batch.item.data.builder.RepositoryItemReaderBuilder;
 import org.springframework.batch.item.data.builder.RepositoryItemWriterBuilder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.Sort;
@@ -25,6 +28,7 @@ import java.util.Map;
 public class BatchConfig {
 
     private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     // 1️⃣ READER: ទាញទិន្នន័យ Account ពី Database
     @Bean
@@ -45,12 +49,18 @@ public class BatchConfig {
     }
 
     // 3️⃣ WRITER: Save ទិន្នន័យដែលគណនារួចទៅ Database វិញ
+    // Runs in the chunk transaction: the transfer engine reloads these accounts after the chunk commits
     @Bean
-    public RepositoryItemWriter<Account> writer() {
-        return new RepositoryItemWriterBuilder<Account>()
+    public ItemWriter<Account> writer() {
+        RepositoryItemWriter<Account> save = new RepositoryItemWriterBuilder<Account>()
                 .repository(accountRepository)
                 .methodName("save")
                 .build();
+        return chunk -> {
+            save.write(chunk);
+            applicationEventPublisher.publishEvent(new AccountBalanceChangedEvent(
+                    chunk.getItems().stream().map(Account::getAccountNumber).toList()));
+        };
     }
 
     // 4️⃣ STEP: ផ្គុំ Reader + Processor + Writer
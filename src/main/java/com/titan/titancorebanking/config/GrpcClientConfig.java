@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Value; // ✅ Import ថ្
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class GrpcClientConfig {
 
@@ -22,6 +24,9 @@ public class GrpcClientConfig {
         // ប្រើតម្លៃដែលអានបាន (លែង Hardcode ហើយ)
         return ManagedChannelBuilder.forAddress(aiHost, aiPort)
                 .usePlaintext()
+                // Keeps the long-lived CheckRiskStream from being dropped by idle proxies
+                .keepAliveTime(30, TimeUnit.SECONDS)
+                .keepAliveTimeout(5, TimeUnit.SECONDS)
                 .build();
     }
 
@@ -29,4 +34,16 @@ public class GrpcClientConfig {
     public RiskEngineServiceGrpc.RiskEngineServiceBlockingStub riskStub(ManagedChannel channel) {
         return RiskEngineServiceGrpc.newBlockingStub(channel);
     }
+
+    // Non-blocking calls: transfers start the risk check before taking row locks
+    @Bean
+    public RiskEngineServiceGrpc.RiskEngineServiceFutureStub riskFutureStub(ManagedChannel channel) {
+        return RiskEngineServiceGrpc.newFutureStub(channel);
+    }
+
+    // Streaming calls (CheckRiskStream) for RiskCheckBatcher
+    @Bean
+    public RiskEngineServiceGrpc.RiskEngineServiceStub riskAsyncStub(ManagedChannel channel) {
+        return RiskEngineServiceGrpc.newStub(channel);
+    }
 }
\ No newline at end of file
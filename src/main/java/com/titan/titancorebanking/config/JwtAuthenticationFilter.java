@@ -1,6 +1,8 @@
 package com.titan.titancorebanking.config;
 
+import com.titan.titancorebanking.service.VerifiedTokenCache;
 import com.titan.titancorebanking.service.imple.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,16 +10,23 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;             // ✅ Import Logger
 import org.slf4j.LoggerFactory;      // ✅ Import LoggerFactory
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -25,6 +34,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    // Endpoints that act on the user's own record get the User itself (user-profiles cache, evicted on change)
+    @Value("${titan.auth.db-checked-paths:/api/v1/users/**}")
+    private List<String> databaseCheckedPaths = List.of("/api/v1/users/**");
 
     // ✅ បង្កើត Logger ដើម្បីប្រើប្រាស់ (ឬប្រើ @Slf4j លើ Class ក៏បាន)
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
@@ -38,7 +54,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         // ✅ 1. ការពារ៖ បើគ្មាន Header ឬមិនមែន Bearer សូមឈប់ត្រឹមនេះ
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -56,36 +71,102 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // ✅ 4. (FIXED) ដកយក Username ពី Token (ចំណុចសំខាន់បំផុតដែលបាត់ពីមុន!)
-        // បើមិនហៅបន្ទាត់នេះទេ userEmail នឹង null រហូត
+        // ✅ 4. ⚡ Fast path: a token verified before authenticates from the cache — no parsing, no DB
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedTokenCache.TokenHash hash = verifiedTokenCache.hash(jwt);
+            VerifiedTokenCache.Entry entry = verifiedTokenCache.get(hash);
+            if (entry == null) {
+                long verifiedAt = System.currentTimeMillis();
+                entry = verify(jwt);
+                if (entry == null) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                verifiedTokenCache.put(hash, entry, verifiedAt);
+            }
+
+            UserDetails principal = entry.principal();
+            if (requiresDatabaseCheck(request)) {
+                principal = loadUnlocked(principal.getUsername());
+                if (principal == null) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+            }
+
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    principal,
+                    null,
+                    principal.getAuthorities()
+            );
+            authToken.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request)
+            );
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // ✅ 5. Verify the signature and expiry once; the principal comes from the claims unless the user changed
+    // since the token was issued or the token predates the role claim. Cached principals are immutable
+    // snapshots, never the User entity.
+    private VerifiedTokenCache.Entry verify(String jwt) {
+        final Claims claims;
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            claims = jwtService.parseVerified(jwt);
         } catch (Exception e) {
-            logger.error("❌ Failed to extract username from token: {}", e.getMessage());
-            filterChain.doFilter(request, response);
-            return;
+            logger.warn("❌ Token is INVALID or EXPIRED: {}", e.getMessage());
+            return null;
+        }
+        String username = claims.getSubject();
+        if (username == null) {
+            return null;
         }
+        long expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().getTime()
+                : System.currentTimeMillis() + jwtService.getExpirationMs();
+        long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+        String role = claims.get(JwtService.ROLE_CLAIM, String.class);
 
-        // ✅ 5. ដំណើរការ Authenticate
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                // logger.info("✅ Token is VALID for user: {}", userEmail); // អាចបើក Log នេះបើចង់ឃើញ
-
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            } else {
-                logger.warn("❌ Token is INVALID or EXPIRED for user: {}", userEmail);
+        if (role != null && !verifiedTokenCache.changedSince(username, issuedAt)) {
+            return new VerifiedTokenCache.Entry(snapshot(username, List.of(new SimpleGrantedAuthority(role))), expiresAt);
+        }
+
+        UserDetails userDetails = loadUnlocked(username);
+        return userDetails != null
+                ? new VerifiedTokenCache.Entry(snapshot(username, userDetails.getAuthorities()), expiresAt)
+                : null;
+    }
+
+    private static UserDetails snapshot(String username, Collection<? extends GrantedAuthority> authorities) {
+        return org.springframework.security.core.userdetails.User.withUsername(username)
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
+
+    private UserDetails loadUnlocked(String username) {
+        UserDetails userDetails;
+        try {
+            userDetails = this.userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            logger.warn("❌ Token subject no longer exists: {}", username);
+            return null;
+        }
+        if (!userDetails.isAccountNonLocked()) {
+            logger.warn("🔒 Token rejected, account is locked: {}", username);
+            return null;
+        }
+        return userDetails;
+    }
+
+    private boolean requiresDatabaseCheck(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (String pattern : databaseCheckedPaths) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
             }
         }
-        filterChain.doFilter(request, response);
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.titan.titancorebanking.config;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -32,12 +33,29 @@ public class KafkaProducerConfig {
 
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
+        Map<String, Object> config = baseConfig();
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+
+    /**
+     * Bytes Producer Factory
+     * Values are sent as-is: the outbox relay publishes the JSON already stored in outbox_events
+     * instead of parsing it and serializing it again.
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> bytesProducerFactory() {
+        Map<String, Object> config = baseConfig();
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+
+    private Map<String, Object> baseConfig() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put("security.protocol", "PLAINTEXT");
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
         config.put(ProducerConfig.ACKS_CONFIG, "1");
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
         config.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
@@ -46,7 +64,7 @@ public class KafkaProducerConfig {
         config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
         config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
         config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 5000);
-        return new DefaultKafkaProducerFactory<>(config);
+        return config;
     }
 
     /**
@@ -57,4 +75,13 @@ public class KafkaProducerConfig {
     public KafkaTemplate<String, Object> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    /**
+     * Bytes Kafka Template Bean
+     * Used by OutboxRelayService to publish pre-serialized outbox payloads.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> bytesKafkaTemplate() {
+        return new KafkaTemplate<>(bytesProducerFactory());
+    }
 }
\ No newline at end of file
@@ -40,6 +40,8 @@ public class SecurityConfig {
                             "/swagger-resources/**",
                             "/webjars/**"
                         ).permitAll()
+                        // 🛡️ Operator endpoints (account striping, outbox monitoring): admins only
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         // Lock down everything else
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,485 @@
+package com.titan.titancorebanking.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🗄️ Backs every @Cacheable in the app with two levels: a size-bounded, TTL-evicting map on this node (L1)
+ * and Redis shared by all nodes (L2, JDK-serialized, own TTL).
+ *
+ * An evict writes a short-lived tombstone over the L2 entry and publishes the key on a Redis channel in the
+ * same round trip; every other node drops it from L1. While the tombstone lives, L2 refuses puts for that
+ * key, and L1 refuses puts from loads that started before the eviction — a load racing a change cannot
+ * re-cache the old row. Caches are transaction-aware: evicts inside a transaction run after commit.
+ *
+ * If Redis is unreachable the caches run L1-only and L2 is skipped for a few seconds; peers then keep a
+ * changed entry until their L1 TTL.
+ *
+ * Values are shared between callers and must be treated as read-only (cache detached copies, not managed
+ * entities).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    // KEYS: key · ARGV: value, TTL (ms) — an empty value is a tombstone and is never overwritten
+    private static final RedisScript<Long> PUT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == '' then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "return 1", Long.class);
+
+    // KEYS: key · ARGV: tombstone TTL (ms), channel, message
+    private static final RedisScript<Long> EVICT = new DefaultRedisScript<>(
+            "redis.call('SET', KEYS[1], '', 'PX', ARGV[1]) " +
+            "return redis.call('PUBLISH', ARGV[2], ARGV[3])", Long.class);
+
+    private static final RedisScript<String> GET = new DefaultRedisScript<>(
+            "return redis.call('GET', KEYS[1])", String.class);
+
+    // Values are binary: Latin-1 maps each byte to one char and back
+    private static final RedisSerializer<String> VALUES = new StringRedisSerializer(StandardCharsets.ISO_8859_1);
+    private static final RedisSerializer<Long> COUNT = new GenericToStringSerializer<>(Long.class);
+
+    // Only our own model classes and the JDK types they are made of are ever read back from Redis
+    private static final ObjectInputFilter CLASSES =
+            ObjectInputFilter.Config.createFilter("com.titan.titancorebanking.**;java.**;!*");
+
+    private static final String ALL_KEYS = "*";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.cache.l1.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    @Value("${titan.cache.l1.ttl-ms:60000}")
+    private long localTtlMs = 60_000;
+
+    @Value("${titan.cache.l2.enabled:true}")
+    private boolean remoteEnabled = true;
+
+    @Value("${titan.cache.l2.ttl-ms:600000}")
+    private long remoteTtlMs = 600_000;
+
+    // Longer than any load takes: a load that started before an evict must finish inside it
+    @Value("${titan.cache.tombstone-ms:5000}")
+    private long tombstoneMs = 5_000;
+
+    @Value("${titan.cache.l2.retry-after-ms:5000}")
+    private long remoteRetryAfterMs = 5_000;
+
+    @Value("${titan.cache.invalidation-channel:cache:invalidate}")
+    private String channel = "cache:invalidate";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> levels = new ConcurrentHashMap<>();
+
+    private volatile long remoteDownUntil;
+    private Counter remoteErrors;
+    private Timer invalidationLag;
+
+    @PostConstruct
+    void init() {
+        remoteErrors = Counter.builder("titan.cache.l2.errors")
+                .description("Redis cache calls that failed; L2 is skipped for a while after each")
+                .register(meterRegistry);
+        invalidationLag = Timer.builder("titan.cache.invalidation.lag")
+                .description("Time from an evict on one node to its arrival on another")
+                .register(meterRegistry);
+        setTransactionAware(true);
+        if (listenerContainer != null) {
+            try {
+                listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+            } catch (Exception e) {
+                log.warn("⚠️ Cache not subscribed to {}: {}", channel, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return List.of();
+    }
+
+    // Caches are created on first use, one per @Cacheable name
+    @Override
+    protected Cache getMissingCache(String name) {
+        return levels.computeIfAbsent(name, TwoLevelCache::new);
+    }
+
+    // 📣 "<nodeId>\n<publishedAtMs>\n<cache>\n<key>"
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 4);
+        if (parts.length < 4 || parts[0].equals(nodeId)) {
+            return;
+        }
+        try {
+            long lag = System.currentTimeMillis() - Long.parseLong(parts[1]);
+            invalidationLag.record(Math.max(lag, 0), TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException ignored) {
+            // lag unknown, the eviction still applies
+        }
+        TwoLevelCache cache = levels.get(parts[2]);
+        if (cache != null) {
+            cache.forget(parts[3], false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${titan.cache.sweep-interval-ms:30000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        levels.values().forEach(cache -> cache.sweep(now));
+    }
+
+    private boolean remoteAvailable() {
+        return remoteEnabled && System.currentTimeMillis() >= remoteDownUntil;
+    }
+
+    private void remoteFailed(String action, String key, Exception e) {
+        remoteErrors.increment();
+        remoteDownUntil = System.currentTimeMillis() + remoteRetryAfterMs;
+        log.warn("⚠️ Redis cache {} failed for {}, L1 only for {} ms: {}", action, key, remoteRetryAfterMs, e.getMessage());
+    }
+
+    /** One named cache. L1 entries carry the time their value was loaded from the database. */
+    public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+        private record Local(Object value, long loadedAtMs, long expiresAtMs) {}
+
+        private static final int EVICTION_SAMPLE = 16;
+
+        private final String name;
+        private final Map<Object, Local> local = new ConcurrentHashMap<>();
+        private final Map<Object, Long> invalidatedAt = new ConcurrentHashMap<>();
+        // Set by a miss, read by the put that follows it on the same thread (how @Cacheable calls us)
+        private final ThreadLocal<Map<Object, Long>> missedAt = ThreadLocal.withInitial(HashMap::new);
+
+        private final Counter localHits;
+        private final Counter remoteHits;
+        private final Counter misses;
+        private final Counter skippedPuts;
+        private final Counter localInvalidations;
+        private final Counter peerInvalidations;
+        private final Timer localAge;
+        private final Timer remoteAge;
+
+        TwoLevelCache(String name) {
+            super(false);
+            this.name = name;
+            localHits = gets("l1_hit");
+            remoteHits = gets("l2_hit");
+            misses = gets("miss");
+            skippedPuts = Counter.builder("titan.cache.puts.skipped").tag("cache", name)
+                    .description("Loads not cached because the key was evicted while they ran").register(meterRegistry);
+            localInvalidations = invalidations("local");
+            peerInvalidations = invalidations("peer");
+            localAge = age("l1");
+            remoteAge = age("l2");
+            Gauge.builder("titan.cache.hit.ratio", this, TwoLevelCache::hitRatio).tag("cache", name)
+                    .register(meterRegistry);
+            Gauge.builder("titan.cache.l1.size", local, Map::size).tag("cache", name).register(meterRegistry);
+        }
+
+        private Counter gets(String result) {
+            return Counter.builder("titan.cache.gets").tag("cache", name).tag("result", result).register(meterRegistry);
+        }
+
+        private Counter invalidations(String source) {
+            return Counter.builder("titan.cache.invalidations").tag("cache", name).tag("source", source)
+                    .register(meterRegistry);
+        }
+
+        // Staleness: how long ago the value served was read from the database
+        private Timer age(String level) {
+            return Timer.builder("titan.cache.age").tag("cache", name).tag("level", level)
+                    .description("Age of cached values when served").register(meterRegistry);
+        }
+
+        double hitRatio() {
+            double hits = localHits.count() + remoteHits.count();
+            double total = hits + misses.count();
+            return total == 0 ? 0 : hits / total;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return local;
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            key = keyOf(key);
+            long now = System.currentTimeMillis();
+            Local entry = local.get(key);
+            if (entry != null) {
+                if (entry.expiresAtMs() > now) {
+                    localHits.increment();
+                    localAge.record(now - entry.loadedAtMs(), TimeUnit.MILLISECONDS);
+                    return entry.value();
+                }
+                local.remove(key, entry);
+            }
+            Local remote = readRemote(key, now);
+            if (remote != null) {
+                remoteHits.increment();
+                remoteAge.record(Math.max(now - remote.loadedAtMs(), 0), TimeUnit.MILLISECONDS);
+                if (!invalidatedSince(key, now)) {
+                    putLocal(key, remote.value(), remote.loadedAtMs(), now);
+                }
+                return remote.value();
+            }
+            misses.increment();
+            Map<Object, Long> missed = missedAt.get();
+            if (missed.size() > 64) {
+                missed.clear();
+            }
+            missed.put(key, now);
+            return null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper cached = get(key);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                missedAt.get().remove(keyOf(key));
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (value != null) {
+                put(key, value);
+            }
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            if (value == null) {
+                return;
+            }
+            key = keyOf(key);
+            long now = System.currentTimeMillis();
+            Long missed = missedAt.get().remove(key);
+            long loadedAt = missed != null ? missed : now;
+            if (invalidatedSince(key, loadedAt)) {
+                skippedPuts.increment();
+                return;
+            }
+            putLocal(key, value, loadedAt, now);
+            writeRemote(key, value, loadedAt);
+        }
+
+        @Override
+        public void evict(Object key) {
+            forget(key, true);
+        }
+
+        @Override
+        public void clear() {
+            forget(ALL_KEYS, true);
+        }
+
+        void forget(Object key, boolean announce) {
+            key = keyOf(key);
+            long now = System.currentTimeMillis();
+            if (ALL_KEYS.equals(key)) {
+                local.clear();
+                // Everything loaded before now is suspect
+                invalidatedAt.put(ALL_KEYS, now);
+            } else {
+                invalidatedAt.merge(key, now, Math::max);
+                local.remove(key);
+            }
+            (announce ? localInvalidations : peerInvalidations).increment();
+            if (announce) {
+                tombstone(key, now);
+            }
+        }
+
+        private boolean invalidatedSince(Object key, long sinceMs) {
+            Long keyChanged = invalidatedAt.get(key);
+            Long allChanged = invalidatedAt.get(ALL_KEYS);
+            return (keyChanged != null && keyChanged >= sinceMs) || (allChanged != null && allChanged >= sinceMs);
+        }
+
+        private void putLocal(Object key, Object value, long loadedAtMs, long now) {
+            if (local.size() >= maxEntries && !local.containsKey(key)) {
+                evictOne(now);
+            }
+            local.put(key, new Local(value, loadedAtMs, now + localTtlMs));
+        }
+
+        // Sampled eviction: expired entries first, otherwise the oldest of a small sample
+        private void evictOne(long now) {
+            Object oldestKey = null;
+            long oldest = Long.MAX_VALUE;
+            Iterator<Map.Entry<Object, Local>> it = local.entrySet().iterator();
+            for (int i = 0; i < EVICTION_SAMPLE && it.hasNext(); i++) {
+                Map.Entry<Object, Local> candidate = it.next();
+                if (candidate.getValue().expiresAtMs() <= now) {
+                    it.remove();
+                    return;
+                }
+                if (candidate.getValue().loadedAtMs() < oldest) {
+                    oldest = candidate.getValue().loadedAtMs();
+                    oldestKey = candidate.getKey();
+                }
+            }
+            if (oldestKey != null) {
+                local.remove(oldestKey);
+            }
+        }
+
+        void sweep(long now) {
+            local.values().removeIf(entry -> entry.expiresAtMs() <= now);
+            invalidatedAt.values().removeIf(changed -> changed + tombstoneMs < now);
+        }
+
+        private String remoteKey(Object key) {
+            return "cache:" + name + ":" + key;
+        }
+
+        private Local readRemote(Object key, long now) {
+            if (!remoteAvailable()) {
+                return null;
+            }
+            String stored;
+            try {
+                stored = redisTemplate.execute(GET, VALUES, VALUES, List.of(remoteKey(key)));
+            } catch (Exception e) {
+                remoteFailed("read", remoteKey(key), e);
+                return null;
+            }
+            if (stored == null || stored.isEmpty()) {
+                return null;
+            }
+            try {
+                return decode(stored.getBytes(StandardCharsets.ISO_8859_1), now);
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                log.warn("⚠️ Unreadable cache entry {}, reloading: {}", remoteKey(key), e.getMessage());
+                return null;
+            }
+        }
+
+        private void writeRemote(Object key, Object value, long loadedAtMs) {
+            if (!remoteAvailable()) {
+                return;
+            }
+            byte[] bytes;
+            try {
+                bytes = encode(value, loadedAtMs);
+            } catch (IOException e) {
+                log.warn("⚠️ {} value for {} is not serializable, kept in L1 only: {}", name, key, e.getMessage());
+                return;
+            }
+            try {
+                redisTemplate.execute(PUT, VALUES, COUNT, List.of(remoteKey(key)),
+                        new String(bytes, StandardCharsets.ISO_8859_1), String.valueOf(remoteTtlMs));
+            } catch (Exception e) {
+                remoteFailed("write", remoteKey(key), e);
+            }
+        }
+
+        // Not skipped while Redis looks down: peers must hear about a change as soon as it is back
+        private void tombstone(Object key, long now) {
+            String message = nodeId + "\n" + now + "\n" + name + "\n" + key;
+            try {
+                if (ALL_KEYS.equals(key)) {
+                    // Rare (admin/tests): drop the whole namespace, then tell the peers
+                    Set<String> keys = redisTemplate.keys(remoteKey(ALL_KEYS));
+                    if (keys != null && !keys.isEmpty()) {
+                        redisTemplate.delete(keys);
+                    }
+                    redisTemplate.convertAndSend(channel, message);
+                } else {
+                    redisTemplate.execute(EVICT, VALUES, COUNT, List.of(remoteKey(key)),
+                            String.valueOf(tombstoneMs), channel, message);
+                }
+            } catch (Exception e) {
+                remoteFailed("evict", remoteKey(key), e);
+            }
+        }
+    }
+
+    // Keys travel between nodes as text, so they are compared as text everywhere
+    private static String keyOf(Object key) {
+        return String.valueOf(key);
+    }
+
+    // Stored form: 8-byte load time, then the JDK-serialized value
+    static byte[] encode(Object value, long loadedAtMs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(loadedAtMs);
+            try (ObjectOutputStream objects = new ObjectOutputStream(out)) {
+                objects.writeObject(value);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private TwoLevelCache.Local decode(byte[] bytes, long now) throws IOException, ClassNotFoundException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            long loadedAt = in.readLong();
+            try (ObjectInputStream objects = new ConfigurableObjectInputStream(in, getClass().getClassLoader())) {
+                objects.setObjectInputFilter(CLASSES);
+                return new TwoLevelCache.Local(objects.readObject(), loadedAt, now + localTtlMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.titan.titancorebanking.controller;
+
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.repository.AccountRepository;
+import com.titan.titancorebanking.service.StripedBalanceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/accounts/{accountNumber}/striping")
+@RequiredArgsConstructor
+public class AccountStripingController {
+
+    private final StripedBalanceService stripedBalanceService;
+    private final AccountRepository accountRepository;
+
+    @GetMapping
+    public Map<String, Object> getStriping(@PathVariable String accountNumber) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new RuntimeException("Account not found: " + accountNumber));
+        return toStatus(account);
+    }
+
+    @PostMapping
+    public Map<String, Object> enableStriping(@PathVariable String accountNumber,
+                                              @RequestParam(defaultValue = "8") int stripes) {
+        return toStatus(stripedBalanceService.enableStriping(accountNumber, stripes));
+    }
+
+    @DeleteMapping
+    public Map<String, Object> disableStriping(@PathVariable String accountNumber) {
+        return toStatus(stripedBalanceService.disableStriping(accountNumber));
+    }
+
+    private Map<String, Object> toStatus(Account account) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("accountNumber", account.getAccountNumber());
+        status.put("stripes", account.getBalanceStripes());
+        status.put("settledBalance", account.getBalance());
+        status.put("effectiveBalance", stripedBalanceService.effectiveBalance(account));
+        return status;
+    }
+}
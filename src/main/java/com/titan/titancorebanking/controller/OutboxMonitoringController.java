@@ -1,13 +1,12 @@
 package com.titan.titancorebanking.controller;
 
-import com.titan.titancorebanking.repository.OutboxRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,9 +16,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class OutboxMonitoringController {
     
-    private final OutboxRepository outboxRepository;
     private final JdbcTemplate jdbcTemplate;
-    private final StringRedisTemplate redisTemplate;
     
     @GetMapping("/status")
     public Map<String, Object> getOutboxStatus() {
@@ -29,7 +26,12 @@ public class OutboxMonitoringController {
         Long published = jdbcTemplate.queryForObject(
             "SELECT COUNT(*) FROM outbox_events WHERE published = TRUE", Long.class);
         
-        Long failed = outboxRepository.countFailedEvents(5);
+        // Exhausted events are moved out of outbox_events by the relay
+        Long failed = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_dead_letters", Long.class);
+
+        // Failed at least once and waiting for their backoff to pass
+        Long retrying = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_events WHERE published = FALSE AND retry_count > 0", Long.class);
         
         Instant oldest = jdbcTemplate.queryForObject(
             "SELECT MIN(created_at) FROM outbox_events WHERE published = FALSE", Instant.class);
@@ -38,16 +40,19 @@ public class OutboxMonitoringController {
             "SELECT AVG(EXTRACT(EPOCH FROM (published_at - created_at))) FROM outbox_events WHERE published = TRUE AND published_at > NOW() - INTERVAL '1 hour'", 
             Double.class);
         
-        // Check if relay is locked (another instance processing)
-        Boolean isLocked = redisTemplate.hasKey("outbox:relay:lock");
+        // Rows some relay worker has claimed and is publishing right now
+        Long leased = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_events WHERE published = FALSE AND locked_until > ?", Long.class,
+            Timestamp.from(Instant.now()));
         
         Map<String, Object> status = new HashMap<>();
         status.put("pendingEvents", pending);
         status.put("publishedEvents", published);
         status.put("failedEvents", failed);
+        status.put("retryingEvents", retrying);
         status.put("oldestPendingEvent", oldest);
         status.put("avgPublishTimeSeconds", avgTime != null ? avgTime : 0.0);
-        status.put("relayLocked", isLocked);
+        status.put("leasedEvents", leased);
         status.put("timestamp", Instant.now());
         
         return status;
@@ -1,11 +1,14 @@
 package com.titan.titancorebanking.controller;
 
+import com.titan.titancorebanking.dto.request.BulkTransferRequest;
 import com.titan.titancorebanking.dto.request.TransactionRequest;
+import com.titan.titancorebanking.dto.response.BulkTransferResponse;
 import com.titan.titancorebanking.dto.response.TransactionResponse;
 import com.titan.titancorebanking.model.Transaction;
 import com.titan.titancorebanking.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -51,6 +54,25 @@ public class TransactionController {
         return ResponseEntity.status(503).build();
     }
 
+    // ==================================================================================
+    // 📦 1b. BULK TRANSFER ENDPOINT
+    // ==================================================================================
+    @PostMapping("/transfer/batch")
+    @Operation(summary = "Execute Bulk Transfer", description = "Payroll / payouts: one source account, many receivers, per-item results.")
+    @io.github.resilience4j.bulkhead.annotation.Bulkhead(name = "critical", fallbackMethod = "transferBatchFallback")
+    public ResponseEntity<BulkTransferResponse> transferBatch(
+            @Valid @RequestBody BulkTransferRequest request,
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        log.info("📦 Bulk Transfer Request: {} -> {} receivers", request.fromAccountNumber(), request.items().size());
+        return ResponseEntity.ok(transactionService.transferBatch(request, userDetails.getUsername()));
+    }
+
+    public ResponseEntity<BulkTransferResponse> transferBatchFallback(BulkTransferRequest request, UserDetails userDetails, Exception e) {
+        log.error("⚠️ Bulk transfer rejected - system at capacity", e);
+        return ResponseEntity.status(503).build();
+    }
+
     // ==================================================================================
     // 🏧 2. WITHDRAW ENDPOINT
     // ==================================================================================
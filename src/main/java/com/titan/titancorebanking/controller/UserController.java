@@ -7,6 +7,8 @@ import com.titan.titancorebanking.model.User;
 import com.titan.titancorebanking.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -41,4 +43,12 @@ public class UserController {
         User user = userService.updateUserTier(id, newTier);
         return ResponseEntity.ok(Map.of("message", "User tier updated", "tier", user.getTier()));
     }
-}
\ No newline at end of file
+
+    @AuditLog(action = "PIN_CHANGE")
+    @PutMapping("/me/pin")
+    public ResponseEntity<?> changePin(@RequestBody Map<String, String> payload,
+                                       @AuthenticationPrincipal UserDetails userDetails) {
+        userService.changePin(userDetails.getUsername(), payload.get("currentPin"), payload.get("newPin"));
+        return ResponseEntity.ok(Map.of("message", "PIN updated"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.titan.titancorebanking.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * ✅ Bulk transfer (payroll / merchant payouts): one source account, many receivers.
+ * Ownership, PIN and OTP are checked once for the whole batch.
+ */
+public record BulkTransferRequest(
+    @NotBlank(message = "From account number is required")
+    @Pattern(regexp = "^[0-9]{10,16}$", message = "Invalid account number format")
+    String fromAccountNumber,
+
+    @NotBlank(message = "PIN is required")
+    @Size(min = 4, max = 6, message = "PIN must be 4-6 digits")
+    @Pattern(regexp = "^[0-9]+$", message = "PIN must contain only digits")
+    String pin,
+
+    String otpCode,
+    String idempotencyKey,
+
+    @NotEmpty(message = "At least one transfer item is required")
+    List<@Valid Item> items
+) {
+
+    public record Item(
+        @NotBlank(message = "To account number is required")
+        @Pattern(regexp = "^[0-9]{10,16}$", message = "Invalid account number format")
+        String toAccountNumber,
+
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+        @DecimalMax(value = "1000000.00", message = "Amount exceeds maximum limit")
+        @Digits(integer = 10, fraction = 2, message = "Invalid amount format")
+        BigDecimal amount,
+
+        @Size(max = 255, message = "Note cannot exceed 255 characters")
+        String note
+    ) {}
+}
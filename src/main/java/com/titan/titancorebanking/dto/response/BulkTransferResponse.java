@@ -0,0 +1,26 @@
+package com.titan.titancorebanking.dto.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * ✅ Per-item results of a bulk transfer. Failed items do not roll back the successful ones.
+ */
+public record BulkTransferResponse(
+    String batchReference,
+    int total,
+    int succeeded,
+    int failed,
+    List<ItemResult> results
+) {
+
+    public record ItemResult(
+        int index,
+        String toAccountNumber,
+        BigDecimal amount,
+        String status,
+        Long transactionId,
+        String referenceNumber,
+        String error
+    ) {}
+}
@@ -0,0 +1,57 @@
+package com.titan.titancorebanking.engine;
+
+import com.titan.titancorebanking.model.Account;
+
+import java.math.BigDecimal;
+
+/**
+ * Authoritative in-memory balance of one account. Written only by the owning partition thread;
+ * the volatile field lets balance reads from other threads see the latest value.
+ */
+final class AccountState {
+
+    private final Account account;
+    private volatile BigDecimal balance;
+
+    // Cross-partition debits reserved here whose leg 2 has not committed or refunded yet
+    private int inFlight;
+    // An external write committed while legs were in flight: reload once they have settled
+    private boolean stale;
+
+    AccountState(Account account, BigDecimal balance) {
+        this.account = account;
+        this.balance = balance;
+    }
+
+    Account account() {
+        return account;
+    }
+
+    BigDecimal balance() {
+        return balance;
+    }
+
+    void apply(BigDecimal delta) {
+        balance = balance.add(delta);
+    }
+
+    int inFlight() {
+        return inFlight;
+    }
+
+    void legStarted() {
+        inFlight++;
+    }
+
+    void legSettled() {
+        inFlight--;
+    }
+
+    boolean stale() {
+        return stale;
+    }
+
+    void markStale() {
+        stale = true;
+    }
+}
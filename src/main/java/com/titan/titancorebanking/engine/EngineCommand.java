@@ -0,0 +1,49 @@
+package com.titan.titancorebanking.engine;
+
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+/**
+ * Messages consumed by an {@link EnginePartition}.
+ *
+ * Transfer / Withdraw / Deposit come from request threads and hold a slot of the partition's
+ * bounded queue. Credit / Refund / Settled are partition-to-partition legs of a cross-partition transfer
+ * and bypass the bound, so two partitions can never block on each other.
+ */
+sealed interface EngineCommand {
+
+    /** Leg 1 — runs on the sender's partition. */
+    record Transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, BigDecimal targetAmount,
+                    UnaryOperator<BigDecimal> feeForBalance, String note, String idempotencyKey, String username,
+                    CompletableFuture<Transaction> result) implements EngineCommand {}
+
+    /** Leg 2 — runs on the receiver's partition once the sender has been debited. */
+    record Credit(Transfer transfer, Account fromAccount, BigDecimal totalDebited) implements EngineCommand {}
+
+    /** Compensation — gives a reserved debit back when leg 2 fails or its commit is rolled back. */
+    record Refund(String accountNumber, BigDecimal amount) implements EngineCommand {}
+
+    /** Leg 2 committed — the sender's reservation is now in the journal, so a reload sees it. */
+    record Settled(String accountNumber) implements EngineCommand {}
+
+    record Withdraw(String accountNumber, BigDecimal amount, String idempotencyKey,
+                    CompletableFuture<Transaction> result) implements EngineCommand {}
+
+    record Deposit(String accountNumber, BigDecimal amount, String idempotencyKey,
+                   CompletableFuture<Transaction> result) implements EngineCommand {}
+
+    /**
+     * Drop the in-memory state after an external write; the next command reloads it from the database.
+     * Commits the commands drained before it first, and is deferred while a cross-partition debit of the
+     * account is in flight (its reservation is not in the database yet).
+     */
+    record Evict(String accountNumber) implements EngineCommand {}
+
+    default boolean external() {
+        return this instanceof Transfer || this instanceof Withdraw || this instanceof Deposit;
+    }
+}
@@ -0,0 +1,102 @@
+package com.titan.titancorebanking.engine;
+
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.LedgerEntry;
+import com.titan.titancorebanking.model.OutboxEvent;
+import com.titan.titancorebanking.model.Transaction;
+import com.titan.titancorebanking.repository.AccountBalanceJdbcRepository;
+import com.titan.titancorebanking.repository.AccountRepository;
+import com.titan.titancorebanking.repository.BulkTransferJdbcRepository;
+import com.titan.titancorebanking.repository.LedgerRepository;
+import com.titan.titancorebanking.service.EventPublisherService;
+import com.titan.titancorebanking.service.StripedBalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistence side of the transfer engine: one group commit per partition batch, and the
+ * recovery read that rebuilds an account's balance from accounts.balance + pending ledger deltas.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EngineJournal {
+
+    private final BulkTransferJdbcRepository bulkTransferJdbcRepository;
+    private final AccountBalanceJdbcRepository accountBalanceJdbcRepository;
+    private final AccountRepository accountRepository;
+    private final LedgerRepository ledgerRepository;
+    private final StripedBalanceService stripedBalanceService;
+    private final EventPublisherService eventPublisherService;
+    private final EngineLease engineLease;
+
+    /**
+     * Group commit: Transaction, ledger and outbox rows of the whole batch in JDBC batches,
+     * direct balance deltas summed per account. All or nothing, and only while this node holds the lease.
+     */
+    @Transactional
+    public void persist(List<JournalEntry> entries) {
+        engineLease.fence();
+        List<Long> ids = bulkTransferJdbcRepository.allocateTransactionIds(entries.size());
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        List<LedgerEntry> ledgerEntries = new ArrayList<>();
+        Map<Long, BigDecimal> balanceDeltas = new HashMap<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            JournalEntry entry = entries.get(i);
+            Transaction tx = entry.transaction();
+            tx.setId(ids.get(i));
+            transactions.add(tx);
+            for (LedgerEntry ledgerEntry : entry.ledgerEntries()) {
+                ledgerEntry.setTransactionId(tx.getId());
+                ledgerEntries.add(ledgerEntry);
+            }
+            entry.balanceDeltas().forEach((accountId, delta) -> balanceDeltas.merge(accountId, delta, BigDecimal::add));
+        }
+
+        List<OutboxEvent> outboxEvents = new ArrayList<>(transactions.size());
+        for (Transaction tx : transactions) {
+            try {
+                outboxEvents.add(eventPublisherService.toOutboxEvent(tx));
+            } catch (Exception e) {
+                // ⚠️ Outbox failure must not roll back committed money movement
+                log.error("❌ Failed to build outbox event: TX ID: {} — {}", tx.getId(), e.getMessage());
+            }
+        }
+
+        bulkTransferJdbcRepository.insertTransactions(transactions);
+        bulkTransferJdbcRepository.insertLedgerEntries(ledgerEntries);
+        accountBalanceJdbcRepository.applyDeltas(balanceDeltas);
+        bulkTransferJdbcRepository.insertOutboxEvents(outboxEvents);
+    }
+
+    /**
+     * Crash recovery / first touch: settled balance (+ hot-account stripes) + every ledger delta
+     * the checkpoint has not folded yet. The three reads share one snapshot: under READ COMMITTED a
+     * checkpoint or stripe consolidation committing between them would count a delta twice or not at all.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Optional<AccountState> recover(String accountNumber) {
+        return accountRepository.findWithUserByAccountNumber(accountNumber).map(account -> {
+            BigDecimal balance = stripedBalanceService.effectiveBalance(account)
+                    .add(ledgerRepository.sumPendingBalanceDelta(account.getId()));
+            return new AccountState(account, balance);
+        });
+    }
+
+
+    @Transactional(readOnly = true)
+    public long pendingCheckpointRows() {
+        return ledgerRepository.countPendingCheckpoint();
+    }
+}
@@ -0,0 +1,126 @@
+package com.titan.titancorebanking.engine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 🔐 Cluster lease of the transfer engine: a Postgres session advisory lock held on one dedicated
+ * connection outside the pool. Only the instance holding it may run PARTITIONED mode, so there is a
+ * single writer of engine balances across the cluster.
+ *
+ * The lock lives as long as the holding session. Every group commit calls {@link #fence()} in its own
+ * transaction, which fails once that session is gone — a node that lost the lease cannot commit even
+ * before it notices.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EngineLease {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.datasource.url:}")
+    private String url = "";
+
+    @Value("${spring.datasource.username:}")
+    private String username = "";
+
+    @Value("${spring.datasource.password:}")
+    private String password = "";
+
+    @Value("${titan.engine.lease-key:7461746101}")
+    private long leaseKey = 7461746101L;
+
+    private Connection connection;
+    private volatile int holderPid;
+
+    /**
+     * @return true if this instance holds the lease (now or already)
+     */
+    public synchronized boolean tryAcquire() {
+        if (isHeld()) {
+            return true;
+        }
+        release();
+        if (!url.startsWith("jdbc:postgresql:")) {
+            log.error("⛔ Transfer engine lease needs PostgreSQL advisory locks, datasource is {}", url);
+            return false;
+        }
+        try {
+            Connection conn = DriverManager.getConnection(url, username, password);
+            try (PreparedStatement lock = conn.prepareStatement("SELECT pg_try_advisory_lock(?), pg_backend_pid()")) {
+                lock.setLong(1, leaseKey);
+                try (ResultSet rs = lock.executeQuery()) {
+                    rs.next();
+                    if (!rs.getBoolean(1)) {
+                        conn.close();
+                        return false;
+                    }
+                    holderPid = rs.getInt(2);
+                }
+            }
+            connection = conn;
+            log.info("🔐 Transfer engine lease {} acquired (backend pid {})", leaseKey, holderPid);
+            return true;
+        } catch (SQLException e) {
+            log.error("❌ Transfer engine lease could not be acquired: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Cheap liveness check of the holding connection.
+     */
+    public synchronized boolean isHeld() {
+        if (connection == null) {
+            return false;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+            return true;
+        } catch (SQLException e) {
+            log.error("⛔ Transfer engine lease connection lost: {}", e.getMessage());
+            release();
+            return false;
+        }
+    }
+
+    /**
+     * Run inside the group-commit transaction: fails unless the holding session still owns the lock.
+     */
+    public void fence() {
+        Boolean held = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_locks WHERE locktype = 'advisory' AND granted AND pid = ? " +
+                "AND classid::bigint = ? AND objid::bigint = ? AND objsubid = 1)",
+                Boolean.class, holderPid, leaseKey >>> 32, leaseKey & 0xFFFFFFFFL);
+        if (!Boolean.TRUE.equals(held)) {
+            throw new IllegalStateException("⛔ Transfer engine lease lost, refusing to commit");
+        }
+    }
+
+    @PreDestroy
+    public synchronized void release() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            // Closing the session releases the advisory lock
+            connection.close();
+        } catch (SQLException ignored) {
+            // already gone
+        }
+        connection = null;
+        holderPid = 0;
+    }
+}
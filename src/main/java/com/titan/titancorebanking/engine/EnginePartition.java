@@ -0,0 +1,398 @@
+package com.titan.titancorebanking.engine;
+
+import com.titan.titancorebanking.enums.AccountStatus;
+import com.titan.titancorebanking.enums.TransactionStatus;
+import com.titan.titancorebanking.enums.TransactionType;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.LedgerEntry;
+import com.titan.titancorebanking.model.Transaction;
+import com.titan.titancorebanking.service.DoubleEntryService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One single-writer partition: owns the balances of the accounts hashed to it, applies commands
+ * without locks and persists them in group commits.
+ *
+ * Loop: take one command, drain up to maxBatch more, apply them in order, commit the batch in one
+ * DB transaction, then publish results. While a commit runs, new commands pile up in the queue and
+ * the next drain picks them up together — that is the group commit.
+ *
+ * Debits are applied (reserved) as soon as they pass the funds check; credits become visible only
+ * after their commit, so nothing can spend money that might still be rolled back.
+ */
+@Slf4j
+final class EnginePartition implements Runnable {
+
+    private final int index;
+    private final PartitionedTransferEngine engine;
+    private final EngineJournal journal;
+    private final DoubleEntryService doubleEntryService;
+    private final int maxBatch;
+
+    // Bounded for request threads (permits), unbounded for partition-to-partition legs
+    private final BlockingQueue<EngineCommand> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+
+    final Map<String, AccountState> accounts = new ConcurrentHashMap<>();
+
+    // Journaled, not yet committed; reachable from run() so a failed batch can roll them back
+    private final List<Pending> pending = new ArrayList<>();
+    // Index of the batch command being applied
+    private int processed;
+
+    private volatile boolean running = true;
+    private long referenceSeq;
+
+    EnginePartition(int index, PartitionedTransferEngine engine, EngineJournal journal,
+                    DoubleEntryService doubleEntryService, int capacity, int maxBatch) {
+        this.index = index;
+        this.engine = engine;
+        this.journal = journal;
+        this.doubleEntryService = doubleEntryService;
+        this.capacity = new Semaphore(capacity);
+        this.maxBatch = maxBatch;
+    }
+
+    boolean offer(EngineCommand command, long timeoutMs) throws InterruptedException {
+        if (!capacity.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        queue.add(command);
+        return true;
+    }
+
+    void send(EngineCommand command) {
+        queue.add(command);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    int backlog() {
+        return queue.size();
+    }
+
+    @Override
+    public void run() {
+        List<EngineCommand> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                EngineCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                // Never let the single writer die — its accounts would be stuck
+                log.error("❌ Engine partition {} loop error: {}", index, e.getMessage(), e);
+                abandon(batch, e);
+            } finally {
+                long external = batch.stream().filter(EngineCommand::external).count();
+                capacity.release((int) external);
+                batch.clear();
+                pending.clear();
+            }
+        }
+        log.info("⚙️ Engine partition {} stopped", index);
+    }
+
+    // ==================================================================================
+    // 🧮 BATCH PROCESSING
+    // ==================================================================================
+
+    /** A journaled command waiting for its group commit. */
+    private record Pending(JournalEntry entry, CompletableFuture<Transaction> result,
+                           Runnable onCommit, Runnable onRollback) {}
+
+    private void processBatch(List<EngineCommand> batch) {
+        for (processed = 0; processed < batch.size(); processed++) {
+            switch (batch.get(processed)) {
+                case EngineCommand.Transfer t -> handleTransfer(t, pending);
+                case EngineCommand.Credit c -> handleCredit(c, pending);
+                case EngineCommand.Refund r -> handleRefund(r);
+                case EngineCommand.Settled s -> legSettled(s.accountNumber());
+                case EngineCommand.Withdraw w -> handleWithdraw(w, pending);
+                case EngineCommand.Deposit d -> handleDeposit(d, pending);
+                case EngineCommand.Evict e -> {
+                    // Barrier: a reload before the commit would miss this batch's reserved debits
+                    if (!pending.isEmpty()) {
+                        commit();
+                    }
+                    evict(e.accountNumber());
+                }
+            }
+        }
+        if (!pending.isEmpty()) {
+            commit();
+        }
+    }
+
+    private void commit() {
+        // Taken out first: once persist returns, a later failure must not roll these back
+        List<Pending> committing = List.copyOf(pending);
+        pending.clear();
+        try {
+            journal.persist(committing.stream().map(Pending::entry).toList());
+        } catch (Exception e) {
+            log.error("❌ Engine partition {} group commit of {} entries failed: {}", index, committing.size(), e.getMessage());
+            rollBack(committing, new IllegalStateException("⛔ Transfer engine commit failed: " + e.getMessage(), e));
+            return;
+        }
+        for (Pending p : committing) {
+            p.onCommit().run();
+            p.result().complete(p.entry().transaction());
+        }
+    }
+
+    private static void rollBack(List<Pending> uncommitted, RuntimeException failure) {
+        for (Pending p : uncommitted) {
+            p.onRollback().run();
+            p.result().completeExceptionally(failure);
+        }
+    }
+
+    // ==================================================================================
+    // 💸 TRANSFER (leg 1 on sender partition, leg 2 on receiver partition)
+    // ==================================================================================
+    private void handleTransfer(EngineCommand.Transfer t, List<Pending> pending) {
+        AccountState from;
+        BigDecimal totalDebit;
+        try {
+            from = load(t.fromAccountNumber());
+            ensureFresh(from);
+            if (from.account().getStatus() != AccountStatus.ACTIVE) {
+                throw new IllegalStateException("⛔ Sender account is not active: " + from.account().getStatus());
+            }
+            totalDebit = t.amount().add(t.feeForBalance().apply(from.balance()));
+            if (from.balance().compareTo(totalDebit) < 0) {
+                throw new RuntimeException("❌ Insufficient Funds");
+            }
+        } catch (RuntimeException e) {
+            t.result().completeExceptionally(e);
+            return;
+        }
+
+        // Reserve: the debit is visible immediately, so no later command can spend the same money
+        from.apply(totalDebit.negate());
+
+        EnginePartition receiver = engine.partitionFor(t.toAccountNumber());
+        if (receiver == this) {
+            settle(t, from.account(), totalDebit, () -> {}, () -> from.apply(totalDebit), pending);
+        } else {
+            from.legStarted();
+            receiver.send(new EngineCommand.Credit(t, from.account(), totalDebit));
+        }
+    }
+
+    private void handleCredit(EngineCommand.Credit c, List<Pending> pending) {
+        EngineCommand.Transfer t = c.transfer();
+        EnginePartition sender = engine.partitionFor(t.fromAccountNumber());
+        settle(t, c.fromAccount(), c.totalDebited(),
+                () -> sender.send(new EngineCommand.Settled(t.fromAccountNumber())),
+                () -> sender.send(new EngineCommand.Refund(t.fromAccountNumber(), c.totalDebited())), pending);
+    }
+
+    // Receiver side: validate, journal both legs, credit after commit; undoDebit on any failure
+    private void settle(EngineCommand.Transfer t, Account fromAccount, BigDecimal totalDebit,
+                        Runnable debitSettled, Runnable undoDebit, List<Pending> pending) {
+        AccountState to;
+        Transaction tx;
+        List<LedgerEntry> ledger;
+        try {
+            to = load(t.toAccountNumber());
+            if (to.account().getStatus() != AccountStatus.ACTIVE) {
+                throw new IllegalStateException("⛔ Receiver account is not active: " + to.account().getStatus());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            tx = newTransaction(TransactionType.TRANSFER, fromAccount, to.account(), t.amount(),
+                    t.note(), t.idempotencyKey(), now);
+
+            ledger = doubleEntryService.buildDoubleEntry(null, fromAccount.getId(),
+                    to.account().getId(), t.amount(), t.note(), t.username(), now);
+            LedgerEntry debit = ledger.get(0);
+            LedgerEntry credit = ledger.get(1);
+            debit.setBalanceDelta(totalDebit.negate());
+            debit.setPendingCheckpoint(true);
+            credit.setBalanceDelta(t.targetAmount());
+            credit.setPendingCheckpoint(true);
+        } catch (RuntimeException e) {
+            undoDebit.run();
+            t.result().completeExceptionally(e);
+            return;
+        }
+
+        pending.add(new Pending(new JournalEntry(tx, ledger, Map.of()), t.result(), () -> {
+            to.apply(t.targetAmount());
+            debitSettled.run();
+        }, undoDebit));
+    }
+
+    // The sender's state stays loaded while the leg is in flight (see evict), so it is always here
+    private void handleRefund(EngineCommand.Refund r) {
+        AccountState state = accounts.get(r.accountNumber());
+        if (state != null) {
+            state.apply(r.amount());
+        }
+        legSettled(r.accountNumber());
+    }
+
+    private void legSettled(String accountNumber) {
+        AccountState state = accounts.get(accountNumber);
+        if (state == null) {
+            return;
+        }
+        state.legSettled();
+        if (state.stale() && state.inFlight() == 0) {
+            accounts.remove(accountNumber);
+        }
+    }
+
+    // Reload on next touch; with legs in flight the reload would miss their reservations, so only mark it
+    private void evict(String accountNumber) {
+        AccountState state = accounts.get(accountNumber);
+        if (state == null) {
+            return;
+        }
+        if (state.inFlight() == 0) {
+            accounts.remove(accountNumber);
+        } else {
+            state.markStale();
+        }
+    }
+
+    // A stale balance misses an external write, so it may not approve debits until it is reloaded
+    private static void ensureFresh(AccountState state) {
+        if (state.stale()) {
+            throw new IllegalStateException("⏳ Account balance is being reloaded, try again.");
+        }
+    }
+
+    // ==================================================================================
+    // 🏧 WITHDRAW / 💰 DEPOSIT (single partition)
+    // ==================================================================================
+    private void handleWithdraw(EngineCommand.Withdraw w, List<Pending> pending) {
+        AccountState account;
+        try {
+            account = load(w.accountNumber());
+            ensureFresh(account);
+            if (account.account().getStatus() != AccountStatus.ACTIVE) {
+                throw new IllegalStateException("⛔ Account is not active: " + account.account().getStatus());
+            }
+            if (account.balance().compareTo(w.amount()) < 0) {
+                throw new RuntimeException("❌ Insufficient funds");
+            }
+        } catch (RuntimeException e) {
+            w.result().completeExceptionally(e);
+            return;
+        }
+
+        Transaction tx = newTransaction(TransactionType.WITHDRAWAL, account.account(), null, w.amount(),
+                "Withdrawal", w.idempotencyKey(), LocalDateTime.now());
+        JournalEntry entry = new JournalEntry(tx, List.of(), Map.of(account.account().getId(), w.amount().negate()));
+        // Reserved once the entry exists, so a throw above leaves nothing to undo
+        account.apply(w.amount().negate());
+        pending.add(new Pending(entry, w.result(), () -> {}, () -> account.apply(w.amount())));
+    }
+
+    private void handleDeposit(EngineCommand.Deposit d, List<Pending> pending) {
+        AccountState account;
+        try {
+            account = load(d.accountNumber());
+            if (account.account().getStatus() != AccountStatus.ACTIVE) {
+                throw new IllegalStateException("⛔ Account is not active: " + account.account().getStatus());
+            }
+        } catch (RuntimeException e) {
+            d.result().completeExceptionally(e);
+            return;
+        }
+
+        Transaction tx = newTransaction(TransactionType.DEPOSIT, null, account.account(), d.amount(),
+                "Deposit", d.idempotencyKey(), LocalDateTime.now());
+        pending.add(new Pending(new JournalEntry(tx, List.of(), Map.of(account.account().getId(), d.amount())),
+                d.result(), () -> account.apply(d.amount()), () -> {}));
+    }
+
+    // ==================================================================================
+    // 🛠️ HELPERS
+    // ==================================================================================
+    /**
+     * A batch threw part-way. Its uncommitted reservations are undone as a failed commit would (Credit legs
+     * refund their sender), then the commands not yet applied are settled: Credit legs refund the sender's
+     * debit, bookkeeping commands after the failing one are queued again, the rest fail.
+     */
+    private void abandon(List<EngineCommand> batch, Exception cause) {
+        RuntimeException failure = new IllegalStateException("⛔ Transfer engine batch failed: " + cause.getMessage(), cause);
+        rollBack(pending, failure);
+        pending.clear();
+        for (int i = processed; i < batch.size(); i++) {
+            EngineCommand command = batch.get(i);
+            switch (command) {
+                case EngineCommand.Transfer t -> t.result().completeExceptionally(failure);
+                case EngineCommand.Credit c -> {
+                    engine.partitionFor(c.transfer().fromAccountNumber())
+                            .send(new EngineCommand.Refund(c.transfer().fromAccountNumber(), c.totalDebited()));
+                    c.transfer().result().completeExceptionally(failure);
+                }
+                case EngineCommand.Withdraw w -> w.result().completeExceptionally(failure);
+                case EngineCommand.Deposit d -> d.result().completeExceptionally(failure);
+                case EngineCommand.Refund r -> requeueUnlessFailing(i, r);
+                case EngineCommand.Settled s -> requeueUnlessFailing(i, s);
+                case EngineCommand.Evict e -> requeueUnlessFailing(i, e);
+            }
+        }
+    }
+
+    // The command that threw is not retried, it would only throw again
+    private void requeueUnlessFailing(int position, EngineCommand command) {
+        if (position == processed) {
+            log.error("❌ Engine partition {} dropped {}", index, command);
+        } else {
+            queue.add(command);
+        }
+    }
+
+    private AccountState load(String accountNumber) {
+        AccountState state = accounts.get(accountNumber);
+        if (state == null) {
+            state = journal.recover(accountNumber)
+                    .orElseThrow(() -> new RuntimeException("Account not found: " + accountNumber));
+            accounts.put(accountNumber, state);
+        }
+        return state;
+    }
+
+    private Transaction newTransaction(TransactionType type, Account from, Account to, BigDecimal amount,
+                                              String note, String idempotencyKey, LocalDateTime now) {
+        return Transaction.builder()
+                .transactionType(type)
+                .fromAccount(from)
+                .toAccount(to)
+                .amount(amount)
+                .status(TransactionStatus.SUCCESS)
+                .note(note)
+                .idempotencyKey(idempotencyKey)
+                .timestamp(now)
+                // Partition index + local counter: unique even for hundreds of rows in the same millisecond
+                .transactionReference("TX" + System.currentTimeMillis() + "P" + index + "-" + (++referenceSeq))
+                .build();
+    }
+}
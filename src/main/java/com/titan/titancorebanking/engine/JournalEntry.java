@@ -0,0 +1,17 @@
+package com.titan.titancorebanking.engine;
+
+import com.titan.titancorebanking.model.LedgerEntry;
+import com.titan.titancorebanking.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything one engine command writes. The Transaction id is assigned at commit time,
+ * ledger rows are linked to it then.
+ *
+ * @param ledgerEntries pending ledger rows (transfers) — folded into accounts.balance by the checkpoint
+ * @param balanceDeltas direct accounts.balance deltas (withdraw / deposit, no ledger rows)
+ */
+record JournalEntry(Transaction transaction, List<LedgerEntry> ledgerEntries, Map<Long, BigDecimal> balanceDeltas) {}
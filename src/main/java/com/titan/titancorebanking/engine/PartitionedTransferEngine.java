@@ -0,0 +1,246 @@
+package com.titan.titancorebanking.engine;
+
+import com.titan.titancorebanking.enums.TransferExecutionMode;
+import com.titan.titancorebanking.event.AccountBalanceChangedEvent;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.Transaction;
+import com.titan.titancorebanking.service.DoubleEntryService;
+import com.titan.titancorebanking.service.StripedBalanceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+/**
+ * ⚙️ Single-writer transfer engine (titan.transfer.execution-mode=PARTITIONED).
+ *
+ * Every account number hashes to one partition thread, which holds that account's authoritative
+ * balance in memory and is the only thread that changes it. Commands are queued to the partition
+ * and applied without row locks; each drained batch is persisted in one DB transaction.
+ *
+ * Cross-partition transfer:
+ *   1. sender partition checks funds and reserves the debit in memory, forwards a Credit leg
+ *   2. receiver partition validates the receiver, journals BOTH legs in its group commit and
+ *      applies the credit after the commit
+ *   3. if leg 2 is rejected or its commit fails, a Refund goes back to the sender partition
+ * Nothing is written before step 2 commits, so a crash at any point leaves the database consistent.
+ *
+ * Transfers are journaled as ledger rows with a pending balance delta; the checkpoint folds them
+ * into accounts.balance. Recovery (startup or first touch) rebuilds a balance as
+ * accounts.balance + pending ledger deltas.
+ *
+ * Transfers, withdrawals, deposits and bulk transfers all run on the engine in this mode. Writers that
+ * still update accounts.balance directly (interest batch, stripe consolidation, saga compensation)
+ * publish an {@link AccountBalanceChangedEvent}; the affected accounts are evicted after their commit.
+ *
+ * Only one instance in the cluster may run the engine: {@link EngineLease} must be held to start it,
+ * and every group commit is fenced on it. That instance is the single balance writer while PARTITIONED is
+ * configured: commands and direct writes on any other instance are refused rather than forwarded, since
+ * its AccountBalanceChangedEvent would never reach the engine's JVM. Route balance-changing traffic to the
+ * lease holder (one active instance behind the load balancer).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionedTransferEngine {
+
+    private final EngineJournal journal;
+    private final DoubleEntryService doubleEntryService;
+    private final StripedBalanceService stripedBalanceService;
+    private final EngineLease engineLease;
+
+    @Value("${titan.transfer.execution-mode:LOCKING}")
+    private TransferExecutionMode executionMode = TransferExecutionMode.LOCKING;
+
+    @Value("${titan.engine.partitions:8}")
+    private int partitionCount = 8;
+
+    @Value("${titan.engine.queue-capacity:4096}")
+    private int queueCapacity = 4096;
+
+    @Value("${titan.engine.max-batch:256}")
+    private int maxBatch = 256;
+
+    @Value("${titan.engine.submit-timeout-ms:2000}")
+    private long submitTimeoutMs = 2000;
+
+    private volatile EnginePartition[] partitions;
+    private Thread[] threads;
+
+    @PostConstruct
+    void startIfEnabled() {
+        if (executionMode == TransferExecutionMode.PARTITIONED) {
+            try {
+                start();
+            } catch (IllegalStateException e) {
+                // Another instance is the writer; retried on the first command (e.g. after it shut down)
+                log.warn("⚠️ {}", e.getMessage());
+            }
+        }
+    }
+
+    public synchronized void start() {
+        if (partitions != null) {
+            return;
+        }
+        if (!engineLease.tryAcquire()) {
+            throw new IllegalStateException("⛔ Transfer engine lease is held by another instance, refusing PARTITIONED mode.");
+        }
+        long pending = journal.pendingCheckpointRows();
+        EnginePartition[] created = new EnginePartition[partitionCount];
+        threads = new Thread[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            created[i] = new EnginePartition(i, this, journal, doubleEntryService, queueCapacity, maxBatch);
+            threads[i] = new Thread(created[i], "titan-engine-" + i);
+            threads[i].setDaemon(true);
+        }
+        partitions = created;
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        log.info("⚙️ Transfer engine started: {} partitions, {} ledger deltas pending checkpoint (replayed on first touch)",
+                partitionCount, pending);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (partitions == null) {
+            return;
+        }
+        for (EnginePartition partition : partitions) {
+            partition.stop();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        partitions = null;
+        engineLease.release();
+        log.info("⚙️ Transfer engine stopped");
+    }
+
+    // Lost lease connection: the lock is gone with it, so stop before another instance takes over
+    @Scheduled(fixedDelayString = "${titan.engine.lease-check-interval-ms:5000}")
+    void checkLease() {
+        if (isStarted() && !engineLease.isHeld()) {
+            log.error("⛔ Transfer engine lease lost, stopping the engine");
+            stop();
+        }
+    }
+
+    public boolean isStarted() {
+        return partitions != null;
+    }
+
+    /** PARTITIONED is the configured mode, whether or not this instance holds the lease. */
+    public boolean isConfigured() {
+        return executionMode == TransferExecutionMode.PARTITIONED;
+    }
+
+    /**
+     * In PARTITIONED mode only the lease holder may change balances. Starts the engine if this instance can
+     * take the lease, throws if another instance holds it; a no-op in the other modes.
+     */
+    public void ensureWriter() {
+        if (isConfigured() && !isStarted()) {
+            start();
+        }
+    }
+
+    // ==================================================================================
+    // 📨 COMMANDS
+    // ==================================================================================
+
+    /**
+     * @param targetAmount  amount credited to the receiver (after FX)
+     * @param feeForBalance fee as a function of the sender's current balance, evaluated on the partition
+     */
+    public CompletableFuture<Transaction> transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount,
+                                                   BigDecimal targetAmount, UnaryOperator<BigDecimal> feeForBalance,
+                                                   String note, String idempotencyKey, String username) {
+        CompletableFuture<Transaction> result = new CompletableFuture<>();
+        return submit(fromAccountNumber, new EngineCommand.Transfer(fromAccountNumber, toAccountNumber, amount,
+                targetAmount, feeForBalance, note, idempotencyKey, username, result), result);
+    }
+
+    public CompletableFuture<Transaction> withdraw(String accountNumber, BigDecimal amount, String idempotencyKey) {
+        CompletableFuture<Transaction> result = new CompletableFuture<>();
+        return submit(accountNumber, new EngineCommand.Withdraw(accountNumber, amount, idempotencyKey, result), result);
+    }
+
+    public CompletableFuture<Transaction> deposit(String accountNumber, BigDecimal amount, String idempotencyKey) {
+        CompletableFuture<Transaction> result = new CompletableFuture<>();
+        return submit(accountNumber, new EngineCommand.Deposit(accountNumber, amount, idempotencyKey, result), result);
+    }
+
+    public void evict(String accountNumber) {
+        if (isStarted()) {
+            partitionFor(accountNumber).send(new EngineCommand.Evict(accountNumber));
+        }
+    }
+
+    // Synchronous, inside the writer's transaction: a direct write on an instance without the lease rolls back
+    @EventListener
+    public void refuseUnlessWriter(AccountBalanceChangedEvent event) {
+        ensureWriter();
+    }
+
+    // After commit, so the reload sees the write; without a transaction the write is already visible
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(AccountBalanceChangedEvent event) {
+        event.accountNumbers().forEach(this::evict);
+    }
+
+    /**
+     * Balance as the engine sees it: in-memory if the account is loaded, otherwise
+     * settled balance + stripes + ledger deltas not yet checkpointed, read from one snapshot.
+     */
+    public BigDecimal effectiveBalance(Account account) {
+        EnginePartition[] current = partitions;
+        if (current != null) {
+            AccountState state = partitionFor(current, account.getAccountNumber()).accounts.get(account.getAccountNumber());
+            if (state != null) {
+                return state.balance();
+            }
+        }
+        return journal.recover(account.getAccountNumber()).map(AccountState::balance)
+                .orElseGet(() -> stripedBalanceService.effectiveBalance(account));
+    }
+
+    EnginePartition partitionFor(String accountNumber) {
+        return partitionFor(partitions, accountNumber);
+    }
+
+    private static EnginePartition partitionFor(EnginePartition[] partitions, String accountNumber) {
+        return partitions[Math.floorMod(accountNumber.hashCode(), partitions.length)];
+    }
+
+    // Throws IllegalStateException on an instance that does not hold the lease: commands are not forwarded
+    private CompletableFuture<Transaction> submit(String accountNumber, EngineCommand command,
+                                                  CompletableFuture<Transaction> result) {
+        if (!isStarted()) {
+            start();
+        }
+        try {
+            if (!partitionFor(accountNumber).offer(command, submitTimeoutMs)) {
+                result.completeExceptionally(new IllegalStateException("⏳ Transfer engine is at capacity, try again."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+}
@@ -9,5 +9,6 @@ public enum AuditAction {
     ACCOUNT_CREATION,
     ACCOUNT_CLOSURE,
     PASSWORD_CHANGE,
+    PIN_CHANGE,
     LOAN_STATUS_CHANGE
 }
@@ -0,0 +1,10 @@
+package com.titan.titancorebanking.enums;
+
+/**
+ * What AuditLogWriter does when its ring buffer is full (titan.audit-log.overflow-policy).
+ */
+public enum AuditOverflowPolicy {
+    BLOCK,  // caller waits for a free slot up to titan.audit-log.block-timeout-ms, then the entry is dropped
+    SPILL,  // entry is appended to a local spill file, the writer inserts it once the buffer drains
+    SAMPLE  // FAILURE entries wait like BLOCK, SUCCESS entries are kept 1 in titan.audit-log.sample-every
+}
@@ -0,0 +1,10 @@
+package com.titan.titancorebanking.enums;
+
+/**
+ * Priority lanes of the hashing pool (HashingService). Lower ordinal is served first.
+ */
+public enum HashingLane {
+    PIN,    // transaction PIN checks — money is already in flight
+    LOGIN,  // password checks from the auth provider
+    ENCODE  // new hashes: registration, PIN change
+}
@@ -0,0 +1,11 @@
+package com.titan.titancorebanking.enums;
+
+/**
+ * How RiskCheckBatcher sends micro-batches to the Risk Engine (titan.risk.batch.transport).
+ * A server that answers UNIMPLEMENTED moves the client one step down, in this order.
+ */
+public enum RiskCallTransport {
+    STREAM, // one long-lived CheckRiskStream, batches correlated by batch_id
+    BATCH,  // one unary CheckRiskBatch call per micro-batch
+    UNARY   // one CheckRisk call per check (servers without the batch RPCs)
+}
@@ -0,0 +1,11 @@
+package com.titan.titancorebanking.enums;
+
+/**
+ * How TransactionService applies balance changes (titan.transfer.execution-mode).
+ */
+public enum TransferExecutionMode {
+    LOCKING,     // SELECT ... FOR UPDATE, mutate in Java, Hibernate flush
+    ATOMIC,      // single conditional UPDATE ... RETURNING per leg, no row pre-lock
+    PARTITIONED, // in-process single-writer engine owns balances, group-committed journal (see engine package)
+    OPTIMISTIC   // @Version-checked writes with jittered retry; hot accounts fall back to LOCKING (OptimisticTransferPolicy)
+}
@@ -0,0 +1,18 @@
+package com.titan.titancorebanking.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by every writer that changes accounts.balance outside the transfer engine (interest batch,
+ * stripe consolidation, saga compensation, non-engine transfer paths). Once the writing transaction has
+ * committed, the engine drops its in-memory state of these accounts and reloads it on the next command.
+ * Publishing it while PARTITIONED is configured throws on an instance that does not hold the engine lease,
+ * so the direct write rolls back instead of going unseen by the engine.
+ */
+public record AccountBalanceChangedEvent(Collection<String> accountNumbers) {
+
+    public static AccountBalanceChangedEvent of(String... accountNumbers) {
+        return new AccountBalanceChangedEvent(List.of(accountNumbers));
+    }
+}
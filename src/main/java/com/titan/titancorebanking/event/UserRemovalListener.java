@@ -0,0 +1,31 @@
+package com.titan.titancorebanking.event;
+
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.service.CacheService;
+import com.titan.titancorebanking.service.VerifiedTokenCache;
+import jakarta.persistence.PostRemove;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on User: a removed user's tokens stop authenticating from their claims on every node
+ * (after commit), and the cached profile is dropped.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserRemovalListener {
+
+    // Looked up lazily: entity listeners are created while the EntityManagerFactory starts
+    private final ObjectProvider<VerifiedTokenCache> verifiedTokenCache;
+    private final ObjectProvider<CacheService> cacheService;
+
+    @PostRemove
+    public void userRemoved(User user) {
+        log.info("🗑️ User {} removed, revoking issued tokens", user.getUsername());
+        cacheService.getObject().evictUserProfile(user.getUsername());
+        verifiedTokenCache.getObject().userChanged(user.getUsername());
+    }
+}
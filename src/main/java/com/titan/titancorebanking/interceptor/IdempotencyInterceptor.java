@@ -1,10 +1,25 @@
 package com.titan.titancorebanking.interceptor;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.titan.titancorebanking.exception.IdempotencyConflictException;
+import com.titan.titancorebanking.service.IdempotencyService;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,26 +27,51 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
 
+/**
+ * Idempotency-Key handling for POST /api/v1/transactions*.
+ *
+ * The key is claimed before the request runs (one Redis round-trip). A 2xx response is stored and later
+ * duplicates get it back byte-for-byte with an Idempotent-Replayed header, without reaching the controller;
+ * any other outcome releases the claim so the client can retry. Duplicates arriving while the first request
+ * is still running wait briefly for its response, then get 409 with Retry-After.
+ *
+ * Withdraw, deposit and transfer also accept the key in the JSON body (TransactionRequest.idempotencyKey),
+ * so body-keyed retries are answered from Redis too instead of going through the service. While the filter
+ * holds the claim, the service does not claim the same key again.
+ *
+ * The response streams straight to the client while a copy is captured for storage (up to
+ * max-response-bytes; larger responses are not stored). Stored responses are a small binary record,
+ * deflated when that makes them smaller.
+ */
 @Component
 @Order(Ordered.LOWEST_PRECEDENCE)
 public class IdempotencyInterceptor extends OncePerRequestFilter {
 
     private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
-    private static final Duration IDEMPOTENCY_TTL = Duration.ofHours(24);
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final Set<String> BODY_KEYED = Set.of(
+            "/api/v1/transactions/transfer", "/api/v1/transactions/withdraw", "/api/v1/transactions/deposit");
+    private static final JsonFactory JSON = new JsonFactory();
 
-    private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final IdempotencyService idempotencyService;
 
-    public IdempotencyInterceptor(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
-        this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+    @Value("${titan.idempotency.max-response-bytes:65536}")
+    private int maxResponseBytes = 65_536;
+
+    public IdempotencyInterceptor(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
     }
 
     @Override
@@ -44,37 +84,87 @@ public class IdempotencyInterceptor extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String idempotencyKey = request.getHeader(IDEMPOTENCY_HEADER);
+        if ((idempotencyKey == null || idempotencyKey.isBlank()) && BODY_KEYED.contains(request.getRequestURI())) {
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            request = cached;
+            idempotencyKey = bodyKey(cached.body);
+        }
         if (idempotencyKey == null || idempotencyKey.isBlank()) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String cacheKey = buildCacheKey(request, idempotencyKey);
-        String cached = redisTemplate.opsForValue().get(cacheKey);
-        if (cached != null) {
-            // Return 409 Conflict for duplicate requests
+        IdempotencyService.Claim claim;
+        try {
+            claim = idempotencyService.claim(buildCacheKey(request, idempotencyKey));
+        } catch (IdempotencyConflictException e) {
             response.setStatus(HttpServletResponse.SC_CONFLICT);
+            response.setHeader("Retry-After", "1");
             response.setContentType("application/json");
             response.setCharacterEncoding(StandardCharsets.UTF_8.name());
-            response.getWriter().write("{\"error\":\"Duplicate request detected\",\"message\":\"Request with this Idempotency-Key has already been processed\"}");
+            response.getWriter().write("{\"error\":\"Request in progress\",\"message\":\"Request with this Idempotency-Key is still being processed\"}");
             return;
         }
 
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
-        filterChain.doFilter(request, wrappedResponse);
+        if (claim.state() == IdempotencyService.State.COMPLETED) {
+            replay(CachedResponse.decode(claim.completedBytes()), response);
+            return;
+        }
+
+        // One claim per request: the service's transaction claim for the same key is covered by this one
+        boolean covering = claim.state() == IdempotencyService.State.CLAIMED;
+        if (covering) {
+            idempotencyService.beginRequestClaim(idempotencyKey);
+        }
+        CapturingResponse capturing = new CapturingResponse(response, maxResponseBytes);
+        try {
+            filterChain.doFilter(request, capturing);
+            capturing.flushWriter();
+        } catch (IOException | ServletException | RuntimeException e) {
+            claim.release();
+            throw e;
+        } finally {
+            if (covering) {
+                idempotencyService.endRequestClaim();
+            }
+        }
+
+        int status = capturing.getStatus();
+        if (status >= 200 && status < 300 && !capturing.overflowed) {
+            claim.complete(CachedResponse.encode(status, capturing.getContentType(), capturing.captured, capturing.size));
+        } else {
+            claim.release();
+        }
+    }
 
-        int status = wrappedResponse.getStatus();
-        if (status >= 200 && status < 300) {
-            byte[] body = wrappedResponse.getContentAsByteArray();
-            CachedResponse payload = new CachedResponse(
-                    status,
-                    wrappedResponse.getContentType(),
-                    new String(body, StandardCharsets.UTF_8)
-            );
-            redisTemplate.opsForValue().set(cacheKey, objectMapper.writeValueAsString(payload), IDEMPOTENCY_TTL);
+    private static void replay(CachedResponse cached, HttpServletResponse response) throws IOException {
+        response.setStatus(cached.status());
+        if (cached.contentType() != null) {
+            response.setContentType(cached.contentType());
         }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
 
-        wrappedResponse.copyBodyToResponse();
+    // Top-level "idempotencyKey" of a TransactionRequest; anything unparseable simply has no key
+    static String bodyKey(byte[] body) {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("idempotencyKey".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return null;
     }
 
     private String buildCacheKey(HttpServletRequest request, String idempotencyKey) {
@@ -82,8 +172,236 @@ public class IdempotencyInterceptor extends OncePerRequestFilter {
         String principal = authentication != null && authentication.isAuthenticated()
                 ? authentication.getName()
                 : "anonymous";
-        return String.format("idempotency:%s:%s:%s", principal, request.getRequestURI(), idempotencyKey);
+        // Own namespace: the service claims idempotency:{principal}:{uri}:{key} when no filter claim covers it
+        return "idempotency:http:" + principal + ":" + request.getRequestURI() + ":" + idempotencyKey;
     }
 
-    private record CachedResponse(int status, String contentType, String body) {}
+    /**
+     * Stored form: version, flags, status, content type, body length, body — deflated when it pays off.
+     */
+    record CachedResponse(int status, String contentType, byte[] body) {
+
+        private static final byte VERSION = 1;
+        private static final byte DEFLATED = 1;
+        private static final int COMPRESS_FROM = 128;
+
+        byte[] encode() {
+            return encode(status, contentType, body, body.length);
+        }
+
+        static byte[] encode(int status, String contentType, byte[] body, int length) {
+            byte[] type = contentType != null ? contentType.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            byte[] payload = body;
+            int payloadLength = length;
+            byte flags = 0;
+            if (length >= COMPRESS_FROM) {
+                byte[] deflated = deflate(body, length);
+                if (deflated != null) {
+                    payload = deflated;
+                    payloadLength = deflated.length;
+                    flags = DEFLATED;
+                }
+            }
+            return ByteBuffer.allocate(10 + type.length + payloadLength)
+                    .put(VERSION).put(flags)
+                    .putShort((short) status)
+                    .putShort((short) type.length).put(type)
+                    .putInt(length)
+                    .put(payload, 0, payloadLength)
+                    .array();
+        }
+
+        static CachedResponse decode(byte[] encoded) {
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            if (buffer.get() != VERSION) {
+                throw new IllegalStateException("❌ Unknown stored response format");
+            }
+            byte flags = buffer.get();
+            int status = buffer.getShort();
+            byte[] type = new byte[buffer.getShort()];
+            buffer.get(type);
+            byte[] body = new byte[buffer.getInt()];
+            if ((flags & DEFLATED) != 0) {
+                inflate(encoded, buffer.position(), body);
+            } else {
+                buffer.get(body);
+            }
+            return new CachedResponse(status, type.length > 0 ? new String(type, StandardCharsets.UTF_8) : null, body);
+        }
+
+        // Null when the deflated form would not be smaller
+        private static byte[] deflate(byte[] input, int length) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            try {
+                deflater.setInput(input, 0, length);
+                deflater.finish();
+                byte[] out = new byte[length - 1];
+                int deflated = deflater.deflate(out);
+                return deflater.finished() ? Arrays.copyOf(out, deflated) : null;
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private static void inflate(byte[] encoded, int offset, byte[] body) {
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(encoded, offset, encoded.length - offset);
+                int read = 0;
+                while (read < body.length && !inflater.finished()) {
+                    int n = inflater.inflate(body, read, body.length - read);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != body.length) {
+                    throw new IllegalStateException("❌ Stored response is truncated");
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("❌ Stored response is corrupt", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    /** Writes through to the client and keeps a bounded copy of what was written. */
+    private static final class CapturingResponse extends HttpServletResponseWrapper {
+        private final int limit;
+        private byte[] captured = new byte[256];
+        private int size;
+        private boolean overflowed;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CapturingResponse(HttpServletResponse response, int limit) {
+            super(response);
+            this.limit = limit;
+        }
+
+        private void capture(byte[] bytes, int offset, int length) {
+            if (overflowed) {
+                return;
+            }
+            if (size + length > limit) {
+                overflowed = true;
+                captured = null;
+                return;
+            }
+            if (size + length > captured.length) {
+                captured = Arrays.copyOf(captured, Math.min(limit, Math.max(size + length, captured.length * 2)));
+            }
+            System.arraycopy(bytes, offset, captured, size, length);
+            size += length;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    private final byte[] single = new byte[1];
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        target.write(b);
+                        single[0] = (byte) b;
+                        capture(single, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        target.write(b, off, len);
+                        capture(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        target.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return target.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        target.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+
+    /** The request body read once for the key, then served again to the controller. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory: it is available at once and then fully read
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8));
+        }
+    }
 }
@@ -56,4 +56,20 @@ public class Account implements Serializable {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private AccountStatus status;
+
+    // Hot-account striping: > 0 means credits land in account_balance_stripes instead of this row
+    @Builder.Default
+    @Column(nullable = false)
+    private int balanceStripes = 0;
+
+    // Optimistic concurrency (OPTIMISTIC transfer mode). Every balance UPDATE issued outside
+    // Hibernate (AccountBalanceJdbcRepository, AccountRepository.addToBalance) bumps it as well.
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
+    @Transient
+    public boolean isStriped() {
+        return balanceStripes > 0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.titan.titancorebanking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Sub-balance row of a striped (hot) account.
+ * Credits are spread across the stripes so concurrent transfers into one merchant/payroll
+ * account do not queue on the same row lock. The account's effective balance is
+ * accounts.balance + SUM(stripes); stripes are folded back by the consolidation job.
+ */
+@Entity
+@Table(name = "account_balance_stripes",
+       uniqueConstraints = @UniqueConstraint(name = "uq_stripe_account_index", columnNames = {"accountId", "stripeIndex"}),
+       indexes = @Index(name = "idx_stripe_account", columnList = "accountId"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountBalanceStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private Integer stripeIndex;
+
+    @Builder.Default
+    @Column(nullable = false, precision = 30, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+}
@@ -47,6 +47,15 @@ public class LedgerEntry {
     @Column(nullable = false, updatable = false)
     private String createdBy;
     
+    // Transfer engine: signed effect on the account's balance (fee and FX included).
+    // Pending rows are not yet folded into accounts.balance — balance = accounts.balance + SUM(pending deltas)
+    @Column(precision = 19, scale = 4)
+    private BigDecimal balanceDelta;
+    
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private boolean pendingCheckpoint = false;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,54 @@
+package com.titan.titancorebanking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Outbox event the relay gave up on after max retries. Moved out of outbox_events in the same statement
+ * that deletes it there, so the relay's claim and backlog queries never scan exhausted rows again.
+ * Kept for inspection and manual replay.
+ */
+@Entity
+@Table(name = "outbox_dead_letters",
+       indexes = @Index(name = "idx_outbox_dead_letters_dead_at", columnList = "deadAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // id the event had in outbox_events
+    @Column(nullable = false)
+    private Long outboxId;
+
+    @Column(nullable = false)
+    private String aggregateId;
+
+    @Column(nullable = false)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private Integer retryCount;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant deadAt;
+}
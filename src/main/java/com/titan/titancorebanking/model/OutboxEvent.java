@@ -13,6 +13,9 @@ import java.time.Instant;
 @AllArgsConstructor
 @Builder
 public class OutboxEvent {
+
+    // Number of outbox lanes; must match the modulus in V34__outbox_lanes.sql
+    public static final int PARTITIONS = 16;
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -51,4 +54,20 @@ public class OutboxEvent {
     @Column(nullable = false)
     @Builder.Default
     private String status = "PENDING";
+
+    // Relay lease: set when a worker claims the row, cleared when its outcome is written
+    @Column(length = 64)
+    private String lockedBy;
+
+    private Instant lockedUntil;
+
+    // Sent as a Kafka header so the relay can pass the payload through without parsing it
+    @Column(length = 100)
+    private String correlationId;
+
+    // Lane of the row: a hash of aggregateId computed by the database, so every writer agrees on it
+    @Column(insertable = false, updatable = false,
+            columnDefinition = "INTEGER GENERATED ALWAYS AS ((hashtext(aggregate_id) & 2147483647) % "
+                    + PARTITIONS + ") STORED")
+    private Integer partitionKey;
 }
@@ -0,0 +1,31 @@
+package com.titan.titancorebanking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Lease on one outbox lane (a hash bucket of aggregate ids, see OutboxEvent.partitionKey).
+ * A relay worker holds it for the length of one batch, so at most one batch per lane is in flight and
+ * the events of an aggregate reach Kafka in the order they were written.
+ */
+@Entity
+@Table(name = "outbox_lanes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxLane {
+
+    @Id
+    private Integer lane;
+
+    @Column(length = 64)
+    private String lockedBy;
+
+    private Instant lockedUntil;
+
+    private Instant lastClaimedAt;
+}
@@ -26,7 +26,7 @@ public class Transaction {
     private String idempotencyKey;
 
     // ✅ Transaction reference for tracking
-    @Column(name = "transaction_reference")
+    @Column(name = "transaction_reference", unique = true) // as in V1: audit inserts rely on ON CONFLICT
     private String transactionReference;
 
     // ✅ Now this will correctly point to the ENUM
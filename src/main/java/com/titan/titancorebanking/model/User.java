@@ -2,6 +2,7 @@ package com.titan.titancorebanking.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.titan.titancorebanking.enums.UserTier;
+import com.titan.titancorebanking.event.UserRemovalListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
@@ -18,6 +19,7 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
+@EntityListeners(UserRemovalListener.class)
 public class User implements UserDetails {
 
     // ... (Fields ផ្សេងទៀតនៅដដែល: id, username, password...) ...
@@ -0,0 +1,89 @@
+package com.titan.titancorebanking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-statement balance updates (execution-mode=ATOMIC, transfer engine journal and checkpoint).
+ * Each call is one round-trip: the row lock is taken by the UPDATE itself and the
+ * balance rule is enforced in the WHERE clause. Runs on the connection of the
+ * surrounding JPA transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountBalanceJdbcRepository {
+
+    private static final String DEBIT_SQL =
+            "UPDATE accounts SET balance = balance - ?, version = version + 1 " +
+            "WHERE account_number = ? AND status = 'ACTIVE' AND balance >= ? " +
+            "RETURNING id";
+
+    private static final String CREDIT_SQL =
+            "UPDATE accounts SET balance = balance + ?, version = version + 1 " +
+            "WHERE account_number = ? AND status = 'ACTIVE' " +
+            "RETURNING id";
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE id = ?";
+
+    // One statement: exactly the rows flagged here are the rows folded, concurrent inserts wait for the next run
+    private static final String FOLD_PENDING_LEDGER_SQL =
+            "WITH folded AS (" +
+            "  UPDATE ledger_entry SET pending_checkpoint = FALSE WHERE pending_checkpoint " +
+            "  RETURNING account_id, balance_delta) " +
+            "UPDATE accounts a SET balance = a.balance + s.delta, version = a.version + 1 " +
+            "FROM (SELECT account_id, SUM(balance_delta) AS delta FROM folded GROUP BY account_id) s " +
+            "WHERE a.id = s.account_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Debit only if the account is ACTIVE and has enough balance.
+     *
+     * @return account id, or empty if the condition failed (inactive / insufficient funds / unknown)
+     */
+    public Optional<Long> debitIfSufficient(String accountNumber, BigDecimal amount) {
+        return first(jdbcTemplate.queryForList(DEBIT_SQL, Long.class, amount, accountNumber, amount));
+    }
+
+    /**
+     * Credit-only update, no prior SELECT.
+     *
+     * @return account id, or empty if the account is unknown or not ACTIVE
+     */
+    public Optional<Long> credit(String accountNumber, BigDecimal amount) {
+        return first(jdbcTemplate.queryForList(CREDIT_SQL, Long.class, amount, accountNumber));
+    }
+
+    /**
+     * Unconditional signed deltas, one JDBC batch (transfer engine: the engine already checked funds).
+     */
+    public void applyDeltas(Map<Long, BigDecimal> deltasByAccountId) {
+        List<Object[]> args = deltasByAccountId.entrySet().stream()
+                .filter(e -> e.getValue().signum() != 0)
+                .map(e -> new Object[]{e.getValue(), e.getKey()})
+                .toList();
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, args);
+        }
+    }
+
+    /**
+     * Checkpoint: fold pending ledger balance deltas into accounts.balance.
+     *
+     * @return number of accounts updated
+     */
+    public int foldPendingLedgerDeltas() {
+        return jdbcTemplate.update(FOLD_PENDING_LEDGER_SQL);
+    }
+
+    private static Optional<Long> first(List<Long> ids) {
+        return ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(0));
+    }
+}
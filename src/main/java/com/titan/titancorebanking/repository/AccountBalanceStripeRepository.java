@@ -0,0 +1,49 @@
+package com.titan.titancorebanking.repository;
+
+import com.titan.titancorebanking.model.AccountBalanceStripe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceStripeRepository extends JpaRepository<AccountBalanceStripe, Long> {
+
+    /**
+     * Credit-only update: locks a single stripe row, never the parent account row.
+     * Returns 0 if the stripe no longer exists (striping disabled concurrently).
+     */
+    @Modifying
+    @Query(value = "UPDATE account_balance_stripes SET balance = balance + :amount " +
+                   "WHERE account_id = :accountId AND stripe_index = :stripeIndex", nativeQuery = true)
+    int credit(@Param("accountId") Long accountId,
+               @Param("stripeIndex") int stripeIndex,
+               @Param("amount") BigDecimal amount);
+
+    /**
+     * Stripes holding committed credits. SKIP LOCKED: stripes with an in-flight credit are
+     * left for the next drain, so a drain never waits behind (or deadlocks with) a credit.
+     */
+    @Query(value = "SELECT * FROM account_balance_stripes " +
+                   "WHERE account_id = :accountId AND balance > 0 " +
+                   "ORDER BY stripe_index FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<AccountBalanceStripe> lockDrainableStripes(@Param("accountId") Long accountId);
+
+    /**
+     * All stripes, waiting for in-flight credits. Only used when re-shaping an account.
+     */
+    @Query(value = "SELECT * FROM account_balance_stripes " +
+                   "WHERE account_id = :accountId ORDER BY stripe_index FOR UPDATE", nativeQuery = true)
+    List<AccountBalanceStripe> lockAllStripes(@Param("accountId") Long accountId);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceStripe s WHERE s.accountId = :accountId")
+    BigDecimal sumByAccountId(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query("DELETE FROM AccountBalanceStripe s WHERE s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
@@ -0,0 +1,10 @@
+package com.titan.titancorebanking.repository;
+
+import com.titan.titancorebanking.enums.AccountStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * The account columns that change with every transfer, read by primary key for cached account lists.
+ */
+public record AccountLiveState(Long id, BigDecimal balance, AccountStatus status, Long version, int balanceStripes) {}
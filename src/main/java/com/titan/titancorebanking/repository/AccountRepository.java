@@ -3,11 +3,16 @@ package com.titan.titancorebanking.repository;
 import com.titan.titancorebanking.model.Account;
 import com.titan.titancorebanking.model.User;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,11 +32,45 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    // Transfer (LOCKING): both rows locked by one ordered statement, owners join-fetched but not locked
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "org.hibernate.lockMode.u", value = "NONE"))
+    @Query("SELECT a FROM Account a JOIN FETCH a.user u " +
+           "WHERE a.accountNumber IN (:first, :second) ORDER BY a.accountNumber")
+    List<Account> findTransferPairWithOwnersForUpdate(@Param("first") String first, @Param("second") String second);
+
+    // Pre-lock ownership/PIN check without pulling the account row into the persistence context
+    @Query("SELECT a.user FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<User> findOwnerByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // Transfer engine: detached snapshot with the owner initialised (outbox payload needs the username)
+    @Query("SELECT a FROM Account a JOIN FETCH a.user WHERE a.accountNumber = :accountNumber")
+    Optional<Account> findWithUserByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // Bulk transfer: lock the whole set in one pass, always in account-number order (deadlock-free)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.accountNumber")
+    List<Account> findAllByAccountNumberInWithLock(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
     List<Account> findByUserUsername(String username);
+
+    // Cached account lists (CacheService.getUserAccounts): the columns that change, by primary key
+    @Query("SELECT new com.titan.titancorebanking.repository.AccountLiveState(a.id, a.balance, a.status, a.version, a.balanceStripes) " +
+           "FROM Account a WHERE a.id IN :ids")
+    List<AccountLiveState> findLiveStateByIdIn(@Param("ids") Collection<Long> ids);
     
     List<Account> findByUser_Username(String username);
 
     boolean existsByAccountNumber(String accountNumber);
 
     long countByUser(User user);
+
+    // Hot-account striping
+    List<Account> findByBalanceStripesGreaterThan(int stripes);
+
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1 WHERE a.id = :id")
+    int addToBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,68 @@
+package com.titan.titancorebanking.repository;
+
+import com.titan.titancorebanking.model.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Multi-row INSERT for audit_logs: up to titan.audit-log.rows-per-statement rows per
+ * "INSERT ... VALUES (...), (...), ..." statement, so a batch of N entries is N / rows-per-statement
+ * round-trips. All statements of one call share a transaction, so a failed call inserted nothing and
+ * can be retried whole without duplicates; used by AuditLogWriter only.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogJdbcRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_logs (username, action, employee_role, ip_address, status, details, timestamp) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${titan.audit-log.rows-per-statement:100}")
+    private int rowsPerStatement = 100;
+
+    // SQL text per row count: one for full chunks plus whatever tail sizes show up
+    private final ConcurrentMap<Integer, String> sqlByRows = new ConcurrentHashMap<>();
+
+    @Transactional
+    public void insertAll(List<AuditLog> entries) {
+        for (int from = 0; from < entries.size(); from += rowsPerStatement) {
+            List<AuditLog> chunk = entries.subList(from, Math.min(entries.size(), from + rowsPerStatement));
+            jdbcTemplate.update(sqlFor(chunk.size()), ps -> {
+                int i = 1;
+                for (AuditLog entry : chunk) {
+                    LocalDateTime timestamp = entry.getTimestamp() != null ? entry.getTimestamp() : LocalDateTime.now();
+                    ps.setString(i++, entry.getUsername());
+                    ps.setString(i++, entry.getAction().name());
+                    ps.setString(i++, entry.getEmployeeRole() != null ? entry.getEmployeeRole().name() : null);
+                    ps.setString(i++, entry.getIpAddress());
+                    ps.setString(i++, entry.getStatus());
+                    ps.setString(i++, entry.getDetails());
+                    ps.setTimestamp(i++, Timestamp.valueOf(timestamp));
+                }
+            });
+        }
+    }
+
+    private String sqlFor(int rows) {
+        return sqlByRows.computeIfAbsent(rows, n -> {
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + n * (ROW.length() + 2));
+            sql.append(INSERT_PREFIX);
+            for (int r = 0; r < n; r++) {
+                sql.append(r == 0 ? "" : ", ").append(ROW);
+            }
+            return sql.toString();
+        });
+    }
+}
@@ -0,0 +1,131 @@
+package com.titan.titancorebanking.repository;
+
+import com.titan.titancorebanking.model.LedgerEntry;
+import com.titan.titancorebanking.model.OutboxEvent;
+import com.titan.titancorebanking.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JDBC batch inserts for bulk transfers, the transfer engine journal and the audit writer: Transaction,
+ * ledger and outbox rows go out in batches of titan.bulk-transfer.jdbc-batch-size instead of one INSERT
+ * round-trip per entity.
+ * Runs on the connection of the surrounding JPA transaction.
+ *
+ * Transaction ids are reserved up front from the table's sequence so ledger and outbox rows
+ * can reference them without reading generated keys back.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkTransferJdbcRepository {
+
+    private static final String ALLOCATE_TX_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('transactions', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_TX_SQL =
+            "INSERT INTO transactions (id, idempotency_key, transaction_reference, transaction_type, amount, " +
+            "status, note, timestamp, from_account_id, to_account_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Audit replay safe: a row whose reference already exists is skipped
+    private static final String INSERT_TX_IF_ABSENT_SQL =
+            "INSERT INTO transactions (transaction_reference, transaction_type, amount, status, note, timestamp, " +
+            "from_account_id, to_account_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (transaction_reference) DO NOTHING";
+
+    private static final String INSERT_LEDGER_SQL =
+            "INSERT INTO ledger_entry (transaction_id, account_id, entry_type, amount, entry_date, description, " +
+            "created_at, created_by, balance_delta, pending_checkpoint) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO outbox_events (aggregate_id, aggregate_type, event_type, payload, published, retry_count, " +
+            "created_at, status, correlation_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${titan.bulk-transfer.jdbc-batch-size:500}")
+    private int batchSize;
+
+    public List<Long> allocateTransactionIds(int count) {
+        return jdbcTemplate.queryForList(ALLOCATE_TX_IDS_SQL, Long.class, count);
+    }
+
+    /**
+     * Rows must already carry an id from {@link #allocateTransactionIds(int)}.
+     */
+    public void insertTransactions(List<Transaction> transactions) {
+        jdbcTemplate.batchUpdate(INSERT_TX_SQL, transactions, batchSize, (ps, tx) -> {
+            ps.setLong(1, tx.getId());
+            ps.setString(2, tx.getIdempotencyKey());
+            ps.setString(3, tx.getTransactionReference());
+            ps.setString(4, tx.getTransactionType().name());
+            ps.setBigDecimal(5, tx.getAmount());
+            ps.setString(6, tx.getStatus().name());
+            ps.setString(7, tx.getNote());
+            ps.setTimestamp(8, Timestamp.valueOf(tx.getTimestamp()));
+            ps.setObject(9, tx.getFromAccount() != null ? tx.getFromAccount().getId() : null, Types.BIGINT);
+            ps.setObject(10, tx.getToAccount() != null ? tx.getToAccount().getId() : null, Types.BIGINT);
+        });
+    }
+
+    /**
+     * Id from the table's default; rows are matched on transaction_reference, so re-inserting is a no-op.
+     */
+    /**
+     * Idempotent on transaction_reference, also against a concurrent insert of the same row.
+     *
+     * @return rows actually inserted (as far as the driver reports them)
+     */
+    public int insertTransactionsIfAbsent(List<Transaction> transactions) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_TX_IF_ABSENT_SQL, transactions, batchSize, (ps, tx) -> {
+            ps.setString(1, tx.getTransactionReference());
+            ps.setString(2, tx.getTransactionType().name());
+            ps.setBigDecimal(3, tx.getAmount());
+            ps.setString(4, tx.getStatus().name());
+            ps.setString(5, tx.getNote());
+            ps.setTimestamp(6, Timestamp.valueOf(tx.getTimestamp()));
+            ps.setObject(7, tx.getFromAccount() != null ? tx.getFromAccount().getId() : null, Types.BIGINT);
+            ps.setObject(8, tx.getToAccount() != null ? tx.getToAccount().getId() : null, Types.BIGINT);
+        });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).filter(n -> n > 0).sum();
+    }
+
+    public void insertLedgerEntries(List<LedgerEntry> entries) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_LEDGER_SQL, entries, batchSize, (ps, entry) -> {
+            ps.setLong(1, entry.getTransactionId());
+            ps.setLong(2, entry.getAccountId());
+            ps.setString(3, entry.getEntryType().name());
+            ps.setBigDecimal(4, entry.getAmount());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getEntryDate()));
+            ps.setString(6, entry.getDescription());
+            ps.setTimestamp(7, now);
+            ps.setString(8, entry.getCreatedBy());
+            ps.setBigDecimal(9, entry.getBalanceDelta());
+            ps.setBoolean(10, entry.isPendingCheckpoint());
+        });
+    }
+
+    public void insertOutboxEvents(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, events, batchSize, (ps, event) -> {
+            ps.setString(1, event.getAggregateId());
+            ps.setString(2, event.getAggregateType());
+            ps.setString(3, event.getEventType());
+            // Types.OTHER lets the server coerce to the column type (TEXT under ddl-auto, JSONB under Flyway)
+            ps.setObject(4, event.getPayload(), Types.OTHER);
+            ps.setBoolean(5, event.getPublished());
+            ps.setInt(6, event.getRetryCount());
+            ps.setTimestamp(7, Timestamp.from(event.getCreatedAt() != null ? event.getCreatedAt() : Instant.now()));
+            ps.setString(8, event.getStatus());
+            ps.setString(9, event.getCorrelationId());
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.titan.titancorebanking.repository;
+
+import com.titan.titancorebanking.enums.Currency;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outgoing money per account since a point in time — the daily-limit counters are rebuilt from this
+ * once at startup; transfers themselves never run it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailyOutflowJdbcRepository {
+
+    private static final String OUTFLOWS_SINCE_SQL =
+            "SELECT a.account_number, a.user_id, a.currency, SUM(t.amount) AS total " +
+            "FROM transactions t JOIN accounts a ON a.id = t.from_account_id " +
+            "WHERE t.status = 'SUCCESS' AND t.transaction_type IN ('TRANSFER', 'WITHDRAWAL') AND t.timestamp >= ? " +
+            "GROUP BY a.account_number, a.user_id, a.currency";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record DailyOutflow(String accountNumber, Long userId, Currency currency, BigDecimal total) {}
+
+    public List<DailyOutflow> outflowsSince(LocalDateTime since) {
+        return jdbcTemplate.query(OUTFLOWS_SINCE_SQL, (rs, i) -> new DailyOutflow(
+                rs.getString("account_number"),
+                rs.getLong("user_id"),
+                Currency.valueOf(rs.getString("currency")),
+                rs.getBigDecimal("total")), Timestamp.valueOf(since));
+    }
+}
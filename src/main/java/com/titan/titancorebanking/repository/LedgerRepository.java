@@ -17,6 +17,14 @@ public interface LedgerRepository extends JpaRepository<LedgerEntry, Long> {
     
     List<LedgerEntry> findByAccountIdOrderByEntryDateDesc(Long accountId);
     
+    // Transfer engine recovery: journal deltas not yet checkpointed into accounts.balance
+    @Query("SELECT COALESCE(SUM(l.balanceDelta), 0) FROM LedgerEntry l " +
+           "WHERE l.accountId = :accountId AND l.pendingCheckpoint = true")
+    BigDecimal sumPendingBalanceDelta(@Param("accountId") Long accountId);
+    
+    @Query("SELECT COUNT(l) FROM LedgerEntry l WHERE l.pendingCheckpoint = true")
+    long countPendingCheckpoint();
+    
     @Query("SELECT SUM(CASE WHEN l.entryType = 'DEBIT' THEN -l.amount ELSE l.amount END) " +
            "FROM LedgerEntry l WHERE l.accountId = :accountId")
     BigDecimal calculateAccountBalance(@Param("accountId") Long accountId);
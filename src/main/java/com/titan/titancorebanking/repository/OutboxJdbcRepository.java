@@ -0,0 +1,226 @@
+package com.titan.titancorebanking.repository;
+
+import com.titan.titancorebanking.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outbox relay statements. Each runs in its own auto-committed statement: a claim holds row locks only
+ * for the instant it takes to stamp the lease, never while Kafka is being called.
+ *
+ * Claims go by lane (outbox_events.partition_key): a worker first leases one free lane that has work, then
+ * claims that lane's oldest rows. Only the lane holder claims a lane's rows, so the events of an aggregate
+ * are never in two batches at once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxJdbcRepository {
+
+    // Row e may go out now: unpublished, not exhausted, past its backoff (backoff * 2^(retries - 1), capped),
+    // and no earlier event of its aggregate is waiting to be retried. Parameters: maxRetries, backoff, cap, now.
+    private static final String CLAIMABLE =
+            "e.published = FALSE AND e.retry_count < ? " +
+            "AND (e.last_retry_at IS NULL OR e.last_retry_at + " +
+            "     LEAST(? * power(2, e.retry_count - 1), ?) * INTERVAL '1 millisecond' <= ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox_events p WHERE p.aggregate_id = e.aggregate_id " +
+            "                AND p.published = FALSE AND p.retry_count > 0 AND (p.created_at, p.id) < (e.created_at, e.id))";
+
+    // Least recently served free lane with something to send, leased in the same statement
+    private static final String CLAIM_LANE_SQL =
+            "UPDATE outbox_lanes l SET locked_by = ?, locked_until = ?, last_claimed_at = ? " +
+            "FROM (SELECT ol.lane FROM outbox_lanes ol " +
+            "      WHERE (ol.locked_until IS NULL OR ol.locked_until < ?) " +
+            "        AND EXISTS (SELECT 1 FROM outbox_events e WHERE e.partition_key = ol.lane AND " + CLAIMABLE + ") " +
+            "      ORDER BY ol.last_claimed_at NULLS FIRST, ol.lane LIMIT 1 FOR UPDATE SKIP LOCKED) free " +
+            "WHERE l.lane = free.lane " +
+            "RETURNING l.lane";
+
+    private static final String RELEASE_LANE_SQL =
+            "UPDATE outbox_lanes SET locked_by = NULL, locked_until = NULL WHERE lane = ? AND locked_by = ?";
+
+    private static final String ENSURE_LANES_SQL =
+            "INSERT INTO outbox_lanes (lane) SELECT g FROM generate_series(0, ?) g ON CONFLICT (lane) DO NOTHING";
+
+    // Oldest claimable rows of a leased lane, stamped with the row lease for monitoring and crash recovery.
+    // The lane lease alone decides who may claim: a stale row lease must not hold back an aggregate's head.
+    private static final String CLAIM_SQL =
+            "UPDATE outbox_events o SET locked_by = ?, locked_until = ? " +
+            "FROM (SELECT e.id FROM outbox_events e WHERE e.partition_key = ? AND " + CLAIMABLE + " " +
+            "      ORDER BY e.created_at, e.id LIMIT ? FOR UPDATE) claimed " +
+            "WHERE o.id = claimed.id " +
+            "RETURNING o.id, o.aggregate_id, o.aggregate_type, o.event_type, o.payload::text, o.retry_count, o.created_at, " +
+            "o.correlation_id";
+
+    private static final String MARK_PUBLISHED_SQL =
+            "UPDATE outbox_events SET published = TRUE, published_at = ?, status = 'PUBLISHED', " +
+            "locked_by = NULL, locked_until = NULL WHERE id = ANY(?)";
+
+    private static final String RELEASE_ROWS_SQL =
+            "UPDATE outbox_events SET locked_by = NULL, locked_until = NULL WHERE id = ANY(?)";
+
+    // One UPDATE for all failures of a batch: ids and errors travel as two parallel arrays
+    private static final String MARK_FAILED_SQL =
+            "UPDATE outbox_events o SET retry_count = o.retry_count + 1, last_retry_at = ?, last_error = f.error, " +
+            "locked_by = NULL, locked_until = NULL " +
+            "FROM unnest(?::bigint[], ?::text[]) AS f(id, error) WHERE o.id = f.id";
+
+    private static final String DEAD_LETTER_SQL =
+            "WITH dead AS (" +
+            "  DELETE FROM outbox_events o USING unnest(?::bigint[], ?::text[]) AS f(id, error) WHERE o.id = f.id " +
+            "  RETURNING o.id, o.aggregate_id, o.aggregate_type, o.event_type, o.payload::text AS payload, " +
+            "            o.retry_count + 1 AS retry_count, f.error, o.created_at) " +
+            "INSERT INTO outbox_dead_letters (outbox_id, aggregate_id, aggregate_type, event_type, payload, " +
+            "                                 retry_count, last_error, created_at, dead_at) " +
+            "SELECT id, aggregate_id, aggregate_type, event_type, payload, retry_count, error, created_at, ? FROM dead";
+
+    private static final String COUNT_BACKLOG_SQL =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM outbox_events " +
+            "WHERE published = FALSE AND retry_count < ? LIMIT ?) backlog";
+
+    private static final String COUNT_BACKLOG_BY_LANE_SQL =
+            "SELECT partition_key, COUNT(*) FROM (SELECT partition_key FROM outbox_events " +
+            "WHERE published = FALSE AND retry_count < ? LIMIT ?) backlog GROUP BY partition_key";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** A send that was not acknowledged. */
+    public record Failure(long id, String error) {}
+
+    /** Creates the lane rows if missing (Flyway seeds them; schemas built by Hibernate do not). */
+    public void ensureLanes() {
+        jdbcTemplate.update(ENSURE_LANES_SQL, OutboxEvent.PARTITIONS - 1);
+    }
+
+    /**
+     * Leases to owner until leaseUntil the free lane, served least recently, that has a row to send now;
+     * null when there is none.
+     */
+    public Integer claimLane(String owner, Instant leaseUntil, int maxRetries, long backoffMs, long maxBackoffMs) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Integer> lanes = jdbcTemplate.queryForList(CLAIM_LANE_SQL, Integer.class,
+                owner, Timestamp.from(leaseUntil), now, now, maxRetries, backoffMs, maxBackoffMs, now);
+        return lanes.isEmpty() ? null : lanes.get(0);
+    }
+
+    public void releaseLane(int lane, String owner) {
+        jdbcTemplate.update(RELEASE_LANE_SQL, lane, owner);
+    }
+
+    /**
+     * Leases up to limit rows of a lane held by owner until leaseUntil, oldest first. Failed rows are only
+     * claimable again after backoffMs * 2^(retries - 1), at most maxBackoffMs, since their last attempt, and
+     * hold back the later events of their aggregate until then.
+     */
+    public List<OutboxEvent> claim(String owner, int lane, Instant leaseUntil, int maxRetries, long backoffMs,
+                                   long maxBackoffMs, int limit) {
+        Instant now = Instant.now();
+        List<OutboxEvent> claimed = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> OutboxEvent.builder()
+                        .id(rs.getLong(1))
+                        .aggregateId(rs.getString(2))
+                        .aggregateType(rs.getString(3))
+                        .eventType(rs.getString(4))
+                        .payload(rs.getString(5))
+                        .retryCount(rs.getInt(6))
+                        .createdAt(rs.getTimestamp(7).toInstant())
+                        .correlationId(rs.getString(8))
+                        .partitionKey(lane)
+                        .lockedBy(owner)
+                        .lockedUntil(leaseUntil)
+                        .build(),
+                owner, Timestamp.from(leaseUntil), lane, maxRetries, backoffMs, maxBackoffMs, Timestamp.from(now),
+                limit);
+        // RETURNING does not keep the subquery's order
+        claimed.sort(Comparator.comparing(OutboxEvent::getCreatedAt).thenComparing(OutboxEvent::getId));
+        return claimed;
+    }
+
+    /** One UPDATE for the whole batch. */
+    public int markPublished(List<Long> ids, Instant publishedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(MARK_PUBLISHED_SQL);
+            ps.setTimestamp(1, Timestamp.from(publishedAt));
+            ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /** Drops the row lease of claimed rows that were not sent, without counting an attempt. */
+    public int releaseRows(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(RELEASE_ROWS_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /** One UPDATE for the whole batch: bumps retry_count and stamps last_retry_at, which starts the backoff. */
+    public int markFailed(List<Failure> failures, Instant failedAt) {
+        if (failures.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(MARK_FAILED_SQL);
+            ps.setTimestamp(1, Timestamp.from(failedAt));
+            setFailures(con, ps, 2, failures);
+            return ps;
+        });
+    }
+
+    /** Moves rows out of outbox_events into outbox_dead_letters, in one statement. */
+    public int moveToDeadLetters(List<Failure> failures, Instant deadAt) {
+        if (failures.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(DEAD_LETTER_SQL);
+            setFailures(con, ps, 1, failures);
+            ps.setTimestamp(3, Timestamp.from(deadAt));
+            return ps;
+        });
+    }
+
+    private static void setFailures(Connection con, PreparedStatement ps, int index, List<Failure> failures)
+            throws SQLException {
+        Object[] ids = new Object[failures.size()];
+        Object[] errors = new Object[failures.size()];
+        for (int i = 0; i < failures.size(); i++) {
+            String error = failures.get(i).error();
+            ids[i] = failures.get(i).id();
+            errors[i] = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        }
+        ps.setArray(index, con.createArrayOf("bigint", ids));
+        ps.setArray(index + 1, con.createArrayOf("text", errors));
+    }
+
+    /** Unpublished rows still to be retried, counted up to cap (an exact count is not needed to size workers). */
+    public long countBacklog(int maxRetries, int cap) {
+        Long count = jdbcTemplate.queryForObject(COUNT_BACKLOG_SQL, Long.class, maxRetries, cap);
+        return count != null ? count : 0;
+    }
+
+    /** Unpublished rows still to be retried per lane (index = lane), over at most cap rows in total. */
+    public long[] countBacklogByLane(int maxRetries, int cap) {
+        long[] backlog = new long[OutboxEvent.PARTITIONS];
+        jdbcTemplate.query(COUNT_BACKLOG_BY_LANE_SQL, rs -> {
+            backlog[rs.getInt(1)] = rs.getLong(2);
+        }, maxRetries, cap);
+        return backlog;
+    }
+}
@@ -19,6 +19,9 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // ✅ TITAN STANDARD: Find by idempotency key for duplicate detection
     java.util.Optional<Transaction> findByIdempotencyKey(String idempotencyKey);
 
+    // ✅ Bulk transfer replay: item rows are keyed "<batchKey>#<index>"
+    List<Transaction> findByIdempotencyKeyStartingWithOrderByIdAsc(String idempotencyKeyPrefix);
+
     // ✅ FIX: Custom JPQL Query
     // រកមើល Transaction ណាដែល User ជាម្ចាស់គណនីផ្ញើ (fromAccount) ឬ ជាម្ចាស់គណនីទទួល (toAccount)
     @Query("SELECT t FROM Transaction t WHERE " +
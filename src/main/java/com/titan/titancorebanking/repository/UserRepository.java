@@ -3,10 +3,16 @@ package com.titan.titancorebanking.repository;
 // ✅ MUST BE MODEL
 import com.titan.titancorebanking.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // PIN hash only: cached profiles do not carry it
+    @Query("SELECT u.pin FROM User u WHERE u.username = :username")
+    Optional<String> findPinByUsername(@Param("username") String username);
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+package com.titan.titancorebanking.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.riskengine.RiskCheckResponse;
+import com.titan.titancorebanking.model.Account;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🧮 In-JVM risk model: answers when the Risk Engine is unreachable or too slow, and (shadow mode)
+ * scores every remotely-answered transfer too, counting how often both agree on the action.
+ *
+ * The model (TreeEnsembleModel JSON) is read from titan.risk.fallback.model-location, classpath: or file:.
+ * A file: model is re-read when its modification time changes; a model that fails to load is rejected
+ * and the previous one stays active.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddedRiskScorer {
+
+    private static final double SECONDS_PER_DAY = 86_400.0;
+
+    // Reused per thread: scoring allocates nothing
+    private static final ThreadLocal<double[]> FEATURES = ThreadLocal.withInitial(() -> new double[RiskFeatures.COUNT]);
+
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final VelocityFeatureStore velocityFeatureStore;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.risk.fallback.model-location:classpath:risk/fallback-model.json}")
+    private String modelLocation = "classpath:risk/fallback-model.json";
+
+    @Value("${titan.risk.fallback.shadow:true}")
+    private boolean shadow = true;
+
+    private volatile TreeEnsembleModel model;
+    private long modelLastModified;
+    // Account.createdAt is zone-less local time
+    private volatile int localOffsetSeconds;
+
+    private final LongAdder shadowAgreed = new LongAdder();
+    private final LongAdder shadowTotal = new LongAdder();
+    private Counter agree;
+    private Counter disagree;
+    private Counter[] fallbackByAction;
+
+    @PostConstruct
+    void init() {
+        agree = Counter.builder("titan.risk.shadow").tag("agree", "true").register(meterRegistry);
+        disagree = Counter.builder("titan.risk.shadow").tag("agree", "false").register(meterRegistry);
+        fallbackByAction = new Counter[] {
+                fallbackCounter("ALLOW"), fallbackCounter("MANUAL_REVIEW"), fallbackCounter("BLOCK")};
+        localOffsetSeconds = currentOffsetSeconds();
+        try {
+            Resource resource = resourceLoader.getResource(modelLocation);
+            model = load(resource);
+            modelLastModified = lastModified(resource);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("❌ Cannot load embedded risk model from " + modelLocation, e);
+        }
+        log.info("🧮 Embedded risk model {} loaded ({} trees) from {}", model.version(), model.trees(), modelLocation);
+    }
+
+    /**
+     * Final risk answer for a transfer. With a remote answer that answer is used (and compared in shadow
+     * mode); without one (remote == null) the embedded model decides.
+     */
+    public RiskCheckResponse decide(RiskCheckResponse remote, Account from, BigDecimal amount) {
+        if (remote != null && !shadow) {
+            return remote;
+        }
+        // The model was trained on velocity including the transfer being scored
+        double velocity = velocityFeatureStore.userCount1h(from.getUser().getId()) + 1;
+        TreeEnsembleModel current = model;
+        double[] x = FEATURES.get();
+        x[RiskFeatures.AMOUNT] = amount.doubleValue();
+        x[RiskFeatures.VELOCITY_1H] = velocity;
+        x[RiskFeatures.ACCOUNT_AGE_DAYS] = accountAgeDays(from);
+        x[RiskFeatures.TIER] = from.getUser().getTier() != null ? from.getUser().getTier().ordinal() : 0;
+        RiskCheckResponse local = current.response(current.score(x));
+
+        if (remote == null) {
+            fallbackByAction[actionIndex(local.getAction())].increment();
+            return local;
+        }
+        shadowTotal.increment();
+        if (local.getAction().equalsIgnoreCase(remote.getAction())) {
+            shadowAgreed.increment();
+            agree.increment();
+        } else {
+            disagree.increment();
+            log.debug("🔍 Shadow disagreement: remote {} ({}) vs local {} ({}), amount={}, velocity={}",
+                    remote.getAction(), remote.getRiskScore(), local.getAction(), local.getRiskScore(), amount, velocity);
+        }
+        return remote;
+    }
+
+    /**
+     * Hot swap for file: models, plus the shadow agreement summary since the last run.
+     */
+    @Scheduled(fixedDelayString = "${titan.risk.fallback.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        localOffsetSeconds = currentOffsetSeconds();
+        logShadowAgreement();
+
+        Resource resource = resourceLoader.getResource(modelLocation);
+        long lastModified = lastModified(resource);
+        if (lastModified <= 0 || lastModified == modelLastModified) {
+            return;
+        }
+        try {
+            TreeEnsembleModel next = load(resource);
+            String previous = model.version();
+            model = next;
+            modelLastModified = lastModified;
+            reloadCounter("swapped").increment();
+            log.info("🧮 Embedded risk model swapped: {} → {} ({} trees)", previous, next.version(), next.trees());
+        } catch (IOException | RuntimeException e) {
+            // Remember the broken file so it is not re-parsed every interval; a new write retries
+            modelLastModified = lastModified;
+            reloadCounter("rejected").increment();
+            log.error("❌ Embedded risk model at {} rejected, keeping {}: {}", modelLocation, model.version(), e.getMessage());
+        }
+    }
+
+    public String modelVersion() {
+        return model.version();
+    }
+
+    private void logShadowAgreement() {
+        long total = shadowTotal.sumThenReset();
+        long agreed = shadowAgreed.sumThenReset();
+        if (total > 0) {
+            log.info("🔍 Shadow mode: model {} agreed with the Risk Engine on {}% of {} transfers",
+                    model.version(), String.format("%.1f", 100.0 * agreed / total), total);
+        }
+    }
+
+    private TreeEnsembleModel load(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return TreeEnsembleModel.parse(in, objectMapper);
+        }
+    }
+
+    private double accountAgeDays(Account account) {
+        if (account.getCreatedAt() == null) {
+            return 0;
+        }
+        long nowLocal = System.currentTimeMillis() / 1000 + localOffsetSeconds;
+        return Math.max(0, (nowLocal - account.getCreatedAt().toEpochSecond(ZoneOffset.UTC)) / SECONDS_PER_DAY);
+    }
+
+    private static int currentOffsetSeconds() {
+        return ZoneId.systemDefault().getRules().getOffset(java.time.Instant.now()).getTotalSeconds();
+    }
+
+    private static long lastModified(Resource resource) {
+        if (!resource.isFile()) {
+            return 0; // classpath models are fixed for the life of the process
+        }
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static int actionIndex(String action) {
+        return switch (action) {
+            case "BLOCK" -> 2;
+            case "MANUAL_REVIEW" -> 1;
+            default -> 0;
+        };
+    }
+
+    private Counter fallbackCounter(String action) {
+        return Counter.builder("titan.risk.fallback.scored").tag("action", action).register(meterRegistry);
+    }
+
+    private Counter reloadCounter(String result) {
+        return Counter.builder("titan.risk.fallback.model.reloads").tag("result", result).register(meterRegistry);
+    }
+}
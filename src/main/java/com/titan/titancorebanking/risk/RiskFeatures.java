@@ -0,0 +1,29 @@
+package com.titan.titancorebanking.risk;
+
+import java.util.List;
+
+/**
+ * Feature vector of the embedded risk model. Models name their features; these are the names they
+ * can use, and the index each one has in the double[] passed to TreeEnsembleModel.score.
+ */
+public final class RiskFeatures {
+
+    public static final int AMOUNT = 0;            // transfer amount in the sender's currency
+    public static final int VELOCITY_1H = 1;       // transfers by the same user in the last hour (approximate)
+    public static final int ACCOUNT_AGE_DAYS = 2;  // age of the sending account
+    public static final int TIER = 3;              // UserTier ordinal: STANDARD=0 .. VIP=3
+
+    public static final List<String> NAMES = List.of("amount", "velocity_1h", "account_age_days", "tier");
+    public static final int COUNT = NAMES.size();
+
+    private RiskFeatures() {
+    }
+
+    static int indexOf(String name) {
+        int index = NAMES.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("❌ Unknown risk feature: " + name + " (known: " + NAMES + ")");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,149 @@
+package com.titan.titancorebanking.risk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.riskengine.RiskCheckResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Immutable tree ensemble (gradient-boosted trees, or single-split rules) flattened into primitive arrays.
+ * score() walks the arrays only — no allocation, no boxing — and returns 0..100.
+ *
+ * JSON format:
+ * <pre>
+ * { "version": "...", "base_score": -3.0, "link": "logistic" | "identity",
+ *   "thresholds": { "manual_review": 60, "block": 85 },
+ *   "trees": [ { "nodes": [ { "feature": "amount", "threshold": 10000, "left": 1, "right": 2 },
+ *                           { "leaf": -0.5 }, { "leaf": 2.0 } ] } ] }
+ * </pre>
+ * A node goes left when feature &lt; threshold. Child indices are relative to their tree and must point
+ * forward, so every walk terminates. With the logistic link the score is 100 * sigmoid(sum of leaves);
+ * with identity the sum itself is the score.
+ */
+public final class TreeEnsembleModel {
+
+    private static final int LEAF = -1;
+
+    private final String version;
+    private final double baseScore;
+    private final boolean logistic;
+    private final int[] roots;
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final double[] leaf;
+    private final int manualReviewAt;
+    private final int blockAt;
+    private final RiskCheckResponse[] responses = new RiskCheckResponse[101];
+
+    private TreeEnsembleModel(String version, double baseScore, boolean logistic, int[] roots, int[] feature,
+                              double[] threshold, int[] left, int[] right, double[] leaf,
+                              int manualReviewAt, int blockAt) {
+        this.version = version;
+        this.baseScore = baseScore;
+        this.logistic = logistic;
+        this.roots = roots;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.leaf = leaf;
+        this.manualReviewAt = manualReviewAt;
+        this.blockAt = blockAt;
+        // One shared response per score: callers get a ready-made answer without building one
+        for (int score = 0; score <= 100; score++) {
+            String action = score >= blockAt ? "BLOCK" : score >= manualReviewAt ? "MANUAL_REVIEW" : "ALLOW";
+            String level = score >= blockAt ? "HIGH" : score >= manualReviewAt ? "MEDIUM" : "LOW";
+            responses[score] = RiskCheckResponse.newBuilder()
+                    .setRiskScore(score).setRiskLevel(level).setAction(action).build();
+        }
+    }
+
+    public static TreeEnsembleModel parse(InputStream in, ObjectMapper objectMapper) throws IOException {
+        JsonNode root = objectMapper.readTree(in);
+        JsonNode trees = root.path("trees");
+        if (!trees.isArray() || trees.isEmpty()) {
+            throw new IllegalArgumentException("❌ Risk model has no trees");
+        }
+        int total = 0;
+        for (JsonNode tree : trees) {
+            total += tree.path("nodes").size();
+        }
+
+        int[] roots = new int[trees.size()];
+        int[] feature = new int[total];
+        double[] threshold = new double[total];
+        int[] left = new int[total];
+        int[] right = new int[total];
+        double[] leaf = new double[total];
+
+        int offset = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            JsonNode nodes = trees.get(t).path("nodes");
+            if (nodes.isEmpty()) {
+                throw new IllegalArgumentException("❌ Risk model tree " + t + " is empty");
+            }
+            roots[t] = offset;
+            for (int n = 0; n < nodes.size(); n++) {
+                JsonNode node = nodes.get(n);
+                int i = offset + n;
+                if (node.has("leaf")) {
+                    feature[i] = LEAF;
+                    leaf[i] = node.get("leaf").asDouble();
+                    continue;
+                }
+                int l = node.path("left").asInt(-1);
+                int r = node.path("right").asInt(-1);
+                if (l <= n || r <= n || l >= nodes.size() || r >= nodes.size()) {
+                    throw new IllegalArgumentException("❌ Risk model tree " + t + " node " + n + " has invalid children");
+                }
+                feature[i] = RiskFeatures.indexOf(node.path("feature").asText());
+                threshold[i] = node.path("threshold").asDouble();
+                left[i] = offset + l;
+                right[i] = offset + r;
+            }
+            offset += nodes.size();
+        }
+
+        JsonNode thresholds = root.path("thresholds");
+        return new TreeEnsembleModel(
+                root.path("version").asText("unversioned"),
+                root.path("base_score").asDouble(0),
+                !"identity".equals(root.path("link").asText("logistic")),
+                roots, feature, threshold, left, right, leaf,
+                thresholds.path("manual_review").asInt(60),
+                thresholds.path("block").asInt(85));
+    }
+
+    /**
+     * @param x feature vector indexed as in RiskFeatures
+     * @return risk score 0..100
+     */
+    public int score(double[] x) {
+        double sum = baseScore;
+        for (int root : roots) {
+            int n = root;
+            while (feature[n] != LEAF) {
+                n = x[feature[n]] < threshold[n] ? left[n] : right[n];
+            }
+            sum += leaf[n];
+        }
+        double value = logistic ? 100.0 / (1.0 + Math.exp(-sum)) : sum;
+        return (int) Math.max(0, Math.min(100, Math.round(value)));
+    }
+
+    public RiskCheckResponse response(int score) {
+        return responses[score];
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public int trees() {
+        return roots.length;
+    }
+}
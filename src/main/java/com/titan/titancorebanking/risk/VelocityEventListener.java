@@ -0,0 +1,57 @@
+package com.titan.titancorebanking.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.enums.TransactionStatus;
+import com.titan.titancorebankingevent.service.TransactionCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds VelocityFeatureStore from the TransactionCompleted outbox stream, so transfers committed on other
+ * instances show up in this instance's features. Every instance is its own consumer group and starts at
+ * the latest offset: history comes from the Redis snapshots, not from replaying the topic.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class VelocityEventListener {
+
+    private final VelocityFeatureStore velocityFeatureStore;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${kafka.topic.transaction-completed:banking.transactions.completed}",
+            groupId = "velocity-features-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void onTransactionCompleted(Object payload, Acknowledgment ack) {
+        try {
+            TransactionCompletedEvent event = payload instanceof String json
+                    ? objectMapper.readValue(json, TransactionCompletedEvent.class)
+                    : objectMapper.convertValue(payload, TransactionCompletedEvent.class);
+            // Outflows only: deposits have no source account
+            if (TransactionStatus.SUCCESS.name().equals(event.getStatus()) && event.getSourceAccountNumber() != null) {
+                velocityFeatureStore.recordEvent(parseId(event.getTransactionId()), event.getUserId(),
+                        event.getSourceAccountNumber(), event.getTargetAccountNumber(), event.getAmount(),
+                        event.getMetadata() != null ? event.getMetadata().get("clientIp") : null,
+                        event.getTimestamp() != null ? event.getTimestamp().toEpochMilli() : System.currentTimeMillis());
+            }
+        } catch (Exception e) {
+            // A malformed event must not stall the stream; velocity is a risk signal, not a ledger
+            log.warn("⚠️ Velocity update skipped: {}", e.getMessage());
+        } finally {
+            ack.acknowledge();
+        }
+    }
+
+    private static Long parseId(String transactionId) {
+        try {
+            return transactionId != null ? Long.valueOf(transactionId) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package com.titan.titancorebanking.risk;
+
+import com.titan.riskengine.RiskCheckRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📈 Sliding-window velocity features per user and per sending account: count and sum over the last
+ * 1m / 1h / 24h, distinct counterparties over 24h and the last client IP.
+ *
+ * Fed by the transfer path (after commit) and by TransactionCompleted outbox events (VelocityEventListener),
+ * which also carry the transfers of other instances; both are keyed by transaction id so each transfer
+ * counts once. Every window is a fixed ring of primitive buckets — no allocation per transfer once the
+ * key is known.
+ *
+ * Dirty keys are snapshotted to Redis every titan.velocity.snapshot-interval-ms. A key this instance has
+ * not seen yet (restart, scale-out) starts from its snapshot; the event stream is consumed from "latest",
+ * so only transfers inside one snapshot interval can be counted twice — these are risk signals, not balances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VelocityFeatureStore {
+
+    private static final String USER_KEY = "velocity:user:";
+    private static final String ACCOUNT_KEY = "velocity:account:";
+
+    // Bucket times are seconds since 2024-01-01 UTC: small ints for decades
+    private static final long EPOCH_MS = 1_704_067_200_000L;
+    private static final int DAY_S = 86_400;
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.velocity.redis-enabled:true}")
+    private boolean redisEnabled = true;
+
+    @Value("${titan.velocity.snapshot-ttl-hours:25}")
+    private long snapshotTtlHours = 25;
+
+    // How long a transaction id is remembered for de-duplicating the transfer path against outbox events
+    @Value("${titan.velocity.dedup-window-ms:600000}")
+    private long dedupWindowMs = 600_000;
+
+    private final Map<Long, Windows> users = new ConcurrentHashMap<>();
+    private final Map<String, Windows> accounts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> recentTransactions = new ConcurrentHashMap<>();
+
+    private Counter recordedTransfer;
+    private Counter recordedEvent;
+    private Counter duplicates;
+    private Counter snapshotKeys;
+    private Counter snapshotFailures;
+    private Counter hydrateHit;
+    private Counter hydrateMiss;
+    private Counter hydrateError;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("titan.velocity.keys", users, Map::size).tag("kind", "user").register(meterRegistry);
+        Gauge.builder("titan.velocity.keys", accounts, Map::size).tag("kind", "account").register(meterRegistry);
+        recordedTransfer = Counter.builder("titan.velocity.updates").tag("source", "transfer").register(meterRegistry);
+        recordedEvent = Counter.builder("titan.velocity.updates").tag("source", "outbox").register(meterRegistry);
+        duplicates = Counter.builder("titan.velocity.updates").tag("source", "duplicate").register(meterRegistry);
+        snapshotKeys = Counter.builder("titan.velocity.snapshot.keys").register(meterRegistry);
+        snapshotFailures = Counter.builder("titan.velocity.snapshot.failures").register(meterRegistry);
+        hydrateHit = Counter.builder("titan.velocity.hydrate").tag("result", "hit").register(meterRegistry);
+        hydrateMiss = Counter.builder("titan.velocity.hydrate").tag("result", "miss").register(meterRegistry);
+        hydrateError = Counter.builder("titan.velocity.hydrate").tag("result", "error").register(meterRegistry);
+    }
+
+    // ==================================================================================
+    // ✍️ UPDATES
+    // ==================================================================================
+
+    /**
+     * A committed transfer on this instance. The client IP is taken from the current request, if any.
+     */
+    public void recordTransfer(Long transactionId, Long userId, String fromAccountNumber, String toAccountNumber,
+                               BigDecimal amount) {
+        if (record(transactionId, userId, fromAccountNumber, toAccountNumber, amount, currentClientIp(),
+                System.currentTimeMillis())) {
+            recordedTransfer.increment();
+        }
+    }
+
+    /**
+     * An outflow seen on the TransactionCompleted event stream (this or another instance).
+     */
+    public void recordEvent(Long transactionId, Long userId, String fromAccountNumber, String toAccountNumber,
+                            BigDecimal amount, String clientIp, long occurredAtMs) {
+        if (record(transactionId, userId, fromAccountNumber, toAccountNumber, amount, clientIp, occurredAtMs)) {
+            recordedEvent.increment();
+        }
+    }
+
+    boolean record(Long transactionId, Long userId, String fromAccountNumber, String toAccountNumber,
+                   BigDecimal amount, String clientIp, long nowMs) {
+        if (transactionId != null && recentTransactions.putIfAbsent(transactionId, nowMs) != null) {
+            duplicates.increment();
+            return false;
+        }
+        int now = seconds(nowMs);
+        long cents = Math.round(amount.doubleValue() * 100); // features, not ledger: no BigDecimal per update
+        long counterparty = toAccountNumber != null ? hash(toAccountNumber) : 0;
+        if (userId != null) {
+            windows(users, userId, USER_KEY, now).add(now, cents, counterparty, clientIp);
+        }
+        if (fromAccountNumber != null) {
+            windows(accounts, fromAccountNumber, ACCOUNT_KEY, now).add(now, cents, counterparty, clientIp);
+        }
+        return true;
+    }
+
+    // ==================================================================================
+    // 📖 READS
+    // ==================================================================================
+
+    /**
+     * Copies the sender's features into a Risk Engine request.
+     */
+    public RiskCheckRequest.Builder applyTo(RiskCheckRequest.Builder request, Long userId, String fromAccountNumber) {
+        int now = seconds(System.currentTimeMillis());
+        if (fromAccountNumber != null) {
+            request.setAccountNumber(fromAccountNumber);
+            Windows account = windows(accounts, fromAccountNumber, ACCOUNT_KEY, now);
+            synchronized (account) {
+                request.setAccountCount1H(account.count(Windows.HOUR, now))
+                        .setAccountSum24H(account.sumCents(Windows.DAY, now) / 100.0);
+            }
+        }
+        if (userId != null) {
+            Windows user = windows(users, userId, USER_KEY, now);
+            synchronized (user) {
+                request.setUserCount1M(user.count(Windows.MINUTE, now))
+                        .setUserSum1M(user.sumCents(Windows.MINUTE, now) / 100.0)
+                        .setUserCount1H(user.count(Windows.HOUR, now))
+                        .setUserSum1H(user.sumCents(Windows.HOUR, now) / 100.0)
+                        .setUserCount24H(user.count(Windows.DAY, now))
+                        .setUserSum24H(user.sumCents(Windows.DAY, now) / 100.0)
+                        .setUserDistinctCounterparties24H(user.distinctCounterparties(now));
+                if (user.lastIp != null) {
+                    request.setLastIp(user.lastIp);
+                }
+            }
+        }
+        return request;
+    }
+
+    /** Transfers by the user over the last hour. */
+    public int userCount1h(Long userId) {
+        return userCount(userId, Windows.HOUR, System.currentTimeMillis());
+    }
+
+    int userCount(Long userId, int window, long nowMs) {
+        Windows w = users.get(userId);
+        if (w == null) {
+            return 0;
+        }
+        synchronized (w) {
+            return w.count(window, seconds(nowMs));
+        }
+    }
+
+    long userSumCents(Long userId, int window, long nowMs) {
+        Windows w = users.get(userId);
+        if (w == null) {
+            return 0;
+        }
+        synchronized (w) {
+            return w.sumCents(window, seconds(nowMs));
+        }
+    }
+
+    int userDistinctCounterparties(Long userId, long nowMs) {
+        Windows w = users.get(userId);
+        if (w == null) {
+            return 0;
+        }
+        synchronized (w) {
+            return w.distinctCounterparties(seconds(nowMs));
+        }
+    }
+
+    // ==================================================================================
+    // 🔁 SNAPSHOTS + EVICTION
+    // ==================================================================================
+
+    /**
+     * Writes dirty keys to Redis (one pipeline) and forgets keys idle for a full day.
+     */
+    @Scheduled(fixedDelayString = "${titan.velocity.snapshot-interval-ms:5000}")
+    public void snapshotAndEvict() {
+        long nowMs = System.currentTimeMillis();
+        int now = seconds(nowMs);
+        recentTransactions.values().removeIf(seenAt -> seenAt < nowMs - dedupWindowMs);
+        users.values().removeIf(w -> w.idleSince(now - DAY_S));
+        accounts.values().removeIf(w -> w.idleSince(now - DAY_S));
+        if (!redisEnabled) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+        List<Windows> written = new ArrayList<>();
+        collectDirty(users, USER_KEY, keys, values, written);
+        collectDirty(accounts, ACCOUNT_KEY, keys, values, written);
+        if (keys.isEmpty()) {
+            return;
+        }
+        Expiration ttl = Expiration.from(snapshotTtlHours, TimeUnit.HOURS);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    connection.stringCommands().set(keys.get(i).getBytes(StandardCharsets.UTF_8), values.get(i),
+                            ttl, RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+            snapshotKeys.increment(keys.size());
+        } catch (Exception e) {
+            snapshotFailures.increment();
+            log.warn("⚠️ Velocity snapshot of {} keys failed, retrying next interval: {}", keys.size(), e.getMessage());
+            for (Windows w : written) {
+                synchronized (w) {
+                    w.dirty = true;
+                }
+            }
+        }
+    }
+
+    private static <K> void collectDirty(Map<K, Windows> map, String prefix, List<String> keys, List<byte[]> values,
+                                         List<Windows> written) {
+        map.forEach((key, w) -> {
+            byte[] encoded;
+            synchronized (w) {
+                if (!w.dirty) {
+                    return;
+                }
+                w.dirty = false;
+                encoded = w.encode();
+            }
+            keys.add(prefix + key);
+            values.add(Base64.getEncoder().encode(encoded));
+            written.add(w);
+        });
+    }
+
+    private <K> Windows windows(Map<K, Windows> map, K key, String prefix, int now) {
+        Windows w = map.get(key);
+        if (w == null) {
+            Windows created = hydrate(prefix + key);
+            created.lastAccess = now;
+            w = map.putIfAbsent(key, created);
+            if (w == null) {
+                return created;
+            }
+        }
+        w.lastAccess = now;
+        return w;
+    }
+
+    // First touch of a key on this instance: start from the shared snapshot, if there is one
+    private Windows hydrate(String redisKey) {
+        if (!redisEnabled) {
+            return new Windows();
+        }
+        try {
+            String encoded = redisTemplate.opsForValue().get(redisKey);
+            if (encoded == null) {
+                hydrateMiss.increment();
+                return new Windows();
+            }
+            hydrateHit.increment();
+            return Windows.decode(Base64.getDecoder().decode(encoded));
+        } catch (Exception e) {
+            hydrateError.increment();
+            log.debug("Velocity snapshot {} unavailable: {}", redisKey, e.getMessage());
+            return new Windows();
+        }
+    }
+
+    static int seconds(long epochMs) {
+        return (int) ((epochMs - EPOCH_MS) / 1000);
+    }
+
+    // 64-bit FNV-1a; 0 is reserved for "empty slot"
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h == 0 ? 1 : h;
+    }
+
+    private static String currentClientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            HttpServletRequest request = servlet.getRequest();
+            return request.getRemoteAddr();
+        }
+        return null;
+    }
+
+    /**
+     * Three bucket rings in one set of primitive arrays, plus a small counterparty table.
+     * Layout: [0,12) 1m in 5 s buckets · [12,72) 1h in 1 min buckets · [72,96) 24h in 1 h buckets.
+     * All access is synchronized on the instance.
+     */
+    static final class Windows {
+
+        static final int MINUTE = 0;
+        static final int HOUR = 1;
+        static final int DAY = 2;
+
+        private static final int[] WIDTH_S = {5, 60, 3_600};
+        private static final int[] SLOTS = {12, 60, 24};
+        private static final int[] OFFSET = {0, 12, 72};
+        private static final int BUCKETS = 96;
+        // Distinct counterparties are exact up to this many per day, then a floor
+        private static final int COUNTERPARTIES = 16;
+        private static final byte FORMAT = 1;
+
+        private final int[] stamp = new int[BUCKETS];
+        private final int[] count = new int[BUCKETS];
+        private final long[] sumCents = new long[BUCKETS];
+        private final long[] counterparty = new long[COUNTERPARTIES];
+        private final int[] counterpartySeen = new int[COUNTERPARTIES];
+        private String lastIp;
+        private int lastSeen;
+        private boolean dirty;
+        private volatile int lastAccess;
+
+        synchronized void add(int now, long cents, long counterpartyHash, String ip) {
+            for (int w = 0; w < 3; w++) {
+                int bucket = now / WIDTH_S[w];
+                int i = OFFSET[w] + bucket % SLOTS[w];
+                if (stamp[i] != bucket) {
+                    stamp[i] = bucket;
+                    count[i] = 0;
+                    sumCents[i] = 0;
+                }
+                count[i]++;
+                sumCents[i] += cents;
+            }
+            if (counterpartyHash != 0) {
+                seeCounterparty(counterpartyHash, now);
+            }
+            if (ip != null && now >= lastSeen) {
+                lastIp = ip;
+            }
+            lastSeen = Math.max(lastSeen, now);
+            dirty = true;
+        }
+
+        int count(int window, int now) {
+            int bucket = now / WIDTH_S[window];
+            int total = 0;
+            for (int i = OFFSET[window], end = i + SLOTS[window]; i < end; i++) {
+                if (stamp[i] > bucket - SLOTS[window] && stamp[i] <= bucket) {
+                    total += count[i];
+                }
+            }
+            return total;
+        }
+
+        long sumCents(int window, int now) {
+            int bucket = now / WIDTH_S[window];
+            long total = 0;
+            for (int i = OFFSET[window], end = i + SLOTS[window]; i < end; i++) {
+                if (stamp[i] > bucket - SLOTS[window] && stamp[i] <= bucket) {
+                    total += sumCents[i];
+                }
+            }
+            return total;
+        }
+
+        int distinctCounterparties(int now) {
+            int total = 0;
+            for (int i = 0; i < COUNTERPARTIES; i++) {
+                if (counterparty[i] != 0 && counterpartySeen[i] > now - DAY_S) {
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        boolean idleSince(int cutoff) {
+            return lastAccess < cutoff && lastSeen < cutoff;
+        }
+
+        // Known counterparty: refresh; otherwise take an empty slot, else the least recently seen one
+        private void seeCounterparty(long hash, int seenAt) {
+            int victim = -1;
+            for (int i = 0; i < COUNTERPARTIES; i++) {
+                if (counterparty[i] == hash) {
+                    counterpartySeen[i] = Math.max(counterpartySeen[i], seenAt);
+                    return;
+                }
+                if (counterparty[i] == 0) {
+                    if (victim < 0 || counterparty[victim] != 0) {
+                        victim = i;
+                    }
+                } else if (victim < 0 || (counterparty[victim] != 0 && counterpartySeen[i] < counterpartySeen[victim])) {
+                    victim = i;
+                }
+            }
+            if (counterparty[victim] == 0 || counterpartySeen[victim] < seenAt) {
+                counterparty[victim] = hash;
+                counterpartySeen[victim] = seenAt;
+            }
+        }
+
+        /** Live buckets and counterparties only: a user with a few transfers encodes to a few hundred bytes. */
+        byte[] encode() {
+            byte[] ip = lastIp != null ? lastIp.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            int live = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (count[i] != 0) {
+                    live++;
+                }
+            }
+            int parties = 0;
+            for (int i = 0; i < COUNTERPARTIES; i++) {
+                if (counterparty[i] != 0) {
+                    parties++;
+                }
+            }
+            ByteBuffer out = ByteBuffer.allocate(1 + 4 + 1 + ip.length + 1 + live * 17 + 1 + parties * 12);
+            out.put(FORMAT).putInt(lastSeen).put((byte) ip.length).put(ip);
+            out.put((byte) live);
+            for (int i = 0; i < BUCKETS; i++) {
+                if (count[i] != 0) {
+                    out.put((byte) i).putInt(stamp[i]).putInt(count[i]).putLong(sumCents[i]);
+                }
+            }
+            out.put((byte) parties);
+            for (int i = 0; i < COUNTERPARTIES; i++) {
+                if (counterparty[i] != 0) {
+                    out.putLong(counterparty[i]).putInt(counterpartySeen[i]);
+                }
+            }
+            return out.array();
+        }
+
+        static Windows decode(byte[] bytes) {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.get() != FORMAT) {
+                throw new IllegalStateException("❌ Unknown velocity snapshot format");
+            }
+            Windows w = new Windows();
+            w.lastSeen = in.getInt();
+            byte[] ip = new byte[in.get() & 0xff];
+            in.get(ip);
+            w.lastIp = ip.length > 0 ? new String(ip, StandardCharsets.UTF_8) : null;
+            for (int n = in.get() & 0xff; n > 0; n--) {
+                int i = in.get() & 0xff;
+                w.stamp[i] = in.getInt();
+                w.count[i] = in.getInt();
+                w.sumCents[i] = in.getLong();
+            }
+            for (int n = in.get() & 0xff; n > 0; n--) {
+                w.seeCounterparty(in.getLong(), in.getInt());
+            }
+            return w;
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.titan.titancorebanking.saga;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.titan.titancorebanking.enums.TransactionStatus;
+import com.titan.titancorebanking.event.AccountBalanceChangedEvent;
 import com.titan.titancorebanking.model.Transaction;
 import com.titan.titancorebanking.repository.AccountRepository;
 import com.titan.titancorebanking.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
@@ -36,6 +38,7 @@ public class TransactionSagaOrchestrator {
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
     private final ObjectMapper objectMapper;
 
     /**
@@ -63,6 +66,10 @@ public class TransactionSagaOrchestrator {
                 var to = tx.getToAccount();
                 BigDecimal amount = tx.getAmount();
 
+                // Before the write: refused (→ DLQ) on an instance that is not the PARTITIONED balance writer
+                applicationEventPublisher.publishEvent(
+                        AccountBalanceChangedEvent.of(from.getAccountNumber(), to.getAccountNumber()));
+
                 from.setBalance(from.getBalance().add(amount));
                 to.setBalance(to.getBalance().subtract(amount));
 
@@ -2,6 +2,8 @@ package com.titan.titancorebanking.service;
 
 import com.titan.titancorebanking.dto.request.AccountRequest;
 import com.titan.titancorebanking.dto.request.TransactionRequest;
+import com.titan.titancorebanking.engine.PartitionedTransferEngine;
+import com.titan.titancorebanking.event.AccountBalanceChangedEvent;
 import com.titan.titancorebanking.model.Account;
 import com.titan.titancorebanking.model.Transaction;
 import com.titan.titancorebanking.model.User;
@@ -10,6 +12,7 @@ import com.titan.titancorebanking.enums.AccountStatus;
 import com.titan.titancorebanking.enums.Currency;
 import com.titan.titancorebanking.enums.TransactionStatus;
 import com.titan.titancorebanking.enums.TransactionType;
+import com.titan.titancorebanking.repository.AccountLiveState;
 import com.titan.titancorebanking.repository.AccountRepository;
 import com.titan.titancorebanking.repository.TransactionRepository;
 import com.titan.titancorebanking.repository.UserRepository;
@@ -20,17 +23,20 @@ import com.titan.titancorebanking.exception.InsufficientBalanceException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import io.github.resilience4j.retry.annotation.Retry;
 
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
@@ -40,12 +46,13 @@ public class AccountService {
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final StringRedisTemplate redisTemplate;
+    private final PinVerificationService pinVerificationService;
     private final ExchangeRateService exchangeRateService;
+    private final PartitionedTransferEngine partitionedTransferEngine;
+    private final CacheService cacheService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final PinAttemptService pinAttemptService;
 
-    private static final String PIN_ATTEMPT_PREFIX = "PIN:ATTEMPTS:";
-    private static final String PIN_LOCK_PREFIX = "PIN:LOCKED:";
     private static final int MAX_ACCOUNTS = 10;
 
     // ... (getMyAccounts, getBalance, getAccountStatement, createAccount នៅដដែល) ...
@@ -111,21 +118,20 @@ public class AccountService {
     @Retry(name = "db")
     public Transaction transferMoney(TransactionRequest request, String currentUsername) {
 
-        // 1. Validate & Fetch User
-        User currentUser = userRepository.findByUsername(currentUsername)
+        // 1. Validate & Fetch User (cached copy: read-only, PIN hash from the database)
+        User currentUser = Optional.ofNullable(cacheService.getUserProfile(currentUsername))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         if (!currentUser.isAccountNonLocked()) {
             throw new SecurityException("⛔ ACCOUNT LOCKED");
         }
-        if (Boolean.TRUE.equals(redisTemplate.hasKey(PIN_LOCK_PREFIX + currentUsername))) {
-            throw new SecurityException("⏳ Too many wrong attempts.");
-        }
-        if (!passwordEncoder.matches(request.pin(), currentUser.getPin())) {
-            handlePinFailure(currentUsername, currentUser);
+        pinAttemptService.ensureNotLocked(currentUsername);
+        String pinHash = userRepository.findPinByUsername(currentUsername).orElse(null);
+        if (!pinVerificationService.matches(currentUser, pinHash, request.pin())) {
+            pinAttemptService.recordFailure(currentUsername);
             throw new SecurityException("❌ Incorrect PIN!");
         }
-        resetPinAttempts(currentUsername);
+        pinAttemptService.reset(currentUsername);
 
         // 2. Fetch Accounts
         Account fromAccount = accountRepository.findByAccountNumber(request.fromAccountNumber())
@@ -138,6 +144,12 @@ public class AccountService {
         Account toAccount = accountRepository.findByAccountNumber(request.toAccountNumber())
                 .orElseThrow(() -> new IllegalArgumentException("Receiver account not found"));
 
+        // ⚙️ PARTITIONED: the engine owns the balances (stripes included), the move runs on it, funds checked on
+        //    its partition. Never the direct path: on an instance without the lease that would bypass the writer
+        if (partitionedTransferEngine.isConfigured()) {
+            return transferOnEngine(request, fromAccount, toAccount, currentUsername);
+        }
+
         // 3. Balance Check (Source Currency)
         if (fromAccount.getBalance().compareTo(request.amount()) < 0) {
             throw new InsufficientBalanceException("Insufficient Balance! Current: " + fromAccount.getBalance());
@@ -172,6 +184,8 @@ public class AccountService {
 
             accountRepository.save(fromAccount);
             accountRepository.save(toAccount);
+            applicationEventPublisher.publishEvent(
+                    AccountBalanceChangedEvent.of(fromAccount.getAccountNumber(), toAccount.getAccountNumber()));
 
             tx.setStatus(TransactionStatus.SUCCESS);
             transactionRepository.save(tx); // Update Status
@@ -186,21 +200,57 @@ public class AccountService {
         return tx;
     }
 
-    // ... (Helper methods: handlePinFailure, etc. នៅដដែល) ...
-    private void handlePinFailure(String username, User user) {
-        String key = PIN_ATTEMPT_PREFIX + username;
-        Long attempts = redisTemplate.opsForValue().increment(key);
-        if (attempts != null && attempts == 1) redisTemplate.expire(key, Duration.ofDays(1));
-        if (attempts != null && attempts == 5) redisTemplate.opsForValue().set(PIN_LOCK_PREFIX + username, "LOCKED", Duration.ofMinutes(5));
-        if (attempts != null && attempts >= 7) { user.setAccountNonLocked(false); userRepository.save(user); redisTemplate.delete(key); }
+    private Transaction transferOnEngine(TransactionRequest request, Account fromAccount, Account toAccount,
+                                         String currentUsername) {
+        BigDecimal targetAmount = request.amount();
+        if (fromAccount.getCurrency() != toAccount.getCurrency()) {
+            targetAmount = exchangeRateService.convert(request.amount(), fromAccount.getCurrency(), toAccount.getCurrency());
+        }
+        String note = (request.note() != null ? request.note() : "")
+                + (fromAccount.getCurrency() != toAccount.getCurrency() ? " [FX Rate Applied]" : "");
+        try {
+            return partitionedTransferEngine.transfer(fromAccount.getAccountNumber(), toAccount.getAccountNumber(),
+                    request.amount(), targetAmount, balance -> BigDecimal.ZERO, note, null, currentUsername).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
-    private void resetPinAttempts(String username) { redisTemplate.delete(PIN_ATTEMPT_PREFIX + username); }
 
     // Helper to keep code clean - add missing methods back if needed
+    // ⚡ Account list from the cache, status/version re-read by primary key; balance as getBalance reports it
     @Transactional(readOnly = true)
-    public List<Account> getMyAccounts(String username) { return accountRepository.findByUserUsername(username); }
+    public List<Account> getMyAccounts(String username) {
+        List<Account> cached = cacheService.getUserAccounts(username);
+        if (cached.isEmpty()) {
+            return cached;
+        }
+        Map<Long, AccountLiveState> live = new HashMap<>();
+        for (AccountLiveState state : accountRepository.findLiveStateByIdIn(cached.stream().map(Account::getId).toList())) {
+            live.put(state.id(), state);
+        }
+        List<Account> accounts = new ArrayList<>(cached.size());
+        for (Account account : cached) {
+            AccountLiveState state = live.get(account.getId());
+            if (state == null) {
+                continue; // removed since it was cached
+            }
+            Account current = CacheService.detach(account, account.getUser());
+            current.setBalance(state.balance());
+            current.setStatus(state.status());
+            current.setVersion(state.version());
+            current.setBalanceStripes(state.balanceStripes());
+            // Stripes and the engine's in-memory balance included, so the list and the balance endpoint agree
+            current.setBalance(partitionedTransferEngine.effectiveBalance(current));
+            accounts.add(current);
+        }
+        return accounts;
+    }
+
     @Transactional(readOnly = true)
     public BigDecimal getBalance(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber).map(Account::getBalance).orElse(BigDecimal.ZERO);
+        return accountRepository.findByAccountNumber(accountNumber).map(partitionedTransferEngine::effectiveBalance).orElse(BigDecimal.ZERO);
     }
 }
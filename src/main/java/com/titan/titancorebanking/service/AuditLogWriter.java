@@ -0,0 +1,371 @@
+package com.titan.titancorebanking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.enums.AuditOverflowPolicy;
+import com.titan.titancorebanking.model.AuditLog;
+import com.titan.titancorebanking.repository.AuditLogJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 📼 Background writer for @AuditLog entries: the aspect hands entries to a lock-free bounded ring
+ * buffer and returns; one writer thread drains it and inserts up to titan.audit-log.max-batch rows
+ * with multi-row INSERTs (AuditLogJdbcRepository).
+ *
+ * When the buffer is full, titan.audit-log.overflow-policy decides (see AuditOverflowPolicy).
+ * Spilled entries, and batches the database rejected, go to a local spill file that the writer
+ * re-inserts once the buffer is empty, including after a restart.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogWriter {
+
+    private static final String SPILL_FILE = "audit-log.spill";
+    private static final String DRAINING_FILE = "audit-log.spill.draining";
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AuditLogJdbcRepository auditLogJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.audit-log.buffer-capacity:16384}")
+    private int bufferCapacity = 16_384;
+
+    @Value("${titan.audit-log.max-batch:500}")
+    private int maxBatch = 500;
+
+    @Value("${titan.audit-log.flush-interval-ms:20}")
+    private long flushIntervalMs = 20;
+
+    @Value("${titan.audit-log.overflow-policy:SPILL}")
+    private AuditOverflowPolicy overflowPolicy = AuditOverflowPolicy.SPILL;
+
+    @Value("${titan.audit-log.block-timeout-ms:100}")
+    private long blockTimeoutMs = 100;
+
+    @Value("${titan.audit-log.sample-every:10}")
+    private int sampleEvery = 10;
+
+    @Value("${titan.audit-log.spill-dir:data/audit-log-spill}")
+    private String spillDir = "data/audit-log-spill";
+
+    @Value("${titan.audit-log.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    private RingBuffer<AuditLog> buffer;
+    private Path spillFile;
+    private Path drainingFile;
+    private final Object spillLock = new Object();
+    private final AtomicLong spilledPending = new AtomicLong();
+    private final AtomicLong overflowSeq = new AtomicLong();
+
+    private Thread writerThread;
+    private volatile boolean running;
+    private long retryNotBefore;
+
+    private Counter blocked;
+    private Counter spilled;
+    private Timer flushLatency;
+    private DistributionSummary batchSize;
+    private Counter written;
+    private Counter flushFailures;
+
+    @PostConstruct
+    void init() throws IOException {
+        open();
+        start();
+    }
+
+    void open() throws IOException {
+        buffer = new RingBuffer<>(bufferCapacity);
+        Path dir = Path.of(spillDir);
+        Files.createDirectories(dir);
+        spillFile = dir.resolve(SPILL_FILE);
+        drainingFile = dir.resolve(DRAINING_FILE);
+        spilledPending.set(countLines(spillFile) + countLines(drainingFile));
+
+        Gauge.builder("titan.audit.log.buffer.depth", this, w -> w.buffer.size()).register(meterRegistry);
+        Gauge.builder("titan.audit.log.spill.depth", spilledPending, AtomicLong::get).register(meterRegistry);
+        blocked = delayedCounter("blocked");
+        spilled = delayedCounter("spilled");
+        flushLatency = Timer.builder("titan.audit.log.flush.latency").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        batchSize = DistributionSummary.builder("titan.audit.log.batch.size").register(meterRegistry);
+        written = Counter.builder("titan.audit.log.written").register(meterRegistry);
+        flushFailures = Counter.builder("titan.audit.log.flush.failures").register(meterRegistry);
+        if (spilledPending.get() > 0) {
+            log.info("📼 {} spilled audit entries will be re-inserted", spilledPending.get());
+        }
+    }
+
+    void start() {
+        running = true;
+        writerThread = new Thread(this::run, "titan-audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Non-blocking unless the buffer is full and the overflow policy says wait.
+     */
+    public void submit(AuditLog entry) {
+        if (buffer.offer(entry)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> blockOrDrop(entry);
+            case SPILL -> spill(List.of(entry));
+            case SAMPLE -> {
+                boolean keep = "FAILURE".equals(entry.getStatus()) || overflowSeq.incrementAndGet() % sampleEvery == 0;
+                if (keep) {
+                    blockOrDrop(entry);
+                } else {
+                    dropped("sampled").increment();
+                }
+            }
+        }
+    }
+
+    private void blockOrDrop(AuditLog entry) {
+        blocked.increment();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(entry)) {
+                return;
+            }
+        }
+        dropped("timeout").increment();
+        log.warn("⚠️ Audit buffer full for {} ms, dropped [{}] by [{}]", blockTimeoutMs, entry.getAction(), entry.getUsername());
+    }
+
+    // ==================================================================================
+    // ✍️ WRITER THREAD
+    // ==================================================================================
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                AuditLog entry;
+                while (batch.size() < maxBatch && (entry = buffer.poll()) != null) {
+                    batch.add(entry);
+                }
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                    continue;
+                }
+                if (spilledPending.get() > 0 && System.currentTimeMillis() >= retryNotBefore
+                        && drainSpill() && running) {
+                    continue;
+                }
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            } catch (Exception e) {
+                log.error("❌ Audit log writer loop error: {}", e.getMessage(), e);
+                batch.clear();
+                retryNotBefore = System.currentTimeMillis() + retryBackoffMs;
+                if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void flush(List<AuditLog> batch) {
+        long start = System.nanoTime();
+        try {
+            auditLogJdbcRepository.insertAll(batch);
+            written.increment(batch.size());
+            batchSize.record(batch.size());
+        } catch (Exception e) {
+            // Keep the buffer moving: failed rows wait on disk, retried after the backoff
+            flushFailures.increment();
+            retryNotBefore = System.currentTimeMillis() + retryBackoffMs;
+            log.error("❌ Audit log insert of {} rows failed, spilling: {}", batch.size(), e.getMessage());
+            spill(batch);
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Inserts spilled entries, all or nothing; returns true if anything was inserted.
+     */
+    private boolean drainSpill() throws IOException {
+        synchronized (spillLock) {
+            if (!Files.exists(drainingFile) && Files.exists(spillFile)) {
+                Files.move(spillFile, drainingFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        if (!Files.exists(drainingFile)) {
+            return false;
+        }
+        List<AuditLog> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(drainingFile, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                try {
+                    entries.add(objectMapper.readValue(line, AuditLog.class));
+                } catch (IOException e) {
+                    log.warn("⚠️ Skipping unreadable spilled audit entry: {}", e.getMessage());
+                }
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            // One transaction for the whole file: audit_logs has no natural key to dedupe a partial insert on retry
+            auditLogJdbcRepository.insertAll(entries);
+        } catch (Exception e) {
+            flushFailures.increment();
+            retryNotBefore = System.currentTimeMillis() + retryBackoffMs;
+            log.error("❌ Re-inserting {} spilled audit entries failed: {}", entries.size(), e.getMessage());
+            return false;
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        Files.delete(drainingFile);
+        spilledPending.addAndGet(-entries.size());
+        written.increment(entries.size());
+        batchSize.record(entries.size());
+        return !entries.isEmpty();
+    }
+
+    private void spill(List<AuditLog> entries) {
+        try {
+            StringBuilder lines = new StringBuilder(entries.size() * 200);
+            for (AuditLog entry : entries) {
+                lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+            }
+            synchronized (spillLock) {
+                Files.writeString(spillFile, lines, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            spilledPending.addAndGet(entries.size());
+            spilled.increment(entries.size());
+        } catch (IOException e) {
+            dropped("spill-error").increment(entries.size());
+            log.error("❌ Audit spill failed, dropped {} entries: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    private Counter delayedCounter(String reason) {
+        return Counter.builder("titan.audit.log.delayed").tag("reason", reason).register(meterRegistry);
+    }
+
+    private Counter dropped(String reason) {
+        return Counter.builder("titan.audit.log.dropped")
+                .tag("policy", overflowPolicy.name())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static long countLines(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return lines.filter(l -> !l.isBlank()).count();
+        }
+    }
+
+    /**
+     * Bounded multi-producer ring (per-slot sequence numbers, one CAS per offer); a single consumer polls.
+     */
+    static final class RingBuffer<E> {
+        private final AtomicReferenceArray<E> slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;
+
+        RingBuffer(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            slots = new AtomicReferenceArray<>(capacity);
+            sequences = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(E element) {
+            long pos = tail.get();
+            while (true) {
+                int index = (int) (pos & mask);
+                long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        slots.set(index, element);
+                        sequences.set(index, pos + 1); // publish
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (diff < 0) {
+                    return false; // full: slot not yet consumed one lap ago
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+
+        /** Single consumer only. */
+        E poll() {
+            long pos = head;
+            int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) {
+                return null;
+            }
+            E element = slots.get(index);
+            slots.set(index, null);
+            sequences.set(index, pos + mask + 1); // free for the next lap
+            head = pos + 1;
+            return element;
+        }
+
+        int size() {
+            return (int) Math.max(0, tail.get() - head);
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+}
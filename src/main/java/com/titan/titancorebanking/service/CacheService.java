@@ -1,20 +1,29 @@
 package com.titan.titancorebanking.service;
 
+import com.titan.titancorebanking.model.Account;
 import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.repository.AccountRepository;
 import com.titan.titancorebanking.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Caching service for high-read/low-write data.
- * Uses Redis for distributed caching across instances.
+ * Backed by TwoLevelCacheManager: a local L1 per node plus Redis L2, evictions broadcast to every node.
+ *
+ * Cached users and accounts are detached copies shared between requests: read them, never modify or save
+ * them. Load the entity from its repository to change it, then call evictUserProfile. Cached users carry
+ * no password or PIN hash.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,6 +31,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class CacheService {
     
     private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
     
     // In-memory cache for exchange rates (updated every 5 minutes)
     private final Map<String, BigDecimal> exchangeRateCache = new ConcurrentHashMap<>();
@@ -29,13 +39,60 @@ public class CacheService {
     @Cacheable(value = "user-profiles", key = "#username", unless = "#result == null")
     public User getUserProfile(String username) {
         log.debug("Cache miss - fetching user profile: {}", username);
-        return userRepository.findByUsername(username).orElse(null);
+        return userRepository.findByUsername(username).map(CacheService::detach).orElse(null);
     }
-    
-    @CacheEvict(value = "user-profiles", key = "#username")
+
+    // Account list as of load time: balance and status change with every transfer, callers re-read them
+    @Cacheable(value = "user_accounts", key = "#username")
+    @Transactional(readOnly = true)
+    public List<Account> getUserAccounts(String username) {
+        log.debug("Cache miss - fetching accounts: {}", username);
+        List<Account> accounts = accountRepository.findByUserUsername(username);
+        User owner = accounts.isEmpty() ? null : detach(accounts.get(0).getUser());
+        return accounts.stream().map(account -> detach(account, owner)).toList();
+    }
+
+    // 🔒 Lock, tier or PIN change: dropped on every node (after commit when called inside a transaction)
+    @Caching(evict = {
+            @CacheEvict(value = "user-profiles", key = "#username"),
+            @CacheEvict(value = "user_accounts", key = "#username")
+    })
     public void evictUserProfile(String username) {
         log.info("Evicted user profile from cache: {}", username);
     }
+
+    /**
+     * A copy without the lazy accounts collection, safe to serialize and share. Password and PIN hashes are
+     * left out so they never reach Redis: verify credentials against userRepository.
+     */
+    static User detach(User user) {
+        return User.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .tier(user.getTier())
+                .accountNonLocked(user.isAccountNonLocked())
+                .build();
+    }
+
+    static Account detach(Account account, User owner) {
+        return Account.builder()
+                .id(account.getId())
+                .accountNumber(account.getAccountNumber())
+                .accountType(account.getAccountType())
+                .currency(account.getCurrency())
+                .balance(account.getBalance())
+                .overdraftLimit(account.getOverdraftLimit())
+                .user(owner)
+                .createdAt(account.getCreatedAt())
+                .status(account.getStatus())
+                .balanceStripes(account.getBalanceStripes())
+                .version(account.getVersion())
+                .build();
+    }
     
     @Cacheable(value = "exchange-rates", key = "#fromCurrency + '-' + #toCurrency")
     public BigDecimal getExchangeRate(String fromCurrency, String toCurrency) {
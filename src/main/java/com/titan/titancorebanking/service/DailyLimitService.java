@@ -0,0 +1,433 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.Currency;
+import com.titan.titancorebanking.enums.UserTier;
+import com.titan.titancorebanking.exception.DailyLimitExceededException;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.repository.DailyOutflowJdbcRepository;
+import com.titan.titancorebanking.repository.DailyOutflowJdbcRepository.DailyOutflow;
+import com.titan.titancorebanking.service.imple.ExchangeRateService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🚦 Per-transaction and daily outflow limits, checked without touching the database.
+ *
+ * Limits are configured per UserTier (all of the user's accounts together) and per AccountType (each
+ * account on its own), in USD; the stricter one wins. Running totals for the current day live in Redis
+ * (limit:{yyyyMMdd}:user:{id}, limit:{yyyyMMdd}:account:{number}) and are reserved with one Lua script per
+ * check: both counters are incremented, and rolled back inside the script if either would exceed its limit.
+ * Keys expire an hour after the day ends.
+ *
+ * A reservation is released when the surrounding transaction rolls back or the transfer is blocked; a bulk
+ * transfer gives back the part of its reservation that its failed items did not use.
+ *
+ * Each reply refreshes the local per-key counters (a ConcurrentHashMap of AtomicLong: no global lock).
+ * If Redis is unavailable the local counters decide alone — per instance, so degraded — and what they
+ * reserved is pushed to Redis with INCRBY once it is back.
+ *
+ * On startup today's totals are rebuilt from the transactions table (one grouped query) and written to
+ * Redis with max() semantics, so instances starting together do not add them twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyLimitService {
+
+    private static final String KEY_PREFIX = "limit:";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    // Redis Lua numbers are doubles: keep "unlimited" well inside 2^53
+    private static final long UNLIMITED = 1L << 50;
+
+    // KEYS: user, account · ARGV: cents, user limit, account limit, expire-at (epoch seconds)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> RESERVE = new DefaultRedisScript<>(
+            "local amount = tonumber(ARGV[1]) " +
+            "local user = redis.call('INCRBY', KEYS[1], amount) " +
+            "local account = redis.call('INCRBY', KEYS[2], amount) " +
+            "redis.call('EXPIREAT', KEYS[1], ARGV[4]) " +
+            "redis.call('EXPIREAT', KEYS[2], ARGV[4]) " +
+            "if user > tonumber(ARGV[2]) or account > tonumber(ARGV[3]) then " +
+            "  redis.call('DECRBY', KEYS[1], amount) " +
+            "  redis.call('DECRBY', KEYS[2], amount) " +
+            "  return {0, user - amount, account - amount} " +
+            "end " +
+            "return {1, user, account}", (Class<List<Long>>) (Class) List.class);
+
+    // KEYS: counters · ARGV[1]: delta (negative to release) · ARGV[2]: expire-at
+    private static final RedisScript<Long> ADD = new DefaultRedisScript<>(
+            "for i, key in ipairs(KEYS) do " +
+            "  if redis.call('INCRBY', key, ARGV[1]) < 0 then redis.call('SET', key, 0) end " +
+            "  redis.call('EXPIREAT', key, ARGV[2]) " +
+            "end " +
+            "return 1", Long.class);
+
+    // KEYS[1]: counter · ARGV: total from the database, expire-at
+    private static final RedisScript<Long> RAISE_TO = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "if tonumber(ARGV[1]) > current then redis.call('SET', KEYS[1], ARGV[1]) current = tonumber(ARGV[1]) end " +
+            "redis.call('EXPIREAT', KEYS[1], ARGV[2]) " +
+            "return current", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final DailyOutflowJdbcRepository dailyOutflowJdbcRepository;
+    private final ExchangeRateService exchangeRateService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.limits.enabled:true}")
+    private boolean enabled = true;
+
+    // Business day boundary for the daily counters
+    @Value("${titan.limits.zone:UTC}")
+    private String zone = "UTC";
+
+    @Value("${titan.limits.tier.standard.daily:25000}")
+    private BigDecimal standardDaily = new BigDecimal("25000");
+    @Value("${titan.limits.tier.standard.per-transaction:15000}")
+    private BigDecimal standardPerTransaction = new BigDecimal("15000");
+    @Value("${titan.limits.tier.gold.daily:50000}")
+    private BigDecimal goldDaily = new BigDecimal("50000");
+    @Value("${titan.limits.tier.gold.per-transaction:25000}")
+    private BigDecimal goldPerTransaction = new BigDecimal("25000");
+    @Value("${titan.limits.tier.platinum.daily:100000}")
+    private BigDecimal platinumDaily = new BigDecimal("100000");
+    @Value("${titan.limits.tier.platinum.per-transaction:50000}")
+    private BigDecimal platinumPerTransaction = new BigDecimal("50000");
+    @Value("${titan.limits.tier.vip.daily:500000}")
+    private BigDecimal vipDaily = new BigDecimal("500000");
+    @Value("${titan.limits.tier.vip.per-transaction:250000}")
+    private BigDecimal vipPerTransaction = new BigDecimal("250000");
+
+    // 0 = no account-type cap, the tier limit applies alone
+    @Value("${titan.limits.account-type.savings.daily:20000}")
+    private BigDecimal savingsDaily = new BigDecimal("20000");
+    @Value("${titan.limits.account-type.savings.per-transaction:0}")
+    private BigDecimal savingsPerTransaction = BigDecimal.ZERO;
+    @Value("${titan.limits.account-type.checking.daily:0}")
+    private BigDecimal checkingDaily = BigDecimal.ZERO;
+    @Value("${titan.limits.account-type.checking.per-transaction:0}")
+    private BigDecimal checkingPerTransaction = BigDecimal.ZERO;
+    @Value("${titan.limits.account-type.fixed-deposit.daily:5000}")
+    private BigDecimal fixedDepositDaily = new BigDecimal("5000");
+    @Value("${titan.limits.account-type.fixed-deposit.per-transaction:5000}")
+    private BigDecimal fixedDepositPerTransaction = new BigDecimal("5000");
+    @Value("${titan.limits.account-type.loan.daily:10000}")
+    private BigDecimal loanDaily = new BigDecimal("10000");
+    @Value("${titan.limits.account-type.loan.per-transaction:10000}")
+    private BigDecimal loanPerTransaction = new BigDecimal("10000");
+
+    /** Daily and per-transaction limit in USD cents; UNLIMITED when not capped. */
+    record Limit(long dailyCents, long perTransactionCents) {}
+
+    private final Map<UserTier, Limit> tierLimits = new EnumMap<>(UserTier.class);
+    private final Map<AccountType, Limit> accountTypeLimits = new EnumMap<>(AccountType.class);
+
+    // Key → today's total in cents as last seen (Redis reply or local reservation)
+    private final Map<String, AtomicLong> localTotals = new ConcurrentHashMap<>();
+    // Key → cents reserved while Redis was unavailable, not yet added there
+    private final Map<String, AtomicLong> unsynced = new ConcurrentHashMap<>();
+
+    private ZoneId zoneId;
+    private Timer checkLatency;
+    private Counter allowed;
+    private Counter rejectedPerTransaction;
+    private Counter rejectedUserDaily;
+    private Counter rejectedAccountDaily;
+    private Counter degraded;
+
+    @PostConstruct
+    void init() {
+        zoneId = ZoneId.of(zone);
+        tierLimits.put(UserTier.STANDARD, limit(standardDaily, standardPerTransaction));
+        tierLimits.put(UserTier.GOLD, limit(goldDaily, goldPerTransaction));
+        tierLimits.put(UserTier.PLATINUM, limit(platinumDaily, platinumPerTransaction));
+        tierLimits.put(UserTier.VIP, limit(vipDaily, vipPerTransaction));
+        accountTypeLimits.put(AccountType.SAVINGS, limit(savingsDaily, savingsPerTransaction));
+        accountTypeLimits.put(AccountType.CHECKING, limit(checkingDaily, checkingPerTransaction));
+        accountTypeLimits.put(AccountType.FIXED_DEPOSIT, limit(fixedDepositDaily, fixedDepositPerTransaction));
+        accountTypeLimits.put(AccountType.LOAN, limit(loanDaily, loanPerTransaction));
+
+        checkLatency = Timer.builder("titan.limits.check.latency").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        allowed = resultCounter("allowed");
+        rejectedPerTransaction = resultCounter("per_transaction");
+        rejectedUserDaily = resultCounter("daily_user");
+        rejectedAccountDaily = resultCounter("daily_account");
+        degraded = Counter.builder("titan.limits.degraded")
+                .description("Checks decided by local counters because Redis was unavailable")
+                .register(meterRegistry);
+        Gauge.builder("titan.limits.unsynced.keys", unsynced, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Handle on reserved daily allowance; release() gives it back (blocked transfer), release(amount) a part
+     * of it (failed bulk items). Rolled-back transactions release what is left automatically.
+     */
+    public final class LimitReservation {
+        private final String userKey;
+        private final String accountKey;
+        private final Currency currency;
+        private final AtomicLong cents;
+
+        private LimitReservation(String userKey, String accountKey, Currency currency, long cents) {
+            this.userKey = userKey;
+            this.accountKey = accountKey;
+            this.currency = currency;
+            this.cents = new AtomicLong(cents);
+        }
+
+        public void release() {
+            long left = cents.getAndSet(0);
+            if (left > 0) {
+                add(-left, userKey, accountKey);
+            }
+        }
+
+        /** Gives back part of the reservation, in the sender's currency; never more than is still held. */
+        public void release(BigDecimal amount) {
+            if (amount == null || amount.signum() <= 0 || cents.get() <= 0) {
+                return;
+            }
+            long wanted = usdCents(amount, currency);
+            long left = cents.getAndUpdate(c -> Math.max(0, c - wanted));
+            long released = Math.min(left, wanted);
+            if (released > 0) {
+                add(-released, userKey, accountKey);
+            }
+        }
+    }
+
+    /**
+     * Checks the per-transaction limit and reserves the amount against today's user and account totals.
+     *
+     * @throws DailyLimitExceededException if any limit would be exceeded (nothing is reserved then)
+     */
+    public LimitReservation reserve(User owner, Account from, BigDecimal amount) {
+        return reserve(owner, from, amount, amount);
+    }
+
+    /**
+     * Bulk variant: the per-transaction limit applies to the largest item, the daily limits to the total.
+     */
+    public LimitReservation reserve(User owner, Account from, BigDecimal total, BigDecimal largestItem) {
+        if (!enabled) {
+            return new LimitReservation(null, null, null, 0);
+        }
+        long start = System.nanoTime();
+        try {
+            Limit tier = tierLimits.get(owner.getTier() != null ? owner.getTier() : UserTier.STANDARD);
+            Limit type = accountTypeLimits.get(from.getAccountType());
+            long cents = usdCents(total, from.getCurrency());
+            long largestCents = largestItem == total ? cents : usdCents(largestItem, from.getCurrency());
+
+            long perTransaction = Math.min(tier.perTransactionCents(), type.perTransactionCents());
+            if (largestCents > perTransaction) {
+                rejectedPerTransaction.increment();
+                throw new DailyLimitExceededException("⛔ Amount exceeds the per-transaction limit of "
+                        + usd(perTransaction) + " USD");
+            }
+
+            LocalDate today = LocalDate.now(zoneId);
+            String userKey = key(today, "user:", owner.getId());
+            String accountKey = key(today, "account:", from.getAccountNumber());
+            long expireAt = today.plusDays(1).atStartOfDay(zoneId).toEpochSecond() + 3_600;
+
+            long[] totals = reserveInRedis(userKey, accountKey, cents, tier.dailyCents(), type.dailyCents(), expireAt);
+            if (totals == null) {
+                totals = reserveLocally(userKey, accountKey, cents, tier.dailyCents(), type.dailyCents());
+            }
+            if (totals[0] == 0) {
+                boolean userLimited = totals[1] + cents > tier.dailyCents();
+                (userLimited ? rejectedUserDaily : rejectedAccountDaily).increment();
+                long limit = userLimited ? tier.dailyCents() : type.dailyCents();
+                throw new DailyLimitExceededException("⛔ Daily " + (userLimited ? "" : "account ") + "limit of "
+                        + usd(limit) + " USD reached (" + usd(Math.max(0, limit - (userLimited ? totals[1] : totals[2])))
+                        + " USD left today)");
+            }
+            allowed.increment();
+
+            LimitReservation reservation = new LimitReservation(userKey, accountKey, from.getCurrency(), cents);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            reservation.release();
+                        }
+                    }
+                });
+            }
+            return reservation;
+        } finally {
+            checkLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // {1|0, user total, account total}, or null when Redis could not answer
+    private long[] reserveInRedis(String userKey, String accountKey, long cents, long userLimit, long accountLimit,
+                                  long expireAt) {
+        try {
+            List<Long> reply = redisTemplate.execute(RESERVE, List.of(userKey, accountKey), String.valueOf(cents),
+                    String.valueOf(userLimit), String.valueOf(accountLimit), String.valueOf(expireAt));
+            long[] totals = {reply.get(0), reply.get(1), reply.get(2)};
+            localTotals.computeIfAbsent(userKey, k -> new AtomicLong()).set(totals[1]);
+            localTotals.computeIfAbsent(accountKey, k -> new AtomicLong()).set(totals[2]);
+            return totals;
+        } catch (Exception e) {
+            degraded.increment();
+            log.warn("⚠️ Limit counters unavailable in Redis, checking locally: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private long[] reserveLocally(String userKey, String accountKey, long cents, long userLimit, long accountLimit) {
+        AtomicLong user = localTotals.computeIfAbsent(userKey, k -> new AtomicLong());
+        AtomicLong account = localTotals.computeIfAbsent(accountKey, k -> new AtomicLong());
+        long userTotal = user.addAndGet(cents);
+        long accountTotal = account.addAndGet(cents);
+        if (userTotal > userLimit || accountTotal > accountLimit) {
+            user.addAndGet(-cents);
+            account.addAndGet(-cents);
+            return new long[] {0, userTotal - cents, accountTotal - cents};
+        }
+        unsynced.computeIfAbsent(userKey, k -> new AtomicLong()).addAndGet(cents);
+        unsynced.computeIfAbsent(accountKey, k -> new AtomicLong()).addAndGet(cents);
+        return new long[] {1, userTotal, accountTotal};
+    }
+
+    private void add(long cents, String userKey, String accountKey) {
+        localTotals.computeIfPresent(userKey, (k, v) -> { v.addAndGet(cents); return v; });
+        localTotals.computeIfPresent(accountKey, (k, v) -> { v.addAndGet(cents); return v; });
+        try {
+            redisTemplate.execute(ADD, List.of(userKey, accountKey), String.valueOf(cents), String.valueOf(expireAt(userKey)));
+        } catch (Exception e) {
+            unsynced.computeIfAbsent(userKey, k -> new AtomicLong()).addAndGet(cents);
+            unsynced.computeIfAbsent(accountKey, k -> new AtomicLong()).addAndGet(cents);
+        }
+    }
+
+    /**
+     * Pushes reservations made while Redis was down, and drops counters of past days.
+     */
+    @Scheduled(fixedDelayString = "${titan.limits.sync-interval-ms:5000}")
+    public void syncAndEvict() {
+        String todayPrefix = KEY_PREFIX + LocalDate.now(zoneId).format(DAY) + ":";
+        localTotals.keySet().removeIf(key -> !key.startsWith(todayPrefix));
+        unsynced.forEach((key, delta) -> {
+            long cents = delta.getAndSet(0);
+            if (cents == 0) {
+                if (!key.startsWith(todayPrefix)) {
+                    unsynced.remove(key, delta); // past days get no new reservations
+                }
+                return;
+            }
+            try {
+                redisTemplate.execute(ADD, List.of(key), String.valueOf(cents), String.valueOf(expireAt(key)));
+            } catch (Exception e) {
+                delta.addAndGet(cents);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds today's totals from the transactions table — the only query this service runs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now(zoneId);
+        List<DailyOutflow> outflows;
+        try {
+            outflows = dailyOutflowJdbcRepository.outflowsSince(
+                    today.atStartOfDay(zoneId).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+        } catch (Exception e) {
+            log.error("❌ Daily limit reconcile failed, counters start from Redis only: {}", e.getMessage());
+            return;
+        }
+        Map<String, Long> totals = new ConcurrentHashMap<>();
+        for (DailyOutflow outflow : outflows) {
+            long cents = usdCents(outflow.total(), outflow.currency());
+            totals.merge(key(today, "user:", outflow.userId()), cents, Long::sum);
+            totals.merge(key(today, "account:", outflow.accountNumber()), cents, Long::sum);
+        }
+        String expireAt = String.valueOf(today.plusDays(1).atStartOfDay(zoneId).toEpochSecond() + 3_600);
+        int raised = 0;
+        for (Map.Entry<String, Long> total : totals.entrySet()) {
+            long current = total.getValue();
+            try {
+                current = redisTemplate.execute(RAISE_TO, List.of(total.getKey()), String.valueOf(total.getValue()), expireAt);
+                raised++;
+            } catch (Exception e) {
+                log.debug("Limit counter {} kept local: {}", total.getKey(), e.getMessage());
+            }
+            long value = current;
+            localTotals.computeIfAbsent(total.getKey(), k -> new AtomicLong()).accumulateAndGet(value, Math::max);
+        }
+        log.info("🚦 Daily limit counters reconciled: {} keys from {} account totals ({} written to Redis)",
+                totals.size(), outflows.size(), raised);
+    }
+
+    long localTotal(String key) {
+        AtomicLong total = localTotals.get(key);
+        return total != null ? total.get() : 0;
+    }
+
+    String key(LocalDate day, String kind, Object id) {
+        return KEY_PREFIX + day.format(DAY) + ":" + kind + id;
+    }
+
+    private long expireAt(String key) {
+        LocalDate day = LocalDate.parse(key.substring(KEY_PREFIX.length(), KEY_PREFIX.length() + 8), DAY);
+        return day.plusDays(1).atStartOfDay(zoneId).toEpochSecond() + 3_600;
+    }
+
+    private long usdCents(BigDecimal amount, Currency currency) {
+        BigDecimal usd = currency == Currency.USD ? amount : exchangeRateService.convert(amount, currency, Currency.USD);
+        return usd.movePointRight(2).longValue();
+    }
+
+    private static Limit limit(BigDecimal daily, BigDecimal perTransaction) {
+        return new Limit(cents(daily), cents(perTransaction));
+    }
+
+    private static long cents(BigDecimal usd) {
+        return usd == null || usd.signum() <= 0 ? UNLIMITED : usd.movePointRight(2).longValueExact();
+    }
+
+    private static String usd(long cents) {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+
+    private Counter resultCounter(String result) {
+        return Counter.builder("titan.limits.check").tag("result", result).register(meterRegistry);
+    }
+}
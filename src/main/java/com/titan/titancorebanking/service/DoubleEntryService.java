@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -33,7 +34,29 @@ public class DoubleEntryService {
             throw new IllegalArgumentException("Amount must be positive");
         }
         
-        LocalDateTime now = LocalDateTime.now();
+        List<LedgerEntry> entries = buildDoubleEntry(transactionId, debitAccountId, creditAccountId,
+                amount, description, userId, LocalDateTime.now());
+        LedgerEntry debitEntry = entries.get(0);
+        LedgerEntry creditEntry = entries.get(1);
+        
+        ledgerRepository.save(debitEntry);
+        ledgerRepository.save(creditEntry);
+        
+        log.info("Created double-entry for transaction {} - Debit: {}, Credit: {}, Amount: {}", 
+                 transactionId, debitAccountId, creditAccountId, amount);
+    }
+    
+    /**
+     * Build (but do not save) the balanced debit/credit pair — used by bulk writers that insert
+     * ledger rows in one JDBC batch.
+     */
+    public List<LedgerEntry> buildDoubleEntry(Long transactionId,
+                                              Long debitAccountId,
+                                              Long creditAccountId,
+                                              BigDecimal amount,
+                                              String description,
+                                              String userId,
+                                              LocalDateTime now) {
         
         // Create debit entry (money out)
         LedgerEntry debitEntry = LedgerEntry.builder()
@@ -57,11 +80,7 @@ public class DoubleEntryService {
             .createdBy(userId)
             .build();
         
-        ledgerRepository.save(debitEntry);
-        ledgerRepository.save(creditEntry);
-        
-        log.info("Created double-entry for transaction {} - Debit: {}, Credit: {}, Amount: {}", 
-                 transactionId, debitAccountId, creditAccountId, amount);
+        return List.of(debitEntry, creditEntry);
     }
     
     /**
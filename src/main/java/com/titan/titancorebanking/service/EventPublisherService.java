@@ -1,5 +1,6 @@
 package com.titan.titancorebanking.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.titan.titancorebankingevent.service.TransactionCompletedEvent;
 import com.titan.titancorebanking.model.Account;
@@ -10,6 +11,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -30,17 +33,7 @@ public class EventPublisherService {
      */
     public void publishTransactionCompletedEvent(Transaction transaction) {
         try {
-            TransactionCompletedEvent event = buildTransactionCompletedEvent(transaction);
-            String payload = objectMapper.writeValueAsString(event);
-            
-            OutboxEvent outbox = OutboxEvent.builder()
-                .aggregateId(transaction.getId().toString())
-                .aggregateType("Transaction")
-                .eventType("TransactionCompleted")
-                .payload(payload)
-                .build();
-            
-            outboxRepository.save(outbox);
+            outboxRepository.save(toOutboxEvent(transaction));
             
             log.info("✅ Event saved to outbox: TX ID: {}", transaction.getId());
             
@@ -50,6 +43,21 @@ public class EventPublisherService {
         }
     }
 
+    /**
+     * Build (but do not save) the outbox row for a completed transaction — used by bulk writers
+     * that insert outbox rows in one JDBC batch.
+     */
+    public OutboxEvent toOutboxEvent(Transaction transaction) throws JsonProcessingException {
+        TransactionCompletedEvent event = buildTransactionCompletedEvent(transaction);
+        return OutboxEvent.builder()
+            .aggregateId(transaction.getId().toString())
+            .aggregateType("Transaction")
+            .eventType("TransactionCompleted")
+            .payload(objectMapper.writeValueAsString(event))
+            .correlationId(event.getCorrelationId())
+            .build();
+    }
+
     private TransactionCompletedEvent buildTransactionCompletedEvent(Transaction tx) {
         // ✅ SMART ACCOUNT DETECTION
         // Transaction អាចមាន fromAccount ឬ toAccount អាស្រ័យលើ Type
@@ -69,6 +77,10 @@ public class EventPublisherService {
         Map<String, String> metadata = new HashMap<>();
         metadata.put("source", "titan-core-banking");
         metadata.put("channel", "mobile-app");
+        String clientIp = clientIp();
+        if (clientIp != null) {
+            metadata.put("clientIp", clientIp); // velocity features on every instance
+        }
 
         return TransactionCompletedEvent.builder()
                 .eventId(UUID.randomUUID().toString())
@@ -83,8 +95,16 @@ public class EventPublisherService {
                 .sourceAccountNumber(tx.getFromAccount() != null ? tx.getFromAccount().getAccountNumber() : null)
                 .targetAccountNumber(tx.getToAccount() != null ? tx.getToAccount().getAccountNumber() : null)
                 .username(username)
+                .userId(primaryAccount != null && primaryAccount.getUser() != null ? primaryAccount.getUser().getId() : null)
                 .note(tx.getNote())
                 .metadata(metadata)
                 .build();
     }
-}
\ No newline at end of file
+
+    private static String clientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes servlet) {
+            return servlet.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,226 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.enums.HashingLane;
+import com.titan.titancorebanking.exception.HashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 🧮 Dedicated pool for BCrypt work (password + PIN), so a login storm cannot eat the CPU that
+ * transfers need.
+ *
+ * - CPU-sized fixed pool; Tomcat threads only wait for the result, they never hash themselves
+ * - priority queue: PIN before LOGIN before ENCODE (strict, FIFO inside a lane)
+ * - admission per lane: a lane holds at most titan.hashing.lane-capacity.* queued + running tasks;
+ *   beyond that the call fails at once with {@link HashingOverloadedException} (HTTP 503)
+ * - a caller that waits longer than titan.hashing.max-wait-ms gives up; its task is skipped if
+ *   it has not started yet
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.hashing.enabled:true}")
+    private boolean enabled = true;
+
+    // 0 → one thread per available processor
+    @Value("${titan.hashing.threads:0}")
+    private int threads = 0;
+
+    @Value("${titan.hashing.max-wait-ms:2000}")
+    private long maxWaitMs = 2000;
+
+    @Value("${titan.hashing.lane-capacity.pin:256}")
+    private int pinCapacity = 256;
+
+    @Value("${titan.hashing.lane-capacity.login:128}")
+    private int loginCapacity = 128;
+
+    @Value("${titan.hashing.lane-capacity.encode:32}")
+    private int encodeCapacity = 32;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<HashingLane, LaneState> lanes = new EnumMap<>(HashingLane.class);
+    private ThreadPoolExecutor executor;
+
+    private final class LaneState {
+        final Semaphore admission;
+        final AtomicInteger queued = new AtomicInteger();
+        final Timer queueWait;
+        final Timer hashTime;
+        final Counter rejected;
+
+        LaneState(HashingLane lane, int capacity) {
+            String tag = lane.name().toLowerCase();
+            admission = new Semaphore(capacity);
+            Gauge.builder("titan.hashing.queue.depth", queued, AtomicInteger::get)
+                    .tag("lane", tag).register(meterRegistry);
+            queueWait = Timer.builder("titan.hashing.queue.wait").tag("lane", tag)
+                    .publishPercentiles(0.5, 0.99).register(meterRegistry);
+            hashTime = Timer.builder("titan.hashing.duration").tag("lane", tag)
+                    .publishPercentiles(0.5, 0.99).register(meterRegistry);
+            rejected = Counter.builder("titan.hashing.rejected").tag("lane", tag).register(meterRegistry);
+        }
+    }
+
+    private final class HashTask<T> implements Runnable, Comparable<HashTask<?>> {
+        final HashingLane lane;
+        final long seq = sequence.incrementAndGet();
+        final long enqueuedAt = System.nanoTime();
+        final Supplier<T> work;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        HashTask(HashingLane lane, Supplier<T> work) {
+            this.lane = lane;
+            this.work = work;
+        }
+
+        @Override
+        public int compareTo(HashTask<?> other) {
+            int byLane = Integer.compare(lane.ordinal(), other.lane.ordinal());
+            return byLane != 0 ? byLane : Long.compare(seq, other.seq);
+        }
+
+        @Override
+        public void run() {
+            LaneState state = lanes.get(lane);
+            state.queued.decrementAndGet();
+            try {
+                if (result.isDone()) {
+                    return; // caller already gave up
+                }
+                state.queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                long start = System.nanoTime();
+                try {
+                    result.complete(work.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    state.hashTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            } finally {
+                state.admission.release();
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        lanes.put(HashingLane.PIN, new LaneState(HashingLane.PIN, pinCapacity));
+        lanes.put(HashingLane.LOGIN, new LaneState(HashingLane.LOGIN, loginCapacity));
+        lanes.put(HashingLane.ENCODE, new LaneState(HashingLane.ENCODE, encodeCapacity));
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "titan-hash-" + threadIndex.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                });
+        // All workers up front: every task then goes through the priority queue
+        executor.prestartAllCoreThreads();
+        log.info("🧮 Hashing pool started: {} threads, lane capacity pin={} login={} encode={}",
+                size, pinCapacity, loginCapacity, encodeCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(CharSequence raw, String encoded, HashingLane lane) {
+        return run(lane, () -> passwordEncoder.matches(raw, encoded));
+    }
+
+    public String encode(CharSequence raw, HashingLane lane) {
+        return run(lane, () -> passwordEncoder.encode(raw));
+    }
+
+    /**
+     * PasswordEncoder view bound to one lane, for components that only take a PasswordEncoder
+     * (DaoAuthenticationProvider).
+     */
+    public PasswordEncoder encoderFor(HashingLane lane) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return HashingService.this.encode(rawPassword, lane);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return HashingService.this.matches(rawPassword, encodedPassword, lane);
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return passwordEncoder.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    private <T> T run(HashingLane lane, Supplier<T> work) {
+        if (!enabled || Thread.currentThread().getName().startsWith("titan-hash-")) {
+            return work.get();
+        }
+        LaneState state = lanes.get(lane);
+        if (!state.admission.tryAcquire()) {
+            state.rejected.increment();
+            throw new HashingOverloadedException("⏳ Authentication is busy, please retry shortly.");
+        }
+        HashTask<T> task = new HashTask<>(lane, work);
+        state.queued.incrementAndGet();
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            state.queued.decrementAndGet();
+            state.admission.release();
+            state.rejected.increment();
+            throw new HashingOverloadedException("⏳ Authentication is busy, please retry shortly.");
+        }
+
+        try {
+            return task.result.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            task.result.cancel(false);
+            state.rejected.increment();
+            throw new HashingOverloadedException("⏳ Authentication timed out, please retry shortly.");
+        } catch (InterruptedException e) {
+            task.result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new HashingOverloadedException("⏳ Authentication interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -1,82 +1,322 @@
 package com.titan.titancorebanking.service;
 
+import com.titan.titancorebanking.exception.IdempotencyConflictException;
 import com.titan.titancorebanking.model.Transaction;
 import com.titan.titancorebanking.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * 🔁 Claim-before-execute idempotency.
+ *
+ * One Lua round-trip per request: if the key is absent it is set to IN_FLIGHT:{token} with a short TTL
+ * and the caller executes; otherwise the stored value comes back. A finished request overwrites its claim
+ * with COMPLETED:{result} for the long TTL (after commit when a transaction is active), a failed one deletes
+ * it — only if it still holds its own token — so a retry can run again.
+ *
+ * A duplicate that finds IN_FLIGHT re-runs the claim with backoff for up to wait-ms: it gets the finished
+ * result, or the claim itself if the first request failed, or IdempotencyConflictException (409).
+ *
+ * Transactions store their id (COMPLETED:{txId}); a replay is one primary-key lookup. The HTTP filter
+ * stores its binary-encoded response under its own key namespace; while it holds a claim for the request,
+ * a transaction claim for the same key is covered by it and takes no second Redis key. If Redis is unavailable the unique
+ * idempotency_key column is the only guard and the database is looked up, unless RecentIdempotencyKeys
+ * knows the key is new.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class IdempotencyService {
-    
+
+    public static final String IN_FLIGHT = "IN_FLIGHT:";
+    public static final String COMPLETED = "COMPLETED:";
+
+    // KEYS: key · ARGV: in-flight value, in-flight TTL (ms) — returns nil when claimed, else the stored value
+    private static final RedisScript<String> CLAIM = new DefaultRedisScript<>(
+            "local v = redis.call('GET', KEYS[1]) " +
+            "if v then return v end " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "return false", String.class);
+
+    // KEYS: key · ARGV: own in-flight value, completed value, TTL (ms) — never overwrites another claim
+    private static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>(
+            "local v = redis.call('GET', KEYS[1]) " +
+            "if v and v ~= ARGV[1] then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "return 1", Long.class);
+
+    // KEYS: key · ARGV: own in-flight value
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0", Long.class);
+
+    // Values may be binary (encoded HTTP responses): Latin-1 maps each byte to one char and back
+    private static final RedisSerializer<String> VALUES = new StringRedisSerializer(StandardCharsets.ISO_8859_1);
+    private static final RedisSerializer<Long> COUNT = new GenericToStringSerializer<>(Long.class);
+
+    // Key the HTTP filter has claimed for the request running on this thread
+    private static final ThreadLocal<String> REQUEST_CLAIM = new ThreadLocal<>();
+
     private final TransactionRepository transactionRepository;
     private final StringRedisTemplate redisTemplate;
-    
-    private static final Duration IDEMPOTENCY_TTL = Duration.ofHours(24);
-    
+    private final RecentIdempotencyKeys recentKeys;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    // Longer than any request may run: a crashed owner blocks retries for at most this long
+    @Value("${titan.idempotency.in-flight-ttl-ms:30000}")
+    private long inFlightTtlMs = 30_000;
+
+    @Value("${titan.idempotency.wait-ms:2000}")
+    private long waitMs = 2_000;
+
+    private Counter claimed;
+    private Counter replayed;
+    private Counter conflicts;
+    private Counter unavailable;
+    private Timer waitTimer;
+
+    public enum State { CLAIMED, COMPLETED, UNAVAILABLE, NONE }
+
+    @PostConstruct
+    void init() {
+        claimed = claims("claimed");
+        replayed = claims("replayed");
+        conflicts = claims("conflict");
+        unavailable = claims("unavailable");
+        waitTimer = Timer.builder("titan.idempotency.wait")
+                .description("Time duplicates spent waiting for an in-flight request")
+                .register(meterRegistry);
+    }
+
+    private Counter claims(String result) {
+        return Counter.builder("titan.idempotency.claims").tag("result", result).register(meterRegistry);
+    }
+
     /**
-     * Check if a transaction with this idempotency key already exists.
-     * Uses Redis cache for fast lookups, falls back to database.
-     * 
-     * ✅ FIX: Cache key format now matches IdempotencyInterceptor
-     * Format: idempotency:{principal}:{uri}:{key}
+     * Claims a transaction's idempotency key, or returns the transaction of the request that already used it.
+     * With a transaction active, the claim is completed on commit and released on rollback automatically.
      */
-    public Optional<Transaction> getTransaction(String idempotencyKey, String uri) {
+    public Claim claimTransaction(String idempotencyKey, String uri) {
         if (idempotencyKey == null || idempotencyKey.isEmpty()) {
-            return Optional.empty();
+            return new Claim(null, null, State.NONE, null);
         }
+        if (idempotencyKey.equals(REQUEST_CLAIM.get())) {
+            // The filter's claim already holds duplicates off and replays the stored response
+            recentKeys.add(idempotencyKey);
+            return new Claim(null, null, State.NONE, null);
+        }
+        Claim claim = claim(buildCacheKey(uri, idempotencyKey));
+        switch (claim.state) {
+            case COMPLETED -> claim.previous = parseId(claim.completedValue())
+                    .flatMap(transactionRepository::findById);
+            // Keys this node's filter has never seen cannot be in the table: skip the fallback query
+            case UNAVAILABLE -> claim.previous = recentKeys.isDefinitelyNew(idempotencyKey)
+                    ? Optional.empty()
+                    : transactionRepository.findByIdempotencyKey(idempotencyKey);
+            case CLAIMED -> claim.bindToTransaction();
+            default -> { }
+        }
+        recentKeys.add(idempotencyKey);
+        return claim;
+    }
 
-        String cacheKey = buildCacheKey(uri, idempotencyKey);
+    /** Claims a raw key (the HTTP filter uses its own namespace); waits briefly while another request holds it. */
+    public Claim claim(String key) {
+        String token = IN_FLIGHT + UUID.randomUUID();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        long backoffMicros = 2_000;
         try {
-            String cachedTransactionId = redisTemplate.opsForValue().get(cacheKey);
-            if (cachedTransactionId != null) {
-                log.debug("✅ Idempotency cache hit: {}", idempotencyKey);
-                return transactionRepository.findByIdempotencyKey(idempotencyKey);
+            while (true) {
+                String existing = redisTemplate.execute(CLAIM, VALUES, VALUES, List.of(key), token, String.valueOf(inFlightTtlMs));
+                if (existing == null) {
+                    recordWait(start);
+                    claimed.increment();
+                    return new Claim(key, token, State.CLAIMED, null);
+                }
+                if (existing.startsWith(COMPLETED)) {
+                    recordWait(start);
+                    replayed.increment();
+                    return new Claim(key, null, State.COMPLETED, existing.substring(COMPLETED.length()));
+                }
+                if (System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(backoffMicros) > deadline) {
+                    recordWait(start);
+                    conflicts.increment();
+                    throw new IdempotencyConflictException("⏳ A request with this Idempotency-Key is still being processed. Retry shortly.");
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(backoffMicros));
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new IdempotencyConflictException("⏳ Interrupted while waiting for an in-flight request.");
+                }
+                backoffMicros = Math.min(backoffMicros * 2, 50_000);
             }
+        } catch (IdempotencyConflictException e) {
+            throw e;
         } catch (Exception e) {
-            log.warn("⚠️ Redis unavailable for idempotency check, falling back to DB: {}", e.getMessage());
+            log.warn("⚠️ Redis unavailable for idempotency claim, falling back to DB: {}", e.getMessage());
+            unavailable.increment();
+            return new Claim(key, null, State.UNAVAILABLE, null);
         }
+    }
 
-        Optional<Transaction> transaction = transactionRepository.findByIdempotencyKey(idempotencyKey);
-        transaction.ifPresent(tx -> {
-            try {
-                redisTemplate.opsForValue().set(cacheKey, tx.getId().toString(), IDEMPOTENCY_TTL);
-            } catch (Exception e) {
-                log.warn("⚠️ Redis unavailable, skipping idempotency cache write");
-            }
-        });
-        return transaction;
+    /**
+     * Marks the key as claimed by the HTTP filter for the request on this thread; transaction claims for
+     * it become no-ops until {@link #endRequestClaim()}.
+     */
+    public void beginRequestClaim(String idempotencyKey) {
+        REQUEST_CLAIM.set(idempotencyKey);
     }
 
-    public void cacheTransaction(String idempotencyKey, String uri, Transaction transaction) {
-        if (idempotencyKey != null && !idempotencyKey.isEmpty()) {
-            try {
-                String cacheKey = buildCacheKey(uri, idempotencyKey);
-                redisTemplate.opsForValue().set(cacheKey, transaction.getId().toString(), IDEMPOTENCY_TTL);
-                log.debug("💾 Cached transaction with idempotency key: {}", idempotencyKey);
-            } catch (Exception e) {
-                log.warn("⚠️ Redis unavailable, skipping idempotency cache write");
-            }
+    public void endRequestClaim() {
+        REQUEST_CLAIM.remove();
+    }
+
+    private void recordWait(long start) {
+        long waited = System.nanoTime() - start;
+        if (waited > TimeUnit.MILLISECONDS.toNanos(1)) {
+            waitTimer.record(waited, TimeUnit.NANOSECONDS);
         }
     }
-    
+
+    private static Optional<Long> parseId(String value) {
+        try {
+            return Optional.of(Long.valueOf(value));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
     /**
-     * Build cache key matching IdempotencyInterceptor format.
-     * Format: idempotency:{principal}:{uri}:{key}
+     * Cache key for transaction claims. Format: idempotency:{principal}:{uri}:{key}
      */
     private String buildCacheKey(String uri, String idempotencyKey) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String principal = authentication != null && authentication.isAuthenticated()
                 ? authentication.getName()
                 : "anonymous";
-        return String.format("idempotency:%s:%s:%s", principal, uri, idempotencyKey);
+        return "idempotency:" + principal + ":" + uri + ":" + idempotencyKey;
+    }
+
+    /** One request's hold on an idempotency key. complete() and release() act once; later calls are ignored. */
+    public class Claim {
+        private final String key;
+        private final String token;
+        private final State state;
+        private final String completedValue;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private Optional<Transaction> previous = Optional.empty();
+        private volatile String pendingResult;
+        private boolean transactional;
+
+        private Claim(String key, String token, State state, String completedValue) {
+            this.key = key;
+            this.token = token;
+            this.state = state;
+            this.completedValue = completedValue;
+        }
+
+        public State state() {
+            return state;
+        }
+
+        /** The stored result when another request already completed this key. */
+        public String completedValue() {
+            return completedValue;
+        }
+
+        public byte[] completedBytes() {
+            return completedValue != null ? completedValue.getBytes(StandardCharsets.ISO_8859_1) : null;
+        }
+
+        /** The transaction a duplicate should return instead of executing. */
+        public Optional<Transaction> previous() {
+            return previous;
+        }
+
+        public void complete(Transaction transaction) {
+            complete(transaction.getId().toString());
+        }
+
+        public void complete(byte[] result) {
+            complete(new String(result, StandardCharsets.ISO_8859_1));
+        }
+
+        public void complete(String result) {
+            if (state != State.CLAIMED) {
+                return;
+            }
+            if (transactional) {
+                pendingResult = result;
+            } else if (done.compareAndSet(false, true)) {
+                write(result);
+            }
+        }
+
+        public void release() {
+            if (state == State.CLAIMED && done.compareAndSet(false, true)) {
+                try {
+                    redisTemplate.execute(RELEASE, VALUES, COUNT, List.of(key), token);
+                } catch (Exception e) {
+                    log.warn("⚠️ Idempotency claim {} not released, it expires in {} ms: {}", key, inFlightTtlMs, e.getMessage());
+                }
+            }
+        }
+
+        private void write(String result) {
+            try {
+                redisTemplate.execute(COMPLETE, VALUES, COUNT, List.of(key), token, COMPLETED + result,
+                        String.valueOf(TimeUnit.HOURS.toMillis(ttlHours)));
+            } catch (Exception e) {
+                log.warn("⚠️ Redis unavailable, idempotency result for {} not stored: {}", key, e.getMessage());
+            }
+        }
+
+        private void bindToTransaction() {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            transactional = true;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    String result = pendingResult;
+                    if (status == STATUS_COMMITTED && result != null) {
+                        if (done.compareAndSet(false, true)) {
+                            write(result);
+                        }
+                    } else {
+                        release();
+                    }
+                }
+            });
+        }
     }
 }
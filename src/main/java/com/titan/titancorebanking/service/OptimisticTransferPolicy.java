@@ -0,0 +1,195 @@
+package com.titan.titancorebanking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 🎯 Adaptive policy for the OPTIMISTIC transfer mode: which transfers try @Version-checked writes
+ * and which go straight to row locks, plus the jittered backoff between conflicting attempts.
+ *
+ * Every account that ever conflicted gets a conflict rate (EWMA over its optimistic attempts).
+ * Once the rate exceeds titan.optimistic.conflict-threshold after enough samples, the account
+ * flips to pessimistic locking for titan.optimistic.pessimistic-hold, then it is probed again.
+ * Accounts that never conflicted are not tracked at all. Metrics are not tagged per account (unbounded
+ * cardinality); the log names the accounts that switch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticTransferPolicy {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.optimistic.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${titan.optimistic.backoff-base-ms:5}")
+    private long backoffBaseMs = 5;
+
+    @Value("${titan.optimistic.backoff-max-ms:100}")
+    private long backoffMaxMs = 100;
+
+    @Value("${titan.optimistic.conflict-threshold:0.2}")
+    private double conflictThreshold = 0.2;
+
+    @Value("${titan.optimistic.min-samples:20}")
+    private int minSamples = 20;
+
+    // Weight of the newest attempt in the conflict rate
+    @Value("${titan.optimistic.ewma-alpha:0.1}")
+    private double alpha = 0.1;
+
+    @Value("${titan.optimistic.pessimistic-hold:60s}")
+    private Duration pessimisticHold = Duration.ofMinutes(1);
+
+    @Value("${titan.optimistic.max-tracked-accounts:10000}")
+    private int maxTrackedAccounts = 10_000;
+
+    private static final class AccountStats {
+        double conflictRate;
+        long samples;
+        long pessimisticUntil;
+    }
+
+    private final Map<String, AccountStats> stats = new ConcurrentHashMap<>();
+
+    private Counter commits;
+    private Counter retries;
+    private Counter conflicts;
+    private Counter toPessimistic;
+    private Counter toOptimistic;
+
+    @PostConstruct
+    void registerMetrics() {
+        commits = Counter.builder("titan.transfer.optimistic.commits").register(meterRegistry);
+        retries = Counter.builder("titan.transfer.optimistic.retries").register(meterRegistry);
+        conflicts = Counter.builder("titan.transfer.optimistic.conflicts").register(meterRegistry);
+        toPessimistic = switchCounter("pessimistic");
+        toOptimistic = switchCounter("optimistic");
+        Gauge.builder("titan.transfer.optimistic.pessimistic.accounts", this, OptimisticTransferPolicy::pessimisticAccounts)
+                .register(meterRegistry);
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * False if either side is currently held in pessimistic mode.
+     */
+    public boolean useOptimistic(String fromAccountNumber, String toAccountNumber) {
+        return !isPessimistic(fromAccountNumber) && !isPessimistic(toAccountNumber);
+    }
+
+    public boolean isPessimistic(String accountNumber) {
+        AccountStats s = stats.get(accountNumber);
+        if (s == null) {
+            return false;
+        }
+        synchronized (s) {
+            if (s.pessimisticUntil == 0) {
+                return false;
+            }
+            if (System.currentTimeMillis() < s.pessimisticUntil) {
+                return true;
+            }
+            // Hold expired: probe optimistic again from a neutral rate
+            s.pessimisticUntil = 0;
+            s.samples = 0;
+            s.conflictRate = conflictThreshold / 2;
+        }
+        toOptimistic.increment();
+        log.info("🎯 Account {} back to optimistic transfers", accountNumber);
+        return false;
+    }
+
+    public void recordCommit(String fromAccountNumber, String toAccountNumber) {
+        commits.increment();
+        observe(stats.get(fromAccountNumber), 0);
+        observe(stats.get(toAccountNumber), 0);
+    }
+
+    public void recordConflict(String accountNumber) {
+        retries.increment();
+        conflicts.increment();
+        AccountStats s = stats.get(accountNumber);
+        if (s == null) {
+            // Evicted here, not in computeIfAbsent: its mapping function must not modify the map
+            if (stats.size() >= maxTrackedAccounts) {
+                forgetCalmAccounts();
+            }
+            s = stats.computeIfAbsent(accountNumber, k -> new AccountStats());
+        }
+        boolean flipped;
+        synchronized (s) {
+            observe(s, 1);
+            flipped = s.pessimisticUntil == 0 && s.samples >= minSamples && s.conflictRate > conflictThreshold;
+            if (flipped) {
+                s.pessimisticUntil = System.currentTimeMillis() + pessimisticHold.toMillis();
+            }
+        }
+        if (flipped) {
+            toPessimistic.increment();
+            log.warn("🎯 Account {} conflict rate {} > {} — pessimistic locking for {}",
+                    accountNumber, String.format("%.2f", s.conflictRate), conflictThreshold, pessimisticHold);
+        }
+    }
+
+    /**
+     * Full jitter: uniform in [0, min(max, base * 2^(attempt-1))].
+     */
+    public void backoff(int attempt) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("⏳ Transfer retry interrupted.", e);
+        }
+    }
+
+    /**
+     * Current conflict rate of an account, 0 if it never conflicted.
+     */
+    public double conflictRate(String accountNumber) {
+        AccountStats s = stats.get(accountNumber);
+        return s == null ? 0 : s.conflictRate;
+    }
+
+    private void observe(AccountStats s, int conflict) {
+        if (s == null) {
+            return;
+        }
+        synchronized (s) {
+            s.conflictRate = s.samples == 0 ? conflict : s.conflictRate + alpha * (conflict - s.conflictRate);
+            s.samples++;
+        }
+    }
+
+    // Calm accounts go first; a conflict simply starts tracking them again
+    private void forgetCalmAccounts() {
+        stats.values().removeIf(s -> s.pessimisticUntil == 0 && s.conflictRate < conflictThreshold / 2);
+    }
+
+    private Counter switchCounter(String mode) {
+        return Counter.builder("titan.transfer.optimistic.mode.switches")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private double pessimisticAccounts() {
+        long now = System.currentTimeMillis();
+        return stats.values().stream().filter(s -> s.pessimisticUntil > now).count();
+    }
+}
@@ -0,0 +1,151 @@
+package com.titan.titancorebanking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 🔔 Wakes the outbox relay when outbox rows are committed (trigger outbox_events_notify, V31).
+ *
+ * Holds one dedicated connection outside the pool, runs LISTEN on it and blocks for notifications. All
+ * notifications that arrived together wake the relay once. The connection is checked with a cheap query
+ * every keepalive-ms; if it is lost the relay goes back to short-interval polling until the listener has
+ * reconnected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxNotificationListener {
+
+    private final OutboxRelayService outboxRelayService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.datasource.url:}")
+    private String url = "";
+
+    @Value("${spring.datasource.username:}")
+    private String username = "";
+
+    @Value("${spring.datasource.password:}")
+    private String password = "";
+
+    @Value("${titan.outbox.notify.enabled:true}")
+    private boolean enabled = true;
+
+    // Must match the channel in V31__outbox_notify.sql
+    @Value("${titan.outbox.notify.channel:outbox_events}")
+    private String channel = "outbox_events";
+
+    @Value("${titan.outbox.notify.keepalive-ms:30000}")
+    private long keepaliveMs = 30_000;
+
+    @Value("${titan.outbox.notify.reconnect-ms:5000}")
+    private long reconnectMs = 5_000;
+
+    private Thread listenerThread;
+    private volatile boolean running;
+    private volatile Connection connection;
+
+    private Counter notifications;
+    private Counter reconnects;
+
+    @PostConstruct
+    void start() {
+        notifications = Counter.builder("titan.outbox.notify.received").register(meterRegistry);
+        reconnects = Counter.builder("titan.outbox.notify.reconnects").register(meterRegistry);
+        if (!enabled || !url.startsWith("jdbc:postgresql:")) {
+            return;
+        }
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("❌ Invalid outbox notify channel: " + channel);
+        }
+        running = true;
+        listenerThread = new Thread(this::run, "titan-outbox-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        closeQuietly(connection);
+        if (listenerThread != null) {
+            LockSupport.unpark(listenerThread);
+            try {
+                listenerThread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                connection = conn;
+                listen(conn);
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("⚠️ Outbox listener lost its connection, relay polls until it is back: {}", e.getMessage());
+                }
+            } finally {
+                connection = null;
+                outboxRelayService.pushConnected(false);
+            }
+            if (running) {
+                reconnects.increment();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(reconnectMs));
+            }
+        }
+    }
+
+    private void listen(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        }
+        PGConnection pg = conn.unwrap(PGConnection.class);
+        outboxRelayService.pushConnected(true);
+        log.info("🔔 Outbox relay woken by LISTEN {}", channel);
+
+        long lastCheck = System.currentTimeMillis();
+        while (running) {
+            // Returns as soon as something arrives, with everything queued so far
+            PGNotification[] received = pg.getNotifications((int) Math.min(keepaliveMs, 1_000));
+            if (received != null && received.length > 0) {
+                notifications.increment(received.length);
+                outboxRelayService.wake();
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastCheck >= keepaliveMs) {
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastCheck = now;
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // shutting down
+            }
+        }
+    }
+}
@@ -2,140 +2,482 @@ package com.titan.titancorebanking.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.titan.titancorebanking.model.OutboxEvent;
-import com.titan.titancorebanking.repository.OutboxRepository;
+import com.titan.titancorebanking.repository.OutboxJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Production-Grade Outbox Relay Service
- * - Distributed lock via Redis (prevents duplicate processing across instances)
- * - Batch processing (100 events per poll)
- * - Kafka acknowledgment handling
- * - Automatic retry with exponential backoff
+ * 📤 Outbox relay: concurrent claimers instead of one cluster-wide lock, ordered per aggregate.
+ *
+ * Rows fall into OutboxEvent.PARTITIONS lanes by a hash of their aggregate id. Every instance runs up to
+ * max-workers threads; a worker leases one free lane (outbox_lanes, FOR UPDATE SKIP LOCKED, least recently
+ * served first) and claims that lane's oldest rows, stamping locked_by/locked_until. Both leases commit at
+ * once: nothing is held locked while Kafka is called. Lanes go out in parallel across workers and
+ * instances, one batch per lane at a time, so an aggregate's events are never in two batches at once.
+ * Within a batch the k-th event of an aggregate is sent only after its (k-1)-th was acknowledged; after a
+ * failure the aggregate's later events are held back, and they are not claimed again until the failed one
+ * has gone out. Acknowledged rows are marked published in one UPDATE … WHERE id = ANY(?). A lane of a worker
+ * that died comes back when its lease expires (at-least-once, as before).
+ *
+ * Payloads are published as stored (titan.outbox.relay.passthrough): the JSON bytes go to the bytes template
+ * unchanged, with event type and correlation id as headers, so the relay does no JSON work per event. With
+ * passthrough off, or without the bytes template, it parses the payload and lets JsonSerializer write it
+ * again, as before.
+ *
+ * Failures are written the same way, one statement per outcome: retryable rows get retry_count + 1 and
+ * last_retry_at, and are claimable again after retry-backoff-ms * 2^(retries - 1), capped at
+ * retry-backoff-max-ms; rows on their last attempt are moved to outbox_dead_letters.
+ *
+ * Adapts to backlog: a full claim doubles the next one up to max-batch-size, one under a quarter full
+ * halves it; the number of active workers follows the backlog (and the number of lanes with work), checked
+ * every backlog-check-interval-ms, which also refreshes the per-lane backlog gauges.
+ *
+ * Push-driven while OutboxNotificationListener holds its LISTEN connection: a committed insert wakes the
+ * first worker at once and idle workers only poll every fallback-poll-interval-ms as a safety net. Without
+ * the listener they poll every poll-interval-ms as before.
  */
 @Service
 @Slf4j
 public class OutboxRelayService {
-    
-    private static final String LOCK_KEY = "outbox:relay:lock";
-    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(10);
+
     private static final int MAX_RETRIES = 5;
-    
-    private final OutboxRepository outboxRepository;
+    static final String EVENT_TYPE_HEADER = "eventType";
+    static final String CORRELATION_ID_HEADER = "correlationId";
+
+    private final OutboxJdbcRepository outboxJdbcRepository;
     private final ObjectMapper objectMapper;
-    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
 
     @Autowired(required = false)
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Autowired(required = false)
+    private KafkaTemplate<String, byte[]> bytesKafkaTemplate;
+
     @Value("${kafka.topic.transaction-completed:banking.transactions.completed}")
-    private String transactionCompletedTopic;
+    private String transactionCompletedTopic = "banking.transactions.completed";
+
+    @Value("${titan.outbox.relay.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${titan.outbox.relay.passthrough:true}")
+    private boolean passthrough = true;
+
+    @Value("${titan.outbox.relay.min-workers:1}")
+    private int minWorkers = 1;
+
+    @Value("${titan.outbox.relay.max-workers:4}")
+    private int maxWorkers = 4;
+
+    @Value("${titan.outbox.relay.min-batch-size:50}")
+    private int minBatchSize = 50;
+
+    @Value("${titan.outbox.relay.max-batch-size:1000}")
+    private int maxBatchSize = 1000;
+
+    // Must comfortably exceed send-timeout-ms: an expired lease lets another worker publish the row again
+    @Value("${titan.outbox.relay.lease-ms:30000}")
+    private long leaseMs = 30_000;
+
+    @Value("${titan.outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs = 10_000;
 
-    public OutboxRelayService(OutboxRepository outboxRepository,
+    @Value("${titan.outbox.relay.poll-interval-ms:2000}")
+    private long pollIntervalMs = 2_000;
+
+    @Value("${titan.outbox.relay.fallback-poll-interval-ms:30000}")
+    private long fallbackPollIntervalMs = 30_000;
+
+    @Value("${titan.outbox.relay.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1_000;
+
+    @Value("${titan.outbox.relay.retry-backoff-max-ms:300000}")
+    private long retryBackoffMaxMs = 300_000;
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final AtomicInteger batchSize = new AtomicInteger();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLongArray laneBacklog = new AtomicLongArray(OutboxEvent.PARTITIONS);
+    private Thread[] workers = new Thread[0];
+    private volatile boolean running;
+    private volatile boolean pushConnected;
+
+    private Counter published;
+    private Counter failed;
+    private Counter deadLettered;
+    private DistributionSummary claimedPerBatch;
+    private Timer batchLatency;
+    private Timer claimLatency;
+    private Timer sendLatency;
+    private Timer ackLatency;
+    private Timer markLatency;
+    private Timer pushDeliveryLatency;
+    private Timer pollDeliveryLatency;
+    private Counter wakeups;
+
+    public OutboxRelayService(OutboxJdbcRepository outboxJdbcRepository,
                               ObjectMapper objectMapper,
-                              StringRedisTemplate redisTemplate) {
-        this.outboxRepository = outboxRepository;
+                              MeterRegistry meterRegistry) {
+        this.outboxJdbcRepository = outboxJdbcRepository;
         this.objectMapper = objectMapper;
-        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
     }
-    
-    @Scheduled(fixedDelay = 2000) // Poll every 2 seconds
-    public void relayPendingEvents() {
+
+    @PostConstruct
+    void start() {
+        batchSize.set(minBatchSize);
+        activeWorkers.set(minWorkers);
+        published = Counter.builder("titan.outbox.relay.published").register(meterRegistry);
+        failed = Counter.builder("titan.outbox.relay.failed").register(meterRegistry);
+        deadLettered = Counter.builder("titan.outbox.relay.dead_lettered")
+                .description("Events moved to outbox_dead_letters after max retries").register(meterRegistry);
+        claimedPerBatch = DistributionSummary.builder("titan.outbox.relay.batch.size")
+                .description("Rows claimed per batch").register(meterRegistry);
+        batchLatency = Timer.builder("titan.outbox.relay.batch.latency")
+                .description("Claim, send, wait for acks and mark, per batch")
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        claimLatency = phaseLatency("claim");
+        sendLatency = phaseLatency("send");
+        ackLatency = phaseLatency("ack");
+        markLatency = phaseLatency("mark");
+        pushDeliveryLatency = deliveryLatency("push");
+        pollDeliveryLatency = deliveryLatency("poll");
+        wakeups = Counter.builder("titan.outbox.relay.wakeups")
+                .description("Wake-ups from insert notifications").register(meterRegistry);
+        Gauge.builder("titan.outbox.relay.backlog", backlog, AtomicLong::get)
+                .description("Unpublished rows at the last check (capped)").register(meterRegistry);
+        Gauge.builder("titan.outbox.relay.workers.active", activeWorkers, AtomicInteger::get).register(meterRegistry);
+        for (int lane = 0; lane < OutboxEvent.PARTITIONS; lane++) {
+            int index = lane;
+            Gauge.builder("titan.outbox.relay.lane.backlog", laneBacklog, backlogs -> backlogs.get(index))
+                    .tag("lane", String.valueOf(lane))
+                    .description("Unpublished rows of the lane at the last check (capped)").register(meterRegistry);
+        }
+
+        if (!enabled) {
+            return;
+        }
+        if (kafkaTemplate == null && bytesKafkaTemplate == null) {
+            log.info("Kafka not configured. Outbox relay not started.");
+            return;
+        }
+        if (sendTimeoutMs * 2 > leaseMs) {
+            log.warn("⚠️ Outbox lease ({} ms) is short for the send timeout ({} ms): slow acks may publish twice",
+                    leaseMs, sendTimeoutMs);
+        }
         try {
-            // Distributed lock: Only ONE instance processes at a time
-            Boolean lockAcquired = redisTemplate.opsForValue()
-                .setIfAbsent(LOCK_KEY, String.valueOf(System.currentTimeMillis()), LOCK_TIMEOUT);
+            outboxJdbcRepository.ensureLanes();
+        } catch (Exception e) {
+            log.warn("⚠️ Could not check outbox lanes (database unavailable?): {}", e.getMessage());
+        }
+        running = true;
+        workers = new Thread[maxWorkers];
+        for (int i = 0; i < maxWorkers; i++) {
+            int index = i;
+            workers[i] = new Thread(() -> runWorker(index), "titan-outbox-relay-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        log.info("📤 Outbox relay {} started: {}-{} workers, batches of {}-{}",
+                instanceId, minWorkers, maxWorkers, minBatchSize, maxBatchSize);
+    }
+
+    // Where a batch's time goes: claim statement, handing records to the producer, waiting for acks, outcome updates
+    private Timer phaseLatency(String phase) {
+        return Timer.builder("titan.outbox.relay.batch.phase").tag("phase", phase)
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+    }
 
-            if (Boolean.FALSE.equals(lockAcquired)) {
-                log.trace("Another instance is processing outbox. Skipping.");
+    // Commit of the outbox row to Kafka ack, by how the relay learnt about the row
+    private Timer deliveryLatency(String mode) {
+        return Timer.builder("titan.outbox.relay.delivery.latency").tag("mode", mode)
+                .description("Outbox row created to Kafka ack")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(sendTimeoutMs + 1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return;
             }
+        }
+    }
 
+    // ==================================================================================
+    // 👷 WORKERS
+    // ==================================================================================
+    private void runWorker(int index) {
+        String owner = instanceId + "-" + index;
+        while (running) {
+            if (index >= activeWorkers.get()) {
+                idle();
+                continue;
+            }
+            int requested = batchSize.get();
+            int claimed;
             try {
-                processOutboxBatch();
-            } finally {
-                redisTemplate.delete(LOCK_KEY);
+                claimed = relayBatch(owner, requested);
+            } catch (Exception e) {
+                // ✅ Never let the worker die — DB/Kafka unavailable should not affect transfers
+                log.warn("⚠️ Outbox relay batch failed (infrastructure unavailable): {}", e.getMessage());
+                claimed = 0;
+            }
+            // A short batch only means its lane is drained; other lanes may have work
+            if (claimed == 0) {
+                idle();
+            } else if (claimed >= requested && index + 1 < activeWorkers.get()) {
+                // More may be waiting: bring in a peer that may still be parked
+                LockSupport.unpark(workers[index + 1]);
             }
-        } catch (Exception e) {
-            // ✅ Never crash the scheduler — Redis/Kafka unavailable should not affect transfers
-            log.warn("⚠️ Outbox relay skipped (infrastructure unavailable): {}", e.getMessage());
         }
     }
-    
-    @Transactional
-    protected void processOutboxBatch() {
-        if (kafkaTemplate == null) {
-            log.trace("Kafka not configured. Outbox relay skipped.");
-            return;
+
+    private void idle() {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pushConnected ? fallbackPollIntervalMs : pollIntervalMs));
+    }
+
+    /**
+     * New rows were committed. Wakes the first worker; a busy one claims again as soon as it is done, so a
+     * burst of notifications costs one extra claim at most. A worker that claims a full batch wakes the next
+     * active one, and adjustWorkers wakes every active worker while lanes have work.
+     */
+    public void wake() {
+        if (workers.length > 0) {
+            wakeups.increment();
+            LockSupport.unpark(workers[0]);
         }
-        List<OutboxEvent> pending = outboxRepository
-            .findTop100ByPublishedFalseAndRetryCountLessThanOrderByCreatedAtAsc(MAX_RETRIES);
-        
-        if (pending.isEmpty()) {
-            return;
+    }
+
+    /** The listener (re)connected or lost its connection; without it idle workers poll at the short interval. */
+    public void pushConnected(boolean connected) {
+        pushConnected = connected;
+        // Rows may have been committed while nobody listened
+        wake();
+    }
+
+    /**
+     * Leases a lane, then claims, publishes and marks one batch of it; returns the number of rows claimed
+     * (0 when no lane has anything to send).
+     */
+    int relayBatch(String owner, int requested) {
+        long start = System.nanoTime();
+        Instant leaseUntil = Instant.now().plusMillis(leaseMs);
+        Integer lane = outboxJdbcRepository.claimLane(owner, leaseUntil, MAX_RETRIES, retryBackoffMs, retryBackoffMaxMs);
+        if (lane == null) {
+            claimLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            adaptBatchSize(requested, 0);
+            return 0;
         }
-        
-        log.info("Processing {} pending outbox events", pending.size());
-        
-        for (OutboxEvent event : pending) {
-            publishToKafka(event);
+        try {
+            return relayLane(owner, lane, leaseUntil, requested, start);
+        } finally {
+            outboxJdbcRepository.releaseLane(lane, owner);
         }
     }
-    
-    private void publishToKafka(OutboxEvent event) {
-        try {
-            Object payload = objectMapper.readValue(event.getPayload(), Object.class);
-            
-            CompletableFuture<SendResult<String, Object>> future = 
-                kafkaTemplate.send(transactionCompletedTopic, event.getAggregateId(), payload);
-            
-            // CRITICAL: Wait for Kafka acknowledgment
-            future.whenComplete((result, ex) -> {
-                if (ex != null) {
-                    handleFailure(event, ex);
+
+    private int relayLane(String owner, int lane, Instant leaseUntil, int requested, long start) {
+        List<OutboxEvent> batch = outboxJdbcRepository.claim(owner, lane, leaseUntil,
+                MAX_RETRIES, retryBackoffMs, retryBackoffMaxMs, requested);
+        long claimed = System.nanoTime();
+        claimLatency.record(claimed - start, TimeUnit.NANOSECONDS);
+        adaptBatchSize(requested, batch.size());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Round k holds the k-th event of every aggregate in the batch; a round goes out once the previous
+        // one is acknowledged, so an aggregate's events reach Kafka in order even if a send fails
+        List<List<OutboxEvent>> rounds = new ArrayList<>();
+        Map<String, Integer> eventsPerAggregate = new HashMap<>();
+        for (OutboxEvent event : batch) {
+            int round = eventsPerAggregate.merge(event.getAggregateId(), 1, Integer::sum) - 1;
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(event);
+        }
+
+        List<Long> acknowledged = new ArrayList<>(batch.size());
+        List<OutboxJdbcRepository.Failure> failures = new ArrayList<>();
+        List<OutboxJdbcRepository.Failure> exhausted = new ArrayList<>();
+        List<Long> heldBack = new ArrayList<>();
+        Set<String> blocked = new HashSet<>();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        long sendNanos = 0;
+        Timer deliveryLatency = pushConnected ? pushDeliveryLatency : pollDeliveryLatency;
+        rounds:
+        for (List<OutboxEvent> round : rounds) {
+            long roundStart = System.nanoTime();
+            List<OutboxEvent> sending = new ArrayList<>(round.size());
+            List<CompletableFuture<?>> acks = new ArrayList<>(round.size());
+            for (OutboxEvent event : round) {
+                if (blocked.contains(event.getAggregateId())) {
+                    heldBack.add(event.getId());
                 } else {
-                    handleSuccess(event, result);
+                    sending.add(event);
+                    acks.add(send(event));
+                }
+            }
+            sendNanos += System.nanoTime() - roundStart;
+
+            for (int i = 0; i < sending.size(); i++) {
+                OutboxEvent event = sending.get(i);
+                try {
+                    acks.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    acknowledged.add(event.getId());
+                    if (event.getCreatedAt() != null) {
+                        deliveryLatency.record(Math.max(0, System.currentTimeMillis() - event.getCreatedAt().toEpochMilli()),
+                                TimeUnit.MILLISECONDS);
+                    }
+                    continue;
+                } catch (ExecutionException e) {
+                    fail(event, e.getCause() != null ? e.getCause() : e, failures, exhausted);
+                } catch (TimeoutException e) {
+                    fail(event, new TimeoutException("No Kafka ack within " + sendTimeoutMs + " ms"), failures, exhausted);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    // Unmarked rows stay unpublished and go out again with the lane's next batch
+                    break rounds;
+                }
+                blocked.add(event.getAggregateId());
+            }
+        }
+
+        long acked = System.nanoTime();
+        sendLatency.record(sendNanos, TimeUnit.NANOSECONDS);
+        ackLatency.record(acked - claimed - sendNanos, TimeUnit.NANOSECONDS);
+
+        Instant now = Instant.now();
+        outboxJdbcRepository.markPublished(acknowledged, now);
+        outboxJdbcRepository.markFailed(failures, now);
+        outboxJdbcRepository.moveToDeadLetters(exhausted, now);
+        // Not attempted: they wait until the failed event before them has gone out
+        outboxJdbcRepository.releaseRows(heldBack);
+        long end = System.nanoTime();
+        markLatency.record(end - acked, TimeUnit.NANOSECONDS);
+
+        published.increment(acknowledged.size());
+        failed.increment(failures.size() + exhausted.size());
+        deadLettered.increment(exhausted.size());
+        claimedPerBatch.record(batch.size());
+        batchLatency.record(end - start, TimeUnit.NANOSECONDS);
+        log.debug("📤 Relay {} lane {}: {} published, {} failed, {} dead-lettered, {} held back",
+                owner, lane, acknowledged.size(), failures.size(), exhausted.size(), heldBack.size());
+        return batch.size();
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        try {
+            if (passthrough && bytesKafkaTemplate != null) {
+                ProducerRecord<String, byte[]> record = new ProducerRecord<>(transactionCompletedTopic,
+                        event.getAggregateId(), event.getPayload().getBytes(StandardCharsets.UTF_8));
+                record.headers().add(EVENT_TYPE_HEADER, event.getEventType().getBytes(StandardCharsets.UTF_8));
+                if (event.getCorrelationId() != null) {
+                    record.headers().add(CORRELATION_ID_HEADER, event.getCorrelationId().getBytes(StandardCharsets.UTF_8));
                 }
-            });
-            
+                return bytesKafkaTemplate.send(record);
+            }
+            Object payload = objectMapper.readValue(event.getPayload(), Object.class);
+            return kafkaTemplate.send(transactionCompletedTopic, event.getAggregateId(), payload);
         } catch (Exception e) {
-            handleFailure(event, e);
-        }
-    }
-    
-    @Transactional
-    protected void handleSuccess(OutboxEvent event, SendResult<String, Object> result) {
-        event.setPublished(true);
-        event.setPublishedAt(Instant.now());
-        outboxRepository.save(event);
-        
-        log.info("✅ Published event {} to Kafka offset: {}", 
-            event.getId(), result.getRecordMetadata().offset());
-    }
-    
-    @Transactional
-    protected void handleFailure(OutboxEvent event, Throwable ex) {
-        event.setRetryCount(event.getRetryCount() + 1);
-        event.setLastError(ex.getMessage());
-        outboxRepository.save(event);
-        
-        if (event.getRetryCount() >= MAX_RETRIES) {
-            log.error("❌ Event {} exceeded max retries. Moving to DLQ.", event.getId());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void fail(OutboxEvent event, Throwable ex,
+                      List<OutboxJdbcRepository.Failure> failures, List<OutboxJdbcRepository.Failure> exhausted) {
+        int attempt = event.getRetryCount() + 1;
+        OutboxJdbcRepository.Failure failure = new OutboxJdbcRepository.Failure(event.getId(), ex.getMessage());
+        if (attempt >= MAX_RETRIES) {
+            log.error("❌ Event {} exceeded max retries. Moving to DLQ: {}", event.getId(), ex.getMessage());
+            exhausted.add(failure);
         } else {
-            log.warn("⚠️ Event {} failed (retry {}/{}): {}", 
-                event.getId(), event.getRetryCount(), MAX_RETRIES, ex.getMessage());
+            log.warn("⚠️ Event {} failed (retry {}/{}): {}", event.getId(), attempt, MAX_RETRIES, ex.getMessage());
+            failures.add(failure);
+        }
+    }
+
+    private void adaptBatchSize(int requested, int claimed) {
+        if (claimed >= requested) {
+            batchSize.compareAndSet(requested, Math.min(maxBatchSize, requested * 2));
+        } else if (claimed < requested / 4) {
+            batchSize.compareAndSet(requested, Math.max(minBatchSize, requested / 2));
         }
     }
+
+    // 📏 One worker per full batch of backlog, at most one per lane with work, within min-workers..max-workers
+    @Scheduled(fixedDelayString = "${titan.outbox.relay.backlog-check-interval-ms:1000}")
+    public void adjustWorkers() {
+        if (!running) {
+            return;
+        }
+        try {
+            long[] perLane = outboxJdbcRepository.countBacklogByLane(MAX_RETRIES, maxWorkers * maxBatchSize);
+            long pending = 0;
+            int lanesWithWork = 0;
+            for (int lane = 0; lane < perLane.length; lane++) {
+                laneBacklog.set(lane, perLane[lane]);
+                pending += perLane[lane];
+                lanesWithWork += perLane[lane] > 0 ? 1 : 0;
+            }
+            backlog.set(pending);
+            long batches = Math.min(lanesWithWork, (pending + maxBatchSize - 1) / maxBatchSize);
+            int wanted = (int) Math.min(maxWorkers, Math.max(minWorkers, batches));
+            int previous = activeWorkers.getAndSet(wanted);
+            // With work pending every active worker is woken, not only the new ones: wake() reaches worker 0 alone
+            for (int i = lanesWithWork > 0 ? 0 : previous; i < wanted; i++) {
+                LockSupport.unpark(workers[i]);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Outbox backlog check failed: {}", e.getMessage());
+        }
+    }
+
+    int batchSize() {
+        return batchSize.get();
+    }
+
+    int activeWorkers() {
+        return activeWorkers.get();
+    }
 }
@@ -0,0 +1,63 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+/**
+ * 🔢 Wrong-PIN accounting, shared by every endpoint that takes a PIN (transfers, PIN change).
+ *
+ * Failures are counted per user for a day: the 5th locks PIN entry for 5 minutes, the 7th locks
+ * the user account. A correct PIN resets the count.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PinAttemptService {
+
+    private static final String PIN_ATTEMPT_PREFIX = "PIN:ATTEMPTS:";
+    private static final String PIN_LOCK_PREFIX = "PIN:LOCKED:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserRepository userRepository;
+    private final CacheService cacheService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PinVerificationService pinVerificationService;
+
+    public void ensureNotLocked(String username) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(PIN_LOCK_PREFIX + username))) {
+            throw new SecurityException("⏳ Too many wrong attempts.");
+        }
+    }
+
+    // Own transaction: the caller rejects the request and rolls back, the lock-out must stay
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordFailure(String username) {
+        String key = PIN_ATTEMPT_PREFIX + username;
+        Long attempts = redisTemplate.opsForValue().increment(key);
+        if (attempts != null && attempts == 1) redisTemplate.expire(key, Duration.ofDays(1));
+        if (attempts != null && attempts == 5) redisTemplate.opsForValue().set(PIN_LOCK_PREFIX + username, "LOCKED", Duration.ofMinutes(5));
+        if (attempts != null && attempts >= 7) { lockUser(username); redisTemplate.delete(key); }
+    }
+
+    public void reset(String username) {
+        redisTemplate.delete(PIN_ATTEMPT_PREFIX + username);
+    }
+
+    private void lockUser(String username) {
+        userRepository.findByUsername(username).ifPresent(user -> {
+            user.setAccountNonLocked(false);
+            userRepository.save(user);
+        });
+        log.warn("🔒 User {} locked after repeated wrong PINs", username);
+        cacheService.evictUserProfile(username);
+        verifiedTokenCache.userChanged(username);
+        pinVerificationService.invalidate(username);
+    }
+}
@@ -0,0 +1,220 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.enums.HashingLane;
+import com.titan.titancorebanking.enums.UserTier;
+import com.titan.titancorebanking.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🔐 PIN-verified session: one BCrypt check opens a short window in which the same PIN is
+ * verified by an HMAC comparison instead of BCrypt.
+ *
+ * The cached proof is HMAC(secret, username | stored PIN hash | raw PIN), kept in a local map and
+ * in Redis with a tier-dependent TTL that is NOT extended by use. Because the stored PIN hash is
+ * part of the proof, a PIN change invalidates every cached proof on every instance even before
+ * {@link #invalidate(String)} removes it. A wrong PIN never matches the proof and always falls
+ * through to BCrypt, so the attempt limits in front of this service keep working unchanged.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PinVerificationService {
+
+    private static final String VERIFIED_PREFIX = "PIN:VERIFIED:";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final HashingService hashingService;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.pin-session.enabled:true}")
+    private boolean enabled = true;
+
+    // Empty → random per-process key: local fast path works, Redis entries are not shared across instances
+    @Value("${titan.pin-session.hmac-secret:}")
+    private String hmacSecret = "";
+
+    @Value("${titan.pin-session.max-local-entries:100000}")
+    private int maxLocalEntries = 100_000;
+
+    @Value("${titan.pin-session.ttl.standard:300s}")
+    private Duration standardTtl = Duration.ofMinutes(5);
+
+    @Value("${titan.pin-session.ttl.gold:180s}")
+    private Duration goldTtl = Duration.ofMinutes(3);
+
+    @Value("${titan.pin-session.ttl.platinum:120s}")
+    private Duration platinumTtl = Duration.ofMinutes(2);
+
+    @Value("${titan.pin-session.ttl.vip:60s}")
+    private Duration vipTtl = Duration.ofMinutes(1);
+
+    private record VerifiedPin(byte[] proof, long expiresAtMillis) {}
+
+    private final Map<String, VerifiedPin> localSessions = new ConcurrentHashMap<>();
+
+    private SecretKeySpec hmacKey;
+    private Counter localHits;
+    private Counter redisHits;
+    private Counter bcryptMatches;
+    private Counter bcryptMismatches;
+
+    @PostConstruct
+    void init() {
+        byte[] secret;
+        if (hmacSecret == null || hmacSecret.isBlank()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            log.warn("⚠️ titan.pin-session.hmac-secret not set — PIN sessions will not be shared across instances");
+        } else {
+            secret = hmacSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        hmacKey = new SecretKeySpec(secret, HMAC_ALGORITHM);
+
+        localHits = Counter.builder("titan.pin.verifications").tag("path", "local").register(meterRegistry);
+        redisHits = Counter.builder("titan.pin.verifications").tag("path", "redis").register(meterRegistry);
+        bcryptMatches = Counter.builder("titan.pin.verifications").tag("path", "bcrypt").tag("result", "match").register(meterRegistry);
+        bcryptMismatches = Counter.builder("titan.pin.verifications").tag("path", "bcrypt").tag("result", "mismatch").register(meterRegistry);
+        FunctionCounter.builder("titan.pin.bcrypt.avoided", this, s -> s.localHits.count() + s.redisHits.count())
+                .description("PIN checks answered by the session fast path instead of BCrypt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drop-in for hashingService.matches(rawPin, user.getPin(), HashingLane.PIN).
+     */
+    public boolean matches(User user, String rawPin) {
+        return matches(user, user.getPin(), rawPin);
+    }
+
+    /**
+     * Same, for a cached user (which carries no PIN hash) with the hash read from the repository.
+     */
+    public boolean matches(User user, String pinHash, String rawPin) {
+        if (rawPin == null || pinHash == null) {
+            return false;
+        }
+        if (!enabled) {
+            return bcrypt(pinHash, rawPin);
+        }
+
+        byte[] proof = proof(user.getUsername(), pinHash, rawPin);
+        long now = System.currentTimeMillis();
+
+        VerifiedPin local = localSessions.get(user.getUsername());
+        if (local != null) {
+            if (local.expiresAtMillis() > now && MessageDigest.isEqual(local.proof(), proof)) {
+                localHits.increment();
+                return true;
+            }
+            if (local.expiresAtMillis() <= now) {
+                localSessions.remove(user.getUsername(), local);
+            }
+        }
+
+        try {
+            String key = VERIFIED_PREFIX + user.getUsername();
+            String shared = redisTemplate.opsForValue().get(key);
+            if (shared != null && MessageDigest.isEqual(Base64.getDecoder().decode(shared), proof)) {
+                Long ttlMillis = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+                if (ttlMillis != null && ttlMillis > 0) {
+                    rememberLocally(user.getUsername(), proof, now + ttlMillis);
+                }
+                redisHits.increment();
+                return true;
+            }
+        } catch (Exception e) {
+            log.debug("PIN session Redis lookup failed, using BCrypt: {}", e.getMessage());
+        }
+
+        if (!bcrypt(pinHash, rawPin)) {
+            return false;
+        }
+        open(user, proof, now);
+        return true;
+    }
+
+    /**
+     * Close the window for this user (PIN change, lock-out, logout).
+     */
+    public void invalidate(String username) {
+        localSessions.remove(username);
+        try {
+            redisTemplate.delete(VERIFIED_PREFIX + username);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to delete PIN session for {}: {}", username, e.getMessage());
+        }
+    }
+
+    Duration ttlFor(UserTier tier) {
+        // Higher-value tiers get a shorter window
+        return switch (tier != null ? tier : UserTier.STANDARD) {
+            case STANDARD -> standardTtl;
+            case GOLD -> goldTtl;
+            case PLATINUM -> platinumTtl;
+            case VIP -> vipTtl;
+        };
+    }
+
+    private boolean bcrypt(String pinHash, String rawPin) {
+        boolean ok = hashingService.matches(rawPin, pinHash, HashingLane.PIN);
+        (ok ? bcryptMatches : bcryptMismatches).increment();
+        return ok;
+    }
+
+    private void open(User user, byte[] proof, long now) {
+        Duration ttl = ttlFor(user.getTier());
+        rememberLocally(user.getUsername(), proof, now + ttl.toMillis());
+        try {
+            redisTemplate.opsForValue().set(VERIFIED_PREFIX + user.getUsername(),
+                    Base64.getEncoder().encodeToString(proof), ttl);
+        } catch (Exception e) {
+            log.debug("PIN session not shared via Redis: {}", e.getMessage());
+        }
+    }
+
+    private void rememberLocally(String username, byte[] proof, long expiresAtMillis) {
+        if (localSessions.size() >= maxLocalEntries) {
+            long now = System.currentTimeMillis();
+            localSessions.values().removeIf(v -> v.expiresAtMillis() <= now);
+            if (localSessions.size() >= maxLocalEntries) {
+                return; // still full: Redis keeps the session, this instance just skips the local copy
+            }
+        }
+        localSessions.put(username, new VerifiedPin(proof, expiresAtMillis));
+    }
+
+    private byte[] proof(String username, String pinHash, String rawPin) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(pinHash.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(rawPin.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC unavailable", e);
+        }
+    }
+}
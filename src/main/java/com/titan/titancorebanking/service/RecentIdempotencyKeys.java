@@ -0,0 +1,345 @@
+package com.titan.titancorebanking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 🌸 Time-rotated Bloom filter of idempotency keys seen in the last window, so lookups for keys that are
+ * definitely new can be skipped.
+ *
+ * The filter is a ring of generations; inserts go to the newest, lookups check all of them, and every
+ * window / (generations - 1) the oldest is dropped — a key stays visible for at least the window. Bit
+ * arrays are AtomicLongArray, inserted into with CAS: no locks on the request path.
+ *
+ * Keys come from this node's requests and, batched every publish-interval-ms, from peers over a Redis
+ * channel. On startup the window is seeded from the transactions table (one streaming query); until that
+ * has finished — or, without seeding, until the node has been up for a full window — the filter answers
+ * "maybe seen" for everything.
+ *
+ * A false "definitely new" (a peer message that never arrived) is caught by the unique idempotency_key
+ * column, so the filter only ever trades a replay for a constraint error, never a double execution.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecentIdempotencyKeys implements MessageListener {
+
+    private static final String SEED_SQL =
+            "SELECT idempotency_key FROM transactions WHERE idempotency_key IS NOT NULL AND timestamp >= ?";
+    private static final int MAX_PENDING = 50_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.idempotency.filter.enabled:true}")
+    private boolean enabled = true;
+
+    // Keys expected per window across the cluster, and the target false-positive rate for all generations together
+    @Value("${titan.idempotency.filter.expected-keys:1000000}")
+    private long expectedKeys = 1_000_000;
+
+    @Value("${titan.idempotency.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    // At least titan.idempotency.ttl-hours: a key must stay visible as long as its stored result
+    @Value("${titan.idempotency.filter.window-hours:24}")
+    private long windowHours = 24;
+
+    @Value("${titan.idempotency.filter.generations:4}")
+    private int generationCount = 4;
+
+    @Value("${titan.idempotency.filter.max-memory-mb:64}")
+    private long maxMemoryMb = 64;
+
+    @Value("${titan.idempotency.filter.channel:idempotency:seen}")
+    private String channel = "idempotency:seen";
+
+    @Value("${titan.idempotency.filter.seed-on-startup:true}")
+    private boolean seedOnStartup = true;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentLinkedQueue<String> outgoing = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile Generation[] generations;
+    private volatile boolean warm;
+    private long bitsPerGeneration;
+    private int hashes;
+    private long rotateEveryMs;
+    private volatile long nextRotationMs;
+    private long startedMs;
+
+    private Counter definitelyNew;
+    private Counter maybeSeen;
+    private Counter cold;
+    private Counter peerKeys;
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        generationCount = Math.max(2, generationCount);
+        long windowMs = TimeUnit.HOURS.toMillis(windowHours);
+        rotateEveryMs = windowMs / (generationCount - 1);
+
+        // Each generation holds about one rotation period of keys; sized by the union bound (rates add up),
+        // while the actual combined rate is 1 - (1 - p)^generations
+        long keysPerGeneration = Math.max(1_000, expectedKeys / (generationCount - 1));
+        double perGenerationRate = falsePositiveRate / generationCount;
+        long bits = (long) Math.ceil(-keysPerGeneration * Math.log(perGenerationRate) / (Math.log(2) * Math.log(2)));
+        long maxBits = maxMemoryMb * 1024 * 1024 * 8 / generationCount;
+        if (bits > maxBits) {
+            double cappedRate = 1 - Math.pow(1 - expectedFalsePositiveRate(maxBits, keysPerGeneration), generationCount);
+            log.warn("⚠️ Idempotency filter capped at {} MB: false-positive rate will be about {} instead of {}",
+                    maxMemoryMb, String.format("%.4f", cappedRate), falsePositiveRate);
+            bits = maxBits;
+        }
+        bitsPerGeneration = Math.max(64, Math.min(bits, (long) Integer.MAX_VALUE * 64));
+        hashes = (int) Math.max(1, Math.round((double) bitsPerGeneration / keysPerGeneration * Math.log(2)));
+
+        Generation[] ring = new Generation[generationCount];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Generation(bitsPerGeneration);
+        }
+        generations = ring;
+        startedMs = System.currentTimeMillis();
+        nextRotationMs = startedMs + rotateEveryMs;
+
+        definitelyNew = lookups("definitely_new");
+        maybeSeen = lookups("maybe_seen");
+        cold = lookups("cold");
+        peerKeys = Counter.builder("titan.idempotency.filter.peer.keys")
+                .description("Keys received from other nodes").register(meterRegistry);
+        dropped = Counter.builder("titan.idempotency.filter.publish.dropped")
+                .description("Keys not published because the outgoing queue was full").register(meterRegistry);
+        Gauge.builder("titan.idempotency.filter.bytes", this, f -> (double) f.bitsPerGeneration / 8 * f.generationCount)
+                .description("Memory held by the filter's bit arrays").register(meterRegistry);
+
+        if (enabled && listenerContainer != null) {
+            try {
+                listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+            } catch (Exception e) {
+                log.warn("⚠️ Idempotency filter not subscribed to {}: {}", channel, e.getMessage());
+            }
+        }
+        log.info("🌸 Idempotency filter: {} generations × {} KB, {} hashes, rotating every {} min",
+                generationCount, bitsPerGeneration / 8 / 1024, hashes, TimeUnit.MILLISECONDS.toMinutes(rotateEveryMs));
+    }
+
+    private Counter lookups(String result) {
+        return Counter.builder("titan.idempotency.filter.lookups").tag("result", result)
+                .description("Idempotency filter answers; definitely_new is a remote lookup avoided")
+                .register(meterRegistry);
+    }
+
+    /** True only when the key was certainly not seen in the window — the caller may skip its lookup. */
+    public boolean isDefinitelyNew(String key) {
+        if (!enabled || key == null) {
+            return false;
+        }
+        if (!warm) {
+            if (seedOnStartup || System.currentTimeMillis() - startedMs < TimeUnit.HOURS.toMillis(windowHours)) {
+                cold.increment();
+                return false;
+            }
+            warm = true;
+        }
+        long hash = hash(key);
+        for (Generation generation : generations) {
+            if (generation.mightContain(hash, hashes)) {
+                maybeSeen.increment();
+                return false;
+            }
+        }
+        definitelyNew.increment();
+        return true;
+    }
+
+    /** Records a key on this node and queues it for the peers. */
+    public void add(String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        generations[0].put(hash(key), hashes);
+        if (key.indexOf('\n') >= 0) {
+            return;
+        }
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        outgoing.add(key);
+    }
+
+    // 📣 One message per interval with every key added since the last one: "<nodeId>\n<key>\n<key>..."
+    @Scheduled(fixedDelayString = "${titan.idempotency.filter.publish-interval-ms:100}")
+    public void publish() {
+        if (outgoing.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder(nodeId);
+        int drained = 0;
+        String key;
+        while ((key = outgoing.poll()) != null) {
+            message.append('\n').append(key);
+            drained++;
+        }
+        pending.addAndGet(-drained);
+        try {
+            redisTemplate.convertAndSend(channel, message.toString());
+        } catch (Exception e) {
+            // Peers fall back on the unique constraint for these keys
+            dropped.increment(drained);
+            log.warn("⚠️ Idempotency filter publish failed, {} keys not shared: {}", drained, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int start = body.indexOf('\n');
+        if (start < 0 || body.startsWith(nodeId)) {
+            return;
+        }
+        Generation newest = generations[0];
+        int received = 0;
+        while (start < body.length()) {
+            int end = body.indexOf('\n', start + 1);
+            if (end < 0) {
+                end = body.length();
+            }
+            if (end > start + 1) {
+                newest.put(hash(body.substring(start + 1, end)), hashes);
+                received++;
+            }
+            start = end;
+        }
+        peerKeys.increment(received);
+    }
+
+    @Scheduled(fixedDelayString = "${titan.idempotency.filter.rotate-check-ms:60000}")
+    public void rotate() {
+        long now = System.currentTimeMillis();
+        if (now < nextRotationMs) {
+            return;
+        }
+        Generation[] current = generations;
+        Generation[] rotated = new Generation[current.length];
+        rotated[0] = new Generation(bitsPerGeneration);
+        System.arraycopy(current, 0, rotated, 1, current.length - 1);
+        generations = rotated;
+        nextRotationMs = now + rotateEveryMs;
+        log.debug("🌸 Idempotency filter rotated");
+    }
+
+    // 🌱 After subscribing, so keys committed elsewhere during the query still arrive over the channel
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!enabled || !seedOnStartup) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            AtomicInteger seeded = new AtomicInteger();
+            Generation newest = generations[0];
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(SEED_SQL);
+                statement.setFetchSize(10_000);
+                statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().minusHours(windowHours)));
+                return statement;
+            }, rs -> {
+                newest.put(hash(rs.getString(1)), hashes);
+                seeded.incrementAndGet();
+            });
+            warm = true;
+            log.info("🌸 Idempotency filter seeded with {} keys in {} ms", seeded.get(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Stays cold until a full window has passed: every lookup still goes remote
+            seedOnStartup = false;
+            log.warn("⚠️ Idempotency filter seeding failed, lookups stay remote for {} h: {}", windowHours, e.getMessage());
+        }
+    }
+
+    static double expectedFalsePositiveRate(long bits, long keys) {
+        int k = (int) Math.max(1, Math.round((double) bits / keys * Math.log(2)));
+        return Math.pow(1 - Math.exp(-(double) k * keys / bits), k);
+    }
+
+    // FNV-1a over the chars, then a 64-bit finalizer so both halves are usable as independent hashes
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** One Bloom filter; k bit positions by double hashing. */
+    static final class Generation {
+        private final AtomicLongArray words;
+        private final long bits;
+
+        Generation(long bits) {
+            this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+            this.bits = bits;
+        }
+
+        void put(long hash, int k) {
+            long h1 = hash & 0xffffffffL;
+            long h2 = hash >>> 32;
+            for (int i = 0; i < k; i++) {
+                long bit = (h1 + i * h2) % bits;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(long hash, int k) {
+            long h1 = hash & 0xffffffffL;
+            long h2 = hash >>> 32;
+            for (int i = 0; i < k; i++) {
+                long bit = (h1 + i * h2) % bits;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.titan.titancorebanking.service;
 
+import com.titan.titancorebanking.engine.PartitionedTransferEngine;
 import com.titan.titancorebanking.model.Account;
 import com.titan.titancorebanking.repository.AccountRepository;
 import com.titan.titancorebanking.repository.LedgerRepository;
@@ -25,6 +26,7 @@ public class ReconciliationService {
     private final AccountRepository accountRepository;
     private final LedgerRepository ledgerRepository;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final PartitionedTransferEngine partitionedTransferEngine;
 
     @Scheduled(cron = "0 0 3 * * *") // Daily at 3:00 AM
     @Transactional(readOnly = true)
@@ -41,12 +43,15 @@ public class ReconciliationService {
                 ledgerBalance = BigDecimal.ZERO;
             }
             
-            if (account.getBalance().compareTo(ledgerBalance) != 0) {
+            // Settled balance + pending stripe credits + engine ledger deltas not yet checkpointed
+            BigDecimal accountBalance = partitionedTransferEngine.effectiveBalance(account);
+
+            if (accountBalance.compareTo(ledgerBalance) != 0) {
                 discrepancies++;
                 log.error("❌ RECONCILIATION FAILURE: Account {} | Expected: {} | Actual: {}", 
-                    account.getAccountNumber(), ledgerBalance, account.getBalance());
+                    account.getAccountNumber(), ledgerBalance, accountBalance);
                 
-                fireReconciliationAlert(account, ledgerBalance);
+                fireReconciliationAlert(account, accountBalance, ledgerBalance);
             }
         }
         
@@ -54,13 +59,13 @@ public class ReconciliationService {
             accounts.size(), discrepancies);
     }
 
-    private void fireReconciliationAlert(Account account, BigDecimal ledgerBalance) {
+    private void fireReconciliationAlert(Account account, BigDecimal accountBalance, BigDecimal ledgerBalance) {
         Map<String, Object> alert = new HashMap<>();
         alert.put("eventType", "RECONCILIATION_FAILURE");
         alert.put("accountNumber", account.getAccountNumber());
-        alert.put("accountBalance", account.getBalance());
+        alert.put("accountBalance", accountBalance);
         alert.put("ledgerBalance", ledgerBalance);
-        alert.put("discrepancy", account.getBalance().subtract(ledgerBalance));
+        alert.put("discrepancy", accountBalance.subtract(ledgerBalance));
         alert.put("timestamp", System.currentTimeMillis());
         
         kafkaTemplate.send("banking.alerts", account.getAccountNumber(), alert);
@@ -0,0 +1,387 @@
+package com.titan.titancorebanking.service;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.titan.riskengine.RiskCheckBatchRequest;
+import com.titan.riskengine.RiskCheckBatchResponse;
+import com.titan.riskengine.RiskCheckRequest;
+import com.titan.riskengine.RiskCheckResponse;
+import com.titan.riskengine.RiskEngineServiceGrpc;
+import com.titan.titancorebanking.enums.RiskCallTransport;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 📦 Coalesces concurrent risk checks into micro-batches: a batch leaves when it has
+ * titan.risk.batch.max-size checks or its oldest check has waited titan.risk.batch.max-delay-ms.
+ * Every check carries its own deadline (titan.risk.deadline-ms from submission); a batch is sent with
+ * the earliest deadline of its members and fails with a TimeoutException once that passes.
+ *
+ * Transport is a CheckRiskStream by default. A server without the batch RPCs (UNIMPLEMENTED) is
+ * detected on the first call and the client falls back to CheckRiskBatch, then to plain CheckRisk.
+ * At most titan.risk.batch.max-in-flight batches are outstanding; beyond that, checks queue up and
+ * the next batches get larger.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RiskCheckBatcher {
+
+    private final RiskEngineServiceGrpc.RiskEngineServiceStub riskAsyncStub;
+    private final RiskEngineServiceGrpc.RiskEngineServiceFutureStub riskFutureStub;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.risk.batch.max-size:64}")
+    private int maxBatchSize = 64;
+
+    @Value("${titan.risk.batch.max-delay-ms:2}")
+    private long maxDelayMs = 2;
+
+    @Value("${titan.risk.batch.max-in-flight:16}")
+    private int maxInFlight = 16;
+
+    @Value("${titan.risk.batch.transport:STREAM}")
+    private RiskCallTransport transport = RiskCallTransport.STREAM;
+
+    @Value("${titan.risk.deadline-ms:300}")
+    private long deadlineMs = 300;
+
+    private record Pending(RiskCheckRequest request, CompletableFuture<RiskCheckResponse> result,
+                           long enqueuedAt, long deadlineAt) {}
+
+    /** One CheckRiskStream call and the batches sent on it that are still unanswered. */
+    private final class StreamSession implements StreamObserver<RiskCheckBatchResponse> {
+        final Map<String, List<Pending>> inFlight = new ConcurrentHashMap<>();
+        StreamObserver<RiskCheckBatchRequest> requests;
+        volatile Throwable endedBy;
+
+        @Override
+        public void onNext(RiskCheckBatchResponse response) {
+            List<Pending> batch = inFlight.remove(response.getBatchId());
+            if (batch != null) {
+                completeBatch(batch, response.getResponsesList());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            streamEnded(this, t);
+        }
+
+        @Override
+        public void onCompleted() {
+            streamEnded(this, new IllegalStateException("📡 Risk stream closed by server"));
+        }
+    }
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AtomicReference<RiskCallTransport> activeTransport = new AtomicReference<>();
+    private final AtomicReference<StreamSession> session = new AtomicReference<>();
+    private final AtomicLong batchSeq = new AtomicLong();
+    private Semaphore inFlightBatches;
+
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    private DistributionSummary batchSize;
+    private Timer queueWait;
+    private Counter deadlineFailures;
+    private Counter errorFailures;
+
+    @PostConstruct
+    void start() {
+        activeTransport.set(transport);
+        inFlightBatches = new Semaphore(maxInFlight);
+        batchSize = DistributionSummary.builder("titan.risk.batch.size").register(meterRegistry);
+        queueWait = Timer.builder("titan.risk.batch.queue.wait").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        deadlineFailures = Counter.builder("titan.risk.batch.failures").tag("reason", "deadline").register(meterRegistry);
+        errorFailures = Counter.builder("titan.risk.batch.failures").tag("reason", "error").register(meterRegistry);
+        Gauge.builder("titan.risk.batch.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+
+        running = true;
+        dispatcher = new Thread(this::run, "titan-risk-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            try {
+                dispatcher.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        fail(left, new IllegalStateException("📡 Risk batcher stopped"));
+        StreamSession current = session.getAndSet(null);
+        if (current != null && current.requests != null) {
+            current.requests.onCompleted();
+        }
+    }
+
+    /**
+     * Queue one check; the future completes with the engine's answer, or exceptionally on
+     * deadline / transport error (callers apply their own fallback).
+     */
+    public CompletableFuture<RiskCheckResponse> check(RiskCheckRequest request) {
+        long now = System.nanoTime();
+        Pending pending = new Pending(request, new CompletableFuture<>(), now,
+                now + TimeUnit.MILLISECONDS.toNanos(deadlineMs));
+        if (!running) {
+            pending.result().completeExceptionally(new IllegalStateException("📡 Risk batcher stopped"));
+            return pending.result();
+        }
+        queue.add(pending);
+        return pending.result();
+    }
+
+    RiskCallTransport activeTransport() {
+        return activeTransport.get();
+    }
+
+    // ==================================================================================
+    // 📦 DISPATCHER THREAD
+    // ==================================================================================
+    private void run() {
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (running) {
+            List<Pending> batch = new ArrayList<>(maxBatchSize);
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+                long flushAt = first.enqueuedAt() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long wait = flushAt - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batch.removeIf(this::expiredOrAbandoned);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                inFlightBatches.acquire();
+            } catch (InterruptedException e) {
+                fail(batch, new IllegalStateException("📡 Risk batcher stopped"));
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            List<Pending> sent = List.copyOf(batch);
+            CompletableFuture.allOf(sent.stream().map(Pending::result).toArray(CompletableFuture[]::new))
+                    .whenComplete((v, t) -> inFlightBatches.release());
+            long now = System.nanoTime();
+            batchSize.record(sent.size());
+            sent.forEach(p -> queueWait.record(now - p.enqueuedAt(), TimeUnit.NANOSECONDS));
+            expireAt(sent);
+            try {
+                send(sent, activeTransport.get());
+            } catch (RuntimeException e) {
+                log.warn("⚠️ Risk batch send failed: {}", e.getMessage());
+                fail(sent, e);
+            }
+        }
+    }
+
+    private void send(List<Pending> batch, RiskCallTransport via) {
+        Counter.builder("titan.risk.batch.calls").tag("transport", via.name()).register(meterRegistry).increment();
+        switch (via) {
+            case STREAM -> sendOnStream(batch);
+            case BATCH -> sendBatch(batch);
+            case UNARY -> sendUnary(batch);
+        }
+    }
+
+    private void sendOnStream(List<Pending> batch) {
+        StreamSession current = session.get();
+        if (current == null) {
+            current = new StreamSession();
+            // Published before the call opens, so an immediate onError clears it again
+            session.set(current);
+            current.requests = riskAsyncStub.checkRiskStream(current);
+        }
+        String batchId = Long.toString(batchSeq.incrementAndGet());
+        current.inFlight.put(batchId, batch);
+        Throwable ended = current.endedBy;
+        if (ended != null) {
+            // The stream ended (e.g. UNIMPLEMENTED) before the batch was registered: streamEnded missed it
+            if (current.inFlight.remove(batchId) != null) {
+                if (activeTransport.get() != RiskCallTransport.STREAM) {
+                    send(batch, activeTransport.get());
+                } else {
+                    fail(batch, ended);
+                }
+            }
+            return;
+        }
+        // Answered, expired or failed: either way the stream no longer tracks it
+        StreamSession owner = current;
+        CompletableFuture.allOf(batch.stream().map(Pending::result).toArray(CompletableFuture[]::new))
+                .whenComplete((v, t) -> owner.inFlight.remove(batchId));
+        current.requests.onNext(toBatchRequest(batchId, batch));
+    }
+
+    private void sendBatch(List<Pending> batch) {
+        String batchId = Long.toString(batchSeq.incrementAndGet());
+        ListenableFuture<RiskCheckBatchResponse> call = riskFutureStub
+                .withDeadlineAfter(remainingNanos(batch), TimeUnit.NANOSECONDS)
+                .checkRiskBatch(toBatchRequest(batchId, batch));
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(RiskCheckBatchResponse response) {
+                completeBatch(batch, response.getResponsesList());
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (isUnimplemented(t) && downgrade(RiskCallTransport.BATCH)) {
+                    sendUnary(batch);
+                } else {
+                    fail(batch, t);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void sendUnary(List<Pending> batch) {
+        for (Pending p : batch) {
+            if (p.result().isDone()) {
+                continue;
+            }
+            ListenableFuture<RiskCheckResponse> call = riskFutureStub
+                    .withDeadlineAfter(Math.max(0, p.deadlineAt() - System.nanoTime()), TimeUnit.NANOSECONDS)
+                    .checkRisk(p.request());
+            Futures.addCallback(call, new FutureCallback<>() {
+                @Override
+                public void onSuccess(RiskCheckResponse response) {
+                    p.result().complete(response);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    fail(List.of(p), t);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
+
+    private void streamEnded(StreamSession ended, Throwable t) {
+        ended.endedBy = t;
+        session.compareAndSet(ended, null);
+        // Removed one by one: a batch registered concurrently is handled either here or by its sender, never both
+        List<List<Pending>> orphaned = new ArrayList<>();
+        for (String batchId : ended.inFlight.keySet()) {
+            List<Pending> batch = ended.inFlight.remove(batchId);
+            if (batch != null) {
+                orphaned.add(batch);
+            }
+        }
+        if (isUnimplemented(t) && downgrade(RiskCallTransport.STREAM)) {
+            orphaned.forEach(batch -> send(batch, activeTransport.get()));
+            return;
+        }
+        if (!orphaned.isEmpty()) {
+            log.warn("⚠️ Risk stream ended with {} batches unanswered: {}", orphaned.size(), t.getMessage());
+        }
+        // The next batch opens a fresh stream
+        orphaned.forEach(batch -> fail(batch, t));
+    }
+
+    private boolean downgrade(RiskCallTransport from) {
+        RiskCallTransport to = RiskCallTransport.values()[from.ordinal() + 1];
+        if (activeTransport.compareAndSet(from, to)) {
+            log.warn("📡 Risk Engine does not implement {} calls, falling back to {}", from, to);
+            Counter.builder("titan.risk.batch.transport.downgrades").tag("to", to.name()).register(meterRegistry).increment();
+        }
+        return activeTransport.get() != from;
+    }
+
+    private void completeBatch(List<Pending> batch, List<RiskCheckResponse> responses) {
+        if (responses.size() != batch.size()) {
+            fail(batch, new IllegalStateException(
+                    "📡 Risk batch answered " + responses.size() + " of " + batch.size() + " checks"));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(responses.get(i));
+        }
+    }
+
+    private void expireAt(List<Pending> batch) {
+        CompletableFuture.delayedExecutor(remainingNanos(batch), TimeUnit.NANOSECONDS).execute(() -> {
+            for (Pending p : batch) {
+                if (p.result().completeExceptionally(new TimeoutException("📡 Risk check deadline exceeded"))) {
+                    deadlineFailures.increment();
+                }
+            }
+        });
+    }
+
+    private boolean expiredOrAbandoned(Pending p) {
+        if (p.result().isDone()) {
+            return true; // cancelled by the caller
+        }
+        if (System.nanoTime() >= p.deadlineAt()) {
+            p.result().completeExceptionally(new TimeoutException("📡 Risk check deadline exceeded while queued"));
+            deadlineFailures.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void fail(List<Pending> batch, Throwable t) {
+        for (Pending p : batch) {
+            if (p.result().completeExceptionally(t)) {
+                errorFailures.increment();
+            }
+        }
+    }
+
+    private static long remainingNanos(List<Pending> batch) {
+        long earliest = batch.stream().mapToLong(Pending::deadlineAt).min().orElseThrow();
+        return Math.max(0, earliest - System.nanoTime());
+    }
+
+    private static RiskCheckBatchRequest toBatchRequest(String batchId, List<Pending> batch) {
+        RiskCheckBatchRequest.Builder request = RiskCheckBatchRequest.newBuilder().setBatchId(batchId);
+        batch.forEach(p -> request.addRequests(p.request()));
+        return request.build();
+    }
+
+    private static boolean isUnimplemented(Throwable t) {
+        return Status.fromThrowable(t).getCode() == Status.Code.UNIMPLEMENTED;
+    }
+}
@@ -1,9 +1,18 @@
 package com.titan.titancorebanking.service;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.titan.titancorebanking.risk.VelocityFeatureStore;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 // ✅ នេះគឺជាចំណុចសំខាន់! យើងហៅកូដពី AI (Generated Code)
 // កុំប្រើ import com.titan.titancorebanking.dto.request.RiskCheckRequest; (នោះជារបស់ Frontend)
 import com.titan.riskengine.RiskCheckRequest;
@@ -15,9 +24,26 @@ import com.titan.riskengine.RiskEngineServiceGrpc;
 public class RiskEngineGrpcService {
 
     private final RiskEngineServiceGrpc.RiskEngineServiceBlockingStub riskStub;
+    private final RiskEngineServiceGrpc.RiskEngineServiceFutureStub riskFutureStub;
+    private final RiskCheckBatcher riskCheckBatcher;
+    private final VelocityFeatureStore velocityFeatureStore;
+
+    // true: async checks are coalesced into micro-batches (RiskCheckBatcher); false: one RPC per check
+    @Value("${titan.risk.batch.enabled:true}")
+    private boolean batchEnabled = true;
+
+    // gRPC deadline of the async call; the caller's own wait is bounded separately
+    @Value("${titan.risk.deadline-ms:300}")
+    private long deadlineMs = 300;
 
-    public RiskEngineGrpcService(RiskEngineServiceGrpc.RiskEngineServiceBlockingStub riskStub) {
+    public RiskEngineGrpcService(RiskEngineServiceGrpc.RiskEngineServiceBlockingStub riskStub,
+                                 RiskEngineServiceGrpc.RiskEngineServiceFutureStub riskFutureStub,
+                                 RiskCheckBatcher riskCheckBatcher,
+                                 VelocityFeatureStore velocityFeatureStore) {
         this.riskStub = riskStub;
+        this.riskFutureStub = riskFutureStub;
+        this.riskCheckBatcher = riskCheckBatcher;
+        this.velocityFeatureStore = velocityFeatureStore;
     }
 
     // ✅ Method នេះហៅទៅ Python AI
@@ -35,6 +61,50 @@ public class RiskEngineGrpcService {
         return riskStub.checkRisk(request);
     }
 
+    // ⚡ Non-blocking variant: returns immediately, the response completes the future on the gRPC thread.
+    // Cancelling the returned future cancels the RPC. The request carries the sender's velocity features.
+    @CircuitBreaker(name = "risk-engine", fallbackMethod = "fallbackRiskCheckAsync")
+    public CompletableFuture<RiskCheckResponse> analyzeTransactionAsync(Long userId, String accountNumber, double amount) {
+        log.debug("📡 Calling Python AI (async) for User: {}", userId);
+
+        RiskCheckRequest request = velocityFeatureStore.applyTo(RiskCheckRequest.newBuilder()
+                .setUserId(userId.toString())
+                .setAmount(amount), userId, accountNumber)
+                .build();
+        if (batchEnabled) {
+            return riskCheckBatcher.check(request);
+        }
+
+        ListenableFuture<RiskCheckResponse> call = riskFutureStub
+                .withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                .checkRisk(request);
+
+        CompletableFuture<RiskCheckResponse> result = new CompletableFuture<>();
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(RiskCheckResponse response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        result.whenComplete((response, t) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // Circuit open / call failed: no blanket answer here — the caller scores with EmbeddedRiskScorer
+    public CompletableFuture<RiskCheckResponse> fallbackRiskCheckAsync(Long userId, String accountNumber, double amount, Throwable t) {
+        log.warn("⚠️ AI Service is DOWN! Reason: {}. Transfer will be scored in-process.", t.getMessage());
+        return CompletableFuture.failedFuture(t);
+    }
+
     // 🛟 Fallback (ពេល Python ដាច់)
     public RiskCheckResponse fallbackRiskCheck(String userId, double amount, Throwable t) {
         log.error("⚠️ AI Service is DOWN! Reason: {}. Executing Fail-Open Strategy.", t.getMessage());
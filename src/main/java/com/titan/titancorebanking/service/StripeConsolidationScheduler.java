@@ -0,0 +1,49 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.engine.PartitionedTransferEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Folds stripe credits of hot accounts back into accounts.balance.
+ * One short transaction per account so a slow account never holds the others up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StripeConsolidationScheduler {
+
+    private final StripedBalanceService stripedBalanceService;
+    private final PartitionedTransferEngine partitionedTransferEngine;
+
+    @Scheduled(fixedDelayString = "${titan.striping.consolidation-interval-ms:5000}")
+    public void consolidateStripedAccounts() {
+        // PARTITIONED: balances are written by the engine's instance only, the others leave consolidation to it
+        if (partitionedTransferEngine.isConfigured() && !partitionedTransferEngine.isStarted()) {
+            return;
+        }
+        List<Long> accountIds;
+        try {
+            accountIds = stripedBalanceService.refreshStripedAccounts();
+        } catch (Exception e) {
+            log.warn("⚠️ Stripe consolidation skipped: {}", e.getMessage());
+            return;
+        }
+
+        for (Long accountId : accountIds) {
+            try {
+                BigDecimal folded = stripedBalanceService.consolidate(accountId);
+                if (folded.signum() > 0) {
+                    log.debug("Consolidated {} from stripes into account {}", folded, accountId);
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Stripe consolidation failed for account {}: {}", accountId, e.getMessage());
+            }
+        }
+    }
+}
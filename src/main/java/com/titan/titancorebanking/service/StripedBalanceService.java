@@ -0,0 +1,173 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.event.AccountBalanceChangedEvent;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.AccountBalanceStripe;
+import com.titan.titancorebanking.repository.AccountBalanceStripeRepository;
+import com.titan.titancorebanking.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hot-account striping.
+ *
+ * A striped account keeps its settled balance in accounts.balance and spreads incoming credits
+ * across N rows of account_balance_stripes. Credits touch one random stripe (no lock on the
+ * account row), debits run under the usual account row lock and drain committed stripes when the
+ * settled balance is not enough, reads sum both. The consolidation job folds stripes back
+ * into the account row in the background.
+ *
+ * Lock order is always: account row(s) first, stripes second. Drains use SKIP LOCKED, so a
+ * transaction holding stripe locks never waits on another one's stripes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StripedBalanceService {
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceStripeRepository stripeRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${titan.striping.max-stripes:64}")
+    private int maxStripes;
+
+    // Local view of striped account numbers, refreshed by the consolidation job.
+    // A stale entry is harmless: a miss just means the row gets locked as before, and a
+    // credit to a removed stripe falls back to the account row.
+    private final Set<String> stripedAccounts = ConcurrentHashMap.newKeySet();
+
+    public boolean isStriped(String accountNumber) {
+        return stripedAccounts.contains(accountNumber);
+    }
+
+    /**
+     * Credit a striped account without touching its row lock.
+     */
+    @Transactional
+    public void credit(Account account, BigDecimal amount) {
+        int stripes = account.getBalanceStripes();
+        if (stripes > 0) {
+            int stripe = ThreadLocalRandom.current().nextInt(stripes);
+            if (stripeRepository.credit(account.getId(), stripe, amount) == 1) {
+                return;
+            }
+        }
+        // Striping was switched off underneath us — apply atomically on the account row
+        log.debug("Stripe credit missed for account {}, crediting account row", account.getAccountNumber());
+        accountRepository.addToBalance(account.getId(), amount);
+    }
+
+    /**
+     * Fold committed stripe credits into the settled balance. Caller must hold the account row lock.
+     *
+     * @return amount moved from stripes into accounts.balance
+     */
+    @Transactional
+    public BigDecimal drainInto(Account lockedAccount) {
+        BigDecimal drained = BigDecimal.ZERO;
+        for (AccountBalanceStripe stripe : stripeRepository.lockDrainableStripes(lockedAccount.getId())) {
+            drained = drained.add(stripe.getBalance());
+            stripe.setBalance(BigDecimal.ZERO);
+        }
+        if (drained.signum() > 0) {
+            lockedAccount.setBalance(lockedAccount.getBalance().add(drained));
+            accountRepository.save(lockedAccount);
+            applicationEventPublisher.publishEvent(AccountBalanceChangedEvent.of(lockedAccount.getAccountNumber()));
+        }
+        return drained;
+    }
+
+    /**
+     * Effective balance = settled balance + all committed stripe credits.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal effectiveBalance(Account account) {
+        if (!account.isStriped()) {
+            return account.getBalance();
+        }
+        return account.getBalance().add(stripeRepository.sumByAccountId(account.getId()));
+    }
+
+    /**
+     * Background consolidation of one account (see StripeConsolidationScheduler).
+     */
+    @Transactional
+    public BigDecimal consolidate(Long accountId) {
+        Account account = accountRepository.findByIdWithLock(accountId).orElse(null);
+        if (account == null || !account.isStriped()) {
+            return BigDecimal.ZERO;
+        }
+        return drainInto(account);
+    }
+
+    @Transactional
+    public Account enableStriping(String accountNumber, int stripes) {
+        if (stripes < 1 || stripes > maxStripes) {
+            throw new IllegalArgumentException("Stripe count must be between 1 and " + maxStripes);
+        }
+        Account account = accountRepository.findByAccountNumberWithLock(accountNumber)
+                .orElseThrow(() -> new RuntimeException("Account not found: " + accountNumber));
+
+        foldAndRemoveStripes(account);
+        for (int i = 0; i < stripes; i++) {
+            stripeRepository.save(AccountBalanceStripe.builder()
+                    .accountId(account.getId())
+                    .stripeIndex(i)
+                    .build());
+        }
+        account.setBalanceStripes(stripes);
+        accountRepository.save(account);
+        stripedAccounts.add(accountNumber);
+
+        log.info("🔀 Striping enabled for account {} with {} stripes", accountNumber, stripes);
+        return account;
+    }
+
+    @Transactional
+    public Account disableStriping(String accountNumber) {
+        Account account = accountRepository.findByAccountNumberWithLock(accountNumber)
+                .orElseThrow(() -> new RuntimeException("Account not found: " + accountNumber));
+
+        foldAndRemoveStripes(account);
+        account.setBalanceStripes(0);
+        accountRepository.save(account);
+        stripedAccounts.remove(accountNumber);
+
+        log.info("🔀 Striping disabled for account {}", accountNumber);
+        return account;
+    }
+
+    /**
+     * Reload the striped-account view and return the ids that need consolidation.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> refreshStripedAccounts() {
+        List<Account> striped = accountRepository.findByBalanceStripesGreaterThan(0);
+        Set<String> current = ConcurrentHashMap.newKeySet();
+        striped.forEach(a -> current.add(a.getAccountNumber()));
+        stripedAccounts.retainAll(current);
+        stripedAccounts.addAll(current);
+        return striped.stream().map(Account::getId).toList();
+    }
+
+    private void foldAndRemoveStripes(Account lockedAccount) {
+        BigDecimal folded = BigDecimal.ZERO;
+        for (AccountBalanceStripe stripe : stripeRepository.lockAllStripes(lockedAccount.getId())) {
+            folded = folded.add(stripe.getBalance());
+        }
+        stripeRepository.deleteByAccountId(lockedAccount.getId());
+        lockedAccount.setBalance(lockedAccount.getBalance().add(folded));
+        applicationEventPublisher.publishEvent(AccountBalanceChangedEvent.of(lockedAccount.getAccountNumber()));
+    }
+}
@@ -7,7 +7,6 @@ import com.titan.titancorebanking.enums.TransactionType;
 import com.titan.titancorebanking.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,9 +16,13 @@ import java.time.LocalDateTime;
 public class TransactionAuditService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionAuditWriter auditWriter;
 
-    // 🔥 REQUIRES_NEW: Log នេះនឹង Save ជានិច្ច ទោះបីជា Transaction ធំ Rollback ក៏ដោយ
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    // ✅ SUCCESS / BLOCKED: saved in the caller's transaction — commits or rolls back with the money.
+    // 🔥 FAILED: must survive the caller's rollback, so it goes to TransactionAuditWriter (fsync'ed
+    // journal, batched insert) instead of a REQUIRES_NEW insert on a second pooled connection.
+    // The returned FAILED Transaction has a reference but no id yet.
+    @Transactional
     public Transaction saveAuditLog(Account from, Account to, BigDecimal amount,
                                     TransactionType type, TransactionStatus status, String note) {
 
@@ -37,6 +40,9 @@ public class TransactionAuditService {
                 .transactionReference(txRef) // ✅ Set transaction reference
                 .build();
 
+        if (status == TransactionStatus.FAILED) {
+            return auditWriter.record(tx);
+        }
         return transactionRepository.save(tx);
     }
 }
\ No newline at end of file
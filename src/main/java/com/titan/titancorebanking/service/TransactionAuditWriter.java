@@ -0,0 +1,316 @@
+package com.titan.titancorebanking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.enums.TransactionStatus;
+import com.titan.titancorebanking.enums.TransactionType;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.Transaction;
+import com.titan.titancorebanking.repository.BulkTransferJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 📼 Asynchronous writer for audit rows that must outlive the caller's transaction (failed attempts).
+ *
+ * record() appends the row to a local journal file and returns once it is fsync'ed — no second pooled
+ * connection, no extra commit while the caller still holds row locks. A single writer thread:
+ *   1. drains the queue, appends to the journal, one fsync per group, acknowledges the callers
+ *   2. inserts journaled rows into transactions in one JDBC batch when titan.audit.max-batch rows are
+ *      pending or the oldest one is titan.audit.flush-interval-ms old, then truncates the journal
+ * On startup whatever is left in the journal is inserted again; rows are matched on
+ * transaction_reference, so a crash between insert and truncate does not duplicate them.
+ *
+ * If the journal is unusable, the queue is full or the append is not acknowledged within
+ * titan.audit.append-timeout-ms, the row is inserted synchronously in its own transaction (the old
+ * REQUIRES_NEW behaviour) — record() only returns once the row is durable somewhere. While
+ * titan.audit.max-unflushed journaled rows wait for the database, the writer takes no new rows, so
+ * callers are pushed onto the synchronous path instead of the journal growing without bound.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionAuditWriter {
+
+    private static final String JOURNAL_FILE = "transaction-audit.log";
+
+    private final BulkTransferJdbcRepository bulkTransferJdbcRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.audit.journal-dir:data/audit-journal}")
+    private String journalDir = "data/audit-journal";
+
+    @Value("${titan.audit.flush-interval-ms:50}")
+    private long flushIntervalMs = 50;
+
+    @Value("${titan.audit.max-batch:500}")
+    private int maxBatch = 500;
+
+    @Value("${titan.audit.queue-capacity:100000}")
+    private int queueCapacity = 100_000;
+
+    @Value("${titan.audit.append-timeout-ms:1000}")
+    private long appendTimeoutMs = 1000;
+
+    @Value("${titan.audit.max-unflushed:50000}")
+    private int maxUnflushed = 50_000;
+
+    /** One journal line. */
+    record AuditLine(String reference, TransactionType type, BigDecimal amount, TransactionStatus status,
+                     String note, LocalDateTime timestamp, Long fromAccountId, Long toAccountId) {}
+
+    private record Pending(AuditLine line, CompletableFuture<Void> durable) {}
+
+    private BlockingQueue<Pending> queue;
+    private final List<AuditLine> unflushed = new ArrayList<>();
+    private final AtomicInteger unflushedCount = new AtomicInteger();
+    private long oldestUnflushedAt;
+
+    private FileChannel journal;
+    private TransactionTemplate writeTx;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Timer flushLatency;
+    private Timer fsyncLatency;
+    private DistributionSummary flushBatchSize;
+    private Counter written;
+    private Counter flushFailures;
+    private Counter fallbacks;
+
+    @PostConstruct
+    void start() throws IOException {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        writeTx = new TransactionTemplate(transactionManager);
+        writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("titan.audit.backlog", this, w -> w.queue.size() + w.unflushedCount.get())
+                .description("Audit rows not yet in the database")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("titan.audit.flush.latency").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        fsyncLatency = Timer.builder("titan.audit.journal.fsync").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        flushBatchSize = DistributionSummary.builder("titan.audit.flush.batch.size").register(meterRegistry);
+        written = Counter.builder("titan.audit.rows.written").register(meterRegistry);
+        flushFailures = Counter.builder("titan.audit.flush.failures").register(meterRegistry);
+        fallbacks = Counter.builder("titan.audit.fallback.sync").register(meterRegistry);
+
+        Path dir = Path.of(journalDir);
+        Files.createDirectories(dir);
+        journal = FileChannel.open(dir.resolve(JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replayJournal(dir.resolve(JOURNAL_FILE));
+
+        running = true;
+        writerThread = new Thread(this::run, "titan-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("⚠️ Audit journal close failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Durably record an audit row outside the caller's transaction. Returns the (not yet inserted)
+     * Transaction with its reference set; the id is assigned when the writer inserts it.
+     */
+    public Transaction record(Transaction tx) {
+        tx.setTransactionReference("TXA" + UUID.randomUUID().toString().replace("-", ""));
+        AuditLine line = new AuditLine(tx.getTransactionReference(), tx.getTransactionType(), tx.getAmount(),
+                tx.getStatus(), tx.getNote(), tx.getTimestamp(), idOf(tx.getFromAccount()), idOf(tx.getToAccount()));
+
+        Pending pending = new Pending(line, new CompletableFuture<>());
+        if (running && queue.offer(pending)) {
+            try {
+                pending.durable().get(appendTimeoutMs, TimeUnit.MILLISECONDS);
+                return tx;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("⚠️ Interrupted waiting for the audit journal, writing {} synchronously", line.reference());
+            } catch (TimeoutException e) {
+                log.warn("⚠️ Audit journal slow ({} ms), writing {} synchronously", appendTimeoutMs, line.reference());
+            } catch (ExecutionException e) {
+                log.error("❌ Audit journal append failed, writing {} synchronously: {}", line.reference(), e.getMessage());
+            }
+            // If the writer has taken it after all, whichever insert comes second does nothing (ON CONFLICT)
+            queue.remove(pending);
+        }
+        fallbacks.increment();
+        Integer inserted = writeTx.execute(status -> bulkTransferJdbcRepository.insertTransactionsIfAbsent(List.of(toTransaction(line))));
+        if (inserted != null && inserted == 0) {
+            log.debug("Audit row {} already inserted by the writer", line.reference());
+        }
+        return tx;
+    }
+
+    // ==================================================================================
+    // ✍️ WRITER THREAD
+    // ==================================================================================
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty() || !unflushed.isEmpty()) {
+            try {
+                long wait = unflushed.isEmpty()
+                        ? flushIntervalMs
+                        : Math.max(0, oldestUnflushedAt + flushIntervalMs - System.currentTimeMillis());
+                // Backpressure: no new rows while too many wait for the database; callers time out into the sync insert
+                Pending first = null;
+                if (unflushed.size() < maxUnflushed) {
+                    first = queue.poll(wait, TimeUnit.MILLISECONDS);
+                } else {
+                    Thread.sleep(Math.max(1, wait));
+                }
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    appendToJournal(batch);
+                    batch.clear();
+                }
+                boolean due = !unflushed.isEmpty() && (unflushed.size() >= maxBatch
+                        || System.currentTimeMillis() - oldestUnflushedAt >= flushIntervalMs || !running);
+                if (due && !flushToDatabase() && !running) {
+                    break; // shutting down with the DB unavailable — the journal keeps the rows
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                log.error("❌ Audit writer loop error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void appendToJournal(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            StringBuilder lines = new StringBuilder(batch.size() * 256);
+            for (Pending p : batch) {
+                lines.append(objectMapper.writeValueAsString(p.line())).append('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            journal.position(journal.size());
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            // Callers fall back to a synchronous insert
+            batch.forEach(p -> p.durable().completeExceptionally(e));
+            return;
+        } finally {
+            fsyncLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (unflushed.isEmpty()) {
+            oldestUnflushedAt = System.currentTimeMillis();
+        }
+        batch.forEach(p -> unflushed.add(p.line()));
+        unflushedCount.set(unflushed.size());
+        batch.forEach(p -> p.durable().complete(null));
+    }
+
+    private boolean flushToDatabase() {
+        long start = System.nanoTime();
+        try {
+            List<Transaction> rows = unflushed.stream().map(this::toTransaction).toList();
+            writeTx.executeWithoutResult(status -> bulkTransferJdbcRepository.insertTransactionsIfAbsent(rows));
+            journal.truncate(0);
+            journal.force(false);
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.error("❌ Audit flush of {} rows failed, retrying from journal: {}", unflushed.size(), e.getMessage());
+            // Back off one interval before the next attempt
+            oldestUnflushedAt = System.currentTimeMillis();
+            return false;
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        flushBatchSize.record(unflushed.size());
+        written.increment(unflushed.size());
+        unflushed.clear();
+        unflushedCount.set(0);
+        return true;
+    }
+
+    private void replayJournal(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                unflushed.add(objectMapper.readValue(line, AuditLine.class));
+            } catch (IOException e) {
+                // Torn last line from a crash mid-append: it was never acknowledged to a caller
+                log.warn("⚠️ Skipping unreadable audit journal line: {}", e.getMessage());
+            }
+        }
+        if (!unflushed.isEmpty()) {
+            log.info("📼 Replaying {} audit rows from journal", unflushed.size());
+            oldestUnflushedAt = 0;
+            unflushedCount.set(unflushed.size());
+        }
+    }
+
+    private Transaction toTransaction(AuditLine line) {
+        return Transaction.builder()
+                .transactionReference(line.reference())
+                .transactionType(line.type())
+                .amount(line.amount())
+                .status(line.status())
+                .note(line.note())
+                .timestamp(line.timestamp())
+                .fromAccount(line.fromAccountId() != null ? Account.builder().id(line.fromAccountId()).build() : null)
+                .toAccount(line.toAccountId() != null ? Account.builder().id(line.toAccountId()).build() : null)
+                .build();
+    }
+
+    private static Long idOf(Account account) {
+        return account != null ? account.getId() : null;
+    }
+}
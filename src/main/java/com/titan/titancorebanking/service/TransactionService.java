@@ -1,25 +1,59 @@
 package com.titan.titancorebanking.service;
 
+import com.titan.titancorebanking.dto.request.BulkTransferRequest;
 import com.titan.titancorebanking.dto.request.TransactionRequest;
+import com.titan.titancorebanking.dto.response.BulkTransferResponse;
 import com.titan.titancorebanking.dto.response.TransactionResponse;
+import com.titan.titancorebanking.engine.PartitionedTransferEngine;
 import com.titan.titancorebanking.enums.AccountStatus;
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.TransferExecutionMode;
+import com.titan.titancorebanking.event.AccountBalanceChangedEvent;
 import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.LedgerEntry;
+import com.titan.titancorebanking.model.OutboxEvent;
 import com.titan.titancorebanking.model.Transaction;
+import com.titan.titancorebanking.model.User;
 import com.titan.titancorebanking.enums.TransactionStatus;
 import com.titan.titancorebanking.enums.TransactionType;
 import com.titan.titancorebanking.failsafe.DeadMansSwitchService;
+import com.titan.titancorebanking.repository.AccountBalanceJdbcRepository;
 import com.titan.titancorebanking.repository.AccountRepository;
+import com.titan.titancorebanking.repository.BulkTransferJdbcRepository;
 import com.titan.titancorebanking.repository.TransactionRepository;
+import com.titan.titancorebanking.risk.EmbeddedRiskScorer;
+import com.titan.titancorebanking.risk.VelocityFeatureStore;
 import com.titan.titancorebanking.service.imple.ExchangeRateService;
 import com.titan.titancorebanking.service.imple.OtpService;
+import com.titan.riskengine.RiskCheckResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * ✅ JAVA 21 MODERNIZED: Transaction Service
@@ -35,22 +69,51 @@ public class TransactionService {
 
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PinVerificationService pinVerificationService;
     private final ExchangeRateService exchangeRateService;
     private final TransactionAuditService auditService;
     private final EventPublisherService eventPublisherService;
     private final DoubleEntryService doubleEntryService;
     private final IdempotencyService idempotencyService;
+    private final RecentIdempotencyKeys recentIdempotencyKeys;
     private final RiskEngineGrpcService riskEngineGrpcService;
+    private final EmbeddedRiskScorer embeddedRiskScorer;
+    private final VelocityFeatureStore velocityFeatureStore;
+    private final DailyLimitService dailyLimitService;
     private final DeadMansSwitchService deadMansSwitchService;
     private final OtpService otpService;
+    private final StripedBalanceService stripedBalanceService;
+    private final AccountBalanceJdbcRepository accountBalanceJdbcRepository;
+    private final BulkTransferJdbcRepository bulkTransferJdbcRepository;
+    private final PartitionedTransferEngine partitionedTransferEngine;
+    private final OptimisticTransferPolicy optimisticTransferPolicy;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    // LOCKING (default), ATOMIC single-statement updates, PARTITIONED engine or OPTIMISTIC — see TransferExecutionMode
+    @Value("${titan.transfer.execution-mode:LOCKING}")
+    private TransferExecutionMode executionMode = TransferExecutionMode.LOCKING;
+
+    @Value("${titan.bulk-transfer.max-items:1000}")
+    private int bulkMaxItems = 1000;
+
+    // ⚡ true: risk call starts before the row locks and is awaited just before money moves;
+    // false: started after the locks are taken (previous behaviour, kept to compare lock-hold times)
+    @Value("${titan.risk.overlap-locks:true}")
+    private boolean overlapRiskWithLocks = true;
+
+    // Longest a transfer waits for the risk result once it is needed; after that the embedded model decides
+    @Value("${titan.risk.await-timeout-ms:300}")
+    private long riskAwaitTimeoutMs = 300;
 
     private static final BigDecimal OTP_THRESHOLD = new BigDecimal("10000");
 
     // ==================================================================================
     // 💸 1. TRANSFER (SECURE ENTERPRISE LOGIC)
     // ==================================================================================
-    @Transactional
+    // Transaction boundary is programmatic: OPTIMISTIC mode needs a fresh transaction per attempt
     public Transaction transfer(TransactionRequest request, String currentUsername) {
         // Task 10: Lockdown guard
         if (deadMansSwitchService.isLockdownActive()) {
@@ -75,83 +138,167 @@ public class TransactionService {
             otpService.validateOtp(currentUsername, request.otpCode());
         }
 
-        // ✅ FIX 3: Idempotency Check with URI
-        if (request.idempotencyKey() != null) {
-            var existing = idempotencyService.getTransaction(
-                request.idempotencyKey(), 
-                "/api/v1/transactions/transfer"
-            );
-            if (existing.isPresent()) {
-                log.warn("⚠️ Duplicate request detected: {}", request.idempotencyKey());
-                return existing.get();
+        // ✅ FIX 3: Idempotency claim with URI — one Redis round-trip, concurrent duplicates wait for this one
+        IdempotencyService.Claim claim = idempotencyService.claimTransaction(
+            request.idempotencyKey(),
+            "/api/v1/transactions/transfer"
+        );
+        if (claim.previous().isPresent()) {
+            log.warn("⚠️ Duplicate request detected: {}", request.idempotencyKey());
+            return claim.previous().get();
+        }
+
+        try {
+            Transaction tx = executionMode == TransferExecutionMode.OPTIMISTIC
+                    ? executeOptimisticTransfer(request, currentUsername)
+                    : transactionTemplate.execute(status -> executeSecureTransfer(request, currentUsername));
+            // Committed by now (unless an outer transaction is active, then the claim completes on its commit)
+            claim.complete(tx);
+            return tx;
+        } catch (RuntimeException e) {
+            claim.release();
+            throw e;
+        }
+    }
+
+    // 🎯 OPTIMISTIC: version-checked attempts with jittered backoff; the last attempt, and accounts the
+    // policy holds in pessimistic mode, take the row-lock path so the transfer always completes
+    private Transaction executeOptimisticTransfer(TransactionRequest request, String currentUsername) {
+        String from = request.fromAccountNumber();
+        String to = request.toAccountNumber();
+        for (int attempt = 1; ; attempt++) {
+            boolean optimistic = attempt < optimisticTransferPolicy.maxAttempts()
+                    && optimisticTransferPolicy.useOptimistic(from, to);
+            TransferExecutionMode mode = optimistic ? TransferExecutionMode.OPTIMISTIC : TransferExecutionMode.LOCKING;
+            try {
+                Transaction tx = transactionTemplate.execute(status -> executeSecureTransfer(request, currentUsername, mode));
+                if (optimistic) {
+                    optimisticTransferPolicy.recordCommit(from, to);
+                }
+                return tx;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (!optimistic) {
+                    throw e;
+                }
+                String conflicted = conflictingAccount(e, from);
+                log.debug("🎯 Optimistic conflict on {} (attempt {})", conflicted, attempt);
+                optimisticTransferPolicy.recordConflict(conflicted);
+                optimisticTransferPolicy.backoff(attempt);
             }
         }
-        
-        return executeSecureTransfer(request, currentUsername);
+    }
+
+    private String conflictingAccount(ObjectOptimisticLockingFailureException e, String fallback) {
+        if (e.getIdentifier() instanceof Long accountId) {
+            return accountRepository.findById(accountId).map(Account::getAccountNumber).orElse(fallback);
+        }
+        return fallback;
     }
 
     protected Transaction executeSecureTransfer(TransactionRequest request, String currentUsername) {
+        return executeSecureTransfer(request, currentUsername, executionMode);
+    }
+
+    private Transaction executeSecureTransfer(TransactionRequest request, String currentUsername,
+                                              TransferExecutionMode mode) {
+        // 🔀 Hot (striped) receivers are credited through a stripe — their row is not locked
+        boolean stripedCredit = stripedBalanceService.isStriped(request.toAccountNumber());
+
+        // 🔒 LOCKING with a plain receiver: both rows locked by one ordered statement (owners join-fetched),
+        // so the pre-lock check only needs the owner row
+        boolean pairLock = mode == TransferExecutionMode.LOCKING && !stripedCredit;
+
         // Bug 7: Validate ownership + PIN BEFORE acquiring DB locks (avoid wasted lock time)
-        Account fromAccountCheck = accountRepository.findByAccountNumber(request.fromAccountNumber())
-                .orElseThrow(() -> new RuntimeException("Account not found: " + request.fromAccountNumber()));
-        if (!fromAccountCheck.getUser().getUsername().equals(currentUsername)) {
-            throw new RuntimeException("⛔ You do not own this account!");
+        Account fromAccountCheck = null;
+        User owner;
+        if (pairLock) {
+            owner = accountRepository.findOwnerByAccountNumber(request.fromAccountNumber())
+                    .orElseThrow(() -> new RuntimeException("Account not found: " + request.fromAccountNumber()));
+        } else {
+            fromAccountCheck = accountRepository.findWithUserByAccountNumber(request.fromAccountNumber())
+                    .orElseThrow(() -> new RuntimeException("Account not found: " + request.fromAccountNumber()));
+            owner = fromAccountCheck.getUser();
         }
-        if (!passwordEncoder.matches(request.pin(), fromAccountCheck.getUser().getPin())) {
-            throw new RuntimeException("❌ Invalid PIN");
+        verifyOwner(owner, currentUsername);
+
+        // ⚡ Risk model runs while the PIN is checked and the rows are locked
+        CompletableFuture<RiskCheckResponse> risk = overlapRiskWithLocks ? startRiskCheck(owner, request.fromAccountNumber(), request.amount()) : null;
+        try {
+            verifyPin(owner, request.pin());
+        } catch (RuntimeException e) {
+            cancelRiskCheck(risk);
+            throw e;
+        }
+
+        if (mode == TransferExecutionMode.PARTITIONED) {
+            return executeEngineTransfer(request, currentUsername, fromAccountCheck,
+                    risk != null ? risk : startRiskCheck(owner, request.fromAccountNumber(), request.amount()));
         }
 
         Account fromAccount;
         Account toAccount;
 
+        // ⚡ ATOMIC mode: no pre-lock, each leg is one conditional UPDATE (striped senders keep the lock path)
+        boolean atomic = mode == TransferExecutionMode.ATOMIC && !fromAccountCheck.isStriped();
+
+        // 🎯 OPTIMISTIC mode: no pre-lock, @Version decides at flush (striped senders keep the lock path)
+        boolean optimistic = mode == TransferExecutionMode.OPTIMISTIC && !fromAccountCheck.isStriped();
+
         // 🔥 DEADLOCK PREVENTION: Lock Ordering Strategy
         boolean lockFromFirst = request.fromAccountNumber().compareTo(request.toAccountNumber()) < 0;
 
-        if (lockFromFirst) {
-            fromAccount = fetchWithLock(request.fromAccountNumber());
-            toAccount = fetchWithLock(request.toAccountNumber());
-        } else {
-            toAccount = fetchWithLock(request.toAccountNumber());
-            fromAccount = fetchWithLock(request.fromAccountNumber());
-        }
+        boolean overlapped = risk != null;
+        // Everything from here to the try below can throw while the risk call is already running
+        try {
+            if (pairLock) {
+                Map<String, Account> locked = lockTransferPair(request.fromAccountNumber(), request.toAccountNumber());
+                fromAccount = locked.get(request.fromAccountNumber());
+                toAccount = locked.get(request.toAccountNumber());
+            } else if (atomic || optimistic) {
+                fromAccount = fromAccountCheck;
+                toAccount = accountRepository.findByAccountNumber(request.toAccountNumber())
+                        .orElseThrow(() -> new RuntimeException("Account not found: " + request.toAccountNumber()));
+            } else if (lockFromFirst) {
+                forgetPreLockRead(fromAccountCheck);
+                fromAccount = fetchWithLock(request.fromAccountNumber());
+                toAccount = fetchForCredit(request.toAccountNumber(), stripedCredit);
+            } else {
+                toAccount = fetchForCredit(request.toAccountNumber(), stripedCredit);
+                forgetPreLockRead(fromAccountCheck);
+                fromAccount = fetchWithLock(request.fromAccountNumber());
+            }
+            if (!atomic && !optimistic) {
+                timeLockHold();
+            }
+            if (!overlapped) {
+                risk = startRiskCheck(owner, request.fromAccountNumber(), request.amount());
+            }
 
-        // Bug 1: Account status check — reject INACTIVE/SUSPENDED/CLOSED
-        if (fromAccount.getStatus() != AccountStatus.ACTIVE) {
-            throw new IllegalStateException("⛔ Sender account is not active: " + fromAccount.getStatus());
-        }
-        if (toAccount.getStatus() != AccountStatus.ACTIVE) {
-            throw new IllegalStateException("⛔ Receiver account is not active: " + toAccount.getStatus());
+            // Bug 1: Account status check — reject INACTIVE/SUSPENDED/CLOSED
+            if (fromAccount.getStatus() != AccountStatus.ACTIVE) {
+                throw new IllegalStateException("⛔ Sender account is not active: " + fromAccount.getStatus());
+            }
+            if (toAccount.getStatus() != AccountStatus.ACTIVE) {
+                throw new IllegalStateException("⛔ Receiver account is not active: " + toAccount.getStatus());
+            }
+        } catch (RuntimeException e) {
+            cancelRiskCheck(risk);
+            throw e;
         }
 
         try {
-            // --- RISK ENGINE CHECK (Task 5) ---
-            com.titan.riskengine.RiskCheckResponse riskResponse;
-            try {
-                riskResponse = riskEngineGrpcService.analyzeTransaction(
-                    fromAccount.getUser().getId().toString(),
-                    request.amount().doubleValue()
-                );
-            } catch (Exception riskEx) {
-                log.warn("⚠️ Risk Engine unreachable, defaulting to ALLOW: {}", riskEx.getMessage());
-                riskResponse = com.titan.riskengine.RiskCheckResponse.newBuilder()
-                    .setRiskScore(0).setRiskLevel("UNKNOWN").setAction("ALLOW").build();
-            }
-            
-            if ("BLOCK".equalsIgnoreCase(riskResponse.getAction())) {
-                log.warn("🚫 Transaction BLOCKED by AI Risk Engine: Score={}", riskResponse.getRiskScore());
-                Transaction blockedTx = auditService.saveAuditLog(fromAccount, toAccount, request.amount(),
-                    TransactionType.TRANSFER, TransactionStatus.BLOCKED, 
-                    "Blocked by Risk Engine: " + riskResponse.getRiskLevel());
-                return blockedTx;
-            }
-            
             // --- VALIDATION INSIDE LOCK ---
             BigDecimal fee = calculateFee(fromAccount);
             BigDecimal totalDeduction = request.amount().add(fee);
+            if (!atomic) {
+                ensureSettledFunds(fromAccount, totalDeduction);
 
-            if (fromAccount.getBalance().compareTo(totalDeduction) < 0) {
-                throw new RuntimeException("❌ Insufficient Funds");
+                if (fromAccount.getBalance().compareTo(totalDeduction) < 0) {
+                    throw new RuntimeException("❌ Insufficient Funds");
+                }
             }
+            // 🚦 Daily / per-transaction limits: one Redis script, no query; released on rollback
+            DailyLimitService.LimitReservation limit = dailyLimitService.reserve(owner, fromAccount, request.amount());
 
             // --- FX CALCULATION ---
             BigDecimal targetAmount = request.amount();
@@ -161,12 +308,28 @@ public class TransactionService {
                 note += " [FX: " + fromAccount.getCurrency() + " -> " + toAccount.getCurrency() + "]";
             }
 
-            // --- EXECUTION ---
-            fromAccount.setBalance(fromAccount.getBalance().subtract(totalDeduction));
-            toAccount.setBalance(toAccount.getBalance().add(targetAmount));
+            // --- RISK ENGINE CHECK (Task 5): started before the locks, awaited just before money moves ---
+            RiskCheckResponse riskResponse = awaitRisk(risk, overlapped, fromAccount, request.amount());
+            if ("BLOCK".equalsIgnoreCase(riskResponse.getAction())) {
+                log.warn("🚫 Transaction BLOCKED by AI Risk Engine: Score={}", riskResponse.getRiskScore());
+                limit.release();
+                Transaction blockedTx = auditService.saveAuditLog(fromAccount, toAccount, request.amount(),
+                    TransactionType.TRANSFER, TransactionStatus.BLOCKED, 
+                    "Blocked by Risk Engine: " + riskResponse.getRiskLevel());
+                return blockedTx;
+            }
 
-            accountRepository.save(fromAccount);
-            accountRepository.save(toAccount);
+            // --- EXECUTION ---
+            if (atomic) {
+                applyAtomicTransfer(fromAccount, toAccount, totalDeduction, targetAmount, stripedCredit);
+            } else if (optimistic) {
+                applyOptimisticTransfer(fromAccount, toAccount, totalDeduction, targetAmount, stripedCredit);
+            } else {
+                fromAccount.setBalance(fromAccount.getBalance().subtract(totalDeduction));
+                accountRepository.save(fromAccount);
+                credit(toAccount, targetAmount, stripedCredit);
+            }
+            balancesWritten(fromAccount.getAccountNumber(), toAccount.getAccountNumber());
 
             // ✅ FIX 1: Save transaction with idempotency key
             Transaction tx = auditService.saveAuditLog(fromAccount, toAccount, request.amount(),
@@ -175,11 +338,6 @@ public class TransactionService {
             if (request.idempotencyKey() != null) {
                 tx.setIdempotencyKey(request.idempotencyKey());
                 transactionRepository.save(tx);
-                idempotencyService.cacheTransaction(
-                    request.idempotencyKey(), 
-                    "/api/v1/transactions/transfer",
-                    tx
-                );
             }
 
             // ✅ FIX 2: Create double-entry ledger entries
@@ -194,10 +352,16 @@ public class TransactionService {
 
             // ✅ FIX 3: Publish to outbox (SAME transaction!)
             eventPublisherService.publishTransactionCompletedEvent(tx);
+            recordVelocityAfterCommit(tx.getId(), owner.getId(), fromAccount.getAccountNumber(),
+                    toAccount.getAccountNumber(), request.amount());
             
             return tx;
 
+        } catch (ObjectOptimisticLockingFailureException e) {
+            cancelRiskCheck(risk);
+            throw e; // 🎯 retried by executeOptimisticTransfer, not a failed transfer
         } catch (Exception e) {
+            cancelRiskCheck(risk);
             // 🛑 Log Failure
             auditService.saveAuditLog(fromAccount, toAccount, request.amount(),
                     TransactionType.TRANSFER, TransactionStatus.FAILED, "Failed: " + e.getMessage());
@@ -205,34 +369,469 @@ public class TransactionService {
         }
     }
 
+    // ⚙️ PARTITIONED: balances live in the single-writer engine — no row locks on this thread.
+    // Status, funds and fee are checked on the partition against the authoritative balance.
+    private Transaction executeEngineTransfer(TransactionRequest request, String currentUsername, Account fromAccount,
+                                              CompletableFuture<RiskCheckResponse> risk) {
+        Account toAccount = accountRepository.findByAccountNumber(request.toAccountNumber())
+                .orElseThrow(() -> {
+                    cancelRiskCheck(risk);
+                    return new RuntimeException("Account not found: " + request.toAccountNumber());
+                });
+
+        try {
+            DailyLimitService.LimitReservation limit = dailyLimitService.reserve(fromAccount.getUser(), fromAccount, request.amount());
+            RiskCheckResponse riskResponse = awaitRisk(risk, overlapRiskWithLocks, fromAccount, request.amount());
+            if ("BLOCK".equalsIgnoreCase(riskResponse.getAction())) {
+                log.warn("🚫 Transaction BLOCKED by AI Risk Engine: Score={}", riskResponse.getRiskScore());
+                limit.release();
+                return auditService.saveAuditLog(fromAccount, toAccount, request.amount(),
+                    TransactionType.TRANSFER, TransactionStatus.BLOCKED,
+                    "Blocked by Risk Engine: " + riskResponse.getRiskLevel());
+            }
+
+            BigDecimal targetAmount = request.amount();
+            String note = request.note() != null ? request.note() : "";
+            if (fromAccount.getCurrency() != toAccount.getCurrency()) {
+                targetAmount = exchangeRateService.convert(request.amount(), fromAccount.getCurrency(), toAccount.getCurrency());
+                note += " [FX: " + fromAccount.getCurrency() + " -> " + toAccount.getCurrency() + "]";
+            }
+
+            AccountType accountType = fromAccount.getAccountType();
+            Transaction tx = awaitEngine(partitionedTransferEngine.transfer(
+                    request.fromAccountNumber(), request.toAccountNumber(), request.amount(), targetAmount,
+                    balance -> calculateFee(accountType, balance), note, request.idempotencyKey(), currentUsername));
+
+            // Ledger and outbox rows were written in the engine's group commit
+            return tx;
+
+        } catch (Exception e) {
+            auditService.saveAuditLog(fromAccount, toAccount, request.amount(),
+                    TransactionType.TRANSFER, TransactionStatus.FAILED, "Failed: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    // ==================================================================================
+    // 📦 1b. BULK TRANSFER (PAYROLL / PAYOUTS)
+    // ==================================================================================
+    /**
+     * One source account → many receivers, applied in a single DB transaction.
+     * Owner/PIN/OTP are checked once, all account rows are locked in one ordered pass, and the
+     * Transaction, ledger and outbox rows are written with JDBC batch inserts.
+     * An item that fails (unknown/inactive receiver, insufficient funds) is recorded as FAILED;
+     * the rest of the batch still commits. In PARTITIONED mode the items run on the transfer engine instead.
+     */
+    @Transactional
+    public BulkTransferResponse transferBatch(BulkTransferRequest request, String currentUsername) {
+        if (deadMansSwitchService.isLockdownActive()) {
+            throw new IllegalStateException("System is in LOCKDOWN. All transactions are frozen.");
+        }
+
+        List<BulkTransferRequest.Item> items = request.items();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("❌ Bulk transfer must contain at least one item.");
+        }
+        if (items.size() > bulkMaxItems) {
+            throw new IllegalArgumentException("❌ Bulk transfer is limited to " + bulkMaxItems + " items.");
+        }
+        for (BulkTransferRequest.Item item : items) {
+            if (item.toAccountNumber() == null || item.amount() == null || item.amount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("❌ Every item needs a receiver and an amount greater than zero.");
+            }
+        }
+        // '#' separates the batch key from the item index: "abc" must not reach the items of batch "abc#1"
+        if (request.idempotencyKey() != null && request.idempotencyKey().indexOf('#') >= 0) {
+            throw new IllegalArgumentException("❌ Bulk transfer idempotency key must not contain '#'.");
+        }
+
+        // OTP once, against the batch total
+        BigDecimal batchTotal = items.stream().map(BulkTransferRequest.Item::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (batchTotal.compareTo(OTP_THRESHOLD) > 0) {
+            if (request.otpCode() == null || request.otpCode().isBlank()) {
+                throw new IllegalArgumentException("🔐 OTP is required for transfers above $10,000.");
+            }
+            otpService.validateOtp(currentUsername, request.otpCode());
+        }
+
+        // Idempotency: item rows are keyed "<key>#<index>", a replay returns the stored results
+        String keyPrefix = request.idempotencyKey() != null ? request.idempotencyKey() + "#" : null;
+        // Every batch writes item #0, so a "#0" key the filter has never seen means no earlier batch
+        if (keyPrefix != null && !recentIdempotencyKeys.isDefinitelyNew(keyPrefix + "0")) {
+            List<Transaction> previous = itemsOfBatch(keyPrefix);
+            if (!previous.isEmpty()) {
+                log.warn("⚠️ Duplicate bulk request detected: {}", request.idempotencyKey());
+                return toBulkTransferResponse(previous, keyPrefix);
+            }
+        }
+        if (keyPrefix != null) {
+            // Recorded before the rows exist, as claimTransaction does: a retry racing this batch reaches the lookup
+            recentIdempotencyKeys.add(keyPrefix + "0");
+        }
+
+        Account fromAccountCheck = validateOwnerAndPin(request.fromAccountNumber(), currentUsername, request.pin());
+        // 🚦 Daily limits count the batch total; the per-transaction limit applies to each item
+        DailyLimitService.LimitReservation limit = dailyLimitService.reserve(fromAccountCheck.getUser(), fromAccountCheck,
+                batchTotal, items.stream().map(BulkTransferRequest.Item::amount).max(BigDecimal::compareTo).orElse(batchTotal));
+        if (executionMode == TransferExecutionMode.PARTITIONED) {
+            return executeEngineBatch(request, currentUsername, fromAccountCheck, keyPrefix, batchTotal, limit);
+        }
+        forgetPreLockRead(fromAccountCheck);
+
+        // ⚡ One risk call for the batch total, running while the account set is locked
+        CompletableFuture<RiskCheckResponse> risk = overlapRiskWithLocks
+                ? startRiskCheck(fromAccountCheck.getUser(), request.fromAccountNumber(), batchTotal) : null;
+
+        // 🔀 Striped receivers are credited through stripes — keep them out of the lock set
+        Set<String> receivers = items.stream()
+                .map(BulkTransferRequest.Item::toAccountNumber)
+                .filter(accNum -> !accNum.equals(request.fromAccountNumber()))
+                .collect(Collectors.toCollection(TreeSet::new));
+        Set<String> stripedReceivers = receivers.stream()
+                .filter(stripedBalanceService::isStriped)
+                .collect(Collectors.toSet());
+        Set<String> lockSet = new TreeSet<>(receivers);
+        lockSet.removeAll(stripedReceivers);
+        lockSet.add(request.fromAccountNumber());
+
+        // 🔥 DEADLOCK PREVENTION: one SELECT ... ORDER BY account_number FOR UPDATE for the whole set
+        Map<String, Account> accounts = new HashMap<>();
+        Account fromAccount;
+        // Everything from here to the risk await can throw while the risk call is already running
+        try {
+            accountRepository.findAllByAccountNumberInWithLock(lockSet).forEach(a -> accounts.put(a.getAccountNumber(), a));
+            timeLockHold();
+            if (!stripedReceivers.isEmpty()) {
+                accountRepository.findByAccountNumberIn(stripedReceivers).forEach(a -> accounts.put(a.getAccountNumber(), a));
+            }
+
+            fromAccount = accounts.get(request.fromAccountNumber());
+            if (fromAccount == null) {
+                throw new RuntimeException("Account not found: " + request.fromAccountNumber());
+            }
+            if (fromAccount.getStatus() != AccountStatus.ACTIVE) {
+                throw new IllegalStateException("⛔ Sender account is not active: " + fromAccount.getStatus());
+            }
+        } catch (RuntimeException e) {
+            cancelRiskCheck(risk);
+            throw e;
+        }
+
+        // --- RISK ENGINE CHECK: one call for the batch total ---
+        boolean overlapped = risk != null;
+        RiskCheckResponse riskResponse = awaitRisk(overlapped ? risk : startRiskCheck(fromAccount.getUser(), request.fromAccountNumber(), batchTotal),
+                overlapped, fromAccount, batchTotal);
+        boolean blocked = "BLOCK".equalsIgnoreCase(riskResponse.getAction());
+        if (blocked) {
+            log.warn("🚫 Bulk transfer BLOCKED by AI Risk Engine: Score={}", riskResponse.getRiskScore());
+            limit.release();
+        }
+
+        // --- EXECUTION: balances in memory under the locks, rows collected for batch insert ---
+        String batchRef = "BT" + System.currentTimeMillis() + (int)(Math.random() * 1000);
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> txIds = bulkTransferJdbcRepository.allocateTransactionIds(items.size());
+        List<Transaction> transactions = new ArrayList<>(items.size());
+        List<LedgerEntry> ledgerEntries = new ArrayList<>(items.size() * 2);
+
+        for (int i = 0; i < items.size(); i++) {
+            BulkTransferRequest.Item item = items.get(i);
+            Account toAccount = accounts.get(item.toAccountNumber());
+            String note = item.note() != null ? item.note() : "";
+            TransactionStatus status = TransactionStatus.SUCCESS;
+
+            if (blocked) {
+                status = TransactionStatus.BLOCKED;
+                note = "Blocked by Risk Engine: " + riskResponse.getRiskLevel();
+            } else {
+                try {
+                    note = applyBulkLeg(fromAccount, toAccount, item, stripedReceivers.contains(item.toAccountNumber()), note);
+                } catch (RuntimeException e) {
+                    status = TransactionStatus.FAILED;
+                    note = "Failed: " + e.getMessage();
+                }
+            }
+
+            Transaction tx = Transaction.builder()
+                    .id(txIds.get(i))
+                    .idempotencyKey(keyPrefix != null ? keyPrefix + i : null)
+                    .transactionReference(batchRef + "-" + i)
+                    .transactionType(TransactionType.TRANSFER)
+                    .fromAccount(fromAccount)
+                    .toAccount(toAccount)
+                    .amount(item.amount())
+                    .status(status)
+                    .note(note)
+                    .timestamp(now)
+                    .build();
+            transactions.add(tx);
+
+            if (status == TransactionStatus.SUCCESS) {
+                ledgerEntries.addAll(doubleEntryService.buildDoubleEntry(tx.getId(), fromAccount.getId(),
+                        toAccount.getId(), item.amount(), note, currentUsername, now));
+            }
+        }
+
+        List<OutboxEvent> outboxEvents = new ArrayList<>();
+        for (Transaction tx : transactions) {
+            if (tx.getStatus() != TransactionStatus.SUCCESS) {
+                continue;
+            }
+            try {
+                outboxEvents.add(eventPublisherService.toOutboxEvent(tx));
+            } catch (Exception e) {
+                // ⚠️ Same rule as single transfers: outbox failure must not roll back the batch
+                log.error("❌ Failed to build outbox event: TX ID: {} — {}", tx.getId(), e.getMessage());
+            }
+        }
+
+        bulkTransferJdbcRepository.insertTransactions(transactions);
+        bulkTransferJdbcRepository.insertLedgerEntries(ledgerEntries);
+        bulkTransferJdbcRepository.insertOutboxEvents(outboxEvents);
+        balancesWritten(accounts.keySet().toArray(String[]::new));
+        // 🚦 Failed items moved no money: give their share of the daily allowance back
+        limit.release(failedTotal(transactions));
+
+        BulkTransferResponse response = toBulkTransferResponse(transactions, keyPrefix);
+        log.info("📦 Bulk transfer {} from {}: {}/{} succeeded", batchRef, fromAccount.getAccountNumber(),
+                response.succeeded(), response.total());
+        return response;
+    }
+
+    // ⚙️ PARTITIONED: every item is an engine transfer on the sender's partition, which checks funds against
+    // the authoritative balance and group-commits the items it drains together. Items that do not go through
+    // are recorded as FAILED / BLOCKED rows in this transaction.
+    private BulkTransferResponse executeEngineBatch(BulkTransferRequest request, String currentUsername, Account fromAccount,
+                                                    String keyPrefix, BigDecimal batchTotal,
+                                                    DailyLimitService.LimitReservation limit) {
+        List<BulkTransferRequest.Item> items = request.items();
+        RiskCheckResponse riskResponse = awaitRisk(startRiskCheck(fromAccount.getUser(), request.fromAccountNumber(), batchTotal),
+                overlapRiskWithLocks, fromAccount, batchTotal);
+        boolean blocked = "BLOCK".equalsIgnoreCase(riskResponse.getAction());
+        if (blocked) {
+            log.warn("🚫 Bulk transfer BLOCKED by AI Risk Engine: Score={}", riskResponse.getRiskScore());
+            limit.release();
+        }
+
+        Map<String, Account> receivers = new HashMap<>();
+        accountRepository.findByAccountNumberIn(items.stream().map(BulkTransferRequest.Item::toAccountNumber).collect(Collectors.toSet()))
+                .forEach(a -> receivers.put(a.getAccountNumber(), a));
+
+        // All submitted before the first is awaited, so the partition can commit them in one group
+        List<CompletableFuture<Transaction>> submitted = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BulkTransferRequest.Item item = items.get(i);
+            submitted.add(blocked ? null : submitEngineItem(fromAccount, receivers.get(item.toAccountNumber()), item,
+                    keyPrefix != null ? keyPrefix + i : null, currentUsername));
+        }
+
+        String batchRef = "BT" + System.currentTimeMillis() + (int)(Math.random() * 1000);
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>(items.size());
+        List<Transaction> unsuccessful = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkTransferRequest.Item item = items.get(i);
+            TransactionStatus status = TransactionStatus.BLOCKED;
+            String note = "Blocked by Risk Engine: " + riskResponse.getRiskLevel();
+            if (!blocked) {
+                try {
+                    transactions.add(awaitEngine(submitted.get(i)));
+                    continue;
+                } catch (RuntimeException e) {
+                    status = TransactionStatus.FAILED;
+                    note = "Failed: " + e.getMessage();
+                }
+            }
+            Transaction tx = Transaction.builder()
+                    .idempotencyKey(keyPrefix != null ? keyPrefix + i : null)
+                    .transactionReference(batchRef + "-" + i)
+                    .transactionType(TransactionType.TRANSFER)
+                    .fromAccount(fromAccount)
+                    .toAccount(receivers.get(item.toAccountNumber()))
+                    .amount(item.amount())
+                    .status(status)
+                    .note(note)
+                    .timestamp(now)
+                    .build();
+            transactions.add(tx);
+            unsuccessful.add(tx);
+        }
+        if (!unsuccessful.isEmpty()) {
+            List<Long> ids = bulkTransferJdbcRepository.allocateTransactionIds(unsuccessful.size());
+            for (int i = 0; i < unsuccessful.size(); i++) {
+                unsuccessful.get(i).setId(ids.get(i));
+            }
+            bulkTransferJdbcRepository.insertTransactions(unsuccessful);
+        }
+        limit.release(failedTotal(unsuccessful));
+
+        BulkTransferResponse response = toBulkTransferResponse(transactions, keyPrefix);
+        log.info("📦 Bulk transfer {} from {} on the engine: {}/{} succeeded", batchRef, fromAccount.getAccountNumber(),
+                response.succeeded(), response.total());
+        return response;
+    }
+
+    // Receiver checks that need no balance run here; status, funds and fee are checked on the partition
+    private CompletableFuture<Transaction> submitEngineItem(Account fromAccount, Account toAccount, BulkTransferRequest.Item item,
+                                                            String idempotencyKey, String currentUsername) {
+        if (toAccount == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("Account not found: " + item.toAccountNumber()));
+        }
+        if (toAccount.getId().equals(fromAccount.getId())) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("⛔ Cannot transfer to the same account."));
+        }
+        BigDecimal targetAmount = item.amount();
+        String note = item.note() != null ? item.note() : "";
+        if (fromAccount.getCurrency() != toAccount.getCurrency()) {
+            targetAmount = exchangeRateService.convert(item.amount(), fromAccount.getCurrency(), toAccount.getCurrency());
+            note += " [FX: " + fromAccount.getCurrency() + " -> " + toAccount.getCurrency() + "]";
+        }
+        AccountType accountType = fromAccount.getAccountType();
+        return partitionedTransferEngine.transfer(fromAccount.getAccountNumber(), toAccount.getAccountNumber(), item.amount(),
+                targetAmount, balance -> calculateFee(accountType, balance), note, idempotencyKey, currentUsername);
+    }
+
+    // Validation + balance movement for one bulk item; the caller holds the locks. Returns the final note.
+    private String applyBulkLeg(Account fromAccount, Account toAccount, BulkTransferRequest.Item item,
+                                boolean stripedCredit, String note) {
+        if (toAccount == null) {
+            throw new RuntimeException("Account not found: " + item.toAccountNumber());
+        }
+        if (toAccount.getId().equals(fromAccount.getId())) {
+            throw new IllegalArgumentException("⛔ Cannot transfer to the same account.");
+        }
+        if (toAccount.getStatus() != AccountStatus.ACTIVE) {
+            throw new IllegalStateException("⛔ Receiver account is not active: " + toAccount.getStatus());
+        }
+
+        BigDecimal totalDeduction = item.amount().add(calculateFee(fromAccount));
+        ensureSettledFunds(fromAccount, totalDeduction);
+        if (fromAccount.getBalance().compareTo(totalDeduction) < 0) {
+            throw new RuntimeException("❌ Insufficient Funds");
+        }
+
+        BigDecimal targetAmount = item.amount();
+        if (fromAccount.getCurrency() != toAccount.getCurrency()) {
+            targetAmount = exchangeRateService.convert(item.amount(), fromAccount.getCurrency(), toAccount.getCurrency());
+            note += " [FX: " + fromAccount.getCurrency() + " -> " + toAccount.getCurrency() + "]";
+        }
+
+        // Managed entities: dirty checking flushes the balances once at commit
+        fromAccount.setBalance(fromAccount.getBalance().subtract(totalDeduction));
+        if (stripedCredit) {
+            stripedBalanceService.credit(toAccount, targetAmount);
+        } else {
+            toAccount.setBalance(toAccount.getBalance().add(targetAmount));
+        }
+        return note;
+    }
+
+    private static BigDecimal failedTotal(List<Transaction> transactions) {
+        return transactions.stream()
+                .filter(tx -> tx.getStatus() == TransactionStatus.FAILED)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Item rows of one batch only: "<key>#" followed by digits (LIKE would also match keys of other shapes)
+    private List<Transaction> itemsOfBatch(String keyPrefix) {
+        return transactionRepository.findByIdempotencyKeyStartingWithOrderByIdAsc(keyPrefix).stream()
+                .filter(tx -> itemIndex(tx.getIdempotencyKey(), keyPrefix) >= 0)
+                .toList();
+    }
+
+    // -1 unless the key is the prefix followed by a plain index
+    private static int itemIndex(String idempotencyKey, String keyPrefix) {
+        if (idempotencyKey == null || !idempotencyKey.startsWith(keyPrefix)) {
+            return -1;
+        }
+        String suffix = idempotencyKey.substring(keyPrefix.length());
+        if (suffix.isEmpty() || suffix.length() > 9 || !suffix.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return -1;
+        }
+        return Integer.parseInt(suffix);
+    }
+
+    private BulkTransferResponse toBulkTransferResponse(List<Transaction> transactions, String keyPrefix) {
+        List<BulkTransferResponse.ItemResult> results = new ArrayList<>(transactions.size());
+        int succeeded = 0;
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction tx = transactions.get(i);
+            boolean ok = tx.getStatus() == TransactionStatus.SUCCESS;
+            if (ok) {
+                succeeded++;
+            }
+            int index = keyPrefix != null ? itemIndex(tx.getIdempotencyKey(), keyPrefix) : -1;
+            if (index < 0) {
+                index = i;
+            }
+            results.add(new BulkTransferResponse.ItemResult(
+                    index,
+                    tx.getToAccountNumber(),
+                    tx.getAmount(),
+                    tx.getStatus().name(),
+                    tx.getId(),
+                    tx.getTransactionReference(),
+                    ok ? null : tx.getNote()
+            ));
+        }
+        String batchRef = transactions.get(0).getTransactionReference();
+        batchRef = batchRef.substring(0, batchRef.lastIndexOf('-'));
+        return new BulkTransferResponse(batchRef, transactions.size(), succeeded, transactions.size() - succeeded, results);
+    }
+
     // ==================================================================================
     // 🏧 2. WITHDRAWAL (SECURE)
     // ==================================================================================
     @Transactional
     public Transaction withdraw(TransactionRequest request, String currentUsername) {
-        // ✅ Idempotency Check with URI
-        if (request.idempotencyKey() != null) {
-            var existing = idempotencyService.getTransaction(
-                request.idempotencyKey(),
-                "/api/v1/transactions/withdraw"
-            );
-            if (existing.isPresent()) {
-                return existing.get();
-            }
+        // ✅ Idempotency claim with URI — completed on commit, released on rollback
+        IdempotencyService.Claim claim = idempotencyService.claimTransaction(
+            request.idempotencyKey(),
+            "/api/v1/transactions/withdraw"
+        );
+        if (claim.previous().isPresent()) {
+            return claim.previous().get();
         }
 
         // Bug 7: validate owner+PIN before acquiring the lock
-        validateOwnerAndPin(request.fromAccountNumber(), currentUsername, request.pin());
+        Account checked = validateOwnerAndPin(request.fromAccountNumber(), currentUsername, request.pin());
+        // 🚦 Limits before the lock: owner and account type are already loaded, released on rollback
+        dailyLimitService.reserve(checked.getUser(), checked, request.amount());
 
-        Account account = fetchWithLock(request.fromAccountNumber());
+        if (executionMode == TransferExecutionMode.PARTITIONED) {
+            try {
+                Transaction tx = awaitEngine(partitionedTransferEngine.withdraw(
+                        request.fromAccountNumber(), request.amount(), request.idempotencyKey()));
+                claim.complete(tx);
+                return tx;
+            } catch (Exception e) {
+                auditService.saveAuditLog(checked, null, request.amount(),
+                        TransactionType.WITHDRAWAL, TransactionStatus.FAILED, e.getMessage());
+                throw e;
+            }
+        }
+
+        boolean atomic = executionMode == TransferExecutionMode.ATOMIC && !checked.isStriped();
+        if (!atomic) {
+            forgetPreLockRead(checked);
+        }
+        Account account = atomic ? checked : fetchWithLock(request.fromAccountNumber());
 
         try {
-            if (account.getBalance().compareTo(request.amount()) < 0) {
-                throw new RuntimeException("❌ Insufficient funds");
-            }
+            if (atomic) {
+                accountBalanceJdbcRepository.debitIfSufficient(account.getAccountNumber(), request.amount())
+                        .orElseThrow(() -> new RuntimeException("❌ Insufficient funds"));
+            } else {
+                ensureSettledFunds(account, request.amount());
+                if (account.getBalance().compareTo(request.amount()) < 0) {
+                    throw new RuntimeException("❌ Insufficient funds");
+                }
 
-            account.setBalance(account.getBalance().subtract(request.amount()));
-            accountRepository.save(account);
+                account.setBalance(account.getBalance().subtract(request.amount()));
+                accountRepository.save(account);
+            }
+            balancesWritten(account.getAccountNumber());
 
             Transaction tx = auditService.saveAuditLog(account, null, request.amount(),
                     TransactionType.WITHDRAWAL, TransactionStatus.SUCCESS, "Withdrawal");
@@ -240,14 +839,10 @@ public class TransactionService {
             if (request.idempotencyKey() != null) {
                 tx.setIdempotencyKey(request.idempotencyKey());
                 transactionRepository.save(tx);
-                idempotencyService.cacheTransaction(
-                    request.idempotencyKey(),
-                    "/api/v1/transactions/withdraw",
-                    tx
-                );
             }
 
             eventPublisherService.publishTransactionCompletedEvent(tx);
+            claim.complete(tx);
             return tx;
 
         } catch (Exception e) {
@@ -262,23 +857,35 @@ public class TransactionService {
     // ==================================================================================
     @Transactional
     public Transaction deposit(TransactionRequest request) {
-        // ✅ Idempotency Check with URI
-        if (request.idempotencyKey() != null) {
-            var existing = idempotencyService.getTransaction(
-                request.idempotencyKey(),
-                "/api/v1/transactions/deposit"
-            );
-            if (existing.isPresent()) {
-                return existing.get();
-            }
+        // ✅ Idempotency claim with URI — completed on commit, released on rollback
+        IdempotencyService.Claim claim = idempotencyService.claimTransaction(
+            request.idempotencyKey(),
+            "/api/v1/transactions/deposit"
+        );
+        if (claim.previous().isPresent()) {
+            return claim.previous().get();
         }
-        
+
         String targetAccNum = request.toAccountNumber() != null ? request.toAccountNumber() : request.fromAccountNumber();
 
-        Account account = fetchWithLock(targetAccNum);
+        if (executionMode == TransferExecutionMode.PARTITIONED) {
+            Transaction tx = awaitEngine(partitionedTransferEngine.deposit(targetAccNum, request.amount(), request.idempotencyKey()));
+            claim.complete(tx);
+            return tx;
+        }
 
-        account.setBalance(account.getBalance().add(request.amount()));
-        accountRepository.save(account);
+        boolean stripedCredit = stripedBalanceService.isStriped(targetAccNum);
+        Account account;
+        if (executionMode == TransferExecutionMode.ATOMIC && !stripedCredit) {
+            // Credit-only UPDATE, no prior SELECT
+            Long accountId = accountBalanceJdbcRepository.credit(targetAccNum, request.amount())
+                    .orElseThrow(() -> new RuntimeException("Account not found or not active: " + targetAccNum));
+            account = accountRepository.getReferenceById(accountId);
+        } else {
+            account = fetchForCredit(targetAccNum, stripedCredit);
+            credit(account, request.amount(), stripedCredit);
+        }
+        balancesWritten(targetAccNum);
 
         Transaction tx = auditService.saveAuditLog(null, account, request.amount(),
                 TransactionType.DEPOSIT, TransactionStatus.SUCCESS, "Deposit");
@@ -286,47 +893,244 @@ public class TransactionService {
         if (request.idempotencyKey() != null) {
             tx.setIdempotencyKey(request.idempotencyKey());
             transactionRepository.save(tx);
-            idempotencyService.cacheTransaction(
-                request.idempotencyKey(),
-                "/api/v1/transactions/deposit",
-                tx
-            );
         }
 
         eventPublisherService.publishTransactionCompletedEvent(tx);
+        claim.complete(tx);
         return tx;
     }
 
     // ==================================================================================
     // 🛠️ HELPER METHODS
     // ==================================================================================
+    private CompletableFuture<RiskCheckResponse> startRiskCheck(User owner, String fromAccountNumber, BigDecimal amount) {
+        try {
+            return riskEngineGrpcService.analyzeTransactionAsync(owner.getId(), fromAccountNumber, amount.doubleValue());
+        } catch (Exception riskEx) {
+            return CompletableFuture.failedFuture(riskEx);
+        }
+    }
+
+    // Bounded wait: a slow or unreachable Risk Engine never holds the row locks longer than the timeout;
+    // without a remote answer the embedded model scores the transfer
+    private RiskCheckResponse awaitRisk(CompletableFuture<RiskCheckResponse> risk, boolean overlapped,
+                                        Account fromAccount, BigDecimal amount) {
+        long start = System.nanoTime();
+        String outcome = "ok";
+        RiskCheckResponse remote = null;
+        try {
+            remote = risk.get(riskAwaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            risk.cancel(true);
+            log.warn("⏳ Risk Engine did not answer within {} ms, scoring in-process", riskAwaitTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "error";
+        } catch (ExecutionException e) {
+            outcome = "error";
+            log.warn("⚠️ Risk Engine unreachable, scoring in-process: {}", e.getCause().getMessage());
+        } finally {
+            Timer.builder("titan.risk.await")
+                    .tag("risk", overlapped ? "overlapped" : "inline")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return embeddedRiskScorer.decide(remote, fromAccount, amount);
+    }
+
+    private static void cancelRiskCheck(CompletableFuture<RiskCheckResponse> risk) {
+        if (risk != null) {
+            risk.cancel(true);
+        }
+    }
+
+    // Velocity features count committed transfers only; the outbox event of the same transaction is skipped
+    private void recordVelocityAfterCommit(Long txId, Long userId, String from, String to, BigDecimal amount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            velocityFeatureStore.recordTransfer(txId, userId, from, to, amount);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                velocityFeatureStore.recordTransfer(txId, userId, from, to, amount);
+            }
+        });
+    }
+
+    // Direct balance writes: the engine drops its copy of these accounts once the transaction commits
+    private void balancesWritten(String... accountNumbers) {
+        applicationEventPublisher.publishEvent(AccountBalanceChangedEvent.of(accountNumbers));
+    }
+
+    // Row locks are held from here until the transaction ends; tagged so inline vs overlapped risk calls compare
+    private void timeLockHold() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long lockedAt = System.nanoTime();
+        String risk = overlapRiskWithLocks ? "overlapped" : "inline";
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                Timer.builder("titan.transfer.lock.hold")
+                        .tag("risk", risk)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - lockedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    // The engine always completes the future (commit, rejection or rollback) — unwrap to the original error
+    private Transaction awaitEngine(CompletableFuture<Transaction> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // A validation read before the lock leaves an unlocked copy in the persistence context; the FOR UPDATE
+    // query would only lock-upgrade that copy (and fail the @Version check if the row moved meanwhile).
+    // Detaching it makes the locked read load the current row.
+    private void forgetPreLockRead(Account account) {
+        entityManager.detach(account);
+    }
+
     private Account fetchWithLock(String accNum) {
         return accountRepository.findByAccountNumberWithLock(accNum)
                 .orElseThrow(() -> new RuntimeException("Account not found: " + accNum));
     }
 
-    private void validateOwnerAndPin(String accNum, String username, String pin) {
+    // One SELECT ... WHERE account_number IN (:a, :b) ORDER BY account_number FOR UPDATE, owners included
+    private Map<String, Account> lockTransferPair(String fromAccNum, String toAccNum) {
+        Map<String, Account> locked = new HashMap<>(4);
+        accountRepository.findTransferPairWithOwnersForUpdate(fromAccNum, toAccNum)
+                .forEach(a -> locked.put(a.getAccountNumber(), a));
+        for (String accNum : List.of(fromAccNum, toAccNum)) {
+            if (!locked.containsKey(accNum)) {
+                throw new RuntimeException("Account not found: " + accNum);
+            }
+        }
+        return locked;
+    }
+
+    private Account fetchForCredit(String accNum, boolean stripedCredit) {
+        if (!stripedCredit) {
+            return fetchWithLock(accNum);
+        }
+        return accountRepository.findByAccountNumber(accNum)
+                .orElseThrow(() -> new RuntimeException("Account not found: " + accNum));
+    }
+
+    private void credit(Account account, BigDecimal amount, boolean stripedCredit) {
+        if (stripedCredit) {
+            stripedBalanceService.credit(account, amount);
+        } else {
+            account.setBalance(account.getBalance().add(amount));
+            accountRepository.save(account);
+        }
+    }
+
+    // Two single-row conditional UPDATEs, issued in the same global order as the pessimistic locks
+    private void applyAtomicTransfer(Account fromAccount, Account toAccount, BigDecimal totalDeduction,
+                                     BigDecimal targetAmount, boolean stripedCredit) {
+        Runnable debitLeg = () -> accountBalanceJdbcRepository
+                .debitIfSufficient(fromAccount.getAccountNumber(), totalDeduction)
+                .orElseThrow(() -> new RuntimeException("❌ Insufficient Funds"));
+        Runnable creditLeg = () -> {
+            if (stripedCredit) {
+                stripedBalanceService.credit(toAccount, targetAmount);
+            } else {
+                accountBalanceJdbcRepository.credit(toAccount.getAccountNumber(), targetAmount)
+                        .orElseThrow(() -> new IllegalStateException("⛔ Receiver account is not active"));
+            }
+        };
+
+        if (fromAccount.getAccountNumber().compareTo(toAccount.getAccountNumber()) < 0) {
+            debitLeg.run();
+            creditLeg.run();
+        } else {
+            creditLeg.run();
+            debitLeg.run();
+        }
+    }
+
+    // Version-checked UPDATEs flushed right away, so a conflict surfaces before the audit row is committed;
+    // rows are written in the same global order as the pessimistic locks
+    private void applyOptimisticTransfer(Account fromAccount, Account toAccount, BigDecimal totalDeduction,
+                                         BigDecimal targetAmount, boolean stripedCredit) {
+        Runnable debitLeg = () -> {
+            fromAccount.setBalance(fromAccount.getBalance().subtract(totalDeduction));
+            accountRepository.saveAndFlush(fromAccount);
+        };
+        Runnable creditLeg = () -> {
+            credit(toAccount, targetAmount, stripedCredit);
+            accountRepository.flush();
+        };
+
+        if (fromAccount.getAccountNumber().compareTo(toAccount.getAccountNumber()) < 0) {
+            debitLeg.run();
+            creditLeg.run();
+        } else {
+            creditLeg.run();
+            debitLeg.run();
+        }
+    }
+
+    // Striped accounts: pull committed stripe credits into the (locked) settled balance if needed
+    private void ensureSettledFunds(Account lockedAccount, BigDecimal required) {
+        if (lockedAccount.isStriped() && lockedAccount.getBalance().compareTo(required) < 0) {
+            stripedBalanceService.drainInto(lockedAccount);
+        }
+    }
+
+    private Account validateOwnerAndPin(String accNum, String username, String pin) {
         // Read-only fetch for validation (No Lock needed yet)
         Account acc = accountRepository.findByAccountNumber(accNum)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
-        if (!acc.getUser().getUsername().equals(username)) {
+        verifyOwnerAndPin(acc.getUser(), username, pin);
+        return acc;
+    }
+
+    private void verifyOwnerAndPin(User owner, String username, String pin) {
+        verifyOwner(owner, username);
+        verifyPin(owner, pin);
+    }
+
+    private static void verifyOwner(User owner, String username) {
+        if (!owner.getUsername().equals(username)) {
             throw new RuntimeException("⛔ You do not own this account!");
         }
-        if (!passwordEncoder.matches(pin, acc.getUser().getPin())) {
+    }
+
+    private void verifyPin(User owner, String pin) {
+        if (!pinVerificationService.matches(owner, pin)) {
             throw new RuntimeException("❌ Invalid PIN");
         }
     }
 
     private BigDecimal calculateFee(Account account) {
+        return calculateFee(account.getAccountType(), account.getBalance());
+    }
+
+    private static BigDecimal calculateFee(AccountType accountType, BigDecimal balance) {
         // ✅ JAVA 21 SWITCH EXPRESSION (Cleaner & Faster)
-        return switch (account.getAccountType()) {
-            case SAVINGS -> account.getBalance().compareTo(new BigDecimal("10000")) >= 0 
+        return switch (accountType) {
+            case SAVINGS -> balance.compareTo(new BigDecimal("10000")) >= 0 
                     ? BigDecimal.ZERO 
                     : new BigDecimal("0.50");
             case CHECKING -> new BigDecimal("1.00");
             case FIXED_DEPOSIT -> new BigDecimal("0.25");
-            case LOAN -> account.getBalance().multiply(new BigDecimal("0.005"));
+            case LOAN -> balance.multiply(new BigDecimal("0.005"));
             default -> new BigDecimal("2.00");
         };
     }
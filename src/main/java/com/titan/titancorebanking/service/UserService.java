@@ -1,6 +1,7 @@
 package com.titan.titancorebanking.service;
 
 import com.titan.titancorebanking.dto.request.RegisterRequest;
+import com.titan.titancorebanking.enums.HashingLane;
 import com.titan.titancorebanking.enums.UserTier;
 import com.titan.titancorebanking.model.User;
 import com.titan.titancorebanking.repository.UserRepository;
@@ -8,22 +9,27 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PinVerificationService pinVerificationService;
+    private final HashingService hashingService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final CacheService cacheService;
+    private final PinAttemptService pinAttemptService;
 
+    // Served from the user-profiles cache (read-only copy, no password or PIN hash)
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        return Optional.ofNullable(cacheService.getUserProfile(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
@@ -49,8 +55,8 @@ public class UserService implements UserDetailsService {
                 .lastName(request.getLastName())
                 .email(request.getEmail())
                 .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .pin(passwordEncoder.encode(request.getPin()))
+                .password(hashingService.encode(request.getPassword(), HashingLane.ENCODE))
+                .pin(hashingService.encode(request.getPin(), HashingLane.ENCODE))
                 .build();
 
         return userRepository.save(user);
@@ -60,6 +66,30 @@ public class UserService implements UserDetailsService {
     public User updateUserTier(Long userId, UserTier newTier) {
         User user = getUserById(userId);
         user.setTier(newTier);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        cacheService.evictUserProfile(saved.getUsername());
+        verifiedTokenCache.userChanged(saved.getUsername());
+        return saved;
+    }
+
+    // 🔐 Change PIN: always checked with BCrypt under the same attempt limits as transfers,
+    // then every open PIN session is closed
+    @Transactional
+    public void changePin(String username, String currentPin, String newPin) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        pinAttemptService.ensureNotLocked(username);
+        if (currentPin == null || !hashingService.matches(currentPin, user.getPin(), HashingLane.LOGIN)) {
+            pinAttemptService.recordFailure(username);
+            throw new SecurityException("❌ Incorrect PIN!");
+        }
+        pinAttemptService.reset(username);
+        if (newPin == null || !newPin.matches("\\d{4,6}")) {
+            throw new IllegalArgumentException("PIN must be 4-6 digits");
+        }
+        user.setPin(hashingService.encode(newPin, HashingLane.ENCODE));
+        userRepository.save(user);
+        cacheService.evictUserProfile(username);
+        pinVerificationService.invalidate(username);
     }
 }
\ No newline at end of file
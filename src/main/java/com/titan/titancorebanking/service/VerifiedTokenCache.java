@@ -0,0 +1,228 @@
+package com.titan.titancorebanking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ⚡ Tokens whose signature and expiry were already verified, keyed by a SHA-256 hash of the token (the raw
+ * bearer token is never kept), each with the principal it authenticated as. An entry lives until the
+ * token's exp claim.
+ *
+ * User state changes (lock, role, tier, removal) are announced on a Redis channel. Every node drops that
+ * user's entries and remembers the change time: tokens issued before it no longer authenticate from their
+ * claims and load the user from the database instead. The change time is also stored in Redis
+ * (auth:changed:{username}) for one token lifetime, after which every such token has expired anyway, and
+ * every cache miss reads it there — so a restarted node, or one that missed the message, still sees the
+ * change. When Redis cannot answer, the claims are not trusted and the user is loaded.
+ *
+ * Size is bounded by max-entries: when full, new tokens are verified but not cached until the sweep
+ * removes expired ones.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerifiedTokenCache implements MessageListener {
+
+    private static final String CHANGED_PREFIX = "auth:changed:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${titan.auth.token-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${titan.auth.token-cache.max-entries:100000}")
+    private int maxEntries = 100_000;
+
+    @Value("${titan.auth.invalidation-channel:auth:user-changed}")
+    private String channel = "auth:user-changed";
+
+    // How long a change time matters: the longest a token issued before it can live
+    @Value("${app.jwt.expiration-ms:86400000}")
+    private long tokenLifetimeMs = 86_400_000;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Map<TokenHash, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter invalidations;
+
+    /** 128 bits of the token's SHA-256. */
+    public record TokenHash(long high, long low) {}
+
+    /** An immutable principal snapshot, valid until the token's exp. */
+    public record Entry(UserDetails principal, long expiresAtMs) {}
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("titan.auth.token.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("titan.auth.token.cache").tag("result", "miss").register(meterRegistry);
+        invalidations = Counter.builder("titan.auth.invalidations")
+                .description("User state changes received").register(meterRegistry);
+        Gauge.builder("titan.auth.token.cache.size", entries, Map::size).register(meterRegistry);
+        if (enabled && listenerContainer != null) {
+            try {
+                listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+            } catch (Exception e) {
+                log.warn("⚠️ Token cache not subscribed to {}: {}", channel, e.getMessage());
+            }
+        }
+    }
+
+    public TokenHash hash(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        for (int i = 0; i < token.length(); i++) {
+            // JWTs are ASCII (base64url and dots)
+            digest.update((byte) token.charAt(i));
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(digest.digest());
+        return new TokenHash(bytes.getLong(), bytes.getLong());
+    }
+
+    /** The cached principal, or null when the token must be verified. */
+    public Entry get(TokenHash hash) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMs() <= System.currentTimeMillis()) {
+            entries.remove(hash, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * @param verifiedAtMs when verification started: a change announced since then may not be reflected
+     */
+    public void put(TokenHash hash, Entry entry, long verifiedAtMs) {
+        if (!enabled || entries.size() >= maxEntries) {
+            return;
+        }
+        String username = entry.principal().getUsername();
+        if (changedAfter(username, verifiedAtMs)) {
+            return;
+        }
+        entries.put(hash, entry);
+        // A change that raced with the put: its removal may have run before the entry was there
+        if (changedAfter(username, verifiedAtMs)) {
+            entries.remove(hash, entry);
+        }
+    }
+
+    private boolean changedAfter(String username, long timeMs) {
+        Long changed = changedAt.get(username);
+        return changed != null && changed >= timeMs;
+    }
+
+    /**
+     * Whether the user changed after this token was issued, so its claims are stale. Called on a cache
+     * miss: checks the change time stored in Redis as well as what this node has heard.
+     */
+    public boolean changedSince(String username, long issuedAtMs) {
+        try {
+            String stored = redisTemplate.opsForValue().get(CHANGED_PREFIX + username);
+            if (stored != null) {
+                changedAt.merge(username, Long.parseLong(stored), Math::max);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ User change time for {} unavailable, loading the user: {}", username, e.getMessage());
+            return true;
+        }
+        Long changed = changedAt.get(username);
+        return changed != null && issuedAtMs <= changed;
+    }
+
+    /**
+     * Announces a lock, role, tier change or removal to every node; inside a transaction it goes out after commit.
+     */
+    public void userChanged(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    announce(username);
+                }
+            });
+        } else {
+            announce(username);
+        }
+    }
+
+    private void announce(String username) {
+        // Locally first: this node must not wait for the round trip or depend on Redis being up
+        long changed = forget(username);
+        try {
+            redisTemplate.opsForValue().set(CHANGED_PREFIX + username, String.valueOf(changed),
+                    Duration.ofMillis(tokenLifetimeMs));
+            redisTemplate.convertAndSend(channel, username);
+        } catch (Exception e) {
+            log.warn("⚠️ User change for {} not broadcast, other nodes keep cached tokens until they expire: {}",
+                    username, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        forget(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    long forget(String username) {
+        // Second resolution like iat: a token issued in the same second as the change counts as stale
+        long changed = changedAt.merge(username, System.currentTimeMillis(), Math::max);
+        entries.values().removeIf(entry -> entry.principal().getUsername().equals(username));
+        invalidations.increment();
+        return changed;
+    }
+
+    @Scheduled(fixedDelayString = "${titan.auth.token-cache.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMs() <= now);
+        changedAt.values().removeIf(changed -> changed + tokenLifetimeMs < now);
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
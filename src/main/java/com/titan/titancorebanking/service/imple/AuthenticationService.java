@@ -3,12 +3,13 @@ package com.titan.titancorebanking.service.imple;
 import com.titan.titancorebanking.dto.request.LoginRequest;
 import com.titan.titancorebanking.dto.request.RegisterRequest;
 import com.titan.titancorebanking.dto.response.AuthResponse;
+import com.titan.titancorebanking.enums.HashingLane;
 import com.titan.titancorebanking.model.User;
 import com.titan.titancorebanking.repository.UserRepository;
+import com.titan.titancorebanking.service.HashingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 // ❌ លុបបន្ទាត់នេះចោល: import com.titan.titancorebanking.config.JwtService;
@@ -19,7 +20,7 @@ import org.springframework.stereotype.Service;
 public class AuthenticationService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final HashingService hashingService;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
 
@@ -33,8 +34,8 @@ public class AuthenticationService {
                 .lastName(request.getLastName())
                 .email(request.getEmail())
                 .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .pin(passwordEncoder.encode(request.getPin()))
+                .password(hashingService.encode(request.getPassword(), HashingLane.ENCODE))
+                .pin(hashingService.encode(request.getPin(), HashingLane.ENCODE))
                 .role("ROLE_USER") // ✅ Set default role
                 .build();
 
@@ -48,14 +49,14 @@ public class AuthenticationService {
     }
 
     public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
+        // The authenticated principal is the User just loaded for the password check: no second lookup
+        var authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getUsername(),
                         request.getPassword()
                 )
         );
-        var user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow();
+        var user = (User) authentication.getPrincipal();
         var jwtToken = jwtService.generateToken(user);
         return AuthResponse.builder()
                 .token(jwtToken)
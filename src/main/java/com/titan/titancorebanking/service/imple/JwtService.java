@@ -1,10 +1,13 @@
 package com.titan.titancorebanking.service.imple;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value; // ✅ Import Value
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +21,8 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final String ROLE_CLAIM = "role";
+
     // ✅ REMOVED: private static final String SECRET_KEY = "..."
 
     // ✅ ADDED: Inject secret from application.properties
@@ -33,6 +38,20 @@ public class JwtService {
     @Value("${app.jwt.audience:titan-api}")
     private String jwtAudience;
 
+    // ⚡ Built once: the HMAC key and the parser are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
+    public long getExpirationMs() {
+        return jwtExpiration;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -54,6 +73,10 @@ public class JwtService {
         if (jwtAudience != null && !jwtAudience.isBlank()) {
             claims.putIfAbsent("aud", jwtAudience);
         }
+        // Lets the API authenticate from the token alone; role changes are pushed out by VerifiedTokenCache
+        userDetails.getAuthorities().stream().findFirst()
+                .map(GrantedAuthority::getAuthority)
+                .ifPresent(role -> claims.putIfAbsent(ROLE_CLAIM, role));
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(userDetails.getUsername())
@@ -64,30 +87,22 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        // One parse: signature, subject and expiry come from the same claims
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /** Verifies the signature and expiry once and returns the claims; throws JwtException otherwise. */
+    public Claims parseVerified(String token) {
+        return extractAllClaims(token);
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     private Key getSignInKey() {
         // ✅ Use raw secret bytes to match gateway HMAC signing
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 }
@@ -27,6 +27,7 @@ public class TransactionCompletedEvent {
     private String sourceAccountNumber;
     private String targetAccountNumber;
     private String username;
+    private Long userId;
     private String note;
 
     private Map<String, String> metadata;
@@ -0,0 +1,18 @@
+-- V27: Hot-account striping
+-- Credits into high-contention accounts are spread across N sub-balance rows
+-- (effective balance = accounts.balance + SUM(stripes)); folded back by the consolidation job.
+
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS balance_stripes INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS account_balance_stripes (
+    id           BIGSERIAL PRIMARY KEY,
+    account_id   BIGINT NOT NULL,
+    stripe_index INTEGER NOT NULL,
+    balance      NUMERIC(30,2) NOT NULL DEFAULT 0,
+    CONSTRAINT fk_stripe_account FOREIGN KEY (account_id) REFERENCES accounts(id),
+    CONSTRAINT uq_stripe_account_index UNIQUE (account_id, stripe_index),
+    CONSTRAINT chk_stripe_balance_non_negative CHECK (balance >= 0)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stripe_account ON account_balance_stripes(account_id);
+CREATE INDEX IF NOT EXISTS idx_accounts_striped ON accounts(id) WHERE balance_stripes > 0;
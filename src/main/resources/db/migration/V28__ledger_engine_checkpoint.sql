@@ -0,0 +1,13 @@
+-- Transfer engine (titan.transfer.execution-mode=PARTITIONED)
+-- The engine journals transfers as ledger rows carrying the signed balance effect and folds
+-- them into accounts.balance in the background. Recovery: balance = accounts.balance + pending deltas.
+
+ALTER TABLE ledger_entry
+    ADD COLUMN IF NOT EXISTS balance_delta DECIMAL(19, 4),
+    ADD COLUMN IF NOT EXISTS pending_checkpoint BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_ledger_pending_checkpoint
+    ON ledger_entry(account_id) WHERE pending_checkpoint;
+
+COMMENT ON COLUMN ledger_entry.balance_delta IS 'Signed effect on accounts.balance (fee and FX included), written by the transfer engine';
+COMMENT ON COLUMN ledger_entry.pending_checkpoint IS 'TRUE until the delta has been folded into accounts.balance';
@@ -0,0 +1,7 @@
+-- Optimistic concurrency for accounts (titan.transfer.execution-mode=OPTIMISTIC)
+-- Hibernate checks and bumps it on entity writes; the JDBC balance updates bump it explicitly.
+
+ALTER TABLE accounts
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN accounts.version IS 'Optimistic lock version, incremented by every balance change';
@@ -0,0 +1,11 @@
+-- Outbox relay without a cluster-wide lock (titan.outbox.relay.*)
+-- Every instance and worker claims its own batch with FOR UPDATE SKIP LOCKED and leases it:
+-- locked_by/locked_until are stamped in the claiming statement, which commits before Kafka is called.
+-- A row whose lease has expired (worker crashed) is claimable again.
+
+ALTER TABLE outbox_events
+    ADD COLUMN IF NOT EXISTS locked_by VARCHAR(64),
+    ADD COLUMN IF NOT EXISTS locked_until TIMESTAMP;
+
+COMMENT ON COLUMN outbox_events.locked_by IS 'Relay worker holding the lease (instance-worker), NULL when unclaimed';
+COMMENT ON COLUMN outbox_events.locked_until IS 'Lease expiry; after it the row may be claimed by another worker';
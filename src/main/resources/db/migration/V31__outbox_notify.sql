@@ -0,0 +1,16 @@
+-- Wake the outbox relay on insert instead of waiting for its next poll (titan.outbox.notify.*)
+-- Statement-level: a batch insert (bulk transfer, engine journal) sends one notification, and Postgres
+-- folds identical notifications of one transaction into one. Delivered only when the insert commits.
+
+CREATE OR REPLACE FUNCTION notify_outbox_event() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('outbox_events', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS outbox_events_notify ON outbox_events;
+
+CREATE TRIGGER outbox_events_notify
+    AFTER INSERT ON outbox_events
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_outbox_event();
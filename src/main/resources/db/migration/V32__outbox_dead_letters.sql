@@ -0,0 +1,29 @@
+-- Outbox dead-letter table (titan.outbox.relay.*)
+-- Events that fail max-retries times are moved here by the relay (DELETE … RETURNING into INSERT, one
+-- statement), instead of staying in outbox_events with retry_count >= 5 where every claim had to skip them.
+
+CREATE TABLE IF NOT EXISTS outbox_dead_letters (
+    id BIGSERIAL PRIMARY KEY,
+    outbox_id BIGINT NOT NULL,
+    aggregate_id VARCHAR(255) NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    retry_count INTEGER NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    dead_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_dead_letters_dead_at ON outbox_dead_letters(dead_at);
+
+-- Rows that already exhausted their retries under the old relay
+WITH dead AS (
+    DELETE FROM outbox_events
+    WHERE published = FALSE AND retry_count >= 5
+    RETURNING id, aggregate_id, aggregate_type, event_type, payload::text AS payload, retry_count, last_error, created_at
+)
+INSERT INTO outbox_dead_letters (outbox_id, aggregate_id, aggregate_type, event_type, payload, retry_count,
+                                 last_error, created_at, dead_at)
+SELECT id, aggregate_id, aggregate_type, event_type, payload, retry_count, LEFT(last_error, 1000), created_at, NOW()
+FROM dead;
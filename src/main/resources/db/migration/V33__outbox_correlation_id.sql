@@ -0,0 +1,6 @@
+-- Correlation id next to the payload (titan.outbox.relay.passthrough)
+-- The relay sends the stored payload bytes as-is and puts event type and correlation id in Kafka headers,
+-- so it needs the correlation id without parsing the JSON. Older rows keep NULL and go out without it.
+
+ALTER TABLE outbox_events
+    ADD COLUMN IF NOT EXISTS correlation_id VARCHAR(100);
@@ -0,0 +1,29 @@
+-- Per-aggregate ordered, parallel outbox publishing (titan.outbox.relay.*)
+-- Every row falls into one of 16 lanes by a hash of its aggregate id, so all events of an aggregate share
+-- a lane. A relay worker leases a whole lane for the length of a batch: lanes publish in parallel, one
+-- batch per lane at a time, which keeps the events of an aggregate in order across workers and instances.
+-- The lane count must match OutboxEvent.PARTITIONS.
+
+ALTER TABLE outbox_events
+    ADD COLUMN IF NOT EXISTS partition_key INTEGER
+        GENERATED ALWAYS AS ((hashtext(aggregate_id) & 2147483647) % 16) STORED;
+
+-- Claim path: a lane's oldest pending rows, and the earlier-failure check per aggregate
+CREATE INDEX IF NOT EXISTS idx_outbox_lane_pending ON outbox_events(partition_key, created_at, id)
+    WHERE published = FALSE;
+CREATE INDEX IF NOT EXISTS idx_outbox_aggregate_pending ON outbox_events(aggregate_id, created_at, id)
+    WHERE published = FALSE;
+
+CREATE TABLE IF NOT EXISTS outbox_lanes (
+    lane INTEGER PRIMARY KEY,
+    locked_by VARCHAR(64),
+    locked_until TIMESTAMP,
+    last_claimed_at TIMESTAMP
+);
+
+INSERT INTO outbox_lanes (lane)
+SELECT g FROM generate_series(0, 15) g
+ON CONFLICT (lane) DO NOTHING;
+
+COMMENT ON COLUMN outbox_lanes.locked_by IS 'Relay worker publishing a batch of this lane, NULL when free';
+COMMENT ON COLUMN outbox_lanes.last_claimed_at IS 'Free lanes are handed out least recently served first';
@@ -0,0 +1,201 @@
+package com.titan.titancorebanking.config;
+
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.service.VerifiedTokenCache;
+import com.titan.titancorebanking.service.imple.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+    private static final FilterChain NOOP = (request, response) -> { };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, String> redisValues = new ConcurrentHashMap<>();
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final AtomicInteger userLoads = new AtomicInteger();
+    private JwtService jwtService;
+    private VerifiedTokenCache cache;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = jwtService(86_400_000L);
+        cache = cache(redis());
+        filter = filter(cache);
+        users.put("alice", User.builder().id(1L).username("alice").password("x").role("ROLE_USER").build());
+    }
+
+    private VerifiedTokenCache cache(StringRedisTemplate redis) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(redis, null, meterRegistry);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        return cache;
+    }
+
+    /** Plain GET/SET over a map; publishing goes nowhere. */
+    @SuppressWarnings("unchecked")
+    private StringRedisTemplate redis() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.get(any())).thenAnswer(call -> redisValues.get((String) call.getArgument(0)));
+        doAnswer(call -> redisValues.put(call.getArgument(0), call.getArgument(1)))
+                .when(values).set(any(), any(), any(Duration.class));
+        return redis;
+    }
+
+    private JwtAuthenticationFilter filter(VerifiedTokenCache cache) {
+        return new JwtAuthenticationFilter(jwtService, username -> {
+            userLoads.incrementAndGet();
+            User user = users.get(username);
+            if (user == null) {
+                throw new UsernameNotFoundException("User not found");
+            }
+            return user;
+        }, cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static JwtService jwtService(long expirationMs) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", expirationMs);
+        ReflectionTestUtils.setField(service, "jwtIssuer", "titan-banking");
+        ReflectionTestUtils.setField(service, "jwtAudience", "titan-api");
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    private Authentication authenticate(String token, String path) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), NOOP);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    /** A token from before the role claim existed. */
+    private static String legacyToken(String username) {
+        return Jwts.builder().setSubject(username)
+                .setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Test
+    void tokensAuthenticateFromClaimsAndThenFromTheCache() throws Exception {
+        String token = jwtService.generateToken(users.get("alice"));
+
+        for (int i = 0; i < 100; i++) {
+            Authentication auth = authenticate(token, "/api/v1/accounts/my-accounts");
+            assertEquals("alice", auth.getName());
+            assertEquals("ROLE_USER", auth.getAuthorities().iterator().next().getAuthority());
+        }
+
+        assertEquals(0, userLoads.get());
+        assertEquals(99.0, meterRegistry.get("titan.auth.token.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void legacyTokensLoadTheUserOnce() throws Exception {
+        String token = legacyToken("alice");
+        assertEquals("alice", authenticate(token, "/api/v1/accounts/my-accounts").getName());
+        assertEquals("alice", authenticate(token, "/api/v1/accounts/my-accounts").getName());
+        assertEquals(1, userLoads.get());
+    }
+
+    @Test
+    void badAndExpiredTokensDoNotAuthenticate() throws Exception {
+        assertNull(authenticate(jwtService(-1_000L).generateToken(users.get("alice")), "/api/v1/accounts"));
+        String token = jwtService.generateToken(users.get("alice"));
+        assertNull(authenticate(token.substring(0, token.length() - 2) + "xx", "/api/v1/accounts"));
+    }
+
+    @Test
+    void lockingTheUserRevokesCachedAndIssuedTokens() throws Exception {
+        String token = jwtService.generateToken(users.get("alice"));
+        assertNotNull(authenticate(token, "/api/v1/accounts"));
+
+        users.get("alice").setAccountNonLocked(false);
+        cache.userChanged("alice");
+
+        assertNull(authenticate(token, "/api/v1/accounts"));
+        assertEquals(1.0, meterRegistry.get("titan.auth.invalidations").counter().count());
+    }
+
+    @Test
+    void aRestartedNodeStillSeesTheChangeFromRedis() throws Exception {
+        String token = jwtService.generateToken(users.get("alice"));
+        assertNotNull(authenticate(token, "/api/v1/accounts"));
+        users.get("alice").setAccountNonLocked(false);
+        cache.userChanged("alice");
+
+        // Fresh node (or one that missed the message): empty cache, nothing heard locally
+        filter = filter(cache(redis()));
+
+        assertNull(authenticate(token, "/api/v1/accounts"));
+    }
+
+    @Test
+    void removedUsersStopAuthenticatingFromClaims() throws Exception {
+        String token = jwtService.generateToken(users.get("alice"));
+        users.remove("alice");
+        cache.userChanged("alice"); // what UserRemovalListener does on delete
+
+        assertNull(authenticate(token, "/api/v1/accounts"));
+        assertEquals(1, userLoads.get());
+    }
+
+    @Test
+    void redisOutageFallsBackToLoadingTheUser() throws Exception {
+        String token = jwtService.generateToken(users.get("alice"));
+        filter = filter(cache(mock(StringRedisTemplate.class))); // opsForValue() is null: every read fails
+
+        assertEquals("alice", authenticate(token, "/api/v1/accounts").getName());
+        assertEquals(1, userLoads.get());
+    }
+
+    @Test
+    void userEndpointsGetTheFreshlyLoadedUser() throws Exception {
+        String token = jwtService.generateToken(users.get("alice"));
+        authenticate(token, "/api/v1/accounts");
+
+        Authentication auth = authenticate(token, "/api/v1/users/me/pin");
+
+        assertInstanceOf(User.class, auth.getPrincipal());
+        assertEquals(1, userLoads.get());
+    }
+}
@@ -0,0 +1,187 @@
+package com.titan.titancorebanking.config;
+
+import com.titan.titancorebanking.enums.UserTier;
+import com.titan.titancorebanking.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoLevelCacheManagerTest {
+
+    /** Redis shared by several managers: GET/PUT/EVICT scripts, key expiry and PUBLISH to subscribers. */
+    static class FakeRedis extends StringRedisTemplate {
+        final Map<String, String> values = new ConcurrentHashMap<>();
+        final Map<String, Long> expiresAt = new ConcurrentHashMap<>();
+        final List<MessageListener> subscribers = new CopyOnWriteArrayList<>();
+        final AtomicLong roundTrips = new AtomicLong();
+        volatile boolean down;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer,
+                                          RedisSerializer<T> resultSerializer, List<String> keys, Object... args) {
+            roundTrips.incrementAndGet();
+            if (down) {
+                throw new RedisConnectionFailureException("connection refused");
+            }
+            String key = keys.get(0);
+            Long deadline = expiresAt.get(key);
+            if (deadline != null && deadline <= System.currentTimeMillis()) {
+                values.remove(key);
+                expiresAt.remove(key);
+            }
+            String source = script.getScriptAsString();
+            if (source.contains("PUBLISH")) { // evict: tombstone + publish
+                set(key, "", Long.parseLong((String) args[0]));
+                publish((String) args[2]);
+                return (T) Long.valueOf(subscribers.size());
+            }
+            if (source.contains("SET")) { // put
+                if ("".equals(values.get(key))) {
+                    return (T) Long.valueOf(0);
+                }
+                set(key, (String) args[0], Long.parseLong((String) args[1]));
+                return (T) Long.valueOf(1);
+            }
+            return (T) values.get(key);
+        }
+
+        private void set(String key, String value, long ttlMs) {
+            values.put(key, value);
+            expiresAt.put(key, System.currentTimeMillis() + ttlMs);
+        }
+
+        private void publish(String message) {
+            byte[] body = message.getBytes(StandardCharsets.UTF_8);
+            subscribers.forEach(listener -> listener.onMessage(
+                    new DefaultMessage("cache:invalidate".getBytes(StandardCharsets.UTF_8), body), null));
+        }
+    }
+
+    private final FakeRedis redis = new FakeRedis();
+
+    private TwoLevelCacheManager node(SimpleMeterRegistry registry) {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(redis, null, registry);
+        ReflectionTestUtils.invokeMethod(manager, "init");
+        manager.afterPropertiesSet();
+        redis.subscribers.add(manager);
+        return manager;
+    }
+
+    private static User user(String username, UserTier tier) {
+        return User.builder().id(1L).username(username).password("$2a$hash").tier(tier).build();
+    }
+
+    @Test
+    void secondNodeIsServedFromRedisThenFromItsOwnMemory() {
+        SimpleMeterRegistry registryA = new SimpleMeterRegistry();
+        SimpleMeterRegistry registryB = new SimpleMeterRegistry();
+        Cache a = node(registryA).getCache("user-profiles");
+        Cache b = node(registryB).getCache("user-profiles");
+
+        assertNull(a.get("alice"));
+        a.put("alice", user("alice", UserTier.GOLD));
+
+        User fromRedis = (User) b.get("alice").get();
+        assertEquals(UserTier.GOLD, fromRedis.getTier());
+        long trips = redis.roundTrips.get();
+        assertSame(fromRedis, b.get("alice").get());
+        assertEquals(trips, redis.roundTrips.get(), "L1 hit must not touch Redis");
+
+        assertEquals(1, registryB.get("titan.cache.gets").tag("result", "l2_hit").counter().count());
+        assertEquals(1, registryB.get("titan.cache.gets").tag("result", "l1_hit").counter().count());
+        assertEquals(1.0, registryB.get("titan.cache.hit.ratio").gauge().value());
+        assertEquals(1, registryB.get("titan.cache.age").tag("level", "l2").timer().count());
+    }
+
+    @Test
+    void evictOnOneNodeDropsTheEntryEverywhere() {
+        SimpleMeterRegistry registryB = new SimpleMeterRegistry();
+        Cache a = node(new SimpleMeterRegistry()).getCache("user-profiles");
+        Cache b = node(registryB).getCache("user-profiles");
+        a.put("alice", user("alice", UserTier.STANDARD));
+        assertNotNull(b.get("alice"));
+
+        a.evict("alice");
+
+        assertNull(a.get("alice"));
+        assertNull(b.get("alice"));
+        assertEquals(1, registryB.get("titan.cache.invalidations").tag("source", "peer").counter().count());
+        assertEquals(1, registryB.get("titan.cache.invalidation.lag").timer().count());
+    }
+
+    @Test
+    void loadThatRacedAnEvictIsNotCached() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Cache a = node(registry).getCache("user-profiles");
+        Cache b = node(new SimpleMeterRegistry()).getCache("user-profiles");
+
+        assertNull(a.get("alice"));                 // A misses and starts reading the old row...
+        b.evict("alice");                           // ...B commits a lock and evicts...
+        a.put("alice", user("alice", UserTier.STANDARD)); // ...A's stale result arrives
+
+        assertNull(a.get("alice"));
+        assertNull(b.get("alice"), "tombstone keeps the stale value out of Redis too");
+        assertEquals(1, registry.get("titan.cache.puts.skipped").counter().count());
+
+        // A load that starts after the evict is cached again (same millisecond counts as before)
+        Thread.sleep(2);
+        assertNull(a.get("alice"));
+        a.put("alice", user("alice", UserTier.GOLD));
+        assertEquals(UserTier.GOLD, ((User) a.get("alice").get()).getTier());
+    }
+
+    @Test
+    void localLevelIsSizeBoundedAndExpires() {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(redis, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(manager, "maxEntries", 100);
+        ReflectionTestUtils.setField(manager, "remoteEnabled", false);
+        ReflectionTestUtils.invokeMethod(manager, "init");
+        manager.afterPropertiesSet();
+        Cache cache = manager.getCache("user_accounts");
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("user" + i, List.of());
+        }
+        assertTrue(((Map<?, ?>) cache.getNativeCache()).size() <= 100);
+
+        ReflectionTestUtils.setField(manager, "localTtlMs", -1L);
+        cache.put("late", List.of());
+        assertNull(cache.get("late"), "expired entries are not served");
+    }
+
+    @Test
+    void redisOutageFallsBackToLocalOnly() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Cache cache = node(registry).getCache("user-profiles");
+        redis.down = true;
+
+        cache.put("alice", user("alice", UserTier.VIP));
+        long trips = redis.roundTrips.get();
+        assertEquals(UserTier.VIP, ((User) cache.get("alice").get()).getTier());
+        assertNull(cache.get("bob"));
+        assertEquals(trips, redis.roundTrips.get(), "reads skip Redis for a while after a failure");
+
+        // Evictions are always attempted: peers must hear about them as soon as Redis is back
+        cache.evict("alice");
+        assertNull(cache.get("alice"));
+        assertEquals(trips + 1, redis.roundTrips.get());
+        assertEquals(2, registry.get("titan.cache.l2.errors").counter().count());
+    }
+}
@@ -0,0 +1,225 @@
+package com.titan.titancorebanking.engine;
+
+import com.titan.titancorebanking.enums.AccountStatus;
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.Currency;
+import com.titan.titancorebanking.enums.TransferExecutionMode;
+import com.titan.titancorebanking.event.AccountBalanceChangedEvent;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.Transaction;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.service.DoubleEntryService;
+import com.titan.titancorebanking.service.StripedBalanceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PartitionedTransferEngineTest {
+
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+
+    private final Map<String, Account> db = new ConcurrentHashMap<>();
+    private final AtomicBoolean failCommits = new AtomicBoolean();
+    private EngineJournal journal;
+    private PartitionedTransferEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        journal = mock(EngineJournal.class);
+        when(journal.recover(anyString())).thenAnswer(inv ->
+                Optional.ofNullable(db.get(inv.<String>getArgument(0))).map(a -> new AccountState(a, a.getBalance())));
+        doAnswer(inv -> {
+            if (failCommits.get()) {
+                throw new IllegalStateException("db down");
+            }
+            List<JournalEntry> entries = inv.getArgument(0);
+            long id = 1;
+            for (JournalEntry entry : entries) {
+                entry.transaction().setId(id++);
+            }
+            return null;
+        }).when(journal).persist(any());
+
+        EngineLease lease = mock(EngineLease.class);
+        when(lease.tryAcquire()).thenReturn(true);
+        engine = new PartitionedTransferEngine(journal, new DoubleEntryService(null), mock(StripedBalanceService.class), lease);
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void concurrentCrossPartitionTransfersConserveMoney() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(account("10000000" + (10 + i), AccountStatus.ACTIVE));
+        }
+
+        List<CompletableFuture<Transaction>> results = new ArrayList<>();
+        for (int n = 0; n < 2_000; n++) {
+            Account from = accounts.get(n % accounts.size());
+            Account to = accounts.get((n * 7 + 3) % accounts.size());
+            if (from == to) {
+                continue;
+            }
+            results.add(engine.transfer(from.getAccountNumber(), to.getAccountNumber(), new BigDecimal("3.00"),
+                    new BigDecimal("3.00"), balance -> BigDecimal.ZERO, "t", null, "tester"));
+        }
+        CompletableFuture.allOf(results.stream().map(f -> f.exceptionally(e -> null)).toArray(CompletableFuture[]::new))
+                .get(30, TimeUnit.SECONDS);
+
+        BigDecimal total = accounts.stream().map(engine::effectiveBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo(OPENING.multiply(BigDecimal.valueOf(accounts.size())));
+        accounts.forEach(a -> assertThat(engine.effectiveBalance(a).signum()).isGreaterThanOrEqualTo(0));
+    }
+
+    @Test
+    void rejectedReceiverRefundsTheSender() {
+        Account from = account("2000000001", AccountStatus.ACTIVE);
+        Account closed = account("2000000002", AccountStatus.CLOSED);
+
+        CompletableFuture<Transaction> result = engine.transfer(from.getAccountNumber(), closed.getAccountNumber(),
+                new BigDecimal("100.00"), new BigDecimal("100.00"), balance -> BigDecimal.ONE, "t", null, "tester");
+
+        assertThatThrownBy(result::join).hasMessageContaining("Receiver account is not active");
+        assertThat(awaitBalance(from, OPENING)).isEqualByComparingTo(OPENING);
+    }
+
+    @Test
+    void failedGroupCommitRollsBackReservations() {
+        Account from = account("3000000001", AccountStatus.ACTIVE);
+        Account to = account("3000000002", AccountStatus.ACTIVE);
+        failCommits.set(true);
+
+        CompletableFuture<Transaction> result = engine.transfer(from.getAccountNumber(), to.getAccountNumber(),
+                new BigDecimal("100.00"), new BigDecimal("100.00"), balance -> BigDecimal.ZERO, "t", null, "tester");
+
+        assertThatThrownBy(result::join).hasMessageContaining("commit failed");
+        assertThat(awaitBalance(from, OPENING)).isEqualByComparingTo(OPENING);
+        assertThat(engine.effectiveBalance(to)).isEqualByComparingTo(OPENING);
+    }
+
+    @Test
+    void batchThatThrowsPartWayRollsBackItsReservations() throws Exception {
+        Account ok = account("3100000001", AccountStatus.ACTIVE);
+        Account broken = account("3100000002", AccountStatus.ACTIVE);
+        broken.setId(null); // its journal entry cannot be built: the batch throws after ok's reservation
+
+        EnginePartition partition = new EnginePartition(0, engine, journal, new DoubleEntryService(null), 16, 16);
+        CompletableFuture<Transaction> first = new CompletableFuture<>();
+        CompletableFuture<Transaction> second = new CompletableFuture<>();
+        CompletableFuture<Transaction> third = new CompletableFuture<>();
+        // Queued before the thread starts, so the three are drained as one batch
+        partition.offer(new EngineCommand.Withdraw(ok.getAccountNumber(), new BigDecimal("100.00"), null, first), 0);
+        partition.offer(new EngineCommand.Withdraw(broken.getAccountNumber(), new BigDecimal("100.00"), null, second), 0);
+        partition.offer(new EngineCommand.Deposit(ok.getAccountNumber(), new BigDecimal("5.00"), null, third), 0);
+        Thread thread = new Thread(partition);
+        thread.start();
+
+        assertThatThrownBy(first::join).hasMessageContaining("batch failed");
+        assertThatThrownBy(second::join).hasMessageContaining("batch failed");
+        assertThatThrownBy(third::join).hasMessageContaining("batch failed");
+        assertThat(partition.accounts.get(ok.getAccountNumber()).balance()).isEqualByComparingTo(OPENING);
+
+        partition.stop();
+        thread.join(5_000);
+    }
+
+    @Test
+    void insufficientFundsIsRejectedOnThePartition() {
+        Account from = account("4000000001", AccountStatus.ACTIVE);
+        Account to = account("4000000002", AccountStatus.ACTIVE);
+
+        CompletableFuture<Transaction> result = engine.transfer(from.getAccountNumber(), to.getAccountNumber(),
+                new BigDecimal("1000.00"), new BigDecimal("1000.00"), balance -> BigDecimal.ONE, "t", null, "tester");
+
+        assertThatThrownBy(result::join).hasMessageContaining("Insufficient Funds");
+        assertThat(engine.effectiveBalance(from)).isEqualByComparingTo(OPENING);
+    }
+
+    @Test
+    void externalWriteIsSeenAfterEviction() {
+        Account account = account("5000000001", AccountStatus.ACTIVE);
+        assertThat(engine.deposit(account.getAccountNumber(), new BigDecimal("1.00"), null).join()).isNotNull();
+
+        // e.g. a saga compensation debiting the row directly, then its after-commit event
+        account.setBalance(BigDecimal.ZERO);
+        engine.onBalanceChanged(AccountBalanceChangedEvent.of(account.getAccountNumber()));
+
+        CompletableFuture<Transaction> result = engine.withdraw(account.getAccountNumber(), new BigDecimal("500.00"), null);
+        assertThatThrownBy(result::join).hasMessageContaining("Insufficient funds");
+    }
+
+    @Test
+    void refusesToStartWithoutTheLease() {
+        EngineLease taken = mock(EngineLease.class);
+        PartitionedTransferEngine second = new PartitionedTransferEngine(journal, new DoubleEntryService(null),
+                mock(StripedBalanceService.class), taken);
+
+        assertThatThrownBy(second::start).hasMessageContaining("lease");
+        assertThat(second.isStarted()).isFalse();
+    }
+
+    @Test
+    void directBalanceWritesAreRefusedWithoutTheLeaseInPartitionedMode() {
+        EngineLease taken = mock(EngineLease.class);
+        PartitionedTransferEngine second = new PartitionedTransferEngine(journal, new DoubleEntryService(null),
+                mock(StripedBalanceService.class), taken);
+        AccountBalanceChangedEvent write = AccountBalanceChangedEvent.of("6000000001");
+
+        // Other modes: direct writers are the norm
+        second.refuseUnlessWriter(write);
+
+        ReflectionTestUtils.setField(second, "executionMode", TransferExecutionMode.PARTITIONED);
+        assertThatThrownBy(() -> second.refuseUnlessWriter(write)).hasMessageContaining("lease");
+        assertThat(second.isConfigured()).isTrue();
+        assertThat(second.isStarted()).isFalse();
+    }
+
+    // Refunds of a cross-partition leg arrive asynchronously on the sender partition
+    private BigDecimal awaitBalance(Account account, BigDecimal expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        BigDecimal balance = engine.effectiveBalance(account);
+        while (balance.compareTo(expected) != 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            balance = engine.effectiveBalance(account);
+        }
+        return balance;
+    }
+
+    private Account account(String number, AccountStatus status) {
+        Account account = Account.builder()
+                .id((long) db.size() + 1)
+                .accountNumber(number)
+                .accountType(AccountType.CHECKING)
+                .currency(Currency.USD)
+                .balance(OPENING)
+                .status(status)
+                .user(User.builder().username("owner-" + number).build())
+                .build();
+        db.put(number, account);
+        return account;
+    }
+}
@@ -0,0 +1,154 @@
+package com.titan.titancorebanking.integration;
+
+import com.titan.titancorebanking.dto.request.BulkTransferRequest;
+import com.titan.titancorebanking.dto.response.BulkTransferResponse;
+import com.titan.titancorebanking.enums.AccountStatus;
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.Currency;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.repository.AccountRepository;
+import com.titan.titancorebanking.repository.LedgerRepository;
+import com.titan.titancorebanking.repository.UserRepository;
+import com.titan.titancorebanking.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bulk transfer: partial-failure semantics, balances, batch-inserted ledger rows and idempotent replay.
+ */
+@Testcontainers
+@SpringBootTest
+class BulkTransferIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("titandb")
+            .withUsername("postgres")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("grpc.client.riskEngineClient.address", () -> "static://localhost:19999");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:19092");
+    }
+
+    @Autowired TransactionService transactionService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired LedgerRepository ledgerRepository;
+
+    private final String pinHash = new BCryptPasswordEncoder(4).encode("1234");
+
+    @Test
+    void payrollBatchWithPartialFailures() {
+        User employer = userRepository.save(user("employer"));
+        // CHECKING: flat 1.00 fee per leg → 3 × 100 + 3 × 1 = 303 debited, 97 left; the 4th leg needs 101
+        Account payroll = accountRepository.save(account(employer, new BigDecimal("400.00"), AccountStatus.ACTIVE));
+
+        List<Account> employees = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            employees.add(accountRepository.save(account(userRepository.save(user("employee")), BigDecimal.ZERO, AccountStatus.ACTIVE)));
+        }
+        Account closed = accountRepository.save(account(userRepository.save(user("closed")), BigDecimal.ZERO, AccountStatus.CLOSED));
+
+        List<BulkTransferRequest.Item> items = new ArrayList<>();
+        items.add(item(employees.get(0)));
+        items.add(item(closed));                                                   // receiver not active
+        items.add(item(employees.get(1)));
+        items.add(new BulkTransferRequest.Item("9999999999", new BigDecimal("100.00"), "salary")); // unknown
+        items.add(item(employees.get(2)));
+        items.add(item(employees.get(3)));                                         // insufficient funds
+
+        String key = "payroll-" + UUID.randomUUID();
+        BulkTransferRequest request = new BulkTransferRequest(payroll.getAccountNumber(), "1234", null, key, items);
+
+        BulkTransferResponse response = transactionService.transferBatch(request, employer.getUsername());
+
+        assertThat(response.total()).isEqualTo(6);
+        assertThat(response.succeeded()).isEqualTo(3);
+        assertThat(response.results()).extracting(BulkTransferResponse.ItemResult::status)
+                .containsExactly("SUCCESS", "FAILED", "SUCCESS", "FAILED", "SUCCESS", "FAILED");
+
+        assertThat(reload(payroll).getBalance()).isEqualByComparingTo("97.00");
+        for (int i = 0; i < 3; i++) {
+            assertThat(reload(employees.get(i)).getBalance()).isEqualByComparingTo("100.00");
+        }
+        assertThat(reload(employees.get(3)).getBalance()).isEqualByComparingTo("0.00");
+
+        response.results().stream()
+                .filter(r -> "SUCCESS".equals(r.status()))
+                .forEach(r -> assertThat(ledgerRepository.findByTransactionId(r.transactionId())).hasSize(2));
+
+        // Same idempotency key → stored results, no second debit
+        BulkTransferResponse replay = transactionService.transferBatch(request, employer.getUsername());
+        assertThat(replay.results()).extracting(BulkTransferResponse.ItemResult::transactionId)
+                .containsExactlyElementsOf(response.results().stream().map(BulkTransferResponse.ItemResult::transactionId).toList());
+        assertThat(reload(payroll).getBalance()).isEqualByComparingTo("97.00");
+    }
+
+    @Test
+    void batchKeysWithTheItemSeparatorAreRejected() {
+        User employer = userRepository.save(user("employer"));
+        Account payroll = accountRepository.save(account(employer, new BigDecimal("400.00"), AccountStatus.ACTIVE));
+        Account employee = accountRepository.save(account(userRepository.save(user("employee")), BigDecimal.ZERO, AccountStatus.ACTIVE));
+
+        // "abc#1" items are keyed "abc#1#0"…, which a batch keyed "abc" would otherwise replay
+        BulkTransferRequest request = new BulkTransferRequest(payroll.getAccountNumber(), "1234", null,
+                "payroll-" + UUID.randomUUID() + "#1", List.of(item(employee)));
+
+        assertThatThrownBy(() -> transactionService.transferBatch(request, employer.getUsername()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'#'");
+        assertThat(reload(payroll).getBalance()).isEqualByComparingTo("400.00");
+    }
+
+    private Account reload(Account account) {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow();
+    }
+
+    private BulkTransferRequest.Item item(Account to) {
+        return new BulkTransferRequest.Item(to.getAccountNumber(), new BigDecimal("100.00"), "salary");
+    }
+
+    private User user(String prefix) {
+        return User.builder()
+                .username(prefix + "-" + UUID.randomUUID())
+                .password("n/a")
+                .pin(pinHash)
+                .role("ROLE_USER")
+                .build();
+    }
+
+    private Account account(User owner, BigDecimal balance, AccountStatus status) {
+        return Account.builder()
+                .accountNumber(String.valueOf(1_000_000_000L + Math.abs(UUID.randomUUID().getMostSignificantBits() % 8_999_999_999L)))
+                .accountType(AccountType.CHECKING)
+                .currency(Currency.USD)
+                .balance(balance)
+                .status(status)
+                .user(owner)
+                .build();
+    }
+}
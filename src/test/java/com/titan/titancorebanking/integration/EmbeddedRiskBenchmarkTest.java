@@ -0,0 +1,105 @@
+package com.titan.titancorebanking.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.risk.RiskFeatures;
+import com.titan.titancorebanking.risk.TreeEnsembleModel;
+import com.titan.titancorebanking.risk.VelocityFeatureStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of the in-process risk path: time and allocation per embedded model score, and heap per active
+ * user in the velocity feature store. Allocation is read from the thread's allocation counter.
+ * No database or Risk Engine needed.
+ */
+class EmbeddedRiskBenchmarkTest {
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void embeddedScoreTimeAndAllocation() throws Exception {
+        TreeEnsembleModel model;
+        try (InputStream in = getClass().getResourceAsStream("/risk/fallback-model.json")) {
+            model = TreeEnsembleModel.parse(in, new ObjectMapper());
+        }
+        double[] x = new double[RiskFeatures.COUNT];
+        x[RiskFeatures.VELOCITY_1H] = 7;
+        x[RiskFeatures.ACCOUNT_AGE_DAYS] = 90;
+        x[RiskFeatures.TIER] = 1;
+        long sink = 0;
+        for (int i = 0; i < 200_000; i++) { // warm-up / JIT
+            x[RiskFeatures.AMOUNT] = i;
+            sink += model.response(model.score(x)).getRiskScore();
+        }
+
+        int iterations = 1_000_000;
+        long allocatedBefore = allocated();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            x[RiskFeatures.AMOUNT] = i % 100_000;
+            sink += model.response(model.score(x)).getRiskScore();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = allocated() - allocatedBefore;
+
+        System.out.println("\n========================================");
+        System.out.println("  🧮 Embedded risk score");
+        System.out.println("========================================");
+        System.out.printf("📈 %.0f ns/score, %d bytes allocated over %d scores (sink %d)%n",
+                (double) nanos / iterations, allocated, iterations, sink);
+        System.out.println("========================================\n");
+        assertThat(sink).isPositive();
+    }
+
+    @Test
+    void velocityStoreMemoryPerActiveUser() {
+        VelocityFeatureStore store = new VelocityFeatureStore(null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "redisEnabled", false);
+        ReflectionTestUtils.invokeMethod(store, "init");
+        long t0 = System.currentTimeMillis();
+        int users = 20_000;
+        BigDecimal amount = new BigDecimal("25.00");
+        String[] accounts = new String[users];
+        String[] counterparties = new String[users];
+        for (int i = 0; i < users; i++) {
+            accounts[i] = String.valueOf(1_000_000_000L + i);
+            counterparties[i] = String.valueOf(2_000_000_000L + i);
+        }
+        // Warm up so class loading and JIT do not land in the measurement
+        store.recordEvent(null, -1L, "warmup", "x", amount, null, t0);
+
+        long before = allocated();
+        for (int i = 0; i < users; i++) {
+            store.recordEvent(null, (long) i, accounts[i], counterparties[i], amount, "10.0.0.1", t0);
+        }
+        long firstTouch = allocated() - before;
+
+        before = allocated();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < users; i++) {
+                store.recordEvent(null, (long) i, accounts[i], counterparties[i], amount, "10.0.0.1", t0 + round * 1_000L);
+            }
+        }
+        long steady = allocated() - before;
+
+        System.out.println("\n========================================");
+        System.out.println("  🧮 Velocity feature store");
+        System.out.println("========================================");
+        System.out.printf("📈 %d bytes per active user (user + account windows)%n", firstTouch / users);
+        System.out.printf("📈 %d bytes per update after first touch%n", steady / (5L * users));
+        System.out.println("========================================\n");
+        assertThat(firstTouch).isPositive();
+    }
+
+    private long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+}
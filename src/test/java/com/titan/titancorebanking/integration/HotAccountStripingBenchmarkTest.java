@@ -0,0 +1,156 @@
+package com.titan.titancorebanking.integration;
+
+import com.titan.titancorebanking.dto.request.TransactionRequest;
+import com.titan.titancorebanking.enums.AccountStatus;
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.Currency;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.repository.AccountRepository;
+import com.titan.titancorebanking.repository.UserRepository;
+import com.titan.titancorebanking.service.StripedBalanceService;
+import com.titan.titancorebanking.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transfers-per-second into ONE hot account, unstriped vs. N stripes.
+ * Many distinct senders → one receiver, so the only shared row is the receiver.
+ */
+@Testcontainers
+@SpringBootTest
+class HotAccountStripingBenchmarkTest {
+
+    private static final int SENDERS = 32;
+    private static final int TRANSFERS_PER_SENDER = 25;
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("titandb")
+            .withUsername("postgres")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "64");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("grpc.client.riskEngineClient.address", () -> "static://localhost:19999");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:19092");
+        registry.add("titan.striping.consolidation-interval-ms", () -> "200");
+    }
+
+    @Autowired TransactionService transactionService;
+    @Autowired StripedBalanceService stripedBalanceService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired UserRepository userRepository;
+
+    // Low-cost hash so BCrypt does not drown the lock contention we are measuring
+    private final String pinHash = new BCryptPasswordEncoder(4).encode("1234");
+
+    @Test
+    void transfersPerSecondIntoHotAccount() throws Exception {
+        System.out.println("\n========================================");
+        System.out.println("  🔀 Hot-account striping benchmark");
+        System.out.println("========================================");
+
+        for (int stripes : new int[]{0, 1, 4, 16}) {
+            double tps = runRound(stripes);
+            System.out.printf("  stripes=%-3d → %8.1f transfers/s%n", stripes, tps);
+        }
+        System.out.println("========================================\n");
+    }
+
+    private double runRound(int stripes) throws Exception {
+        User owner = userRepository.save(user("merchant"));
+        Account hot = accountRepository.save(account(owner, BigDecimal.ZERO));
+        if (stripes > 0) {
+            stripedBalanceService.enableStriping(hot.getAccountNumber(), stripes);
+            stripedBalanceService.refreshStripedAccounts();
+        }
+
+        List<User> users = new ArrayList<>();
+        List<Account> senders = new ArrayList<>();
+        for (int i = 0; i < SENDERS; i++) {
+            User u = userRepository.save(user("payer"));
+            users.add(u);
+            senders.add(accountRepository.save(account(u, new BigDecimal("100000.00"))));
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(SENDERS);
+        long start = System.nanoTime();
+        for (int i = 0; i < SENDERS; i++) {
+            Account from = senders.get(i);
+            String username = users.get(i).getUsername();
+            pool.submit(() -> {
+                for (int n = 0; n < TRANSFERS_PER_SENDER; n++) {
+                    try {
+                        transactionService.transfer(new TransactionRequest(
+                                from.getAccountNumber(), hot.getAccountNumber(), AMOUNT, "1234",
+                                "bench", null, "TRANSFER", null, null, null), username);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int total = SENDERS * TRANSFERS_PER_SENDER;
+        assertThat(failures.get()).isZero();
+
+        // Every credit is accounted for: settled + stripes == sum of transfers
+        Account reloaded = accountRepository.findByAccountNumber(hot.getAccountNumber()).orElseThrow();
+        assertThat(stripedBalanceService.effectiveBalance(reloaded))
+                .isEqualByComparingTo(AMOUNT.multiply(BigDecimal.valueOf(total)));
+
+        return total / seconds;
+    }
+
+    private User user(String prefix) {
+        return User.builder()
+                .username(prefix + "-" + UUID.randomUUID())
+                .password("n/a")
+                .pin(pinHash)
+                .role("ROLE_USER")
+                .build();
+    }
+
+    private Account account(User owner, BigDecimal balance) {
+        return Account.builder()
+                .accountNumber(String.valueOf(1_000_000_000L + Math.abs(UUID.randomUUID().getMostSignificantBits() % 8_999_999_999L)))
+                .accountType(AccountType.CHECKING)
+                .currency(Currency.USD)
+                .balance(balance)
+                .status(AccountStatus.ACTIVE)
+                .user(owner)
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.titan.titancorebanking.integration;
+
+import com.titan.titancorebanking.interceptor.IdempotencyInterceptor;
+import com.titan.titancorebanking.repository.TransactionRepository;
+import com.titan.titancorebanking.service.IdempotencyService;
+import com.titan.titancorebanking.service.IdempotencyServiceTest.FakeRedis;
+import com.titan.titancorebanking.service.RecentIdempotencyKeys;
+import com.titan.titancorebanking.service.RecentIdempotencyKeysTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Idempotency costs: a duplicate storm on one key through the HTTP filter (latency percentiles and Redis
+ * round trips per request, against a map-backed Redis with ~0.2 ms per call), and lookups in the
+ * recent-keys Bloom filter. No Redis or database needed.
+ */
+class IdempotencyBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int PER_THREAD = 50;
+
+    @Test
+    void duplicateStormOnOneKey() throws Exception {
+        FakeRedis redis = new FakeRedis();
+        redis.latencyNanos = 200_000;
+        IdempotencyService service = new IdempotencyService(mock(TransactionRepository.class), redis,
+                RecentIdempotencyKeysTest.filter(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "waitMs", 2_000L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        IdempotencyInterceptor interceptor = new IdempotencyInterceptor(service);
+
+        AtomicInteger executions = new AtomicInteger();
+        FilterChain transfer = (request, response) -> {
+            int n = executions.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(201);
+            http.setContentType("application/json");
+            http.getOutputStream().write(("{\"id\":" + n + ",\"note\":\"Transfer ✓ 💸\"}").getBytes(StandardCharsets.UTF_8));
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        long[] latencies = new long[THREADS * PER_THREAD];
+        AtomicInteger slot = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                go.await();
+                for (int i = 0; i < PER_THREAD; i++) {
+                    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/transactions/transfer");
+                    request.addHeader("Idempotency-Key", "storm");
+                    long start = System.nanoTime();
+                    interceptor.doFilter(request, new MockHttpServletResponse(), transfer);
+                    latencies[slot.getAndIncrement()] = System.nanoTime() - start;
+                }
+                return null;
+            }));
+        }
+        long roundTripsBefore = redis.roundTrips.get();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        double roundTrips = (double) (redis.roundTrips.get() - roundTripsBefore) / latencies.length;
+        System.out.println("\n========================================");
+        System.out.println("  🔁 Idempotency duplicate storm");
+        System.out.println("========================================");
+        System.out.printf("📈 %d requests on one key from %d threads → %d ms (%.0f req/s), %d execution(s)%n",
+                latencies.length, THREADS, elapsed / 1_000_000, latencies.length / (elapsed / 1e9), executions.get());
+        System.out.printf("📈 %.2f Redis round trips/request, stored response %d bytes%n",
+                roundTrips, redis.values.values().iterator().next().length());
+        System.out.printf("📈 p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", latencies[latencies.length / 2] / 1e6,
+                latencies[latencies.length * 99 / 100] / 1e6, latencies[latencies.length - 1] / 1e6);
+        System.out.println("========================================\n");
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void recentKeysFilterLookups() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        int keys = 300_000;
+        RecentIdempotencyKeys filter = new RecentIdempotencyKeys(null, null, null, meterRegistry);
+        ReflectionTestUtils.setField(filter, "expectedKeys", (long) keys);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.invokeMethod(filter, "init");
+        ReflectionTestUtils.setField(filter, "warm", true);
+        for (int i = 0; i < keys / 3; i++) {
+            filter.add("seen-" + i);
+        }
+
+        int probes = 1_000_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) { // warm-up / JIT
+            filter.isDefinitelyNew("warmup-" + i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < probes; i++) {
+            if (!filter.isDefinitelyNew("new-" + i)) {
+                falsePositives++;
+            }
+        }
+        long nanosPerLookup = (System.nanoTime() - start) / probes;
+
+        System.out.println("\n========================================");
+        System.out.println("  🌸 Recent idempotency keys filter");
+        System.out.println("========================================");
+        System.out.printf("📈 %d ns/lookup, %.4f false positives at 1/3 of the window's keys, %.0f KB%n", nanosPerLookup,
+                (double) falsePositives / probes, meterRegistry.get("titan.idempotency.filter.bytes").gauge().value() / 1024);
+        System.out.println("========================================\n");
+        assertThat(falsePositives).isLessThan(probes);
+    }
+}
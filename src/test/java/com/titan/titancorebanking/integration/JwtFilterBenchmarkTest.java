@@ -0,0 +1,114 @@
+package com.titan.titancorebanking.integration;
+
+import com.titan.titancorebanking.config.JwtAuthenticationFilter;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.service.VerifiedTokenCache;
+import com.titan.titancorebanking.service.imple.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT filter cost per request: the old path (signing key rebuilt, token parsed three times) versus the
+ * filter uncached (one parse, principal from the claims, one change-time GET answered by a stub) and
+ * cached (hash lookup only). No database or Redis needed.
+ */
+class JwtFilterBenchmarkTest {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+    private static final FilterChain NOOP = (request, response) -> { };
+    private static final int ITERATIONS = 20_000;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void filterOverheadPerRequest() throws Exception {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "jwtIssuer", "titan-banking");
+        ReflectionTestUtils.setField(jwtService, "jwtAudience", "titan-api");
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        when(redis.opsForValue()).thenReturn(mock(ValueOperations.class));
+        VerifiedTokenCache cache = new VerifiedTokenCache(redis, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(cache, "init");
+
+        AtomicInteger userLoads = new AtomicInteger();
+        User alice = User.builder().id(1L).username("alice").password("x").role("ROLE_USER").build();
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, username -> {
+            userLoads.incrementAndGet();
+            return alice;
+        }, cache);
+        String token = jwtService.generateToken(alice);
+        byte[] secret = SECRET.getBytes(StandardCharsets.UTF_8);
+
+        // Before: key and parser rebuilt, and the token parsed three times (username, then subject + expiry)
+        Runnable before = () -> {
+            for (int parse = 0; parse < 3; parse++) {
+                Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(secret)).build().parseClaimsJws(token).getBody();
+            }
+        };
+        Runnable request = () -> authenticate(filter, token);
+        for (int i = 0; i < 2_000; i++) {
+            before.run();
+            request.run();
+        }
+
+        long beforeNanos = nanosPerRun(before);
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        long missNanos = nanosPerRun(request);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        long hitNanos = nanosPerRun(request);
+
+        System.out.println("\n========================================");
+        System.out.println("  🔑 JWT filter per request");
+        System.out.println("========================================");
+        System.out.printf("📈 before: 3 parses + key build     → %8.1f µs (excluding the user query)%n", beforeNanos / 1e3);
+        System.out.printf("📈 uncached: 1 parse, claims only   → %8.1f µs%n", missNanos / 1e3);
+        System.out.printf("📈 cached: token hash lookup        → %8.1f µs%n", hitNanos / 1e3);
+        System.out.printf("  user queries                      → %8d%n", userLoads.get());
+        System.out.println("========================================\n");
+        assertThat(userLoads).hasValue(0);
+    }
+
+    private static void authenticate(JwtAuthenticationFilter filter, String token) {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/accounts");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NOOP);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long nanosPerRun(Runnable run) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
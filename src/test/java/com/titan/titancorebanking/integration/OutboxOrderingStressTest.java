@@ -0,0 +1,174 @@
+package com.titan.titancorebanking.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.model.OutboxEvent;
+import com.titan.titancorebanking.repository.BulkTransferJdbcRepository;
+import com.titan.titancorebanking.repository.OutboxJdbcRepository;
+import com.titan.titancorebanking.service.OutboxRelayService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-aggregate ordering under parallel publishing: 3 relay instances of 4 workers each drain 200
+ * aggregates × 50 events, written interleaved. The stub broker acks after a random 0-5 ms and rejects the
+ * first attempt of every 13th event, so retries, backoff and held-back events are all exercised. Every
+ * aggregate's acknowledged events must arrive in the order they were written, and none may be lost.
+ */
+@Testcontainers
+@SpringBootTest
+class OutboxOrderingStressTest {
+
+    private static final int AGGREGATES = 200;
+    private static final int EVENTS_PER_AGGREGATE = 50;
+    private static final int INSTANCES = 3;
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("titandb")
+            .withUsername("postgres")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "32");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("grpc.client.riskEngineClient.address", () -> "static://localhost:19999");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:19092");
+        registry.add("titan.outbox.relay.enabled", () -> "false");
+        registry.add("titan.outbox.notify.enabled", () -> "false");
+    }
+
+    @Autowired OutboxJdbcRepository outboxJdbcRepository;
+    @Autowired BulkTransferJdbcRepository bulkTransferJdbcRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+
+    /** Records acknowledged sequence numbers per key; fails the first attempt of every 13th event. */
+    static class FlakyOrderedKafka extends KafkaTemplate<String, Object> {
+        final Map<String, List<Integer>> acknowledged = new ConcurrentHashMap<>();
+        final Set<Integer> rejectedOnce = ConcurrentHashMap.newKeySet();
+        final ScheduledExecutorService broker;
+
+        FlakyOrderedKafka(ScheduledExecutorService broker) {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+            this.broker = broker;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object data) {
+            int seq = ((Map<String, Integer>) data).get("seq");
+            CompletableFuture<SendResult<String, Object>> ack = new CompletableFuture<>();
+            boolean reject = seq % 13 == 0 && rejectedOnce.add(Integer.parseInt(key.substring(4)) * 1_000 + seq);
+            broker.schedule(() -> {
+                if (reject) {
+                    ack.completeExceptionally(new IllegalStateException("broker rejected"));
+                } else {
+                    // A key's sends are serial (the relay waits for each ack), so appending here is the arrival order
+                    acknowledged.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(seq);
+                    ack.complete(null);
+                }
+            }, ThreadLocalRandom.current().nextInt(0, 6), TimeUnit.MILLISECONDS);
+            return ack;
+        }
+    }
+
+    @Test
+    void perAggregateOrderHoldsAcrossParallelLanes() throws Exception {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        seed();
+
+        ScheduledExecutorService broker = Executors.newScheduledThreadPool(4);
+        FlakyOrderedKafka kafka = new FlakyOrderedKafka(broker);
+        List<OutboxRelayService> relays = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < INSTANCES; i++) {
+            OutboxRelayService relay = new OutboxRelayService(outboxJdbcRepository, objectMapper, new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(relay, "kafkaTemplate", kafka);
+            ReflectionTestUtils.setField(relay, "pollIntervalMs", 20L);
+            ReflectionTestUtils.setField(relay, "retryBackoffMs", 10L);
+            ReflectionTestUtils.setField(relay, "minBatchSize", 20);
+            ReflectionTestUtils.setField(relay, "maxBatchSize", 200);
+            ReflectionTestUtils.setField(relay, "minWorkers", 4);
+            ReflectionTestUtils.invokeMethod(relay, "start");
+            relays.add(relay);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+        while (outboxJdbcRepository.countBacklog(5, 1) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        relays.forEach(relay -> ReflectionTestUtils.invokeMethod(relay, "stop"));
+        broker.shutdown();
+
+        System.out.println("\n========================================");
+        System.out.println("  🔀 Outbox per-aggregate ordering stress");
+        System.out.println("========================================");
+        System.out.printf("📈 %d events, %d aggregates, %d instances → %.1f s, %d rejected sends retried%n",
+                AGGREGATES * EVENTS_PER_AGGREGATE, AGGREGATES, INSTANCES, seconds, kafka.rejectedOnce.size());
+        System.out.println("========================================\n");
+
+        assertThat(outboxJdbcRepository.countBacklog(5, 1)).isZero();
+        Long deadLetters = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_dead_letters", Long.class);
+        assertThat(deadLetters).isZero();
+        assertThat(kafka.acknowledged).hasSize(AGGREGATES);
+        for (Map.Entry<String, List<Integer>> entry : kafka.acknowledged.entrySet()) {
+            List<Integer> seqs = entry.getValue();
+            assertThat(seqs).as("order of %s", entry.getKey()).isSorted().doesNotHaveDuplicates();
+            assertThat(seqs).as("events of %s", entry.getKey()).hasSize(EVENTS_PER_AGGREGATE);
+        }
+    }
+
+    // Interleaved: event k of every aggregate is written before event k + 1 of any
+    private void seed() {
+        List<OutboxEvent> events = new ArrayList<>(AGGREGATES * EVENTS_PER_AGGREGATE);
+        Instant now = Instant.now();
+        int n = 0;
+        for (int seq = 0; seq < EVENTS_PER_AGGREGATE; seq++) {
+            for (int aggregate = 0; aggregate < AGGREGATES; aggregate++) {
+                events.add(OutboxEvent.builder()
+                        .aggregateId(String.format("ACC-%04d", aggregate))
+                        .aggregateType("Account")
+                        .eventType("TransactionCompleted")
+                        .payload("{\"seq\":" + seq + "}")
+                        .createdAt(now.plusNanos(n++ * 1_000L))
+                        .build());
+            }
+        }
+        bulkTransferJdbcRepository.insertOutboxEvents(events);
+    }
+}
@@ -0,0 +1,165 @@
+package com.titan.titancorebanking.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.model.OutboxEvent;
+import com.titan.titancorebanking.repository.OutboxJdbcRepository;
+import com.titan.titancorebanking.service.OutboxRelayService;
+import com.titan.titancorebankingevent.service.TransactionCompletedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Relay CPU time per event, JSON re-parse (payload → Object → JsonSerializer) versus byte passthrough.
+ * Claim and mark are mocked and Kafka acks at once, but each stub runs the serializer its real producer
+ * would, so what is measured is the relay's own per-event work. No database or broker needed.
+ */
+class OutboxRelayCpuBenchmarkTest {
+
+    private static final int BATCH = 1_000;
+    private static final int WARMUP_BATCHES = 50;
+    private static final int BATCHES = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    /** Serializes each value with JsonSerializer, as the JSON producer does, then acks. */
+    static class JsonSerializingKafka extends KafkaTemplate<String, Object> {
+        final JsonSerializer<Object> serializer;
+        long bytes;
+
+        JsonSerializingKafka(ObjectMapper objectMapper) {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+            this.serializer = new JsonSerializer<>(objectMapper);
+            this.serializer.setAddTypeInfo(false);
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object data) {
+            bytes += serializer.serialize(topic, data).length;
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /** Runs ByteArraySerializer (a no-op), as the bytes producer does, then acks. */
+    static class BytesKafka extends KafkaTemplate<String, byte[]> {
+        final ByteArraySerializer serializer = new ByteArraySerializer();
+        long bytes;
+
+        BytesKafka() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, byte[]>> send(ProducerRecord<String, byte[]> record) {
+            bytes += serializer.serialize(record.topic(), record.value()).length;
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Test
+    void cpuPerEventReparseVersusPassthrough() throws Exception {
+        OutboxJdbcRepository repository = mock(OutboxJdbcRepository.class);
+        List<OutboxEvent> batch = batch();
+        when(repository.claimLane(any(), any(), anyInt(), anyLong(), anyLong())).thenReturn(0);
+        when(repository.claim(any(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyInt())).thenReturn(batch);
+
+        JsonSerializingKafka jsonKafka = new JsonSerializingKafka(objectMapper);
+        OutboxRelayService reparse = relay(repository);
+        ReflectionTestUtils.setField(reparse, "kafkaTemplate", jsonKafka);
+
+        BytesKafka bytesKafka = new BytesKafka();
+        OutboxRelayService passthrough = relay(repository);
+        ReflectionTestUtils.setField(passthrough, "bytesKafkaTemplate", bytesKafka);
+
+        double before = cpuNanosPerEvent(reparse);
+        double after = cpuNanosPerEvent(passthrough);
+
+        System.out.println("\n========================================");
+        System.out.println("  🧮 Outbox relay CPU per event");
+        System.out.println("========================================");
+        System.out.printf("📈 re-parse + JsonSerializer → %8.2f µs/event (%d B/event)%n",
+                before / 1_000, jsonKafka.bytes / ((long) (WARMUP_BATCHES + BATCHES) * BATCH));
+        System.out.printf("📈 byte passthrough          → %8.2f µs/event (%d B/event)%n",
+                after / 1_000, bytesKafka.bytes / ((long) (WARMUP_BATCHES + BATCHES) * BATCH));
+        System.out.printf("  speed-up                   → %8.1fx%n", before / after);
+        System.out.println("========================================\n");
+
+        assertThat(after).isLessThan(before);
+    }
+
+    private OutboxRelayService relay(OutboxJdbcRepository repository) {
+        OutboxRelayService relay = new OutboxRelayService(repository, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "enabled", false); // batches are driven by the benchmark
+        ReflectionTestUtils.invokeMethod(relay, "start");
+        return relay;
+    }
+
+    private static double cpuNanosPerEvent(OutboxRelayService relay) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_BATCHES; i++) {
+            ReflectionTestUtils.invokeMethod(relay, "relayBatch", "bench-0", BATCH);
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < BATCHES; i++) {
+            ReflectionTestUtils.invokeMethod(relay, "relayBatch", "bench-0", BATCH);
+        }
+        return (double) (threads.getCurrentThreadCpuTime() - start) / ((long) BATCHES * BATCH);
+    }
+
+    // Payloads as EventPublisherService writes them
+    private List<OutboxEvent> batch() throws Exception {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            String correlationId = UUID.randomUUID().toString();
+            TransactionCompletedEvent event = TransactionCompletedEvent.builder()
+                    .eventId(UUID.randomUUID().toString())
+                    .eventType("TransactionCompleted")
+                    .transactionId(String.valueOf(i))
+                    .timestamp(now)
+                    .correlationId(correlationId)
+                    .amount(new BigDecimal("125.50"))
+                    .currency("USD")
+                    .type("TRANSFER")
+                    .status("SUCCESS")
+                    .sourceAccountNumber("ACC" + (100_000 + i))
+                    .targetAccountNumber("ACC" + (200_000 + i))
+                    .username("user" + i)
+                    .userId((long) i)
+                    .note("Invoice " + i)
+                    .metadata(Map.of("source", "titan-core-banking", "channel", "mobile-app", "clientIp", "10.0.0.1"))
+                    .build();
+            events.add(OutboxEvent.builder()
+                    .id((long) i)
+                    .aggregateId(String.valueOf(i))
+                    .aggregateType("Transaction")
+                    .eventType("TransactionCompleted")
+                    .payload(objectMapper.writeValueAsString(event))
+                    .correlationId(correlationId)
+                    .createdAt(now)
+                    .build());
+        }
+        return events;
+    }
+}
@@ -0,0 +1,131 @@
+package com.titan.titancorebanking.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.repository.OutboxJdbcRepository;
+import com.titan.titancorebanking.service.OutboxNotificationListener;
+import com.titan.titancorebanking.service.OutboxRelayService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Commit-to-Kafka-ack latency of single outbox rows trickling in, with the relay polling every 2 s (the old
+ * behaviour, listener off) and woken by LISTEN/NOTIFY (fallback poll 30 s). Kafka is the stub broker from
+ * the throughput benchmark; rows are inserted one per transaction, as transfers do.
+ */
+@Testcontainers
+@SpringBootTest
+class OutboxRelayLatencyBenchmarkTest {
+
+    private static final int EVENTS = 200;
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("titandb")
+            .withUsername("postgres")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("grpc.client.riskEngineClient.address", () -> "static://localhost:19999");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:19092");
+        registry.add("titan.outbox.relay.enabled", () -> "false");
+        registry.add("titan.outbox.notify.enabled", () -> "false");
+    }
+
+    @Autowired OutboxJdbcRepository outboxJdbcRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    void commitToAckLatencyPollingVersusNotify() throws Exception {
+        // Flyway is off under ddl-auto: install the notify trigger from the migration itself
+        jdbcTemplate.execute(new ClassPathResource("db/migration/V31__outbox_notify.sql")
+                .getContentAsString(StandardCharsets.UTF_8));
+
+        System.out.println("\n========================================");
+        System.out.println("  🔔 Outbox commit → Kafka ack latency");
+        System.out.println("========================================");
+        report("poll 2 s", runRound(false));
+        report("notify", runRound(true));
+        System.out.println("========================================\n");
+    }
+
+    private Timer runRound(boolean notify) throws Exception {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        ScheduledExecutorService broker = Executors.newScheduledThreadPool(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        OutboxRelayService relay = new OutboxRelayService(outboxJdbcRepository, objectMapper, registry);
+        ReflectionTestUtils.setField(relay, "kafkaTemplate", new OutboxRelayThroughputBenchmarkTest.StubKafka(broker));
+        ReflectionTestUtils.invokeMethod(relay, "start");
+        OutboxNotificationListener listener = null;
+        if (notify) {
+            listener = new OutboxNotificationListener(relay, registry);
+            ReflectionTestUtils.setField(listener, "url", postgres.getJdbcUrl());
+            ReflectionTestUtils.setField(listener, "username", postgres.getUsername());
+            ReflectionTestUtils.setField(listener, "password", postgres.getPassword());
+            ReflectionTestUtils.invokeMethod(listener, "start");
+            Thread.sleep(500); // LISTEN is up
+        }
+
+        for (int i = 0; i < EVENTS; i++) {
+            jdbcTemplate.update("INSERT INTO outbox_events (aggregate_id, aggregate_type, event_type, payload, " +
+                            "published, retry_count, created_at, status) VALUES (?, 'TRANSACTION', 'TransactionCompleted', " +
+                            "?, FALSE, 0, ?, 'PENDING')",
+                    "TX" + i, "{\"transactionId\":" + i + "}", Timestamp.from(Instant.now()));
+            Thread.sleep(ThreadLocalRandom.current().nextInt(5, 30));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outboxJdbcRepository.countBacklog(5, 1) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        if (listener != null) {
+            ReflectionTestUtils.invokeMethod(listener, "stop");
+        }
+        ReflectionTestUtils.invokeMethod(relay, "stop");
+        broker.shutdown();
+
+        assertThat(outboxJdbcRepository.countBacklog(5, 1)).isZero();
+        Timer latency = registry.get("titan.outbox.relay.delivery.latency").tag("mode", notify ? "push" : "poll").timer();
+        assertThat(latency.count()).isEqualTo(EVENTS);
+        return latency;
+    }
+
+    private static void report(String mode, Timer latency) {
+        StringBuilder line = new StringBuilder(String.format("📈 %-9s", mode));
+        for (ValueAtPercentile p : latency.takeSnapshot().percentileValues()) {
+            line.append(String.format("  p%-3.0f %7.1f ms", p.percentile() * 100, p.value(TimeUnit.MILLISECONDS)));
+        }
+        System.out.println(line);
+    }
+}
@@ -0,0 +1,155 @@
+package com.titan.titancorebanking.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.model.OutboxEvent;
+import com.titan.titancorebanking.repository.BulkTransferJdbcRepository;
+import com.titan.titancorebanking.repository.OutboxJdbcRepository;
+import com.titan.titancorebanking.service.OutboxRelayService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox events relayed per second with 1, 2 and 4 relay instances sharing one database. Kafka is a stub
+ * that acks every send after a fixed broker round-trip; the database side (claim with SKIP LOCKED, batched
+ * mark) is real. The old relay (one global lock, 100 rows per 2 s poll) topped out at 50 events/s.
+ */
+@Testcontainers
+@SpringBootTest
+class OutboxRelayThroughputBenchmarkTest {
+
+    private static final int EVENTS = 20_000;
+    private static final long ACK_LATENCY_MS = 2;
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("titandb")
+            .withUsername("postgres")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "32");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("grpc.client.riskEngineClient.address", () -> "static://localhost:19999");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:19092");
+        // The application's own relay stays off: the benchmark runs its instances
+        registry.add("titan.outbox.relay.enabled", () -> "false");
+    }
+
+    @Autowired OutboxJdbcRepository outboxJdbcRepository;
+    @Autowired BulkTransferJdbcRepository bulkTransferJdbcRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+
+    /** Acks each send ACK_LATENCY_MS later, like a broker; counts deliveries per key. */
+    static class StubKafka extends KafkaTemplate<String, Object> {
+        final Map<String, AtomicInteger> deliveries = new ConcurrentHashMap<>();
+        final ScheduledExecutorService broker;
+
+        StubKafka(ScheduledExecutorService broker) {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+            this.broker = broker;
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object data) {
+            deliveries.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            CompletableFuture<SendResult<String, Object>> ack = new CompletableFuture<>();
+            broker.schedule(() -> ack.complete(null), ACK_LATENCY_MS, TimeUnit.MILLISECONDS);
+            return ack;
+        }
+    }
+
+    @Test
+    void eventsPerSecondByInstanceCount() throws Exception {
+        System.out.println("\n========================================");
+        System.out.println("  📤 Outbox relay throughput benchmark");
+        System.out.println("========================================");
+        System.out.printf("  before (global lock)  → %8.1f events/s (100 rows / 2 s)%n", 50.0);
+        for (int instances : new int[]{1, 2, 4}) {
+            double eps = runRound(instances);
+            System.out.printf("📈 instances=%-2d        → %8.1f events/s%n", instances, eps);
+        }
+        System.out.println("========================================\n");
+    }
+
+    private double runRound(int instances) throws Exception {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        seed();
+
+        ScheduledExecutorService broker = Executors.newScheduledThreadPool(4);
+        StubKafka kafka = new StubKafka(broker);
+        List<OutboxRelayService> relays = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < instances; i++) {
+            OutboxRelayService relay = new OutboxRelayService(outboxJdbcRepository, objectMapper, new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(relay, "kafkaTemplate", kafka);
+            ReflectionTestUtils.setField(relay, "pollIntervalMs", 50L);
+            ReflectionTestUtils.invokeMethod(relay, "start");
+            relays.add(relay);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (outboxJdbcRepository.countBacklog(5, 1) > 0 && System.nanoTime() < deadline) {
+            relays.forEach(OutboxRelayService::adjustWorkers);
+            Thread.sleep(20);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        relays.forEach(relay -> ReflectionTestUtils.invokeMethod(relay, "stop"));
+        broker.shutdown();
+
+        Long published = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_events WHERE published = TRUE", Long.class);
+        assertThat(published).isEqualTo(EVENTS);
+        // Disjoint claims: no event went out twice
+        assertThat(kafka.deliveries).hasSize(EVENTS);
+        assertThat(kafka.deliveries.values()).allMatch(count -> count.get() == 1);
+        return EVENTS / seconds;
+    }
+
+    private void seed() {
+        List<OutboxEvent> events = new ArrayList<>(EVENTS);
+        Instant now = Instant.now();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(OutboxEvent.builder()
+                    .aggregateId("TX" + i)
+                    .aggregateType("TRANSACTION")
+                    .eventType("TransactionCompleted")
+                    .payload("{\"transactionId\":" + i + ",\"amount\":\"10.00\"}")
+                    .createdAt(now.plusNanos(i * 1_000L))
+                    .build());
+        }
+        bulkTransferJdbcRepository.insertOutboxEvents(events);
+    }
+}
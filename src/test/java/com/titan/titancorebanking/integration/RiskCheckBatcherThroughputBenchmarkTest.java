@@ -0,0 +1,69 @@
+package com.titan.titancorebanking.integration;
+
+import com.titan.riskengine.RiskCheckRequest;
+import com.titan.riskengine.RiskEngineServiceGrpc;
+import com.titan.titancorebanking.enums.RiskCallTransport;
+import com.titan.titancorebanking.service.RiskCheckBatcher;
+import com.titan.titancorebanking.service.StandInRiskEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Risk checks per second through RiskCheckBatcher, one call per check (UNARY) versus micro-batched
+ * (BATCH, STREAM), against the in-process stand-in model: 4 workers, 500 µs per call + 10 µs per check.
+ * No Risk Engine needed.
+ */
+class RiskCheckBatcherThroughputBenchmarkTest {
+
+    private static final int CHECKS = 4_000;
+    private static final int CALLERS = 32;
+
+    @Test
+    void throughputUnaryVersusMicroBatched() throws Exception {
+        System.out.println("\n========================================");
+        System.out.println("  📦 Risk checks/sec, stand-in model: 4 workers, 500 µs per call + 10 µs per check");
+        System.out.println("========================================");
+        for (RiskCallTransport transport : List.of(RiskCallTransport.UNARY, RiskCallTransport.BATCH, RiskCallTransport.STREAM)) {
+            try (StandInRiskEngine engine = StandInRiskEngine.start(4, 500, 10, true)) {
+                RiskCheckBatcher batcher = new RiskCheckBatcher(RiskEngineServiceGrpc.newStub(engine.channel()),
+                        RiskEngineServiceGrpc.newFutureStub(engine.channel()), new SimpleMeterRegistry());
+                ReflectionTestUtils.setField(batcher, "transport", transport);
+                ReflectionTestUtils.setField(batcher, "deadlineMs", 30_000L);
+                ReflectionTestUtils.invokeMethod(batcher, "start");
+                try {
+                    System.out.printf("📈 %-7s → %9.0f checks/s%n", transport, run(batcher));
+                } finally {
+                    ReflectionTestUtils.invokeMethod(batcher, "stop");
+                }
+            }
+        }
+        System.out.println("========================================\n");
+    }
+
+    private static double run(RiskCheckBatcher batcher) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (int c = 0; c < CALLERS; c++) {
+            done.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < CHECKS / CALLERS; i++) {
+                    assertThat(batcher.check(RiskCheckRequest.newBuilder().setUserId("42").setAmount(i).build())
+                            .join().getAction()).isEqualTo("ALLOW");
+                }
+            }, pool));
+        }
+        CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        pool.shutdown();
+        return CHECKS / ((System.nanoTime() - start) / 1e9);
+    }
+}
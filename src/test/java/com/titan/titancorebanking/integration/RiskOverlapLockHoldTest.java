@@ -0,0 +1,160 @@
+package com.titan.titancorebanking.integration;
+
+import com.titan.riskengine.RiskCheckResponse;
+import com.titan.titancorebanking.dto.request.TransactionRequest;
+import com.titan.titancorebanking.enums.AccountStatus;
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.Currency;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.repository.AccountRepository;
+import com.titan.titancorebanking.repository.UserRepository;
+import com.titan.titancorebanking.service.RiskEngineGrpcService;
+import com.titan.titancorebanking.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lock-hold time on one hot account pair with a 30 ms risk model: risk call started after the locks
+ * (inline) vs started before them (overlapped). Transfers queued on the row lock get their risk
+ * answer while they wait, so the overlapped hold is mostly the balance update itself.
+ */
+@Testcontainers
+@SpringBootTest
+class RiskOverlapLockHoldTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 10;
+    private static final long RISK_LATENCY_MS = 30;
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("titandb")
+            .withUsername("postgres")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "20");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("grpc.client.riskEngineClient.address", () -> "static://localhost:19999");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:19092");
+    }
+
+    @MockBean RiskEngineGrpcService riskEngineGrpcService;
+    @Autowired TransactionService transactionService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+    private final String pinHash = new BCryptPasswordEncoder(4).encode("1234");
+
+    @Test
+    void overlappedRiskCallShortensLockHold() throws Exception {
+        RiskCheckResponse allow = RiskCheckResponse.newBuilder().setAction("ALLOW").setRiskLevel("LOW").build();
+        when(riskEngineGrpcService.analyzeTransactionAsync(anyLong(), anyString(), anyDouble())).thenAnswer(inv ->
+                CompletableFuture.supplyAsync(() -> allow,
+                        CompletableFuture.delayedExecutor(RISK_LATENCY_MS, TimeUnit.MILLISECONDS)));
+
+        TransactionService target = AopTestUtils.getTargetObject(transactionService);
+
+        ReflectionTestUtils.setField(target, "overlapRiskWithLocks", false);
+        long inlineMs = runHotPair();
+        ReflectionTestUtils.setField(target, "overlapRiskWithLocks", true);
+        long overlappedMs = runHotPair();
+
+        Timer inline = meterRegistry.get("titan.transfer.lock.hold").tag("risk", "inline").timer();
+        Timer overlapped = meterRegistry.get("titan.transfer.lock.hold").tag("risk", "overlapped").timer();
+
+        System.out.println("\n========================================");
+        System.out.println("  ⚡ Lock hold, risk model " + RISK_LATENCY_MS + " ms, " + THREADS + " threads on one pair");
+        System.out.println("========================================");
+        System.out.printf("  inline     : mean %6.1f ms, max %6.1f ms, wall %d ms%n",
+                inline.mean(TimeUnit.MILLISECONDS), inline.max(TimeUnit.MILLISECONDS), inlineMs);
+        System.out.printf("  overlapped : mean %6.1f ms, max %6.1f ms, wall %d ms%n%n",
+                overlapped.mean(TimeUnit.MILLISECONDS), overlapped.max(TimeUnit.MILLISECONDS), overlappedMs);
+
+        assertThat(inline.count()).isEqualTo(THREADS * TRANSFERS_PER_THREAD);
+        assertThat(overlapped.count()).isEqualTo(THREADS * TRANSFERS_PER_THREAD);
+        assertThat(inline.mean(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(RISK_LATENCY_MS);
+        assertThat(overlapped.mean(TimeUnit.MILLISECONDS)).isLessThan(inline.mean(TimeUnit.MILLISECONDS) / 2);
+    }
+
+    private long runHotPair() throws Exception {
+        User owner = userRepository.save(user());
+        Account from = accountRepository.save(account(owner, new BigDecimal("100000.00")));
+        Account to = accountRepository.save(account(userRepository.save(user()), BigDecimal.ZERO));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    transactionService.transfer(new TransactionRequest(
+                            from.getAccountNumber(), to.getAccountNumber(), new BigDecimal("1.00"), "1234",
+                            "hot", null, "TRANSFER", null, null, null), owner.getUsername());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private User user() {
+        return User.builder()
+                .username("risk-" + UUID.randomUUID())
+                .password("n/a")
+                .pin(pinHash)
+                .role("ROLE_USER")
+                .build();
+    }
+
+    private Account account(User owner, BigDecimal balance) {
+        return Account.builder()
+                .accountNumber(String.valueOf(1_000_000_000L + Math.abs(UUID.randomUUID().getMostSignificantBits() % 8_999_999_999L)))
+                .accountType(AccountType.CHECKING)
+                .currency(Currency.USD)
+                .balance(balance)
+                .status(AccountStatus.ACTIVE)
+                .user(owner)
+                .build();
+    }
+}
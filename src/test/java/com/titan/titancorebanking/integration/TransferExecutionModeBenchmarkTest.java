@@ -0,0 +1,143 @@
+package com.titan.titancorebanking.integration;
+
+import com.titan.titancorebanking.dto.request.TransactionRequest;
+import com.titan.titancorebanking.enums.AccountStatus;
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.Currency;
+import com.titan.titancorebanking.enums.TransferExecutionMode;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.repository.AccountRepository;
+import com.titan.titancorebanking.repository.UserRepository;
+import com.titan.titancorebanking.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of LOCKING (SELECT FOR UPDATE + flush) vs ATOMIC (conditional UPDATE ... RETURNING)
+ * on a small ring of accounts that transfer to each other concurrently.
+ */
+@Testcontainers
+@SpringBootTest
+class TransferExecutionModeBenchmarkTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 50;
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+    private static final BigDecimal OPENING = new BigDecimal("100000.00");
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("titandb")
+            .withUsername("postgres")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "40");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("grpc.client.riskEngineClient.address", () -> "static://localhost:19999");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:19092");
+    }
+
+    @Autowired TransactionService transactionService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired UserRepository userRepository;
+
+    private final String pinHash = new BCryptPasswordEncoder(4).encode("1234");
+
+    @Test
+    void lockingVersusAtomic() throws Exception {
+        System.out.println("\n========================================");
+        System.out.println("  ⚡ Transfer execution mode benchmark");
+        System.out.println("========================================");
+
+        for (TransferExecutionMode mode : TransferExecutionMode.values()) {
+            double tps = runRound(mode);
+            System.out.printf("  %-8s → %8.1f transfers/s%n", mode, tps);
+        }
+        System.out.println("========================================\n");
+    }
+
+    private double runRound(TransferExecutionMode mode) throws Exception {
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(transactionService), "executionMode", mode);
+
+        User owner = userRepository.save(User.builder()
+                .username("ring-" + UUID.randomUUID())
+                .password("n/a")
+                .pin(pinHash)
+                .role("ROLE_USER")
+                .build());
+        List<Account> ring = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ring.add(accountRepository.save(Account.builder()
+                    .accountNumber(String.valueOf(1_000_000_000L + Math.abs(UUID.randomUUID().getMostSignificantBits() % 8_999_999_999L)))
+                    .accountType(AccountType.SAVINGS)
+                    .currency(Currency.USD)
+                    .balance(OPENING)
+                    .status(AccountStatus.ACTIVE)
+                    .user(owner)
+                    .build()));
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            pool.submit(() -> {
+                for (int n = 0; n < TRANSFERS_PER_THREAD; n++) {
+                    Account from = ring.get((offset + n) % ACCOUNTS);
+                    Account to = ring.get((offset + n + 1) % ACCOUNTS);
+                    try {
+                        transactionService.transfer(new TransactionRequest(
+                                from.getAccountNumber(), to.getAccountNumber(), AMOUNT, "1234",
+                                "bench", null, "TRANSFER", null, null, null), owner.getUsername());
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertThat(failures.get()).isZero();
+
+        // SAVINGS fee is 0.50 below 10k, 0 at/above it: opening balance keeps every transfer fee-free,
+        // so money is conserved across the ring in both modes
+        BigDecimal total = ring.stream()
+                .map(a -> accountRepository.findByAccountNumber(a.getAccountNumber()).orElseThrow().getBalance())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo(OPENING.multiply(BigDecimal.valueOf(ACCOUNTS)));
+
+        return THREADS * TRANSFERS_PER_THREAD / seconds;
+    }
+}
@@ -0,0 +1,161 @@
+package com.titan.titancorebanking.integration;
+
+import com.titan.titancorebanking.dto.request.TransactionRequest;
+import com.titan.titancorebanking.enums.AccountStatus;
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.Currency;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.repository.AccountRepository;
+import com.titan.titancorebanking.repository.UserRepository;
+import com.titan.titancorebanking.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LOCKING transfer: round-trips spent before money moves, counted with Hibernate statistics.
+ * Old path: unlocked account read + lazy owner + two FOR UPDATE reads. New path: owner read + one
+ * ordered FOR UPDATE that also fetches both owners.
+ */
+@Testcontainers
+@SpringBootTest
+class TransferStatementCountTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("titandb")
+            .withUsername("postgres")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("grpc.client.riskEngineClient.address", () -> "static://localhost:19999");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:19092");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    @Autowired TransactionService transactionService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    private final String pinHash = new BCryptPasswordEncoder(4).encode("1234");
+    private Statistics statistics;
+    private User owner;
+    private Account from;
+    private Account to;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(user("sender"));
+        from = accountRepository.save(account(owner, new BigDecimal("1000.00")));
+        to = accountRepository.save(account(userRepository.save(user("receiver")), BigDecimal.ZERO));
+    }
+
+    @Test
+    void pairLockIsOneStatementIncludingOwners() {
+        long[] before = new long[2];
+        long[] after = new long[2];
+
+        transactionTemplate.executeWithoutResult(status -> {
+            statistics.clear();
+            // Previous path: pre-check read, lazy owner, then one FOR UPDATE per account
+            Account check = accountRepository.findByAccountNumber(from.getAccountNumber()).orElseThrow();
+            check.getUser().getUsername();
+            accountRepository.findByAccountNumberWithLock(from.getAccountNumber()).orElseThrow();
+            accountRepository.findByAccountNumberWithLock(to.getAccountNumber()).orElseThrow().getUser().getUsername();
+            before[0] = statistics.getPrepareStatementCount();
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            statistics.clear();
+            accountRepository.findOwnerByAccountNumber(from.getAccountNumber()).orElseThrow();
+            List<Account> pair = accountRepository.findTransferPairWithOwnersForUpdate(
+                    from.getAccountNumber(), to.getAccountNumber());
+            pair.forEach(a -> a.getUser().getUsername());
+            after[0] = statistics.getPrepareStatementCount();
+            after[1] = statistics.getEntityFetchCount();
+
+            assertThat(pair).extracting(Account::getAccountNumber)
+                    .containsExactly(min(from, to), max(from, to));
+        });
+
+        System.out.printf("%n  🔒 statements before money moves: previous path %d → pair lock %d%n%n", before[0], after[0]);
+        assertThat(before[0]).isGreaterThanOrEqualTo(4);
+        assertThat(after[0]).isEqualTo(2);
+        assertThat(after[1]).as("no lazy owner loads").isZero();
+    }
+
+    @Test
+    void lockingTransferUsesPairLockOnly() {
+        statistics.clear();
+        transactionService.transfer(new TransactionRequest(
+                from.getAccountNumber(), to.getAccountNumber(), new BigDecimal("10.00"), "1234",
+                "count", null, "TRANSFER", null, null, null), owner.getUsername());
+
+        long pairLocks = statistics.getQueryStatistics(
+                "SELECT a FROM Account a JOIN FETCH a.user u WHERE a.accountNumber IN (:first, :second) ORDER BY a.accountNumber")
+                .getExecutionCount();
+        long singleLocks = statistics.getQueryStatistics(
+                "SELECT a FROM Account a WHERE a.accountNumber = :accountNumber").getExecutionCount();
+
+        assertThat(pairLocks).isEqualTo(1);
+        assertThat(singleLocks).as("no per-account FOR UPDATE reads").isZero();
+        assertThat(accountRepository.findByAccountNumber(to.getAccountNumber()).orElseThrow().getBalance())
+                .isEqualByComparingTo("10.00");
+    }
+
+    private static String min(Account a, Account b) {
+        return a.getAccountNumber().compareTo(b.getAccountNumber()) < 0 ? a.getAccountNumber() : b.getAccountNumber();
+    }
+
+    private static String max(Account a, Account b) {
+        return a.getAccountNumber().compareTo(b.getAccountNumber()) < 0 ? b.getAccountNumber() : a.getAccountNumber();
+    }
+
+    private User user(String prefix) {
+        return User.builder()
+                .username(prefix + "-" + UUID.randomUUID())
+                .password("n/a")
+                .pin(pinHash)
+                .role("ROLE_USER")
+                .build();
+    }
+
+    private Account account(User owner, BigDecimal balance) {
+        return Account.builder()
+                .accountNumber(String.valueOf(1_000_000_000L + Math.abs(UUID.randomUUID().getMostSignificantBits() % 8_999_999_999L)))
+                .accountType(AccountType.CHECKING)
+                .currency(Currency.USD)
+                .balance(balance)
+                .status(AccountStatus.ACTIVE)
+                .user(owner)
+                .build();
+    }
+}
@@ -0,0 +1,258 @@
+package com.titan.titancorebanking.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.repository.TransactionRepository;
+import com.titan.titancorebanking.service.IdempotencyService;
+import com.titan.titancorebanking.service.IdempotencyServiceTest.FakeRedis;
+import com.titan.titancorebanking.service.RecentIdempotencyKeysTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyInterceptorTest {
+
+    private final FakeRedis redis = new FakeRedis();
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyService service;
+
+    private IdempotencyInterceptor interceptor(long waitMs) {
+        service = new IdempotencyService(mock(TransactionRepository.class), redis,
+                RecentIdempotencyKeysTest.filter(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "waitMs", waitMs);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return new IdempotencyInterceptor(service);
+    }
+
+    /** A controller that takes a while and answers with a body that differs per execution. */
+    private FilterChain transfer(long millis, int status) {
+        return (request, response) -> {
+            int n = executions.incrementAndGet();
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            var http = (jakarta.servlet.http.HttpServletResponse) response;
+            http.setStatus(status);
+            http.setContentType("application/json");
+            http.getOutputStream().write(("{\"id\":" + n + ",\"note\":\"Transfer ✓ 💸\"}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static MockHttpServletRequest post(String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/transactions/transfer");
+        request.addHeader("Idempotency-Key", key);
+        return request;
+    }
+
+    @Test
+    void bodyKeyedWithdrawRetriesAreAnsweredFromRedis() throws Exception {
+        IdempotencyInterceptor interceptor = interceptor(100);
+        byte[] json = "{\"fromAccountNumber\":\"111\",\"amount\":50,\"meta\":{\"idempotencyKey\":\"nested\"},\"idempotencyKey\":\"w-1\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        FilterChain controller = (request, response) -> {
+            // The controller still reads the full body after the filter looked at it
+            assertArrayEquals(json, request.getInputStream().readAllBytes());
+            transfer(0, 200).doFilter(request, response);
+        };
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.doFilter(withdraw(json), first, controller);
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        long roundTrips = redis.roundTrips.get();
+        interceptor.doFilter(withdraw(json), retry, controller);
+
+        assertEquals(1, executions.get());
+        assertEquals(1, redis.roundTrips.get() - roundTrips);
+        assertEquals("true", retry.getHeader(IdempotencyInterceptor.REPLAYED_HEADER));
+        assertArrayEquals(first.getContentAsByteArray(), retry.getContentAsByteArray());
+        assertTrue(redis.values.keySet().iterator().next().endsWith("/api/v1/transactions/withdraw:w-1"));
+    }
+
+    @Test
+    void serviceClaimUnderTheFilterClaimTakesNoSecondKey() throws Exception {
+        IdempotencyInterceptor interceptor = interceptor(100);
+        byte[] json = "{\"fromAccountNumber\":\"111\",\"amount\":50,\"idempotencyKey\":\"w-2\"}".getBytes(StandardCharsets.UTF_8);
+        FilterChain controller = (request, response) -> {
+            IdempotencyService.Claim claim = service.claimTransaction("w-2", "/api/v1/transactions/withdraw");
+            assertEquals(IdempotencyService.State.NONE, claim.state());
+            transfer(0, 200).doFilter(request, response);
+        };
+
+        interceptor.doFilter(withdraw(json), new MockHttpServletResponse(), controller);
+
+        assertEquals(1, redis.values.size());
+        assertTrue(redis.values.keySet().iterator().next().startsWith("idempotency:http:"));
+        // Outside a filtered request the service claims on its own
+        assertEquals(IdempotencyService.State.CLAIMED, service.claimTransaction("w-3", "/api/v1/transactions/withdraw").state());
+    }
+
+    @Test
+    void cachedBodySupportsNonBlockingReads() throws Exception {
+        IdempotencyInterceptor interceptor = interceptor(100);
+        byte[] json = "{\"amount\":50,\"idempotencyKey\":\"w-4\"}".getBytes(StandardCharsets.UTF_8);
+        List<String> events = new ArrayList<>();
+        FilterChain controller = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws java.io.IOException {
+                    events.add("available:" + in.readAllBytes().length);
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+            transfer(0, 200).doFilter(request, response);
+        };
+
+        interceptor.doFilter(withdraw(json), new MockHttpServletResponse(), controller);
+
+        assertEquals(List.of("available:" + json.length, "done"), events);
+    }
+
+    private static MockHttpServletRequest withdraw(byte[] json) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/transactions/withdraw");
+        request.setContentType("application/json");
+        request.setContent(json);
+        return request;
+    }
+
+    @Test
+    void storedFormIsCompactAndRoundTrips() throws Exception {
+        String body = "{\"id\":1042,\"transactionType\":\"TRANSFER\",\"amount\":250.00,\"fromAccountNumber\":\"100200300\","
+                + "\"toAccountNumber\":\"400500600\",\"status\":\"SUCCESS\",\"note\":\"Rent ✓ October\","
+                + "\"timestamp\":\"2026-10-18T10:15:30\",\"currency\":\"USD\",\"fee\":0,"
+                + "\"transactionReference\":\"TXN-20261018-7F3A9C2B\"}";
+        var response = new IdempotencyInterceptor.CachedResponse(200, "application/json", body.getBytes(StandardCharsets.UTF_8));
+
+        byte[] encoded = response.encode();
+        var decoded = IdempotencyInterceptor.CachedResponse.decode(encoded);
+        int jsonOfJson = new ObjectMapper().writeValueAsBytes(response).length;
+
+        assertEquals(200, decoded.status());
+        assertEquals("application/json", decoded.contentType());
+        assertArrayEquals(response.body(), decoded.body());
+        assertTrue(encoded.length < response.body().length + 32);
+        assertTrue(encoded.length < jsonOfJson);
+
+        // A large, repetitive body is deflated
+        byte[] history = ("[" + (body + ",").repeat(50) + body + "]").getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = new IdempotencyInterceptor.CachedResponse(200, "application/json", history).encode();
+        assertTrue(compressed.length < history.length / 4, "compressed to " + compressed.length);
+        assertArrayEquals(history, IdempotencyInterceptor.CachedResponse.decode(compressed).body());
+    }
+
+    @Test
+    void oversizedResponsesStreamButAreNotStored() throws Exception {
+        IdempotencyInterceptor interceptor = interceptor(100);
+        ReflectionTestUtils.setField(interceptor, "maxResponseBytes", 16);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.doFilter(post("k1"), response, transfer(0, 200));
+
+        assertTrue(response.getContentAsByteArray().length > 16);
+        assertTrue(redis.values.isEmpty());
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() throws Exception {
+        IdempotencyInterceptor interceptor = interceptor(100);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.doFilter(post("k1"), first, transfer(0, 400));
+        assertEquals(400, first.getStatus());
+        assertTrue(redis.values.isEmpty());
+
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        interceptor.doFilter(post("k1"), retry, transfer(0, 200));
+        assertEquals(200, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyInterceptor.REPLAYED_HEADER));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void slowFirstRequestGivesConflictToImpatientDuplicates() throws Exception {
+        IdempotencyInterceptor interceptor = interceptor(20);
+        CountDownLatch started = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            transfer(300, 200).doFilter(request, response);
+        };
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = pool.submit(() -> {
+                interceptor.doFilter(post("k1"), new MockHttpServletResponse(), slow);
+                return null;
+            });
+            started.await();
+            MockHttpServletResponse duplicate = new MockHttpServletResponse();
+            interceptor.doFilter(post("k1"), duplicate, transfer(0, 200));
+
+            assertEquals(409, duplicate.getStatus());
+            assertEquals("1", duplicate.getHeader("Retry-After"));
+            first.get();
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentDuplicatesExecuteOnceAndReplayByteForByte() throws Exception {
+        IdempotencyInterceptor interceptor = interceptor(2_000);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    go.await();
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    interceptor.doFilter(post("storm"), response, transfer(50, 201));
+                    return response;
+                }));
+            }
+            go.countDown();
+            List<MockHttpServletResponse> all = new ArrayList<>();
+            for (Future<MockHttpServletResponse> f : futures) {
+                all.add(f.get());
+            }
+
+            assertEquals(1, executions.get(), "the transfer must run exactly once");
+            MockHttpServletResponse original = all.stream()
+                    .filter(r -> r.getHeader(IdempotencyInterceptor.REPLAYED_HEADER) == null).findFirst().orElseThrow();
+            for (MockHttpServletResponse r : all) {
+                assertEquals(201, r.getStatus());
+                assertEquals("application/json", r.getContentType());
+                assertArrayEquals(original.getContentAsByteArray(), r.getContentAsByteArray());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
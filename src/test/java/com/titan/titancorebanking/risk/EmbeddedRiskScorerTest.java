@@ -0,0 +1,98 @@
+package com.titan.titancorebanking.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.riskengine.RiskCheckResponse;
+import com.titan.titancorebanking.enums.UserTier;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedRiskScorerTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmbeddedRiskScorer scorer(String location) {
+        VelocityFeatureStore velocity = new VelocityFeatureStore(null, meterRegistry);
+        ReflectionTestUtils.setField(velocity, "redisEnabled", false);
+        velocity.init();
+        EmbeddedRiskScorer scorer = new EmbeddedRiskScorer(new ObjectMapper(), new DefaultResourceLoader(),
+                velocity, meterRegistry);
+        ReflectionTestUtils.setField(scorer, "modelLocation", location);
+        scorer.init();
+        return scorer;
+    }
+
+    private static Account account(LocalDateTime createdAt) {
+        User owner = User.builder().id(7L).username("alice").tier(UserTier.STANDARD).build();
+        return Account.builder().accountNumber("111").user(owner).createdAt(createdAt).build();
+    }
+
+    private static RiskCheckResponse remote(String action) {
+        return RiskCheckResponse.newBuilder().setAction(action).setRiskScore(50).setRiskLevel("MEDIUM").build();
+    }
+
+    @Test
+    void withoutRemoteAnswerTheModelDecides() {
+        EmbeddedRiskScorer scorer = scorer("classpath:risk/fallback-model.json");
+
+        RiskCheckResponse newAccount = scorer.decide(null, account(LocalDateTime.now().minusDays(1)), new BigDecimal("60000"));
+        RiskCheckResponse oldAccount = scorer.decide(null, account(LocalDateTime.now().minusYears(2)), new BigDecimal("50"));
+
+        assertEquals("BLOCK", newAccount.getAction());
+        assertEquals("ALLOW", oldAccount.getAction());
+        assertEquals(1.0, meterRegistry.get("titan.risk.fallback.scored").tag("action", "BLOCK").counter().count());
+    }
+
+    @Test
+    void shadowModeReturnsRemoteAnswerAndCountsAgreement() {
+        EmbeddedRiskScorer scorer = scorer("classpath:risk/fallback-model.json");
+        Account account = account(LocalDateTime.now().minusYears(2));
+
+        assertEquals("ALLOW", scorer.decide(remote("ALLOW"), account, new BigDecimal("50")).getAction());
+        assertEquals("BLOCK", scorer.decide(remote("BLOCK"), account, new BigDecimal("50")).getAction());
+
+        assertEquals(1.0, meterRegistry.get("titan.risk.shadow").tag("agree", "true").counter().count());
+        assertEquals(1.0, meterRegistry.get("titan.risk.shadow").tag("agree", "false").counter().count());
+    }
+
+    @Test
+    void fileModelIsHotSwappedAndBrokenFilesAreRejected() throws Exception {
+        Path file = dir.resolve("model.json");
+        Files.writeString(file, model("v1", 5.0));
+        EmbeddedRiskScorer scorer = scorer("file:" + file);
+        Account account = account(LocalDateTime.now().minusYears(2));
+        assertEquals("BLOCK", scorer.decide(null, account, BigDecimal.ONE).getAction());
+
+        Files.writeString(file, model("v2", -5.0));
+        Files.setLastModifiedTime(file, java.nio.file.attribute.FileTime.fromMillis(System.currentTimeMillis() + 2_000));
+        scorer.reloadIfChanged();
+        assertEquals("v2", scorer.modelVersion());
+        assertEquals("ALLOW", scorer.decide(null, account, BigDecimal.ONE).getAction());
+
+        Files.writeString(file, "{ \"trees\": [");
+        Files.setLastModifiedTime(file, java.nio.file.attribute.FileTime.fromMillis(System.currentTimeMillis() + 4_000));
+        scorer.reloadIfChanged();
+        assertEquals("v2", scorer.modelVersion());
+        assertEquals(1.0, meterRegistry.get("titan.risk.fallback.model.reloads").tag("result", "rejected").counter().count());
+    }
+
+    private static String model(String version, double leaf) {
+        return """
+                { "version": "%s", "trees": [ { "nodes": [ { "leaf": %s } ] } ] }
+                """.formatted(version, leaf);
+    }
+}
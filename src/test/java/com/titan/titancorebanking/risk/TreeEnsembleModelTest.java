@@ -0,0 +1,71 @@
+package com.titan.titancorebanking.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeEnsembleModelTest {
+
+    private TreeEnsembleModel model;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/risk/fallback-model.json")) {
+            model = TreeEnsembleModel.parse(in, new ObjectMapper());
+        }
+    }
+
+    private static double[] features(double amount, double velocity, double ageDays, int tier) {
+        double[] x = new double[RiskFeatures.COUNT];
+        x[RiskFeatures.AMOUNT] = amount;
+        x[RiskFeatures.VELOCITY_1H] = velocity;
+        x[RiskFeatures.ACCOUNT_AGE_DAYS] = ageDays;
+        x[RiskFeatures.TIER] = tier;
+        return x;
+    }
+
+    @Test
+    void bundledModelScoresTheExpectedActions() {
+        assertEquals("ALLOW", action(features(50, 1, 400, 0)));
+        // big amount from a week-old-plus account: elevated but allowed
+        assertEquals("ALLOW", action(features(60_000, 1, 400, 0)));
+        // burst of mid-size transfers
+        assertEquals("MANUAL_REVIEW", action(features(20_000, 25, 400, 0)));
+        // big amount from a brand-new account
+        assertEquals("BLOCK", action(features(60_000, 1, 2, 0)));
+        // same score path, lower for VIP
+        assertTrue(model.score(features(5_000, 10, 30, 3)) < model.score(features(5_000, 10, 30, 0)));
+    }
+
+    private String action(double[] x) {
+        return model.response(model.score(x)).getAction();
+    }
+
+    @Test
+    void rejectsTreesThatCouldLoop() {
+        String json = """
+                { "trees": [ { "nodes": [
+                  { "feature": "amount", "threshold": 10, "left": 0, "right": 1 },
+                  { "leaf": 1.0 } ] } ] }
+                """;
+        assertThrows(IllegalArgumentException.class, () -> TreeEnsembleModel.parse(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), new ObjectMapper()));
+    }
+
+    @Test
+    void rejectsUnknownFeatures() {
+        String json = """
+                { "trees": [ { "nodes": [
+                  { "feature": "shoe_size", "threshold": 10, "left": 1, "right": 2 },
+                  { "leaf": 1.0 }, { "leaf": 2.0 } ] } ] }
+                """;
+        assertThrows(IllegalArgumentException.class, () -> TreeEnsembleModel.parse(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), new ObjectMapper()));
+    }
+}
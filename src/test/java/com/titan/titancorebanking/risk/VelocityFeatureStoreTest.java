@@ -0,0 +1,88 @@
+package com.titan.titancorebanking.risk;
+
+import com.titan.riskengine.RiskCheckRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityFeatureStoreTest {
+
+    private static final long T0 = 1_760_000_000_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private VelocityFeatureStore store() {
+        VelocityFeatureStore store = new VelocityFeatureStore(null, meterRegistry);
+        ReflectionTestUtils.setField(store, "redisEnabled", false);
+        store.init();
+        return store;
+    }
+
+    @Test
+    void windowsSlide() {
+        VelocityFeatureStore store = store();
+        store.record(1L, 7L, "111", "222", new BigDecimal("10.00"), "10.0.0.1", T0);
+        store.record(2L, 7L, "111", "333", new BigDecimal("5.50"), "10.0.0.1", T0 + 30_000);
+
+        assertEquals(2, store.userCount(7L, VelocityFeatureStore.Windows.MINUTE, T0 + 30_000));
+        assertEquals(1550, store.userSumCents(7L, VelocityFeatureStore.Windows.MINUTE, T0 + 30_000));
+        assertEquals(2, store.userDistinctCounterparties(7L, T0 + 30_000));
+
+        // Two minutes later only the hour and day windows still hold them
+        long later = T0 + 150_000;
+        assertEquals(0, store.userCount(7L, VelocityFeatureStore.Windows.MINUTE, later));
+        assertEquals(2, store.userCount(7L, VelocityFeatureStore.Windows.HOUR, later));
+        // Two hours later only the day window
+        assertEquals(0, store.userCount(7L, VelocityFeatureStore.Windows.HOUR, T0 + 7_300_000));
+        assertEquals(2, store.userCount(7L, VelocityFeatureStore.Windows.DAY, T0 + 7_300_000));
+        assertEquals(0, store.userCount(7L, VelocityFeatureStore.Windows.DAY, T0 + 90_000_000));
+    }
+
+    @Test
+    void transferAndItsOutboxEventCountOnce() {
+        VelocityFeatureStore store = store();
+        assertTrue(store.record(42L, 7L, "111", "222", BigDecimal.TEN, null, T0));
+        assertFalse(store.record(42L, 7L, "111", "222", BigDecimal.TEN, null, T0 + 2_000));
+
+        assertEquals(1, store.userCount(7L, VelocityFeatureStore.Windows.HOUR, T0 + 2_000));
+        assertEquals(1.0, meterRegistry.get("titan.velocity.updates").tag("source", "duplicate").counter().count());
+    }
+
+    @Test
+    void featuresGoIntoTheRiskRequest() {
+        VelocityFeatureStore store = store();
+        long now = System.currentTimeMillis();
+        store.record(1L, 7L, "111", "222", new BigDecimal("100.00"), "10.0.0.9", now);
+
+        RiskCheckRequest request = store.applyTo(RiskCheckRequest.newBuilder().setUserId("7"), 7L, "111").build();
+
+        assertEquals("111", request.getAccountNumber());
+        assertEquals(1, request.getUserCount1H());
+        assertEquals(100.0, request.getUserSum24H());
+        assertEquals(1, request.getAccountCount1H());
+        assertEquals(1, request.getUserDistinctCounterparties24H());
+        assertEquals("10.0.0.9", request.getLastIp());
+    }
+
+    @Test
+    void snapshotRoundTrips() {
+        VelocityFeatureStore.Windows w = new VelocityFeatureStore.Windows();
+        int now = VelocityFeatureStore.seconds(T0);
+        w.add(now, 1_000, 11L, "10.0.0.1");
+        w.add(now + 70, 250, 12L, "10.0.0.2");
+
+        byte[] encoded = w.encode();
+        VelocityFeatureStore.Windows copy = VelocityFeatureStore.Windows.decode(encoded);
+
+        for (int window = 0; window < 3; window++) {
+            assertEquals(w.count(window, now + 70), copy.count(window, now + 70));
+            assertEquals(w.sumCents(window, now + 70), copy.sumCents(window, now + 70));
+        }
+        assertEquals(2, copy.distinctCounterparties(now + 70));
+        assertTrue(encoded.length < 200);
+    }
+}
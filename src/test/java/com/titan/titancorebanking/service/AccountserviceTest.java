@@ -1,6 +1,9 @@
 package com.titan.titancorebanking.service;
 
+import com.titan.titancorebanking.engine.PartitionedTransferEngine;
+import com.titan.titancorebanking.enums.AccountStatus;
 import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.repository.AccountLiveState;
 import com.titan.titancorebanking.repository.AccountRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,15 +11,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AccountServiceTest {
 
     @Mock private AccountRepository accountRepository;
+    @Mock private CacheService cacheService;
+    @Mock private PartitionedTransferEngine partitionedTransferEngine;
 
     @InjectMocks
     private AccountService accountService;
@@ -33,4 +41,25 @@ class AccountServiceTest {
         assertTrue(found.isPresent());
         assertEquals("123", found.get().getAccountNumber());
     }
+
+    @Test
+    void myAccountsReportTheSameBalanceAsTheBalanceEndpoint() {
+        Account cached = Account.builder().id(7L).accountNumber("123").balance(new BigDecimal("10.00"))
+                .status(AccountStatus.ACTIVE).build();
+        when(cacheService.getUserAccounts("alice")).thenReturn(List.of(cached));
+        when(accountRepository.findLiveStateByIdIn(List.of(7L)))
+                .thenReturn(List.of(new AccountLiveState(7L, new BigDecimal("50.00"), AccountStatus.SUSPENDED, 3L, 4)));
+        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(cached));
+        // Settled 50 + stripe credits, as the engine / striped balance service sees it
+        when(partitionedTransferEngine.effectiveBalance(any())).thenReturn(new BigDecimal("65.00"));
+
+        Account listed = accountService.getMyAccounts("alice").get(0);
+
+        assertEquals(new BigDecimal("65.00"), listed.getBalance());
+        assertEquals(accountService.getBalance("123"), listed.getBalance());
+        assertEquals(AccountStatus.SUSPENDED, listed.getStatus());
+        assertEquals(3L, listed.getVersion());
+        assertTrue(listed.isStriped());
+        assertEquals(new BigDecimal("10.00"), cached.getBalance(), "the cached copy is not modified");
+    }
 }
@@ -0,0 +1,149 @@
+package com.titan.titancorebanking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.enums.AuditAction;
+import com.titan.titancorebanking.enums.AuditOverflowPolicy;
+import com.titan.titancorebanking.enums.EmployeeRole;
+import com.titan.titancorebanking.model.AuditLog;
+import com.titan.titancorebanking.repository.AuditLogJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AuditLogWriterTest {
+
+    @TempDir
+    Path spillDir;
+
+    private AuditLogJdbcRepository jdbcRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<String> inserted = new CopyOnWriteArrayList<>();
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcRepository = mock(AuditLogJdbcRepository.class);
+        doAnswer(inv -> {
+            List<AuditLog> rows = inv.getArgument(0);
+            rows.forEach(e -> inserted.add(e.getUsername()));
+            return null;
+        }).when(jdbcRepository).insertAll(anyList());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    private AuditLogWriter newWriter(int capacity, AuditOverflowPolicy policy) throws Exception {
+        AuditLogWriter w = new AuditLogWriter(jdbcRepository, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        ReflectionTestUtils.setField(w, "bufferCapacity", capacity);
+        ReflectionTestUtils.setField(w, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(w, "blockTimeoutMs", 1L);
+        ReflectionTestUtils.setField(w, "spillDir", spillDir.toString());
+        w.open();
+        return w;
+    }
+
+    private AuditLog entry(String username, String status) {
+        return AuditLog.builder()
+                .username(username)
+                .action(AuditAction.TRANSFER)
+                .employeeRole(EmployeeRole.SYSTEM)
+                .ipAddress("127.0.0.1")
+                .status(status)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void ringBufferLosesNothingUnderConcurrentProducers() throws Exception {
+        AuditLogWriter.RingBuffer<Integer> ring = new AuditLogWriter.RingBuffer<>(1000);
+        assertEquals(1024, ring.capacity());
+
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            pool.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        while (seen.size() < producers * perProducer) {
+            Integer v = ring.poll();
+            if (v != null) {
+                assertTrue(seen.add(v), "duplicate " + v);
+            }
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNull(ring.poll());
+        pool.shutdown();
+    }
+
+    @Test
+    void spillPolicyKeepsOverflowOnDiskUntilTheBufferDrains() throws Exception {
+        writer = newWriter(4, AuditOverflowPolicy.SPILL);
+        for (int i = 0; i < 10; i++) {
+            writer.submit(entry("user-" + i, "SUCCESS"));
+        }
+        assertEquals(6, Files.readAllLines(spillDir.resolve("audit-log.spill")).size());
+        assertEquals(6.0, meterRegistry.get("titan.audit.log.delayed").tag("reason", "spilled").counter().count());
+
+        writer.start();
+        writer.stop();
+        writer = null;
+
+        assertEquals(10, inserted.size());
+        assertEquals(List.of("user-0", "user-1", "user-2", "user-3"), inserted.subList(0, 4));
+        assertFalse(Files.exists(spillDir.resolve("audit-log.spill")));
+        assertFalse(Files.exists(spillDir.resolve("audit-log.spill.draining")));
+    }
+
+    @Test
+    void samplePolicyKeepsFailuresAndOneInNSuccesses() throws Exception {
+        writer = newWriter(4, AuditOverflowPolicy.SAMPLE);
+        for (int i = 0; i < 4; i++) {
+            writer.submit(entry("fill-" + i, "SUCCESS"));
+        }
+        for (int i = 0; i < 20; i++) {
+            writer.submit(entry("overflow-" + i, "SUCCESS"));
+        }
+        writer.submit(entry("failed", "FAILURE"));
+
+        // Writer not started: kept entries wait block-timeout-ms, then count as timeouts
+        assertEquals(18.0, meterRegistry.get("titan.audit.log.dropped").tag("reason", "sampled").counter().count());
+        assertEquals(3.0, meterRegistry.get("titan.audit.log.delayed").tag("reason", "blocked").counter().count());
+        assertEquals(3.0, meterRegistry.get("titan.audit.log.dropped").tag("reason", "timeout").counter().count());
+    }
+}
@@ -0,0 +1,204 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.enums.AccountType;
+import com.titan.titancorebanking.enums.Currency;
+import com.titan.titancorebanking.enums.UserTier;
+import com.titan.titancorebanking.exception.DailyLimitExceededException;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.User;
+import com.titan.titancorebanking.repository.DailyOutflowJdbcRepository;
+import com.titan.titancorebanking.repository.DailyOutflowJdbcRepository.DailyOutflow;
+import com.titan.titancorebanking.service.imple.ExchangeRateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DailyLimitServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FakeRedis redis = new FakeRedis();
+    private final DailyOutflowJdbcRepository outflows = mock(DailyOutflowJdbcRepository.class);
+    private DailyLimitService service;
+
+    /** Runs the three limit scripts against a map, or fails like an unreachable server. */
+    static class FakeRedis extends StringRedisTemplate {
+        final Map<String, Long> values = new HashMap<>();
+        boolean down;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            if (down) {
+                throw new RedisConnectionFailureException("connection refused");
+            }
+            String source = script.getScriptAsString();
+            long amount = Long.parseLong((String) args[0]);
+            if (source.contains("DECRBY")) {
+                long user = values.merge(keys.get(0), amount, Long::sum);
+                long account = values.merge(keys.get(1), amount, Long::sum);
+                if (user > Long.parseLong((String) args[1]) || account > Long.parseLong((String) args[2])) {
+                    values.merge(keys.get(0), -amount, Long::sum);
+                    values.merge(keys.get(1), -amount, Long::sum);
+                    return (T) List.of(0L, user - amount, account - amount);
+                }
+                return (T) List.of(1L, user, account);
+            }
+            if (source.contains("ipairs")) {
+                keys.forEach(key -> values.merge(key, amount, (a, b) -> Math.max(0, a + b)));
+                return (T) Long.valueOf(1);
+            }
+            return (T) values.merge(keys.get(0), amount, Math::max);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new DailyLimitService(redis, outflows, new ExchangeRateService(), meterRegistry);
+        service.init();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static User user(UserTier tier) {
+        return User.builder().id(7L).username("alice").tier(tier).build();
+    }
+
+    private static Account account(String number, AccountType type, Currency currency) {
+        return Account.builder().accountNumber(number).accountType(type).currency(currency).build();
+    }
+
+    private String key(String kind, Object id) {
+        return service.key(LocalDate.now(ZoneId.of("UTC")), kind, id);
+    }
+
+    @Test
+    void perTransactionLimitRejectsWithoutReserving() {
+        DailyLimitExceededException e = assertThrows(DailyLimitExceededException.class, () ->
+                service.reserve(user(UserTier.STANDARD), account("111", AccountType.CHECKING, Currency.USD),
+                        new BigDecimal("15000.01")));
+
+        assertTrue(e.getMessage().contains("15000.00"));
+        assertTrue(redis.values.isEmpty());
+        assertEquals(1.0, meterRegistry.get("titan.limits.check").tag("result", "per_transaction").counter().count());
+    }
+
+    @Test
+    void dailyTotalsSpanTheUsersAccountsAndConvertToUsd() {
+        User alice = user(UserTier.STANDARD);
+        service.reserve(alice, account("111", AccountType.CHECKING, Currency.USD), new BigDecimal("10000"));
+        // 9,200 EUR = 10,000 USD
+        service.reserve(alice, account("222", AccountType.CHECKING, Currency.EUR), new BigDecimal("9200"));
+
+        DailyLimitExceededException e = assertThrows(DailyLimitExceededException.class, () ->
+                service.reserve(alice, account("333", AccountType.CHECKING, Currency.USD), new BigDecimal("5000.01")));
+
+        assertTrue(e.getMessage().contains("5000.00 USD left"), e.getMessage());
+        assertEquals(2_000_000L, redis.values.get(key("user:", 7L)));
+        assertEquals(0L, redis.values.get(key("account:", "333")));
+        assertEquals(1.0, meterRegistry.get("titan.limits.check").tag("result", "daily_user").counter().count());
+    }
+
+    @Test
+    void accountTypeCapAppliesPerAccount() {
+        User vip = user(UserTier.VIP);
+        Account savings = account("111", AccountType.SAVINGS, Currency.USD);
+        service.reserve(vip, savings, new BigDecimal("20000"));
+
+        assertThrows(DailyLimitExceededException.class, () -> service.reserve(vip, savings, BigDecimal.ONE));
+        // Other accounts of the same user are not affected
+        service.reserve(vip, account("222", AccountType.CHECKING, Currency.USD), new BigDecimal("20000"));
+        assertEquals(1.0, meterRegistry.get("titan.limits.check").tag("result", "daily_account").counter().count());
+    }
+
+    @Test
+    void rollbackAndBlockReleaseTheReservation() {
+        User alice = user(UserTier.STANDARD);
+        Account checking = account("111", AccountType.CHECKING, Currency.USD);
+
+        service.reserve(alice, checking, new BigDecimal("100"));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(0L, redis.values.get(key("user:", 7L)));
+
+        DailyLimitService.LimitReservation blocked = service.reserve(alice, checking, new BigDecimal("100"));
+        blocked.release();
+        // Blocked transfers commit; the synchronization must not release a second time
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(0L, redis.values.get(key("user:", 7L)));
+    }
+
+    @Test
+    void partialReleaseGivesBackOnlyWhatIsStillHeld() {
+        User alice = user(UserTier.STANDARD);
+        Account checking = account("111", AccountType.CHECKING, Currency.USD);
+
+        DailyLimitService.LimitReservation batch = service.reserve(alice, checking, new BigDecimal("300"), new BigDecimal("100"));
+        batch.release(new BigDecimal("100")); // one failed item
+        assertEquals(20_000L, redis.values.get(key("user:", 7L)));
+
+        // A rollback afterwards releases the rest, not the full batch again
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(0L, redis.values.get(key("user:", 7L)));
+        batch.release(new BigDecimal("100"));
+        assertEquals(0L, redis.values.get(key("user:", 7L)));
+    }
+
+    @Test
+    void redisOutageFallsBackToLocalCountersAndSyncsLater() {
+        User alice = user(UserTier.STANDARD);
+        Account checking = account("111", AccountType.CHECKING, Currency.USD);
+        service.reserve(alice, checking, new BigDecimal("15000"));
+        service.reserve(alice, checking, new BigDecimal("5000"));
+
+        redis.down = true;
+        service.reserve(alice, checking, new BigDecimal("4000"));
+        assertThrows(DailyLimitExceededException.class, () -> service.reserve(alice, checking, new BigDecimal("1001")));
+        assertEquals(2_400_000L, service.localTotal(key("user:", 7L)));
+
+        redis.down = false;
+        service.syncAndEvict();
+        assertEquals(2_400_000L, redis.values.get(key("user:", 7L)));
+        assertEquals(2_400_000L, redis.values.get(key("account:", "111")));
+        assertTrue(meterRegistry.get("titan.limits.degraded").counter().count() >= 2);
+    }
+
+    @Test
+    void startupReconcileSeedsTodaysTotals() {
+        when(outflows.outflowsSince(any())).thenReturn(List.of(
+                new DailyOutflow("111", 7L, Currency.USD, new BigDecimal("24000.00")),
+                new DailyOutflow("222", 7L, Currency.EUR, new BigDecimal("460.00"))));
+        redis.values.put(key("account:", "111"), 2_500_000L); // another instance already counted more
+
+        service.reconcile();
+
+        assertEquals(2_450_000L, redis.values.get(key("user:", 7L)));
+        assertEquals(2_500_000L, redis.values.get(key("account:", "111")));
+        assertThrows(DailyLimitExceededException.class, () ->
+                service.reserve(user(UserTier.STANDARD), account("333", AccountType.CHECKING, Currency.USD),
+                        new BigDecimal("500.01")));
+    }
+}
@@ -0,0 +1,114 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.enums.HashingLane;
+import com.titan.titancorebanking.exception.HashingOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashingServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch blockerRunning = new CountDownLatch(1);
+    private final List<String> order = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private HashingService hashingService;
+
+    // "block" parks the single worker until released; every other call records its raw value
+    private final PasswordEncoder recordingEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence raw) {
+            return raw.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String encoded) {
+            if ("block".contentEquals(raw)) {
+                blockerRunning.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                order.add(raw.toString());
+            }
+            return true;
+        }
+    };
+
+    private void startWith(int loginCapacity) {
+        hashingService = new HashingService(recordingEncoder, meterRegistry);
+        ReflectionTestUtils.setField(hashingService, "threads", 1);
+        ReflectionTestUtils.setField(hashingService, "loginCapacity", loginCapacity);
+        hashingService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        hashingService.stop();
+    }
+
+    private void awaitQueued(HashingLane lane, int depth) throws InterruptedException {
+        String tag = lane.name().toLowerCase();
+        for (int i = 0; i < 200; i++) {
+            if (meterRegistry.get("titan.hashing.queue.depth").tag("lane", tag).gauge().value() >= depth) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("lane " + lane + " never reached depth " + depth);
+    }
+
+    @Test
+    void pinChecksOvertakeQueuedLogins() throws Exception {
+        startWith(128);
+        callers.submit(() -> hashingService.matches("block", "x", HashingLane.ENCODE));
+        assertTrue(blockerRunning.await(5, TimeUnit.SECONDS));
+
+        // One at a time: two caller threads would otherwise race for the FIFO order
+        callers.submit(() -> hashingService.matches("login-1", "x", HashingLane.LOGIN));
+        awaitQueued(HashingLane.LOGIN, 1);
+        callers.submit(() -> hashingService.matches("login-2", "x", HashingLane.LOGIN));
+        awaitQueued(HashingLane.LOGIN, 2);
+        callers.submit(() -> hashingService.matches("pin-1", "x", HashingLane.PIN));
+        awaitQueued(HashingLane.PIN, 1);
+
+        release.countDown();
+        for (int i = 0; i < 200 && order.size() < 3; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("pin-1", "login-1", "login-2"), order);
+    }
+
+    @Test
+    void fullLaneIsRejectedImmediately() throws Exception {
+        startWith(1);
+        callers.submit(() -> hashingService.matches("block", "x", HashingLane.LOGIN));
+        assertTrue(blockerRunning.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        assertThrows(HashingOverloadedException.class,
+                () -> hashingService.matches("login-2", "x", HashingLane.LOGIN));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+        assertEquals(1.0, meterRegistry.get("titan.hashing.rejected").tag("lane", "login").counter().count());
+
+        // Other lanes still get in
+        release.countDown();
+        assertTrue(hashingService.matches("pin-1", "x", HashingLane.PIN));
+    }
+}
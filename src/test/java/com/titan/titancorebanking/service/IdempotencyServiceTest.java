@@ -0,0 +1,185 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.exception.IdempotencyConflictException;
+import com.titan.titancorebanking.model.Transaction;
+import com.titan.titancorebanking.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+
+    /** Runs the three idempotency scripts against a map, one "round trip" per call; TTLs are ignored. */
+    public static class FakeRedis extends StringRedisTemplate {
+        public final Map<String, String> values = new ConcurrentHashMap<>();
+        public final AtomicLong roundTrips = new AtomicLong();
+        public volatile boolean down;
+        public volatile long latencyNanos;
+
+        @Override
+        public <T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer, RedisSerializer<T> resultSerializer,
+                             List<String> keys, Object... args) {
+            roundTrips.incrementAndGet();
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            if (down) {
+                throw new RedisConnectionFailureException("connection refused");
+            }
+            synchronized (this) {
+                return run(script, keys, args);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T run(RedisScript<T> script, List<String> keys, Object... args) {
+            String source = script.getScriptAsString();
+            String key = keys.get(0);
+            String current = values.get(key);
+            if (source.contains("return false")) { // claim
+                if (current != null) {
+                    return (T) current;
+                }
+                values.put(key, (String) args[0]);
+                return null;
+            }
+            if (source.contains("DEL")) { // release
+                return (T) Long.valueOf(args[0].equals(current) && values.remove(key) != null ? 1 : 0);
+            }
+            if (current != null && !current.equals(args[0])) { // complete
+                return (T) Long.valueOf(0);
+            }
+            values.put(key, (String) args[1]);
+            return (T) Long.valueOf(1);
+        }
+    }
+
+    private final FakeRedis redis = new FakeRedis();
+    private final RecentIdempotencyKeys recentKeys = RecentIdempotencyKeysTest.filter(new SimpleMeterRegistry());
+
+    private IdempotencyService service(long waitMs) {
+        IdempotencyService service = new IdempotencyService(transactionRepository, redis, recentKeys, meterRegistry);
+        ReflectionTestUtils.setField(service, "waitMs", waitMs);
+        service.init();
+        return service;
+    }
+
+    private static Transaction tx(long id) {
+        return Transaction.builder().id(id).build();
+    }
+
+    @Test
+    void firstRequestClaimsAndDuplicatesGetTheTransactionById() {
+        IdempotencyService service = service(100);
+        when(transactionRepository.findById(42L)).thenReturn(Optional.of(tx(42L)));
+
+        IdempotencyService.Claim first = service.claimTransaction("k1", "/api/v1/transactions/transfer");
+        assertEquals(IdempotencyService.State.CLAIMED, first.state());
+        assertTrue(first.previous().isEmpty());
+        first.complete(tx(42L));
+
+        IdempotencyService.Claim duplicate = service.claimTransaction("k1", "/api/v1/transactions/transfer");
+        assertEquals(IdempotencyService.State.COMPLETED, duplicate.state());
+        assertEquals(42L, duplicate.previous().orElseThrow().getId());
+        // One script call each, and a primary-key lookup only for the duplicate
+        assertEquals(3, redis.roundTrips.get());
+        verify(transactionRepository, never()).findByIdempotencyKey(anyString());
+        verify(transactionRepository, times(1)).findById(anyLong());
+    }
+
+    @Test
+    void inFlightDuplicateGetsConflictAfterWaiting() {
+        IdempotencyService service = service(50);
+        service.claimTransaction("k1", "/api/v1/transactions/withdraw");
+
+        long start = System.nanoTime();
+        assertThrows(IdempotencyConflictException.class,
+                () -> service.claimTransaction("k1", "/api/v1/transactions/withdraw"));
+        assertTrue(System.nanoTime() - start >= 30_000_000L);
+        assertEquals(1.0, meterRegistry.get("titan.idempotency.claims").tag("result", "conflict").counter().count());
+    }
+
+    @Test
+    void rollbackReleasesAndCommitCompletes() {
+        IdempotencyService service = service(50);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            IdempotencyService.Claim claim = service.claimTransaction("k1", "/api/v1/transactions/deposit");
+            claim.complete(tx(7L));
+            assertTrue(redis.values.values().iterator().next().startsWith(IdempotencyService.IN_FLIGHT),
+                    "result is only visible after commit");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertTrue(redis.values.isEmpty());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            IdempotencyService.Claim claim = service.claimTransaction("k1", "/api/v1/transactions/deposit");
+            assertEquals(IdempotencyService.State.CLAIMED, claim.state());
+            claim.complete(tx(8L));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            assertEquals(IdempotencyService.COMPLETED + "8", redis.values.values().iterator().next());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void staleOwnerCannotReleaseOrOverwriteAnotherClaim() {
+        IdempotencyService service = service(10);
+        IdempotencyService.Claim stale = service.claim("idempotency:x");
+        // Its claim expired and another request took the key
+        redis.values.put("idempotency:x", IdempotencyService.IN_FLIGHT + "other");
+
+        stale.complete("1");
+        assertEquals(IdempotencyService.IN_FLIGHT + "other", redis.values.get("idempotency:x"));
+        IdempotencyService.Claim stale2 = service(10).claim("idempotency:y");
+        redis.values.put("idempotency:y", IdempotencyService.IN_FLIGHT + "other");
+        stale2.release();
+        assertEquals(IdempotencyService.IN_FLIGHT + "other", redis.values.get("idempotency:y"));
+    }
+
+    @Test
+    void redisOutageFallsBackToTheDatabase() {
+        IdempotencyService service = service(10);
+        redis.down = true;
+        when(transactionRepository.findByIdempotencyKey("k1")).thenReturn(Optional.of(tx(5L)));
+
+        IdempotencyService.Claim claim = service.claimTransaction("k1", "/api/v1/transactions/transfer");
+
+        assertEquals(IdempotencyService.State.UNAVAILABLE, claim.state());
+        assertEquals(5L, claim.previous().orElseThrow().getId());
+
+        // Once the filter is warm, keys it has never seen skip the query
+        ReflectionTestUtils.setField(recentKeys, "warm", true);
+        assertTrue(service.claimTransaction("k2", "/api/v1/transactions/transfer").previous().isEmpty());
+        service.claimTransaction("k1", "/api/v1/transactions/transfer");
+        verify(transactionRepository, never()).findByIdempotencyKey("k2");
+        verify(transactionRepository, times(2)).findByIdempotencyKey("k1");
+    }
+}
@@ -0,0 +1,87 @@
+package com.titan.titancorebanking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticTransferPolicyTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticTransferPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        policy = new OptimisticTransferPolicy(meterRegistry);
+        ReflectionTestUtils.setField(policy, "minSamples", 5);
+        policy.registerMetrics();
+    }
+
+    @Test
+    void untouchedAccountsStayOptimistic() {
+        policy.recordCommit("A", "B");
+        assertTrue(policy.useOptimistic("A", "B"));
+        assertEquals(0.0, policy.conflictRate("A"));
+    }
+
+    @Test
+    void hotAccountFlipsToPessimisticAndBlocksBothDirections() {
+        for (int i = 0; i < 5; i++) {
+            policy.recordConflict("HOT");
+        }
+
+        assertTrue(policy.isPessimistic("HOT"));
+        assertFalse(policy.useOptimistic("HOT", "B"));
+        assertFalse(policy.useOptimistic("A", "HOT"));
+        assertEquals(5.0, meterRegistry.get("titan.transfer.optimistic.conflicts").counter().count());
+        assertEquals(1.0, meterRegistry.get("titan.transfer.optimistic.mode.switches")
+                .tag("mode", "pessimistic").counter().count());
+        assertEquals(1.0, meterRegistry.get("titan.transfer.optimistic.pessimistic.accounts").gauge().value());
+    }
+
+    @Test
+    void occasionalConflictsDoNotFlip() {
+        policy.recordConflict("WARM");
+        for (int i = 0; i < 30; i++) {
+            policy.recordCommit("WARM", "B");
+        }
+        policy.recordConflict("WARM");
+
+        assertFalse(policy.isPessimistic("WARM"));
+        assertTrue(policy.conflictRate("WARM") < 0.2);
+    }
+
+    @Test
+    void pessimisticHoldExpiresAndAccountIsProbedAgain() {
+        ReflectionTestUtils.setField(policy, "pessimisticHold", Duration.ZERO);
+        for (int i = 0; i < 5; i++) {
+            policy.recordConflict("HOT");
+        }
+
+        assertTrue(policy.useOptimistic("HOT", "B"));
+        assertEquals(1.0, meterRegistry.get("titan.transfer.optimistic.mode.switches")
+                .tag("mode", "optimistic").counter().count());
+    }
+
+    @Test
+    void trackingLimitForgetsCalmAccountsAndKeepsMetersUntagged() {
+        ReflectionTestUtils.setField(policy, "maxTrackedAccounts", 10);
+        for (int i = 0; i < 1_000; i++) {
+            String account = "ACC" + i;
+            policy.recordConflict(account);
+            for (int j = 0; j < 50; j++) {
+                policy.recordCommit(account, "X"); // calms it down below half the threshold
+            }
+        }
+
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(policy, "stats")).size() <= 11);
+        assertEquals(1_000.0, meterRegistry.get("titan.transfer.optimistic.conflicts").counter().count());
+        assertEquals(1, meterRegistry.find("titan.transfer.optimistic.conflicts").counters().size());
+    }
+}
@@ -0,0 +1,281 @@
+package com.titan.titancorebanking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.model.OutboxEvent;
+import com.titan.titancorebanking.repository.OutboxJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayServiceTest {
+
+    /** Acks every send at once, except for the aggregate ids it is told to reject. */
+    static class AckingKafka extends KafkaTemplate<String, Object> {
+        final List<String> sentKeys = new ArrayList<>();
+        final Set<String> rejected;
+
+        AckingKafka(Set<String> rejected) {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+            this.rejected = rejected;
+        }
+
+        @Override
+        public synchronized CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object data) {
+            sentKeys.add(key);
+            return rejected.contains(key)
+                    ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                    : CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /** Bytes template that acks at once and keeps what it was given. */
+    static class RecordingBytesKafka extends KafkaTemplate<String, byte[]> {
+        final List<ProducerRecord<String, byte[]>> records = new ArrayList<>();
+
+        RecordingBytesKafka() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        public synchronized CompletableFuture<SendResult<String, byte[]>> send(ProducerRecord<String, byte[]> record) {
+            records.add(record);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private final OutboxJdbcRepository repository = mock(OutboxJdbcRepository.class);
+
+    private OutboxRelayService relay(AckingKafka kafka) {
+        OutboxRelayService relay = new OutboxRelayService(repository, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "kafkaTemplate", kafka);
+        ReflectionTestUtils.setField(relay, "enabled", false); // no worker threads: batches are driven by the test
+        ReflectionTestUtils.invokeMethod(relay, "start");
+        when(repository.claimLane(any(), any(), anyInt(), anyLong(), anyLong())).thenReturn(0);
+        return relay;
+    }
+
+    private static List<OutboxEvent> events(long from, long to) {
+        return LongStream.rangeClosed(from, to).mapToObj(id -> OutboxEvent.builder()
+                .id(id)
+                .aggregateId("TX" + id)
+                .aggregateType("TRANSACTION")
+                .eventType("TransactionCompleted")
+                .payload("{\"transactionId\":" + id + "}")
+                .createdAt(Instant.now())
+                .build()).toList();
+    }
+
+    @Test
+    void wholeBatchIsMarkedPublishedInOneUpdate() {
+        AckingKafka kafka = new AckingKafka(Set.of());
+        when(repository.claim(eq("n-0"), eq(0), any(), anyInt(), anyLong(), anyLong(), eq(50))).thenReturn(events(1, 50));
+        OutboxRelayService relay = relay(kafka);
+
+        assertEquals(50, relay.relayBatch("n-0", 50));
+
+        assertEquals(50, kafka.sentKeys.size());
+        verify(repository, times(1)).markPublished(eq(LongStream.rangeClosed(1, 50).boxed().toList()), any());
+        verify(repository).markFailed(eq(List.of()), any());
+    }
+
+    @Test
+    void unacknowledgedSendsAreRecordedAsFailures() {
+        AckingKafka kafka = new AckingKafka(Set.of("TX2"));
+        when(repository.claim(any(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyInt())).thenReturn(events(1, 3));
+        OutboxRelayService relay = relay(kafka);
+
+        relay.relayBatch("n-0", 50);
+
+        verify(repository).markPublished(eq(List.of(1L, 3L)), any());
+        verify(repository).markFailed(eq(List.of(new OutboxJdbcRepository.Failure(2L, "broker down"))), any());
+    }
+
+    @Test
+    void laterEventsOfAnAggregateWaitForTheEarlierOnesAck() {
+        AckingKafka kafka = new AckingKafka(Set.of("ACC-1"));
+        List<OutboxEvent> batch = events(1, 4);
+        batch.get(0).setAggregateId("ACC-1");
+        batch.get(1).setAggregateId("ACC-2");
+        batch.get(2).setAggregateId("ACC-1");
+        batch.get(3).setAggregateId("ACC-2");
+        when(repository.claim(any(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyInt())).thenReturn(batch);
+        OutboxRelayService relay = relay(kafka);
+
+        relay.relayBatch("n-0", 50);
+
+        // ACC-1's first event failed, so its second is never sent; ACC-2 goes out in order
+        assertEquals(List.of("ACC-1", "ACC-2", "ACC-2"), kafka.sentKeys);
+        verify(repository).markPublished(eq(List.of(2L, 4L)), any());
+        verify(repository).markFailed(eq(List.of(new OutboxJdbcRepository.Failure(1L, "broker down"))), any());
+        verify(repository).releaseRows(eq(List.of(3L)));
+        verify(repository).releaseLane(0, "n-0");
+    }
+
+    @Test
+    void nothingIsClaimedWithoutAFreeLane() {
+        OutboxRelayService relay = relay(new AckingKafka(Set.of()));
+        when(repository.claimLane(any(), any(), anyInt(), anyLong(), anyLong())).thenReturn(null);
+
+        assertEquals(0, relay.relayBatch("n-0", 50));
+
+        verify(repository, never()).claim(any(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyInt());
+        verify(repository, never()).releaseLane(anyInt(), any());
+    }
+
+    @Test
+    void eventsOnTheirLastAttemptAreMovedToDeadLetters() {
+        AckingKafka kafka = new AckingKafka(Set.of("TX1", "TX2"));
+        List<OutboxEvent> batch = events(1, 2);
+        batch.get(1).setRetryCount(4);
+        when(repository.claim(any(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyInt())).thenReturn(batch);
+        OutboxRelayService relay = relay(kafka);
+
+        relay.relayBatch("n-0", 50);
+
+        verify(repository).markFailed(eq(List.of(new OutboxJdbcRepository.Failure(1L, "broker down"))), any());
+        verify(repository).moveToDeadLetters(eq(List.of(new OutboxJdbcRepository.Failure(2L, "broker down"))), any());
+    }
+
+    @Test
+    void passthroughSendsTheStoredPayloadWithHeaders() {
+        AckingKafka kafka = new AckingKafka(Set.of());
+        RecordingBytesKafka bytesKafka = new RecordingBytesKafka();
+        List<OutboxEvent> batch = events(1, 2);
+        batch.get(0).setCorrelationId("corr-1");
+        when(repository.claim(any(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyInt())).thenReturn(batch);
+        OutboxRelayService relay = relay(kafka);
+        ReflectionTestUtils.setField(relay, "bytesKafkaTemplate", bytesKafka);
+
+        relay.relayBatch("n-0", 50);
+
+        assertTrue(kafka.sentKeys.isEmpty(), "nothing goes through JsonSerializer");
+        assertEquals(2, bytesKafka.records.size());
+        ProducerRecord<String, byte[]> first = bytesKafka.records.get(0);
+        assertEquals("TX1", first.key());
+        assertEquals("{\"transactionId\":1}", new String(first.value(), StandardCharsets.UTF_8));
+        assertEquals("TransactionCompleted", header(first, OutboxRelayService.EVENT_TYPE_HEADER));
+        assertEquals("corr-1", header(first, OutboxRelayService.CORRELATION_ID_HEADER));
+        assertNull(bytesKafka.records.get(1).headers().lastHeader(OutboxRelayService.CORRELATION_ID_HEADER));
+        verify(repository).markPublished(eq(List.of(1L, 2L)), any());
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void batchSizeFollowsTheBacklog() {
+        when(repository.claim(any(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyInt()))
+                .thenAnswer(call -> events(1, (int) call.getArgument(6)));
+        OutboxRelayService relay = relay(new AckingKafka(Set.of()));
+
+        while (relay.batchSize() < 1000) {
+            relay.relayBatch("n-0", relay.batchSize());
+        }
+        relay.relayBatch("n-0", relay.batchSize());
+        assertEquals(1000, relay.batchSize(), "capped at max-batch-size");
+
+        when(repository.claim(any(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+        for (int i = 0; i < 10; i++) {
+            relay.relayBatch("n-0", relay.batchSize());
+        }
+        assertEquals(50, relay.batchSize(), "back to min-batch-size when idle");
+    }
+
+    @Test
+    void activeWorkersFollowTheBacklog() {
+        OutboxRelayService relay = relay(new AckingKafka(Set.of()));
+        ReflectionTestUtils.setField(relay, "workers", new Thread[4]);
+        ReflectionTestUtils.setField(relay, "running", true);
+
+        when(repository.countBacklogByLane(anyInt(), anyInt())).thenReturn(lanes(2_500, 16));
+        relay.adjustWorkers();
+        assertEquals(3, relay.activeWorkers());
+
+        when(repository.countBacklogByLane(anyInt(), anyInt())).thenReturn(lanes(4_000, 16));
+        relay.adjustWorkers();
+        assertEquals(4, relay.activeWorkers());
+
+        when(repository.countBacklogByLane(anyInt(), anyInt())).thenReturn(lanes(4_000, 2));
+        relay.adjustWorkers();
+        assertEquals(2, relay.activeWorkers(), "no more workers than lanes with work");
+
+        when(repository.countBacklogByLane(anyInt(), anyInt())).thenReturn(lanes(0, 0));
+        relay.adjustWorkers();
+        assertEquals(1, relay.activeWorkers());
+    }
+
+    @Test
+    void backlogCheckWakesEveryActiveWorkerNotOnlyNewOnes() throws Exception {
+        OutboxRelayService relay = relay(new AckingKafka(Set.of()));
+        AtomicInteger[] wakeups = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+        Thread[] workers = new Thread[wakeups.length];
+        for (int i = 0; i < workers.length; i++) {
+            AtomicInteger count = wakeups[i];
+            workers[i] = Thread.ofPlatform().daemon().start(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    LockSupport.park();
+                    count.incrementAndGet();
+                }
+            });
+        }
+        ReflectionTestUtils.setField(relay, "workers", workers);
+        ReflectionTestUtils.setField(relay, "running", true);
+        when(repository.countBacklogByLane(anyInt(), anyInt())).thenReturn(lanes(2_000, 16));
+
+        try {
+            relay.adjustWorkers();
+            assertEquals(2, relay.activeWorkers());
+            awaitWakeups(wakeups[0], 1);
+            awaitWakeups(wakeups[1], 1);
+            int first = wakeups[0].get();
+            int second = wakeups[1].get();
+
+            // Same backlog, no new workers: the already active ones are still woken
+            relay.adjustWorkers();
+            awaitWakeups(wakeups[0], first + 1);
+            awaitWakeups(wakeups[1], second + 1);
+        } finally {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    private static void awaitWakeups(AtomicInteger count, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(count.get() >= expected, "worker was not woken");
+    }
+
+    // total rows spread evenly over the first `busy` lanes
+    private static long[] lanes(long total, int busy) {
+        long[] backlog = new long[OutboxEvent.PARTITIONS];
+        for (int lane = 0; lane < busy; lane++) {
+            backlog[lane] = total / busy;
+        }
+        return backlog;
+    }
+}
@@ -0,0 +1,101 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.titancorebanking.enums.UserTier;
+import com.titan.titancorebanking.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PinVerificationServiceTest {
+
+    private PasswordEncoder passwordEncoder;
+    private StringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private PinVerificationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        passwordEncoder = spy(new BCryptPasswordEncoder(4));
+        redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        meterRegistry = new SimpleMeterRegistry();
+        HashingService hashingService = new HashingService(passwordEncoder, meterRegistry);
+        hashingService.start();
+        service = new PinVerificationService(hashingService, redisTemplate, meterRegistry);
+        service.init();
+    }
+
+    private User user(String pin) {
+        return User.builder().username("alice").pin(passwordEncoder.encode(pin)).tier(UserTier.STANDARD).build();
+    }
+
+    @Test
+    void secondCheckWithSamePinSkipsBcrypt() {
+        User alice = user("1234");
+        clearInvocations(passwordEncoder);
+
+        assertTrue(service.matches(alice, "1234"));
+        assertTrue(service.matches(alice, "1234"));
+        assertTrue(service.matches(alice, "1234"));
+
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+        assertEquals(2.0, meterRegistry.get("titan.pin.bcrypt.avoided").functionCounter().count());
+        verify(redisTemplate.opsForValue()).set(eq("PIN:VERIFIED:alice"), anyString(), eq(Duration.ofSeconds(300)));
+    }
+
+    @Test
+    void wrongPinAlwaysGoesToBcrypt() {
+        User alice = user("1234");
+        assertTrue(service.matches(alice, "1234"));
+        clearInvocations(passwordEncoder);
+
+        assertFalse(service.matches(alice, "9999"));
+        assertFalse(service.matches(alice, "9999"));
+
+        verify(passwordEncoder, times(2)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void cachedProfileCarriesNoHashAndChecksAgainstTheRepositoryHash() {
+        User alice = user("1234");
+        User cached = CacheService.detach(alice);
+
+        assertNull(cached.getPin());
+        assertNull(cached.getPassword());
+        assertFalse(service.matches(cached, "1234"));
+        assertTrue(service.matches(cached, alice.getPin(), "1234"));
+        assertFalse(service.matches(cached, alice.getPin(), "9999"));
+    }
+
+    @Test
+    void pinChangeInvalidatesCachedProof() {
+        User alice = user("1234");
+        assertTrue(service.matches(alice, "1234"));
+
+        // New hash → old proof no longer matches, even without an explicit invalidate
+        alice.setPin(passwordEncoder.encode("5678"));
+        clearInvocations(passwordEncoder);
+
+        assertFalse(service.matches(alice, "1234"));
+        assertTrue(service.matches(alice, "5678"));
+        verify(passwordEncoder, times(2)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void higherTiersGetShorterWindows() {
+        assertTrue(service.ttlFor(UserTier.VIP).compareTo(service.ttlFor(UserTier.GOLD)) < 0);
+        assertTrue(service.ttlFor(UserTier.GOLD).compareTo(service.ttlFor(UserTier.STANDARD)) < 0);
+    }
+}
@@ -0,0 +1,127 @@
+package com.titan.titancorebanking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RecentIdempotencyKeysTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** A filter without Redis or a database, cold until a test marks it warm. */
+    public static RecentIdempotencyKeys filter(MeterRegistry meterRegistry) {
+        return filter(meterRegistry, null, 100_000, 0.01, 64);
+    }
+
+    static RecentIdempotencyKeys filter(MeterRegistry meterRegistry, JdbcTemplate jdbcTemplate,
+                                        long expectedKeys, double falsePositiveRate, long maxMemoryMb) {
+        RecentIdempotencyKeys filter = new RecentIdempotencyKeys(null, null, jdbcTemplate, meterRegistry);
+        ReflectionTestUtils.setField(filter, "expectedKeys", expectedKeys);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", falsePositiveRate);
+        ReflectionTestUtils.setField(filter, "maxMemoryMb", maxMemoryMb);
+        filter.init();
+        return filter;
+    }
+
+    private static RecentIdempotencyKeys warm(RecentIdempotencyKeys filter) {
+        ReflectionTestUtils.setField(filter, "warm", true);
+        return filter;
+    }
+
+    @Test
+    void coldFilterNeverClaimsAKeyIsNew() {
+        RecentIdempotencyKeys filter = filter(meterRegistry);
+        assertFalse(filter.isDefinitelyNew("k1"));
+        assertEquals(1.0, meterRegistry.get("titan.idempotency.filter.lookups").tag("result", "cold").counter().count());
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        int keys = 300_000;
+        RecentIdempotencyKeys filter = warm(filter(meterRegistry, null, keys, 0.01, 64));
+        for (int i = 0; i < keys / 3; i++) {
+            filter.add("seen-" + i);
+        }
+        for (int i = 0; i < keys / 3; i++) {
+            assertFalse(filter.isDefinitelyNew("seen-" + i), "no false negatives");
+        }
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (!filter.isDefinitelyNew("new-" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.01, "false-positive rate " + rate);
+        assertEquals(probes - falsePositives,
+                meterRegistry.get("titan.idempotency.filter.lookups").tag("result", "definitely_new").counter().count());
+    }
+
+    @Test
+    void memoryCapWins() {
+        RecentIdempotencyKeys filter = filter(meterRegistry, null, 100_000_000, 0.0001, 1);
+        assertTrue(meterRegistry.get("titan.idempotency.filter.bytes").gauge().value() <= 1024 * 1024);
+        filter.add("k1");
+        assertFalse(warm(filter).isDefinitelyNew("k1"));
+    }
+
+    @Test
+    void keysAgeOutAfterTheWindow() {
+        RecentIdempotencyKeys filter = warm(filter(meterRegistry));
+        filter.add("k1");
+        for (int i = 0; i < 3; i++) {
+            ReflectionTestUtils.setField(filter, "nextRotationMs", 0L);
+            filter.rotate();
+            assertFalse(filter.isDefinitelyNew("k1"), "still inside the window after " + (i + 1) + " rotations");
+        }
+        ReflectionTestUtils.setField(filter, "nextRotationMs", 0L);
+        filter.rotate();
+        assertTrue(filter.isDefinitelyNew("k1"));
+    }
+
+    @Test
+    void peerKeysArriveOverTheChannelAndOwnMessagesAreSkipped() {
+        RecentIdempotencyKeys filter = warm(filter(meterRegistry));
+        filter.onMessage(new DefaultMessage("idempotency:seen".getBytes(StandardCharsets.UTF_8),
+                "other-node\npeer-1\npeer-2".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertFalse(filter.isDefinitelyNew("peer-1"));
+        assertFalse(filter.isDefinitelyNew("peer-2"));
+        assertTrue(filter.isDefinitelyNew("peer-3"));
+        assertEquals(2.0, meterRegistry.get("titan.idempotency.filter.peer.keys").counter().count());
+
+        String self = (String) ReflectionTestUtils.getField(filter, "nodeId");
+        filter.onMessage(new DefaultMessage(new byte[0], (self + "\nmine").getBytes(StandardCharsets.UTF_8)), null);
+        assertEquals(2.0, meterRegistry.get("titan.idempotency.filter.peer.keys").counter().count());
+    }
+
+    @Test
+    void startupSeedWarmsTheFilter() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString(1)).thenReturn("from-db");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        RecentIdempotencyKeys filter = filter(meterRegistry, jdbcTemplate, 100_000, 0.01, 64);
+
+        filter.seed();
+
+        assertFalse(filter.isDefinitelyNew("from-db"));
+        assertTrue(filter.isDefinitelyNew("brand-new"));
+    }
+}
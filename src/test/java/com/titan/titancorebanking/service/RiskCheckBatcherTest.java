@@ -0,0 +1,104 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.riskengine.RiskCheckRequest;
+import com.titan.riskengine.RiskCheckResponse;
+import com.titan.riskengine.RiskEngineServiceGrpc;
+import com.titan.titancorebanking.enums.RiskCallTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskCheckBatcherTest {
+
+    private StandInRiskEngine engine;
+    private RiskCheckBatcher batcher;
+    private SimpleMeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (batcher != null) {
+            batcher.stop();
+        }
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    private RiskCheckBatcher batcher(RiskCallTransport transport, long deadlineMs) {
+        meterRegistry = new SimpleMeterRegistry();
+        RiskCheckBatcher b = new RiskCheckBatcher(RiskEngineServiceGrpc.newStub(engine.channel()),
+                RiskEngineServiceGrpc.newFutureStub(engine.channel()), meterRegistry);
+        ReflectionTestUtils.setField(b, "transport", transport);
+        ReflectionTestUtils.setField(b, "deadlineMs", deadlineMs);
+        b.start();
+        return b;
+    }
+
+    private static RiskCheckRequest request(double amount) {
+        return RiskCheckRequest.newBuilder().setUserId("42").setAmount(amount).build();
+    }
+
+    @Test
+    void concurrentChecksShareStreamBatchesAndKeepTheirOwnAnswers() throws Exception {
+        engine = StandInRiskEngine.start(2, 500, 5, true);
+        batcher = batcher(RiskCallTransport.STREAM, 2000);
+
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<CompletableFuture<RiskCheckResponse>> results = new ArrayList<>();
+        List<CompletableFuture<CompletableFuture<RiskCheckResponse>>> submitted = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            double amount = (i % 100) * 1000;
+            submitted.add(CompletableFuture.supplyAsync(() -> batcher.check(request(amount)), callers));
+        }
+        for (var s : submitted) {
+            results.add(s.get());
+        }
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i % 100, results.get(i).get(5, TimeUnit.SECONDS).getRiskScore());
+        }
+        callers.shutdown();
+
+        assertEquals(RiskCallTransport.STREAM, batcher.activeTransport());
+        assertEquals(0, engine.unaryCalls.get());
+        assertTrue(engine.streamMessages.get() < 400 / 4, "batched into " + engine.streamMessages.get() + " messages");
+        assertEquals(400.0, meterRegistry.get("titan.risk.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void serverWithoutBatchRpcsFallsBackToUnaryCalls() throws Exception {
+        engine = StandInRiskEngine.start(2, 0, 0, false);
+        // The first check walks STREAM → BATCH → UNARY on a cold JVM: generous deadline
+        batcher = batcher(RiskCallTransport.STREAM, 5000);
+
+        assertEquals("BLOCK", batcher.check(request(60_000)).get(10, TimeUnit.SECONDS).getAction());
+        assertEquals("ALLOW", batcher.check(request(10)).get(5, TimeUnit.SECONDS).getAction());
+
+        assertEquals(RiskCallTransport.UNARY, batcher.activeTransport());
+        assertEquals(2, engine.unaryCalls.get());
+    }
+
+    @Test
+    void checkFailsAtItsDeadlineWhenTheModelIsSlow() throws Exception {
+        engine = StandInRiskEngine.start(1, 1_000_000, 0, true);
+        batcher = batcher(RiskCallTransport.BATCH, 50);
+
+        CompletableFuture<RiskCheckResponse> result = batcher.check(request(100));
+        // The model answers after a second, inside the wait: only the deadline can make this fail
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+
+        assertTrue(e.getCause() instanceof TimeoutException
+                || io.grpc.Status.fromThrowable(e.getCause()).getCode() == io.grpc.Status.Code.DEADLINE_EXCEEDED);
+    }
+}
@@ -0,0 +1,151 @@
+package com.titan.titancorebanking.service;
+
+import com.titan.riskengine.RiskCheckBatchRequest;
+import com.titan.riskengine.RiskCheckBatchResponse;
+import com.titan.riskengine.RiskCheckRequest;
+import com.titan.riskengine.RiskCheckResponse;
+import com.titan.riskengine.RiskEngineServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for the Python Risk Engine, for tests and throughput benchmarks.
+ *
+ * The "model" runs on a fixed pool of workers; every call occupies one worker for
+ * callOverheadMicros + checks * perCheckMicros, which is what batching amortizes.
+ * Score = amount / 1000 (capped at 99): ALLOW below 10k, MANUAL_REVIEW below 50k, BLOCK above.
+ */
+public class StandInRiskEngine extends RiskEngineServiceGrpc.RiskEngineServiceImplBase implements AutoCloseable {
+
+    final AtomicInteger unaryCalls = new AtomicInteger();
+    final AtomicInteger batchCalls = new AtomicInteger();
+    final AtomicInteger streamMessages = new AtomicInteger();
+
+    private final ExecutorService workers;
+    private final long callOverheadMicros;
+    private final long perCheckMicros;
+    private final boolean batchRpcs;
+    private Server server;
+    private ManagedChannel channel;
+
+    private StandInRiskEngine(int workerThreads, long callOverheadMicros, long perCheckMicros, boolean batchRpcs) {
+        this.workers = Executors.newFixedThreadPool(workerThreads);
+        this.callOverheadMicros = callOverheadMicros;
+        this.perCheckMicros = perCheckMicros;
+        this.batchRpcs = batchRpcs;
+    }
+
+    /** Binds the service once the instance is fully built, so the constructor never hands out {@code this}. */
+    public static StandInRiskEngine start(int workerThreads, long callOverheadMicros, long perCheckMicros,
+                                          boolean batchRpcs) throws IOException {
+        StandInRiskEngine engine = new StandInRiskEngine(workerThreads, callOverheadMicros, perCheckMicros, batchRpcs);
+        String name = InProcessServerBuilder.generateName();
+        engine.server = InProcessServerBuilder.forName(name).addService(engine).build().start();
+        engine.channel = InProcessChannelBuilder.forName(name).build();
+        return engine;
+    }
+
+    public ManagedChannel channel() {
+        return channel;
+    }
+
+    static RiskCheckResponse score(RiskCheckRequest request) {
+        int score = (int) Math.min(99, request.getAmount() / 1000);
+        String action = request.getAmount() >= 50_000 ? "BLOCK" : request.getAmount() >= 10_000 ? "MANUAL_REVIEW" : "ALLOW";
+        String level = "BLOCK".equals(action) ? "HIGH" : "ALLOW".equals(action) ? "LOW" : "MEDIUM";
+        return RiskCheckResponse.newBuilder().setRiskScore(score).setRiskLevel(level).setAction(action).build();
+    }
+
+    @Override
+    public void checkRisk(RiskCheckRequest request, StreamObserver<RiskCheckResponse> responseObserver) {
+        unaryCalls.incrementAndGet();
+        workers.execute(() -> {
+            model(1);
+            responseObserver.onNext(score(request));
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public void checkRiskBatch(RiskCheckBatchRequest request, StreamObserver<RiskCheckBatchResponse> responseObserver) {
+        if (!batchRpcs) {
+            responseObserver.onError(Status.UNIMPLEMENTED.asRuntimeException());
+            return;
+        }
+        batchCalls.incrementAndGet();
+        workers.execute(() -> {
+            model(request.getRequestsCount());
+            responseObserver.onNext(answer(request));
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public StreamObserver<RiskCheckBatchRequest> checkRiskStream(StreamObserver<RiskCheckBatchResponse> responseObserver) {
+        if (!batchRpcs) {
+            responseObserver.onError(Status.UNIMPLEMENTED.asRuntimeException());
+            return new StreamObserver<>() {
+                @Override public void onNext(RiskCheckBatchRequest value) { }
+                @Override public void onError(Throwable t) { }
+                @Override public void onCompleted() { }
+            };
+        }
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(RiskCheckBatchRequest request) {
+                streamMessages.incrementAndGet();
+                workers.execute(() -> {
+                    model(request.getRequestsCount());
+                    synchronized (responseObserver) {
+                        responseObserver.onNext(answer(request));
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+                synchronized (responseObserver) {
+                    responseObserver.onCompleted();
+                }
+            }
+        };
+    }
+
+    private static RiskCheckBatchResponse answer(RiskCheckBatchRequest request) {
+        List<RiskCheckResponse> responses = request.getRequestsList().stream().map(StandInRiskEngine::score).toList();
+        return RiskCheckBatchResponse.newBuilder().setBatchId(request.getBatchId()).addAllResponses(responses).build();
+    }
+
+    private void model(int checks) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(callOverheadMicros + checks * perCheckMicros));
+    }
+
+    @Override
+    public void close() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        workers.shutdownNow();
+        try {
+            server.awaitTermination(5, TimeUnit.SECONDS);
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
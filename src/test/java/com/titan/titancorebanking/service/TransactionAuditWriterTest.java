@@ -0,0 +1,148 @@
+package com.titan.titancorebanking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titan.titancorebanking.enums.TransactionStatus;
+import com.titan.titancorebanking.enums.TransactionType;
+import com.titan.titancorebanking.model.Account;
+import com.titan.titancorebanking.model.Transaction;
+import com.titan.titancorebanking.repository.BulkTransferJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TransactionAuditWriterTest {
+
+    @TempDir
+    Path journalDir;
+
+    private BulkTransferJdbcRepository jdbcRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<String> inserted = new CopyOnWriteArrayList<>();
+    private TransactionAuditWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcRepository = mock(BulkTransferJdbcRepository.class);
+        doAnswer(inv -> {
+            List<Transaction> rows = inv.getArgument(0);
+            rows.forEach(tx -> inserted.add(tx.getTransactionReference()));
+            return rows.size();
+        }).when(jdbcRepository).insertTransactionsIfAbsent(anyList());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    private TransactionAuditWriter newWriter(long flushIntervalMs) throws Exception {
+        TransactionAuditWriter w = new TransactionAuditWriter(jdbcRepository, mock(PlatformTransactionManager.class),
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        ReflectionTestUtils.setField(w, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(w, "flushIntervalMs", flushIntervalMs);
+        w.start();
+        return w;
+    }
+
+    private Transaction failed() {
+        return Transaction.builder()
+                .transactionType(TransactionType.TRANSFER)
+                .fromAccount(Account.builder().id(1L).build())
+                .toAccount(Account.builder().id(2L).build())
+                .amount(new BigDecimal("10.00"))
+                .status(TransactionStatus.FAILED)
+                .note("Failed: ❌ Insufficient Funds")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void recordIsJournaledBeforeReturnAndInsertedInOneBatch() throws Exception {
+        writer = newWriter(200);
+
+        Transaction a = writer.record(failed());
+        Transaction b = writer.record(failed());
+
+        // Acknowledged = on disk, not yet in the database
+        String journal = Files.readString(journalDir.resolve("transaction-audit.log"));
+        assertTrue(journal.contains(a.getTransactionReference()));
+        assertTrue(journal.contains(b.getTransactionReference()));
+        assertTrue(a.getTransactionReference().length() <= 50);
+
+        writer.stop();
+        writer = null;
+
+        assertEquals(List.of(a.getTransactionReference(), b.getTransactionReference()), inserted);
+        verify(jdbcRepository, times(1)).insertTransactionsIfAbsent(anyList());
+        assertEquals(0, Files.size(journalDir.resolve("transaction-audit.log")));
+        assertEquals(2.0, meterRegistry.get("titan.audit.rows.written").counter().count());
+    }
+
+    @Test
+    void fullJournalPushesCallersOntoTheSynchronousInsert() throws Exception {
+        doThrow(new DataAccessResourceFailureException("db down"))
+                .when(jdbcRepository).insertTransactionsIfAbsent(anyList());
+        writer = new TransactionAuditWriter(jdbcRepository, mock(PlatformTransactionManager.class),
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        ReflectionTestUtils.setField(writer, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(writer, "maxUnflushed", 2);
+        ReflectionTestUtils.setField(writer, "appendTimeoutMs", 100L);
+        writer.start();
+
+        writer.record(failed());
+        writer.record(failed());
+
+        // Not journaled while the database is down: the caller sees the synchronous insert fail
+        assertThrows(DataAccessResourceFailureException.class, () -> writer.record(failed()));
+        assertEquals(1.0, meterRegistry.get("titan.audit.fallback.sync").counter().count());
+        assertEquals(2, Files.readAllLines(journalDir.resolve("transaction-audit.log")).size());
+    }
+
+    @Test
+    void journalSurvivesDatabaseOutageAndIsReplayedOnStartup() throws Exception {
+        doThrow(new DataAccessResourceFailureException("db down"))
+                .when(jdbcRepository).insertTransactionsIfAbsent(anyList());
+        writer = newWriter(10);
+        Transaction a = writer.record(failed());
+        writer.stop();
+        writer = null;
+        assertTrue(meterRegistry.get("titan.audit.flush.failures").counter().count() >= 1);
+
+        // Restart with the database back
+        reset(jdbcRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = newWriter(10);
+        writer.stop();
+        writer = null;
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).insertTransactionsIfAbsent(rows.capture());
+        Transaction replayed = rows.getValue().get(0);
+        assertEquals(a.getTransactionReference(), replayed.getTransactionReference());
+        assertEquals(TransactionStatus.FAILED, replayed.getStatus());
+        assertEquals(1L, replayed.getFromAccount().getId());
+        assertEquals(0, Files.size(journalDir.resolve("transaction-audit.log")));
+    }
+}